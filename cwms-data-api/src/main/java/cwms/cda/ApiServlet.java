@@ -28,6 +28,7 @@ import static cwms.cda.api.Controllers.NAME;
 import cwms.cda.api.LookupTypeController;
 import static io.javalin.apibuilder.ApiBuilder.crud;
 import static io.javalin.apibuilder.ApiBuilder.get;
+import static io.javalin.apibuilder.ApiBuilder.post;
 import static io.javalin.apibuilder.ApiBuilder.prefixPath;
 import static io.javalin.apibuilder.ApiBuilder.staticInstance;
 import static java.lang.String.format;
@@ -63,6 +64,8 @@ import cwms.cda.api.ProjectController;
 import cwms.cda.api.PropertyController;
 import cwms.cda.api.RatingController;
 import cwms.cda.api.RatingMetadataController;
+import cwms.cda.api.RatingRateController;
+import cwms.cda.api.RatingReverseRateController;
 import cwms.cda.api.RatingSpecController;
 import cwms.cda.api.RatingTemplateController;
 import cwms.cda.api.SpecifiedLevelController;
@@ -70,6 +73,8 @@ import cwms.cda.api.StandardTextController;
 import cwms.cda.api.StateController;
 import cwms.cda.api.TextTimeSeriesController;
 import cwms.cda.api.TextTimeSeriesValueController;
+import cwms.cda.api.TimeSeriesBatchRetrieveController;
+import cwms.cda.api.TimeSeriesBatchStoreController;
 import cwms.cda.api.TimeSeriesCategoryController;
 import cwms.cda.api.TimeSeriesController;
 import cwms.cda.api.TimeSeriesGroupController;
@@ -79,6 +84,10 @@ import cwms.cda.api.TimeZoneController;
 import cwms.cda.api.TurbineController;
 import cwms.cda.api.UnitsController;
 import cwms.cda.api.auth.ApiKeyController;
+import cwms.cda.api.caching.CachedGetHandler;
+import cwms.cda.api.caching.InMemoryResponseCache;
+import cwms.cda.api.caching.InvalidatingHandler;
+import cwms.cda.api.caching.ResponseCache;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.errors.AlreadyExists;
 import cwms.cda.api.errors.CdaError;
@@ -88,7 +97,11 @@ import cwms.cda.api.errors.InvalidItemException;
 import cwms.cda.api.errors.JsonFieldsException;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.api.errors.RequiredQueryParameterException;
+import cwms.cda.api.lanes.Lane;
+import cwms.cda.api.lanes.RequestLanes;
+import cwms.cda.data.dao.AuthDao;
 import cwms.cda.data.dao.JooqDao;
+import cwms.cda.datasource.SessionState;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
 import cwms.cda.formatters.UnsupportedFormatException;
@@ -127,10 +140,15 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.jar.Manifest;
 import javax.annotation.Resource;
 import javax.management.ServiceNotFoundException;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -175,7 +193,7 @@ import org.owasp.html.PolicyFactory;
         "/lookup-types/*",
         "/embankments/*",
         "/turbines/*"
-})
+}, asyncSupported = true)
 public class ApiServlet extends HttpServlet {
 
     public static final FluentLogger logger = FluentLogger.forEnclosingClass();
@@ -196,9 +214,15 @@ public class ApiServlet extends HttpServlet {
     public static final String PROVIDER_KEY = "cwms.dataapi.access.provider";
     public static final String DEFAULT_OFFICE_KEY = "cwms.dataapi.default.office";
     public static final String DEFAULT_PROVIDER = "MultipleAccessManager";
+    /** Bound on the total size of the server side response cache, 0 turns it off. */
+    public static final String RESPONSE_CACHE_MAX_BYTES_KEY = "cwms.dataapi.response.cache.maxBytes";
 
     private MetricRegistry metrics;
-    private Meter totalRequests;
+    Meter totalRequests;
+    // Static like the route helpers that use it; set before the routes are configured.
+    private static ResponseCache responseCache = ResponseCache.NONE;
+    // null unless cwms.dataapi.lanes.enabled=true, then requests run on the workers of their lane.
+    RequestLanes lanes;
 
     private static final long serialVersionUID = 1L;
 
@@ -211,6 +235,9 @@ public class ApiServlet extends HttpServlet {
 
     @Override
     public void destroy() {
+        if (lanes != null) {
+            lanes.shutdown();
+        }
         javalin.destroy();
     }
 
@@ -233,6 +260,13 @@ public class ApiServlet extends HttpServlet {
         om.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
         om.registerModule(new JavaTimeModule());
 
+        responseCache = buildResponseCache(metrics);
+        AuthDao.registerMetrics(metrics);
+        SessionState.registerMetrics(metrics);
+        lanes = RequestLanes.fromSystemProperties(metrics);
+        int formattable = Formats.preload();
+        logger.atInfo().log("Loaded the formatters of %d data types.", formattable);
+
         PolicyFactory sanitizer = new HtmlPolicyBuilder().disallowElements("<script>").toFactory();
         String context = this.getServletContext().getContextPath();
         javalin = Javalin.createStandalone(config -> {
@@ -378,6 +412,14 @@ public class ApiServlet extends HttpServlet {
         }
     }
 
+    private static ResponseCache buildResponseCache(MetricRegistry metrics) {
+        long maxBytes = Long.getLong(RESPONSE_CACHE_MAX_BYTES_KEY, 64L * 1024 * 1024);
+        if (maxBytes <= 0) {
+            return ResponseCache.NONE;
+        }
+        return new InMemoryResponseCache(maxBytes, metrics);
+    }
+
     private CdaAccessManager buildAccessManager(String provider) {
         try {
             AccessManagers ams = new AccessManagers();
@@ -402,18 +444,18 @@ public class ApiServlet extends HttpServlet {
                 new LocationGroupController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
         cdaCrudCache("/locations/{location-id}",
                 new LocationController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
-        cdaCrudCache("/states/{state}",
+        cdaCrudReferenceCache("/states/{state}",
                 new StateController(metrics), requiredRoles, 60, TimeUnit.MINUTES);
-        cdaCrudCache("/counties/{county}",
+        cdaCrudReferenceCache("/counties/{county}",
                 new CountyController(metrics), requiredRoles, 60, TimeUnit.MINUTES);
-        cdaCrudCache("/offices/{office}",
+        cdaCrudReferenceCache("/offices/{office}",
                 new OfficeController(metrics), requiredRoles, 60, TimeUnit.MINUTES);
-        cdaCrudCache("/units/{unit-id}",
+        cdaCrudReferenceCache("/units/{unit-id}",
                 new UnitsController(metrics), requiredRoles, 60, TimeUnit.MINUTES);
-        cdaCrudCache("/parameters/{param-id}",
+        cdaCrudReferenceCache("/parameters/{param-id}",
                 new ParametersController(metrics), requiredRoles, 60, TimeUnit.MINUTES);
-        cdaCrudCache("/timezones/{zone}",
-                new TimeZoneController(metrics), requiredRoles,60, TimeUnit.MINUTES);
+        cdaCrudReferenceCache("/timezones/{zone}",
+                new TimeZoneController(metrics), requiredRoles, 60, TimeUnit.MINUTES);
         cdaCrudCache(format("/levels/{%s}", Controllers.LEVEL_ID),
                 new LevelsController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         String levelTsPath = format("/levels/{%s}/timeseries", Controllers.LEVEL_ID);
@@ -423,6 +465,9 @@ public class ApiServlet extends HttpServlet {
         String recentPath = "/timeseries/recent/";
         get(recentPath, new TimeSeriesRecentController(metrics));
         addCacheControl(recentPath, 5, TimeUnit.MINUTES);
+        // A read, so no roles are required even though it is a POST
+        post("/timeseries/batch-retrieve", new TimeSeriesBatchRetrieveController(metrics));
+        post("/timeseries/batch", new TimeSeriesBatchStoreController(metrics), requiredRoles);
 
         cdaCrudCache(format("/standard-text-id/{%s}", Controllers.STANDARD_TEXT_ID),
                 new StandardTextController(metrics), requiredRoles,1, TimeUnit.DAYS);
@@ -454,6 +499,9 @@ public class ApiServlet extends HttpServlet {
                 new RatingMetadataController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/ratings/{rating-id}",
                 new RatingController(metrics), requiredRoles,5, TimeUnit.MINUTES);
+        // Reads, so no roles are required even though they are POSTs
+        post("/ratings/{rating-id}/rate", new RatingRateController(metrics));
+        post("/ratings/{rating-id}/reverse-rate", new RatingReverseRateController(metrics));
         cdaCrudCache("/catalog/{dataset}",
                 new CatalogController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/basins/{basin-id}",
@@ -504,7 +552,30 @@ public class ApiServlet extends HttpServlet {
     public static void cdaCrudCache(@NotNull String path, @NotNull CrudHandler crudHandler,
                                     @NotNull RouteRole[] roles, long duration, TimeUnit timeUnit) {
         cdaCrud(path, crudHandler, roles);
+        addCacheControls(path, duration, timeUnit);
+    }
 
+    /**
+     * Like cdaCrudCache, and the GET responses are also kept in the server side response cache
+     * for the same duration, until a create, update or delete on the resource clears them.
+     * Only for reference data that every caller sees the same, e.g. units or offices; see
+     * {@link CachedGetHandler} for the requests that are never cached.
+     * @param path where to register the routes.
+     * @param crudHandler the handler requests should be forwarded to.
+     * @param roles the required these roles are present to access post, patch
+     * @param duration the number of TimeUnit to cache GET responses.
+     * @param timeUnit the TimeUnit to use for duration.
+     */
+    public static void cdaCrudReferenceCache(@NotNull String path,
+                                             @NotNull CrudHandler crudHandler,
+                                             @NotNull RouteRole[] roles, long duration,
+                                             TimeUnit timeUnit) {
+        cdaCrud(path, crudHandler, responseCache, duration, timeUnit, roles);
+        addCacheControls(path, duration, timeUnit);
+    }
+
+    private static void addCacheControls(@NotNull String path, long duration,
+                                         TimeUnit timeUnit) {
         // path like /offices/{office} will match /offices/SWT getOne style url
         addCacheControl(path, duration, timeUnit);
 
@@ -538,25 +609,43 @@ public class ApiServlet extends HttpServlet {
      */
     public static void cdaCrud(@NotNull String path, @NotNull CrudHandler crudHandler,
                                  @NotNull RouteRole... roles) {
+        cdaCrud(path, crudHandler, ResponseCache.NONE, 0, null, roles);
+    }
+
+    private static void cdaCrud(@NotNull String path, @NotNull CrudHandler crudHandler,
+                                ResponseCache cache, long cacheDuration, TimeUnit cacheUnit,
+                                @NotNull RouteRole... roles) {
         String fullPath = prefixPath(path);
         String resourceId = getResourceId(fullPath);
 
         //noinspection KotlinInternalInJava
         Map<CrudFunction, Handler> crudFunctions =
                 CrudHandlerKt.getCrudFunctions(crudHandler, resourceId);
+        Handler getOne = crudFunctions.get(CrudFunction.GET_ONE);
+        Handler getAll = crudFunctions.get(CrudFunction.GET_ALL);
+        Handler create = crudFunctions.get(CrudFunction.CREATE);
+        Handler update = crudFunctions.get(CrudFunction.UPDATE);
+        Handler delete = crudFunctions.get(CrudFunction.DELETE);
+        String pathWithoutResource = fullPath.replace(resourceId, "");
+        if (cache != ResponseCache.NONE && cacheUnit != null && cacheDuration > 0) {
+            getOne = new CachedGetHandler(cache, getOne, cacheDuration, cacheUnit);
+            getAll = new CachedGetHandler(cache, getAll, cacheDuration, cacheUnit);
+            // Any change clears the cached responses of the resource, since a change to one
+            // item can change the list.
+            create = new InvalidatingHandler(cache, pathWithoutResource, create);
+            update = new InvalidatingHandler(cache, pathWithoutResource, update);
+            delete = new InvalidatingHandler(cache, pathWithoutResource, delete);
+        }
 
         Javalin instance = staticInstance();
         // getOne and getAll are assumed not to need authorization
-        instance.get(fullPath, crudFunctions.get(CrudFunction.GET_ONE));
-        String pathWithoutResource = fullPath.replace(resourceId, "");
-        instance.get(pathWithoutResource,
-                crudFunctions.get(CrudFunction.GET_ALL));
+        instance.get(fullPath, getOne);
+        instance.get(pathWithoutResource, getAll);
 
         // create, update and delete need authorization.
-        instance.post(pathWithoutResource,
-                crudFunctions.get(CrudFunction.CREATE), roles);
-        instance.patch(fullPath, crudFunctions.get(CrudFunction.UPDATE), roles);
-        instance.delete(fullPath, crudFunctions.get(CrudFunction.DELETE), roles);
+        instance.post(pathWithoutResource, create, roles);
+        instance.patch(fullPath, update, roles);
+        instance.delete(fullPath, delete, roles);
     }
 
     /**
@@ -675,6 +764,83 @@ public class ApiServlet extends HttpServlet {
     protected void service(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
         totalRequests.mark();
+        if (lanes == null) {
+            serve(req, resp);
+            return;
+        }
+        Lane lane = Lane.of(req.getMethod(),
+                req.getRequestURI().substring(req.getContextPath().length()));
+        AsyncContext async = req.startAsync();
+        // the worker decides when the request is done, the container should not time it out.
+        async.setTimeout(0);
+        Runnable complete = completeOnce(async);
+        try {
+            lanes.execute(lane, () -> {
+                try {
+                    serve(req, resp);
+                } catch (IOException ex) {
+                    logger.atWarning().withCause(ex).log("Unable to respond to %s",
+                            req.getRequestURI());
+                } finally {
+                    complete.run();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            CdaError re = new CdaError("Too many requests of this kind are waiting, "
+                    + "try again later.");
+            logger.atWarning().log("%s lane is full, rejected %s", lane, req.getRequestURI());
+            resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            resp.setHeader("Retry-After", String.valueOf(lanes.getRetryAfterSeconds()));
+            resp.setContentType(ContentType.APPLICATION_JSON.toString());
+            try (PrintWriter out = resp.getWriter()) {
+                ObjectMapper om = new ObjectMapper();
+                out.println(om.writeValueAsString(re));
+            } finally {
+                complete.run();
+            }
+        }
+    }
+
+    /**
+     * Completes async once, unless something else (Javalin answering with a future, the
+     * container after an error) already has.  A second complete() throws
+     * IllegalStateException.
+     */
+    private static Runnable completeOnce(AsyncContext async) {
+        AtomicBoolean completed = new AtomicBoolean();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                completed.set(true);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                // no timeout is set
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                // the container completes the request after onError
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // nothing to do
+            }
+        });
+        return () -> {
+            if (completed.compareAndSet(false, true)) {
+                try {
+                    async.complete();
+                } catch (IllegalStateException ex) {
+                    logger.atFine().withCause(ex).log("Request was already complete.");
+                }
+            }
+        };
+    }
+
+    void serve(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
             String office = officeFromContext(req.getContextPath());
             req.setAttribute(OFFICE_ID, office);
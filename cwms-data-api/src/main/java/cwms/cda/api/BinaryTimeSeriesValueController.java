@@ -38,7 +38,6 @@ import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 import org.jooq.DSLContext;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.InputStream;
 import java.util.logging.Logger;
 
 import static com.codahale.metrics.MetricRegistry.name;
@@ -98,10 +97,7 @@ public class BinaryTimeSeriesValueController implements Handler {
                     ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError("Unable to find "
                             + "blob based on given parameters"));
                 } else {
-                    long size = blob.length();
-                    requestResultSize.update(size);
-                    InputStream is = blob.getBinaryStream();
-                    ctx.seekableStream(is, mediaType, size);
+                    requestResultSize.update(LobWriter.write(ctx, blob, mediaType));
                 }
             });
         }
@@ -27,7 +27,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -150,10 +149,7 @@ public class BlobController implements CrudHandler {
                     ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError("Unable to find "
                             + "blob based on given parameters"));
                 } else {
-                    long size = blob.length();
-                    requestResultSize.update(size);
-                    InputStream is = blob.getBinaryStream();
-                    ctx.seekableStream(is, mediaType, size);
+                    requestResultSize.update(LobWriter.write(ctx, blob, mediaType));
                 }
             };
             if (office.isPresent()) {
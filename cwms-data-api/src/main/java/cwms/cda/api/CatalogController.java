@@ -38,8 +38,11 @@ import cwms.cda.data.dao.TimeSeriesDao;
 import cwms.cda.data.dao.TimeSeriesDaoImpl;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.catalog.CatalogEntry;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.NdJsonWriter;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.http.Context;
 import io.javalin.http.HttpCode;
@@ -47,11 +50,14 @@ import io.javalin.plugin.openapi.annotations.OpenApi;
 import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
@@ -178,7 +184,8 @@ public class CatalogController implements CrudHandler {
                 description = "A list of elements the data set you've selected.",
                 content = {
                     @OpenApiContent(from = Catalog.class, type = Formats.JSONV2),
-                    @OpenApiContent(from = Catalog.class, type = Formats.XML)
+                    @OpenApiContent(from = Catalog.class, type = Formats.XML),
+                    @OpenApiContent(from = CatalogEntry.class, type = Formats.NDJSON)
                 })
         },
         tags = {TAG}
@@ -233,6 +240,8 @@ public class CatalogController implements CrudHandler {
 
             String acceptHeader = ctx.header(ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(acceptHeader, null);
+            boolean export = new ContentType(Formats.NDJSON).equals(contentType);
+            long start = System.nanoTime();
             Catalog cat = null;
             if (TIMESERIES.equalsIgnoreCase(valDataSet)) {
                 TimeSeriesDao tsDao = new TimeSeriesDaoImpl(dsl, metrics);
@@ -256,6 +265,11 @@ public class CatalogController implements CrudHandler {
                         .withLocationType(locationType)
                         .build();
 
+                if (export) {
+                    exportCatalog(ctx, valDataSet, start,
+                            writer -> tsDao.streamTimeSeriesCatalog(parameters, writer));
+                    return;
+                }
                 cat = tsDao.getTimeSeriesCatalog(cursor, pageSize, parameters);
 
             } else if (LOCATIONS.equalsIgnoreCase(valDataSet)) {
@@ -275,9 +289,19 @@ public class CatalogController implements CrudHandler {
                         .build();
 
                 LocationsDao dao = new LocationsDaoImpl(dsl);
+                if (export) {
+                    exportCatalog(ctx, valDataSet, start,
+                            writer -> dao.streamLocationCatalog(parameters, writer));
+                    return;
+                }
                 cat = dao.getLocationCatalog(cursor, pageSize, parameters);
             }
             if (cat != null) {
+                int pageNumber = cursor.isEmpty() ? 1
+                        : new Catalog.CatalogPage(cursor).getPageNumber();
+                metrics.timer(name(CatalogController.class.getName(), GET_ONE,
+                                valDataSet.toLowerCase(), "page", pageBucket(pageNumber)))
+                        .update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                 String data = Formats.format(contentType, cat);
                 ctx.result(data).contentType(contentType.toString());
                 requestResultSize.update(data.length());
@@ -291,6 +315,49 @@ public class CatalogController implements CrudHandler {
         }
     }
 
+    /**
+     * Writes every entry of the catalog, ignoring the page and page size, as one line of
+     * {@value Formats#NDJSON} each.  Entries go out as the dao reads them.
+     */
+    private void exportCatalog(Context ctx, String dataSet, long start,
+                               Consumer<NdJsonWriter<CatalogEntry>> export) {
+        ctx.status(HttpCode.OK);
+        ctx.contentType(Formats.NDJSON);
+        long count;
+        try (NdJsonWriter<CatalogEntry> writer = new NdJsonWriter<>(ctx.res.getOutputStream())) {
+            export.accept(writer);
+            count = writer.getCount();
+        } catch (IOException e) {
+            throw new FormattingException("Unable to write catalog export", e);
+        }
+        metrics.timer(name(CatalogController.class.getName(), GET_ONE,
+                        dataSet.toLowerCase(), "export"))
+                .update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        metrics.histogram(name(CatalogController.class.getName(), GET_ONE,
+                        dataSet.toLowerCase(), "export", "entries"))
+                .update(count);
+    }
+
+    /**
+     * Groups page numbers for the catalog latency metrics so later pages, which should cost
+     * no more than the first, can be compared without a timer per page.
+     *
+     * @param pageNumber counting from 1, or 0 for cursors that don't carry it
+     */
+    static String pageBucket(int pageNumber) {
+        if (pageNumber <= 0) {
+            return "unknown";
+        } else if (pageNumber <= 5) {
+            return String.valueOf(pageNumber);
+        } else if (pageNumber <= 10) {
+            return "6-10";
+        } else if (pageNumber <= 100) {
+            return "11-100";
+        } else {
+            return "101+";
+        }
+    }
+
     private static void warnAboutNotSupported(@NotNull Context ctx, String[] warnAbout) {
         Set<String> notSupported = new LinkedHashSet<>();
         Collections.addAll(notSupported, warnAbout);
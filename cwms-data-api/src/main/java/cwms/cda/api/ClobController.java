@@ -178,7 +178,7 @@ public class ClobController implements CrudHandler {
                         ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError("Unable to find "
                                 + "clob based on given parameters"));
                     } else {
-                        ctx.seekableStream(c.getAsciiStream(), TEXT_PLAIN, c.length());
+                        requestResultSize.update(LobWriter.write(ctx, c, TEXT_PLAIN));
                     }
                 });
             } else {
@@ -157,6 +157,7 @@ public final class Controllers {
     public static final String STATUS_200 = "200";
     public static final String STATUS_201 = "201";
     public static final String STATUS_204 = "204";
+    public static final String STATUS_304 = "304";
     public static final String STATUS_404 = "404";
     public static final String STATUS_501 = "501";
     public static final String STATUS_400 = "400";
@@ -167,6 +168,8 @@ public final class Controllers {
     public static final String STANDARD_TEXT_ID_MASK = "standard-text-id-mask";
     public static final String STANDARD_TEXT_ID = "standard-text-id";
     public static final String TRIM = "trim";
+    public static final String STREAM = "stream";
+    public static final String TOTAL = "total";
     public static final String DESIGNATOR = "designator";
     public static final String DESIGNATOR_MASK = "designator-mask";
     public static final String INCLUDE_EXTENTS = "include-extents";
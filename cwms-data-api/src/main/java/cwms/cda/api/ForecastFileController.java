@@ -38,7 +38,6 @@ import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.InputStream;
 import java.time.Instant;
 
 import static com.codahale.metrics.MetricRegistry.name;
@@ -107,10 +106,7 @@ public final class ForecastFileController implements Handler {
                     ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError("Unable to find "
                             + "blob based on given parameters"));
                 } else {
-                    long size = blob.length();
-                    requestResultSize.update(size);
-                    InputStream is = blob.getBinaryStream();
-                    ctx.seekableStream(is, mediaType, size);
+                    requestResultSize.update(LobWriter.write(ctx, blob, mediaType));
                 }
             });
         }
@@ -0,0 +1,217 @@
+package cwms.cda.api;
+
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.Locale;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes a BLOB or CLOB to the response while the connection it came from is still open.
+ * <p>
+ * The length comes from the LOB locator, so Content-Length and Content-Range are set before
+ * any data is read, and only the requested range is read from the database, one fixed size
+ * buffer at a time.  The buffers belong to the request thread and are reused, so a LOB of
+ * any size costs the same heap to serve.  Because nothing is handed to Javalin as a result,
+ * the body is never copied into a response cache or compressed in memory.
+ * <p>
+ * A single byte range is honored; a Range header listing several is answered with the whole
+ * LOB, which the HTTP spec allows.  The LOBs have no stored version to build a validator
+ * from, so a request with If-Range never matches and also gets the whole LOB.
+ */
+final class LobWriter {
+    static final String BUFFER_SIZE_KEY = "cwms.dataapi.lob.bufferBytes";
+    private static final int BUFFER_SIZE = Integer.getInteger(BUFFER_SIZE_KEY, 64 * 1024);
+    private static final String BYTES = "bytes";
+    private static final String IF_RANGE = "If-Range";
+
+    private static final ThreadLocal<byte[]> BYTE_BUFFERS =
+            ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private static final ThreadLocal<char[]> CHAR_BUFFERS =
+            ThreadLocal.withInitial(() -> new char[BUFFER_SIZE]);
+
+    private LobWriter() {
+    }
+
+    /**
+     * Writes the bytes of blob, or the range of them the request asks for.
+     *
+     * @return the number of bytes written
+     */
+    static long write(Context ctx, Blob blob, String mediaType) throws SQLException {
+        Range range = prepare(ctx, blob.length(), mediaType);
+        if (range.isEmpty()) {
+            return 0;
+        }
+        try {
+            return copy(blob, range.first, range.length(), ctx.res.getOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the characters of clob as single bytes, the way {@link Clob#getAsciiStream()}
+     * presents them, so offsets and lengths count characters as the client sees bytes.
+     *
+     * @return the number of bytes written
+     */
+    static long write(Context ctx, Clob clob, String mediaType) throws SQLException {
+        Range range = prepare(ctx, clob.length(), mediaType);
+        if (range.isEmpty()) {
+            return 0;
+        }
+        try {
+            return copy(clob, range.first, range.length(), ctx.res.getOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Range prepare(Context ctx, long size, String mediaType) {
+        ctx.header(Header.ACCEPT_RANGES, BYTES);
+        Range range = Range.parse(ctx.header(Header.RANGE), ctx.header(IF_RANGE), size);
+        if (range == Range.UNSATISFIABLE) {
+            ctx.status(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            ctx.header(Header.CONTENT_RANGE, BYTES + " */" + size);
+            return Range.UNSATISFIABLE;
+        }
+        if (range == null) {
+            range = new Range(0, size - 1);
+            ctx.status(HttpServletResponse.SC_OK);
+        } else {
+            ctx.status(HttpServletResponse.SC_PARTIAL_CONTENT);
+            ctx.header(Header.CONTENT_RANGE,
+                    BYTES + " " + range.first + "-" + range.last + "/" + size);
+        }
+        ctx.contentType(mediaType);
+        ctx.res.setContentLengthLong(range.length());
+        return range;
+    }
+
+    /**
+     * @param first zero based offset of the first byte
+     * @param count how many bytes to copy
+     */
+    static long copy(Blob blob, long first, long count, OutputStream out)
+            throws SQLException, IOException {
+        byte[] buffer = BYTE_BUFFERS.get();
+        long remaining = count;
+        try (InputStream in = blob.getBinaryStream(first + 1, count)) {
+            int read;
+            while (remaining > 0
+                    && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        out.flush();
+        return count - remaining;
+    }
+
+    /**
+     * @param first zero based offset of the first character
+     * @param count how many characters to copy
+     */
+    static long copy(Clob clob, long first, long count, OutputStream out)
+            throws SQLException, IOException {
+        char[] chars = CHAR_BUFFERS.get();
+        byte[] bytes = BYTE_BUFFERS.get();
+        long remaining = count;
+        try (Reader in = clob.getCharacterStream(first + 1, count)) {
+            int read;
+            while (remaining > 0
+                    && (read = in.read(chars, 0, (int) Math.min(chars.length, remaining))) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char c = chars[i];
+                    bytes[i] = c < 0x80 ? (byte) c : (byte) '?';
+                }
+                out.write(bytes, 0, read);
+                remaining -= read;
+            }
+        }
+        out.flush();
+        return count - remaining;
+    }
+
+    /**
+     * An inclusive range of byte offsets.
+     */
+    static final class Range {
+        static final Range UNSATISFIABLE = new Range(0, -1);
+
+        final long first;
+        final long last;
+
+        Range(long first, long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        long length() {
+            return last - first + 1;
+        }
+
+        boolean isEmpty() {
+            return last < first;
+        }
+
+        /**
+         * @param header the Range header
+         * @param ifRange the If-Range header
+         * @param size the length of the LOB
+         * @return the range to send, {@link #UNSATISFIABLE} if it starts past the end, or null
+         *     to send everything because there is no usable Range header.
+         */
+        @Nullable
+        static Range parse(@Nullable String header, @Nullable String ifRange, long size) {
+            if (header == null || ifRange != null) {
+                return null;
+            }
+            String value = header.trim();
+            int equals = value.indexOf('=');
+            if (equals < 0 || !BYTES.equals(value.substring(0, equals).trim()
+                    .toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+            String spec = value.substring(equals + 1).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0 || spec.indexOf(',') >= 0) {
+                return null;
+            }
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            try {
+                if (from.isEmpty()) {
+                    long suffix = Long.parseLong(to);
+                    if (suffix < 0) {
+                        return null;
+                    }
+                    if (suffix == 0 || size == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new Range(Math.max(0, size - suffix), size - 1);
+                }
+                long first = Long.parseLong(from);
+                long last = to.isEmpty() ? Long.MAX_VALUE : Long.parseLong(to);
+                if (first < 0 || last < first) {
+                    return null;
+                }
+                if (first >= size) {
+                    return UNSATISFIABLE;
+                }
+                return new Range(first, Math.min(last, size - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
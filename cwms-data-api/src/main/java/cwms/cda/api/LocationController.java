@@ -92,6 +92,9 @@ import org.jooq.exception.DataAccessException;
 public class LocationController implements CrudHandler {
     public static final Logger logger = Logger.getLogger(LocationController.class.getName());
     public static final String NAMES = "names";
+    public static final String BBOX = "bbox";
+    public static final String ZOOM = "zoom";
+    static final int MAX_ZOOM = 24;
     private final MetricRegistry metrics;
 
     private final Histogram requestResultSize;
@@ -144,7 +147,16 @@ public class LocationController implements CrudHandler {
                         + "\n* `xml`"
                         + "\n* `wml2` (only if name field is specified)"
                         + "\n* `json` (default)\n"
-                        + "\n* `geojson`")
+                        + "\n* `geojson`"),
+                @OpenApiParam(name = BBOX, description = "Only for `" + Formats.GEOJSON
+                        + "`. Returns just the locations inside the box given as "
+                        + "`west,south,east,north` in decimal degrees, e.g. "
+                        + "`-98.5,35.2,-94.4,37.1`.  A west edge greater than the east edge "
+                        + "crosses the antimeridian."),
+                @OpenApiParam(name = ZOOM, type = Integer.class, description = "Only with `"
+                        + BBOX + "`. The map zoom level of the viewport, 0 to " + MAX_ZOOM
+                        + ".  At low zoom levels nearby locations are returned as a single "
+                        + "feature with the properties `cluster` and `point-count`.")
             },
             responses = {
                 @OpenApiResponse(status = STATUS_200,
@@ -166,6 +178,18 @@ public class LocationController implements CrudHandler {
     @Override
     public void getAll(@NotNull Context ctx) {
 
+        double[] bbox;
+        Integer zoom;
+        try {
+            bbox = parseBoundingBox(ctx.queryParam(BBOX));
+            zoom = parseZoom(ctx.queryParam(ZOOM), bbox);
+        } catch (IllegalArgumentException ex) {
+            CdaError re = new CdaError(ex.getMessage());
+            logger.log(Level.FINE, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+            return;
+        }
+
         try (final Timer.Context ignored = markAndTime(GET_ALL)) {
             DSLContext dsl = getDslContext(ctx);
 
@@ -186,13 +210,21 @@ public class LocationController implements CrudHandler {
             boolean isLegacyFormat = version.equalsIgnoreCase("1");
 
             if (contentType.getType().equals(Formats.GEOJSON)) {
-                FeatureCollection collection = locationsDao.buildFeatureCollection(names, units,
-                        office);
+                FeatureCollection collection = bbox == null
+                        ? locationsDao.buildFeatureCollection(names, units, office)
+                        : locationsDao.buildFeatureCollection(names, units, office, bbox, zoom);
                 ctx.json(collection);
 
                 requestResultSize.update(ctx.res.getBufferSize());
                 ctx.contentType(contentType.toString());
             }
+            else if (bbox != null)
+            {
+                CdaError re = new CdaError("The " + BBOX + " parameter is only supported for "
+                        + Formats.GEOJSON);
+                ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+                return;
+            }
             else if (formatParm.isEmpty() && !isLegacyFormat)
             {
                 List<Location> locations = locationsDao.getLocations(names, units, datum, office);
@@ -228,6 +260,60 @@ public class LocationController implements CrudHandler {
         }
     }
 
+    /**
+     * @param zoom the zoom level as given, or null
+     * @param bbox the parsed bounding box, which a zoom level needs
+     * @return the zoom level, or null if none was given
+     */
+    static Integer parseZoom(String zoom, double[] bbox) {
+        if (zoom == null || zoom.trim().isEmpty()) {
+            return null;
+        }
+        int retval;
+        try {
+            retval = Integer.parseInt(zoom.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The " + ZOOM + " parameter is not a whole "
+                    + "number: " + zoom, e);
+        }
+        if (retval < 0 || retval > MAX_ZOOM || bbox == null) {
+            throw new IllegalArgumentException("The " + ZOOM + " parameter must be from 0 to "
+                    + MAX_ZOOM + " and used with " + BBOX);
+        }
+        return retval;
+    }
+
+    /**
+     * @param bbox "west,south,east,north" in degrees, or null
+     * @return the four edges, or null if no box was given
+     */
+    static double[] parseBoundingBox(String bbox) {
+        if (bbox == null || bbox.trim().isEmpty()) {
+            return null;
+        }
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("The " + BBOX + " parameter must be "
+                    + "west,south,east,north, got: " + bbox);
+        }
+        double[] retval = new double[4];
+        for (int i = 0; i < 4; i++) {
+            try {
+                retval[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The " + BBOX + " parameter has a value that "
+                        + "is not a number: " + parts[i], e);
+            }
+        }
+        // written so NaN fails too
+        if (!(Math.abs(retval[0]) <= 180 && Math.abs(retval[2]) <= 180
+                && retval[1] >= -90 && retval[3] <= 90 && retval[1] <= retval[3])) {
+            throw new IllegalArgumentException("The " + BBOX + " parameter is not a box of "
+                    + "longitudes and latitudes: " + bbox);
+        }
+        return retval;
+    }
+
     @OpenApi(
             queryParams = {
                 @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
@@ -43,6 +43,7 @@ import static cwms.cda.api.Controllers.RATING_ID;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_304;
 import static cwms.cda.api.Controllers.STATUS_404;
 import static cwms.cda.api.Controllers.STATUS_501;
 import static cwms.cda.api.Controllers.STORE_TEMPLATE;
@@ -54,8 +55,10 @@ import static cwms.cda.api.Controllers.addDeprecatedContentTypeWarning;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.api.caching.EntityTags;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.data.dao.JsonRatingUtils;
 import cwms.cda.data.dao.RatingDao;
@@ -94,11 +97,12 @@ import org.jooq.DSLContext;
 
 public class RatingController implements CrudHandler {
     private static final Logger logger = Logger.getLogger(RatingController.class.getName());
-    private static final String TAG = "Ratings";
+    public static final String TAG = "Ratings";
 
     private final MetricRegistry metrics;
 
     private final Histogram requestResultSize;
+    private final Meter notModified;
 
     static {
         JavalinValidation.register(RatingSet.DatabaseLoadMethod.class,
@@ -109,6 +113,7 @@ public class RatingController implements CrudHandler {
         this.metrics = metrics;
         String className = this.getClass().getName();
         requestResultSize = this.metrics.histogram((name(className, RESULTS, SIZE)));
+        notModified = this.metrics.meter(name(className, GET_ONE, "not-modified"));
     }
 
     private static RatingSet.DatabaseLoadMethod getDatabaseLoadMethod(String input) {
@@ -122,7 +127,7 @@ public class RatingController implements CrudHandler {
 
     @NotNull
     protected RatingDao getRatingDao(DSLContext dsl) {
-        return new RatingSetDao(dsl);
+        return new RatingSetDao(dsl, metrics);
     }
 
     @Override
@@ -354,7 +359,9 @@ public class RatingController implements CrudHandler {
             responses = {
                 @OpenApiResponse(status = STATUS_200, content = {
                     @OpenApiContent(type = Formats.JSONV2),
-                    @OpenApiContent(type = Formats.XMLV2)})},
+                    @OpenApiContent(type = Formats.XMLV2)}),
+                @OpenApiResponse(status = STATUS_304, description = "The If-None-Match header "
+                        + "holds the ETag of the current ratings, as sent with the last 200.")},
             description = "Returns CWMS Rating Data",
             tags = {TAG})
 
@@ -381,6 +388,15 @@ public class RatingController implements CrudHandler {
                     RatingSet.DatabaseLoadMethod.class)
                     .getOrDefault(RatingSet.DatabaseLoadMethod.EAGER);
 
+            // A client holding the current ratings is answered before they are loaded.
+            String versionToken = getRatingDao(getDslContext(ctx))
+                    .getVersionToken(officeId, rating);
+            if (versionToken != null && EntityTags.notModified(ctx,
+                    EntityTags.strong(ctx, versionToken, beginInstant, endInstant))) {
+                notModified.mark();
+                return;
+            }
+
             String body = getRatingSetString(ctx, method, officeId, rating, beginInstant, endInstant);
             if (body != null) {
                 ctx.result(body);
@@ -0,0 +1,324 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BEGIN;
+import static cwms.cda.api.Controllers.END;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RATING_ID;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.TIMESERIES;
+import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.UNIT;
+import static cwms.cda.api.Controllers.requiredParam;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.RatingDao;
+import cwms.cda.data.dao.RatingSetDao;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.rating.RatingInputs;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.helpers.DateUtils;
+import hec.data.RatingException;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import mil.army.usace.hec.metadata.constants.NumericalConstants;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.DSLContext;
+
+/**
+ * Rates values on the server, so a client converting a stage series to flow sends the stages
+ * and gets the flows back instead of downloading the whole rating set.  The values come
+ * either in the body or from a stored time series.
+ * <p>
+ * The rating sets are loaded through {@link RatingSetDao}, which keeps them in memory until
+ * their specification changes.
+ */
+public class RatingRateController implements Handler {
+    // Upper bound on the values read from a time series for one request.
+    static final int MAX_TIME_SERIES_VALUES = Integer.getInteger(
+            "cwms.dataapi.ratings.rate.maxTimeSeriesValues", 500_000);
+
+    private static final String RATE = "rate";
+    private static final String RATING_ID_FIELD = "rating-id";
+    private static final String OFFICE_ID_FIELD = "office-id";
+    private static final String UNITS_FIELD = "units";
+    private static final String TIMES_FIELD = "times";
+    private static final String VALUES_FIELD = "values";
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final Meter ratedValues;
+    private final boolean reverse;
+
+    public RatingRateController(MetricRegistry metrics) {
+        this(metrics, false);
+    }
+
+    RatingRateController(MetricRegistry metrics, boolean reverse) {
+        this.metrics = metrics;
+        this.reverse = reverse;
+        String className = this.getClass().getName();
+        requestResultSize = this.metrics.histogram(name(className, RESULTS, SIZE));
+        ratedValues = this.metrics.meter(name(className, RATE, "values"));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @NotNull
+    protected RatingDao getRatingDao(DSLContext dsl) {
+        return new RatingSetDao(dsl, metrics);
+    }
+
+    @NotNull
+    protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl, metrics);
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = RATING_ID, required = true, description = "The rating "
+                        + "specification to rate with.")
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "The office that "
+                        + "owns the rating."),
+                @OpenApiParam(name = TIMESERIES, description = "Rate the values of this time "
+                        + "series instead of values in the body. Only for ratings with one "
+                        + "independent parameter."),
+                @OpenApiParam(name = BEGIN, description = "Start of the time window of the "
+                        + TIMESERIES + ". Default is 24 hours before " + END + "."),
+                @OpenApiParam(name = END, description = "End of the time window of the "
+                        + TIMESERIES + ". Default is now."),
+                @OpenApiParam(name = TIMEZONE, description = "Time zone of " + BEGIN + " and "
+                        + END + " when they carry none. Default is UTC."),
+                @OpenApiParam(name = UNIT, description = "Unit or unit system the "
+                        + TIMESERIES + " is read in. Default is EN."),
+            },
+            requestBody = @OpenApiRequestBody(
+                    content = @OpenApiContent(from = RatingInputs.class, type = Formats.JSON),
+                    description = "The values to rate, unless " + TIMESERIES + " is given."),
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "The rated values, in the "
+                        + "order they were sent. A value that can't be rated is null.",
+                    content = @OpenApiContent(type = Formats.JSON)),
+                @OpenApiResponse(status = STATUS_400, description = "The values are missing or "
+                        + "don't fit the rating."),
+                @OpenApiResponse(status = STATUS_404, description = "The rating or time series "
+                        + "was not found.")
+            },
+            path = "/ratings/{rating-id}/rate",
+            description = "Rates values with the ratings of a specification.",
+            tags = RatingController.TAG,
+            method = HttpMethod.POST
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        evaluate(ctx);
+    }
+
+    protected void evaluate(Context ctx) {
+        try (final Timer.Context ignored = markAndTime(reverse ? "reverseRate" : RATE)) {
+            String ratingId = ctx.pathParam(RATING_ID);
+            String office = requiredParam(ctx, OFFICE);
+            DSLContext dsl = JooqDao.getDslContext(ctx);
+
+            RatingInputs inputs = ctx.queryParam(TIMESERIES) != null
+                    ? readTimeSeries(ctx, getTimeSeriesDao(dsl), office)
+                    : readBody(ctx);
+            double[][] values = inputs.getValues();
+            validate(inputs);
+
+            RatingDao dao = getRatingDao(dsl);
+            double[] results;
+            try {
+                results = reverse
+                        ? dao.reverseRate(office, ratingId, inputs.getUnits(), inputs.getTimes(),
+                                values[0])
+                        : dao.rate(office, ratingId, inputs.getUnits(), inputs.getTimes(),
+                                values);
+            } catch (RatingException e) {
+                throw new IllegalArgumentException("Unable to rate the values: "
+                        + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new FormattingException("Unable to load the rating", e);
+            }
+            ratedValues.mark(results.length);
+            requestResultSize.update(results.length);
+
+            ctx.status(HttpServletResponse.SC_OK);
+            ctx.contentType(Formats.JSON);
+            try {
+                write(ctx.res.getOutputStream(), ratingId, office, inputs, results);
+            } catch (IOException e) {
+                throw new FormattingException("Could not write the rated values", e);
+            }
+        }
+    }
+
+    private void validate(RatingInputs inputs) {
+        double[][] values = inputs.getValues();
+        if (values == null || values.length == 0 || values[0] == null) {
+            throw new IllegalArgumentException("No values were provided.");
+        }
+        if (reverse && values.length != 1) {
+            throw new IllegalArgumentException("Reverse rating takes one array of dependent "
+                    + "values.");
+        }
+        for (double[] parameter : values) {
+            if (parameter == null || parameter.length != values[0].length) {
+                throw new IllegalArgumentException("Every independent parameter must have the "
+                        + "same number of values.");
+            }
+        }
+        long[] times = inputs.getTimes();
+        if (times != null && times.length != values[0].length) {
+            throw new IllegalArgumentException("There must be one time for each value.");
+        }
+    }
+
+    private static RatingInputs readBody(Context ctx) {
+        try {
+            RatingInputs inputs = JsonV2.codecs().readerFor(RatingInputs.class)
+                    .readValue(ctx.bodyAsInputStream());
+            if (inputs == null) {
+                throw new IllegalArgumentException("No values were provided.");
+            }
+            return inputs;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The request body must hold the values to "
+                    + "rate.", e);
+        }
+    }
+
+    /**
+     * Reads the values of a time series in the window of the request.  Missing values are left
+     * out; the times of the response tell which values were rated.  The results are in the
+     * unit of the rating.
+     */
+    private RatingInputs readTimeSeries(Context ctx, TimeSeriesDao dao, String office) {
+        String name = ctx.queryParam(TIMESERIES);
+        String unit = ctx.queryParamAsClass(UNIT, String.class).getOrDefault("EN");
+        String timezone = ctx.queryParamAsClass(TIMEZONE, String.class).getOrDefault("UTC");
+        String end = ctx.queryParam(END);
+        ZonedDateTime endZdt = end != null ? DateUtils.parseUserDate(end, timezone)
+                : ZonedDateTime.now(ZoneId.of(timezone, ZoneId.SHORT_IDS));
+        String begin = ctx.queryParam(BEGIN);
+        ZonedDateTime beginZdt = begin != null ? DateUtils.parseUserDate(begin, timezone)
+                : endZdt.minusHours(24);
+
+        TimeSeries ts = dao.getTimeseries(null, MAX_TIME_SERIES_VALUES, name, office, unit,
+                beginZdt, endZdt, null, true);
+        if (ts.getNextPage() != null) {
+            throw new IllegalArgumentException("The time window holds more than "
+                    + MAX_TIME_SERIES_VALUES + " values.");
+        }
+        List<TimeSeries.Record> records = ts.getValues();
+        long[] times = new long[records.size()];
+        double[] values = new double[records.size()];
+        int count = 0;
+        for (TimeSeries.Record rec : records) {
+            if (rec.getValue() != null) {
+                times[count] = rec.getDateTime().getTime();
+                values[count] = rec.getValue();
+                count++;
+            }
+        }
+        String[] units = reverse ? new String[]{null, ts.getUnits()}
+                : new String[]{ts.getUnits(), null};
+        return new RatingInputs(units,
+                Arrays.copyOf(times, count),
+                new double[][]{Arrays.copyOf(values, count)});
+    }
+
+    static void write(OutputStream out, String ratingId, String office, RatingInputs inputs,
+                      double[] results) throws IOException {
+        ObjectMapper mapper = JsonV2.codecs().getMapper();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField(RATING_ID_FIELD, ratingId);
+            generator.writeStringField(OFFICE_ID_FIELD, office);
+            writeUnits(generator, inputs.getUnits());
+            long[] times = inputs.getTimes();
+            if (times != null) {
+                generator.writeFieldName(TIMES_FIELD);
+                generator.writeArray(times, 0, times.length);
+            }
+            generator.writeArrayFieldStart(VALUES_FIELD);
+            for (double value : results) {
+                if (Double.isNaN(value) || value == NumericalConstants.HEC_UNDEFINED_DOUBLE) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeUnits(JsonGenerator generator, @Nullable String[] units)
+            throws IOException {
+        if (units == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(UNITS_FIELD);
+        for (String unit : units) {
+            generator.writeString(unit);
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package cwms.cda.api;
+
+import static cwms.cda.api.Controllers.BEGIN;
+import static cwms.cda.api.Controllers.END;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RATING_ID;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.TIMESERIES;
+import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.UNIT;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.data.dto.rating.RatingInputs;
+import cwms.cda.formatters.Formats;
+import io.javalin.http.Context;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds the independent values that rate to given dependent values, e.g. the stage of a flow.
+ */
+public class RatingReverseRateController extends RatingRateController {
+
+    public RatingReverseRateController(MetricRegistry metrics) {
+        super(metrics, true);
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = RATING_ID, required = true, description = "The rating "
+                        + "specification to reverse rate with. It must have a single "
+                        + "independent parameter.")
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "The office that "
+                        + "owns the rating."),
+                @OpenApiParam(name = TIMESERIES, description = "Reverse rate the values of this "
+                        + "time series instead of values in the body."),
+                @OpenApiParam(name = BEGIN, description = "Start of the time window of the "
+                        + TIMESERIES + ". Default is 24 hours before " + END + "."),
+                @OpenApiParam(name = END, description = "End of the time window of the "
+                        + TIMESERIES + ". Default is now."),
+                @OpenApiParam(name = TIMEZONE, description = "Time zone of " + BEGIN + " and "
+                        + END + " when they carry none. Default is UTC."),
+                @OpenApiParam(name = UNIT, description = "Unit or unit system the "
+                        + TIMESERIES + " is read in. Default is EN."),
+            },
+            requestBody = @OpenApiRequestBody(
+                    content = @OpenApiContent(from = RatingInputs.class, type = Formats.JSON),
+                    description = "The dependent values, unless " + TIMESERIES + " is given."),
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "The independent values, in "
+                        + "the order they were sent. A value that can't be reverse rated is "
+                        + "null.",
+                    content = @OpenApiContent(type = Formats.JSON)),
+                @OpenApiResponse(status = STATUS_400, description = "The values are missing or "
+                        + "the rating can't be reversed."),
+                @OpenApiResponse(status = STATUS_404, description = "The rating or time series "
+                        + "was not found.")
+            },
+            path = "/ratings/{rating-id}/reverse-rate",
+            description = "Reverse rates values with the ratings of a specification.",
+            tags = RatingController.TAG,
+            method = HttpMethod.POST
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        evaluate(ctx);
+    }
+}
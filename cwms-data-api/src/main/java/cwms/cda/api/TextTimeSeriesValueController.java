@@ -38,7 +38,6 @@ import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 import org.jooq.DSLContext;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.InputStream;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.cda.api.Controllers.*;
@@ -97,10 +96,7 @@ public class TextTimeSeriesValueController implements Handler {
                     ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError("Unable to find "
                             + "clob based on given parameters"));
                 } else {
-                    long size = clob.length();
-                    requestResultSize.update(size);
-                    InputStream is = clob.getAsciiStream();
-                    ctx.seekableStream(is, TEXT_PLAIN, size);
+                    requestResultSize.update(LobWriter.write(ctx, clob, TEXT_PLAIN));
                 }
             });
         }
@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BEGIN;
+import static cwms.cda.api.Controllers.DATE_FORMAT;
+import static cwms.cda.api.Controllers.END;
+import static cwms.cda.api.Controllers.EXAMPLE_DATE;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_501;
+import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.TRIM;
+import static cwms.cda.api.Controllers.UNIT;
+import static cwms.cda.api.Controllers.VERSION_DATE;
+import static cwms.cda.api.Controllers.queryParamAsZdt;
+import static cwms.cda.api.Controllers.requiredParam;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.TimeSeriesBatchWriter;
+import cwms.cda.formatters.UnsupportedFormatException;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.helpers.DateUtils;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Retrieves many time series over the same time window in one request.  A dashboard that
+ * would otherwise issue one request, and several database round trips, per time series gets
+ * all of them with one database connection.
+ */
+public class TimeSeriesBatchRetrieveController implements Handler {
+    private static final String BATCH_RETRIEVE = "batchRetrieve";
+
+    private final MetricRegistry metrics;
+    private final Histogram valuesPerRequest;
+    private final Histogram seriesPerRequest;
+
+    public TimeSeriesBatchRetrieveController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        String className = this.getClass().getName();
+        valuesPerRequest = this.metrics.histogram(name(className, BATCH_RETRIEVE, "values"));
+        seriesPerRequest = this.metrics.histogram(name(className, BATCH_RETRIEVE, "series"));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @NotNull
+    protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl, metrics);
+    }
+
+    @OpenApi(
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the time series."),
+                @OpenApiParam(name = UNIT, description = "Specifies the unit or unit system of "
+                        + "the response. `EN` (default) and `SI` give each time series the "
+                        + "default units of its parameter. Any other value is used as the unit of "
+                        + "every time series."),
+                @OpenApiParam(name = BEGIN, description = "Specifies the start of the time "
+                        + "window. If this field is not specified, the window begins 24 hours "
+                        + "prior to the end time. The format for this field is ISO 8601 extended, "
+                        + "with optional offset and timezone, i.e., '" + DATE_FORMAT + "', e.g., '"
+                        + EXAMPLE_DATE + "'."),
+                @OpenApiParam(name = END, description = "Specifies the end of the time window. "
+                        + "If this field is not specified, the window ends at the current time. "
+                        + "The format for this field is ISO 8601 extended, with optional "
+                        + "timezone, i.e., '" + DATE_FORMAT + "', e.g., '" + EXAMPLE_DATE + "'."),
+                @OpenApiParam(name = TIMEZONE, description = "Specifies the time zone of the "
+                        + "begin and end fields (unless otherwise specified). Results are "
+                        + "returned in UTC. Default is UTC."),
+                @OpenApiParam(name = VERSION_DATE, description = "Specifies the version date of "
+                        + "the time series traces to be selected. If field is empty, a max "
+                        + "aggregate is returned for versioned time series."),
+                @OpenApiParam(name = TRIM, type = Boolean.class, description = "Specifies "
+                        + "whether to trim missing values from the beginning and end of the "
+                        + "retrieved values. Default is false."),
+            },
+            requestBody = @OpenApiRequestBody(
+                    content = {
+                        @OpenApiContent(from = String.class, isArray = true, type = Formats.JSON)
+                    },
+                    required = true,
+                    description = "The names of the time series to retrieve."),
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "An object with a "
+                        + "'time-series' list, holding a " + Formats.JSONV2 + " time series "
+                        + "without paging for each name found in request order, and a 'not-found' "
+                        + "list of the names that did not identify a time series. Each time "
+                        + "series is sent as soon as it has been read.",
+                    content = {
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2)
+                    }),
+                @OpenApiResponse(status = STATUS_400, description = "Invalid parameter "
+                        + "combination or too many names"),
+                @OpenApiResponse(status = STATUS_501, description = "Requested format is not "
+                        + "implemented")
+            },
+            path = "/timeseries/batch-retrieve",
+            description = "Retrieves several time series over the same time window.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.POST
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        try (final Timer.Context ignored = markAndTime(BATCH_RETRIEVE)) {
+            String office = requiredParam(ctx, OFFICE);
+            String unit = ctx.queryParamAsClass(UNIT, String.class)
+                    .getOrDefault(UnitSystem.EN.getValue());
+            String timezone = ctx.queryParamAsClass(TIMEZONE, String.class).getOrDefault("UTC");
+            String begin = ctx.queryParamAsClass(BEGIN, String.class).getOrDefault("PT-24H");
+            String end = ctx.queryParam(END);
+            ZonedDateTime versionDate = queryParamAsZdt(ctx, VERSION_DATE);
+            boolean trim = ctx.queryParamAsClass(TRIM, Boolean.class).getOrDefault(false);
+
+            ContentType contentType = Formats.parseHeader(ctx.header(Header.ACCEPT),
+                    TimeSeries.class);
+            if (!TimeSeriesBatchWriter.supports(contentType)) {
+                throw new UnsupportedFormatException("Batch retrieval is only available as "
+                        + Formats.JSONV2);
+            }
+
+            ZonedDateTime beginZdt = DateUtils.parseUserDate(begin, timezone);
+            ZonedDateTime endZdt = end != null
+                    ? DateUtils.parseUserDate(end, timezone)
+                    : ZonedDateTime.now(ZoneId.of(timezone, ZoneId.SHORT_IDS));
+
+            List<String> names = parseNames(ctx);
+            seriesPerRequest.update(names.size());
+
+            TimeSeriesDao dao = getTimeSeriesDao(JooqDao.getDslContext(ctx));
+            ctx.status(HttpServletResponse.SC_OK);
+            ctx.contentType(contentType.toString());
+            TimeSeriesBatchWriter writer;
+            try {
+                writer = new TimeSeriesBatchWriter(ctx.res.getOutputStream());
+            } catch (IOException e) {
+                throw new FormattingException("Unable to open response stream", e);
+            }
+            dao.streamTimeseries(names, office, unit, beginZdt, endZdt, versionDate, trim,
+                    writer);
+            writer.finish();
+            valuesPerRequest.update(writer.getValueCount());
+        }
+    }
+
+    private static List<String> parseNames(Context ctx) {
+        String[] names;
+        try {
+            names = JsonV2.codecs().readerFor(String[].class).readValue(ctx.body());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The request body must be a JSON array of time "
+                    + "series names.", e);
+        }
+        if (names == null || names.length == 0) {
+            throw new IllegalArgumentException("No time series names were provided.");
+        }
+        return Arrays.asList(names);
+    }
+}
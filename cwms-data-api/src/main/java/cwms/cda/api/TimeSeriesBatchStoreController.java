@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.CREATE_AS_LRTS;
+import static cwms.cda.api.Controllers.OVERRIDE_PROTECTION;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STORE_RULE;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.StoreRule;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesStoreStatus;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.json.JsonV2;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Stores many time series in one request.  Loggers that deliver a few values for each of
+ * thousands of series at once would otherwise pay for a request, a connection and a session
+ * office round trip per series.
+ */
+public class TimeSeriesBatchStoreController implements Handler {
+    private static final String BATCH_STORE = "batchStore";
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final Histogram seriesPerRequest;
+
+    public TimeSeriesBatchStoreController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        String className = this.getClass().getName();
+        requestResultSize = this.metrics.histogram(name(className, RESULTS, SIZE));
+        seriesPerRequest = this.metrics.histogram(name(className, BATCH_STORE, "series"));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @NotNull
+    protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl, metrics);
+    }
+
+    @OpenApi(
+            queryParams = {
+                @OpenApiParam(name = CREATE_AS_LRTS, type = Boolean.class, description = "Create "
+                        + "new time series as local regular time series. Default is false."),
+                @OpenApiParam(name = STORE_RULE, type = StoreRule.class, description = "The "
+                        + "business rule to use when merging the incoming values with those "
+                        + "already in the database. Default is REPLACE_ALL."),
+                @OpenApiParam(name = OVERRIDE_PROTECTION, type = Boolean.class, description =
+                        "A flag to ignore the protected data quality when storing data. "
+                        + "Default is " + TimeSeriesDaoImpl.OVERRIDE_PROTECTION + "."),
+            },
+            requestBody = @OpenApiRequestBody(
+                    content = {
+                        @OpenApiContent(from = TimeSeries.class, isArray = true,
+                                type = Formats.JSONV2),
+                        @OpenApiContent(from = TimeSeries.class, isArray = true,
+                                type = Formats.JSON)
+                    },
+                    required = true,
+                    description = "The time series to store, each with its own office."),
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "The outcome for each time "
+                        + "series in the order they were sent. A time series that could not be "
+                        + "stored does not stop the others.",
+                    content = {
+                        @OpenApiContent(from = TimeSeriesStoreStatus.class, isArray = true,
+                                type = Formats.JSON)
+                    }),
+                @OpenApiResponse(status = STATUS_400, description = "The body could not be read "
+                        + "or holds too many time series")
+            },
+            path = "/timeseries/batch",
+            description = "Stores several time series with one database connection, "
+                    + "committing them in groups.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.POST
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        try (final Timer.Context ignored = markAndTime(BATCH_STORE)) {
+            boolean createAsLrts = ctx.queryParamAsClass(CREATE_AS_LRTS, Boolean.class)
+                    .getOrDefault(false);
+            StoreRule storeRule = ctx.queryParamAsClass(STORE_RULE, StoreRule.class)
+                    .getOrDefault(StoreRule.REPLACE_ALL);
+            boolean overrideProtection = ctx.queryParamAsClass(OVERRIDE_PROTECTION, Boolean.class)
+                    .getOrDefault(TimeSeriesDaoImpl.OVERRIDE_PROTECTION);
+
+            ObjectMapper mapper = JsonV2.codecs().getMapper();
+            List<TimeSeries> series = parseSeries(ctx, mapper);
+            seriesPerRequest.update(series.size());
+
+            TimeSeriesDao dao = getTimeSeriesDao(JooqDao.getDslContext(ctx));
+            List<TimeSeriesStoreStatus> statuses = dao.store(series, createAsLrts, storeRule,
+                    overrideProtection);
+            long values = 0;
+            for (TimeSeriesStoreStatus status : statuses) {
+                values += status.getValueCount();
+            }
+            requestResultSize.update(values);
+
+            ctx.status(HttpServletResponse.SC_OK);
+            ctx.contentType(Formats.JSON);
+            try {
+                ctx.result(mapper.writeValueAsString(statuses));
+            } catch (IOException e) {
+                throw new FormattingException("Could not write the store results", e);
+            }
+        }
+    }
+
+    private static List<TimeSeries> parseSeries(Context ctx, ObjectMapper mapper) {
+        TimeSeries[] series;
+        try {
+            series = mapper.readValue(ctx.bodyAsInputStream(), TimeSeries[].class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The request body must be a JSON array of "
+                    + Formats.JSONV2 + " time series.", e);
+        }
+        if (series == null || series.length == 0) {
+            throw new IllegalArgumentException("No time series were provided.");
+        }
+        return Arrays.asList(series);
+    }
+}
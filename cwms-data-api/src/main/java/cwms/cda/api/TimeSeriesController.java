@@ -25,10 +25,13 @@ import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.START_TIME_INCLUSIVE;
 import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_304;
 import static cwms.cda.api.Controllers.STATUS_400;
 import static cwms.cda.api.Controllers.STATUS_404;
 import static cwms.cda.api.Controllers.STATUS_501;
 import static cwms.cda.api.Controllers.STORE_RULE;
+import static cwms.cda.api.Controllers.STREAM;
+import static cwms.cda.api.Controllers.TOTAL;
 import static cwms.cda.api.Controllers.TIMESERIES;
 import static cwms.cda.api.Controllers.TIMEZONE;
 import static cwms.cda.api.Controllers.UNIT;
@@ -42,9 +45,12 @@ import static cwms.cda.api.Controllers.requiredParam;
 import static cwms.cda.api.Controllers.requiredZdt;
 
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.PageTotal;
 import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.api.caching.EntityTags;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.data.dao.JooqDao;
@@ -55,6 +61,8 @@ import cwms.cda.data.dao.TimeSeriesDeleteOptions;
 import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.TimeSeriesStreamWriter;
 import cwms.cda.helpers.DateUtils;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
@@ -144,6 +152,7 @@ public class TimeSeriesController implements CrudHandler {
     private final MetricRegistry metrics;
 
     private final Histogram requestResultSize;
+    private final Meter notModified;
     private static final int DEFAULT_PAGE_SIZE = 500;
 
 
@@ -151,10 +160,12 @@ public class TimeSeriesController implements CrudHandler {
         this.metrics = metrics;
         String className = this.getClass().getName();
         requestResultSize = this.metrics.histogram((name(className, RESULTS, SIZE)));
+        notModified = this.metrics.meter(name(className, GET_ALL, "not-modified"));
     }
 
     static {
         JavalinValidation.register(StoreRule.class, StoreRule::getStoreRule);
+        JavalinValidation.register(PageTotal.class, PageTotal::pageTotalFor);
     }
 
     private Timer.Context markAndTime(String subject) {
@@ -167,7 +178,8 @@ public class TimeSeriesController implements CrudHandler {
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2),
-                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2)
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2),
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.CBOR)
                     },
                     required = true
             ),
@@ -389,7 +401,21 @@ public class TimeSeriesController implements CrudHandler {
                 @OpenApiParam(name = PAGE_SIZE,
                         type = Integer.class,
                         description = "How many entries per page returned. "
-                                + "Default " + DEFAULT_PAGE_SIZE + ".")
+                                + "Default " + DEFAULT_PAGE_SIZE + "."),
+                @OpenApiParam(name = TOTAL, type = PageTotal.class, description = "How the "
+                        + "total is determined on the first page. EXACT counts the values, "
+                        + "which costs a second retrieval. ESTIMATE derives the number of "
+                        + "interval slots in the window for regular time series and omits the "
+                        + "total for irregular ones. NONE omits the total. "
+                        + "Only supported for:" + Formats.JSONV2 + " and " + Formats.XMLV2 + ". "
+                        + "Default is EXACT."),
+                @OpenApiParam(name = STREAM, type = Boolean.class, description = "Write the "
+                        + "values to the response as they are read from the database instead of "
+                        + "building the whole response first. Recommended for large page sizes. "
+                        + "The next-page cursor is only available at the end of the response body, "
+                        + "no rel=next Link header is sent. "
+                        + "Only supported for:" + Formats.JSONV2 + " and " + Formats.XMLV2 + ". "
+                        + "Default is false.")
             },
             responses = {
                 @OpenApiResponse(status = STATUS_200,
@@ -397,9 +423,14 @@ public class TimeSeriesController implements CrudHandler {
                     content = {
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2),
                         @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2),
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.CBOR),
                         @OpenApiContent(from = TimeSeries.class, type = Formats.XML),
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSON),
                         @OpenApiContent(from = TimeSeries.class, type = ""),}),
+                @OpenApiResponse(status = STATUS_304, description = "The If-None-Match header "
+                        + "holds the ETag of the current values in the window. Only given for "
+                        + Formats.JSONV2 + ", " + Formats.XMLV2 + " and " + Formats.CBOR + ", "
+                        + "whose responses carry the ETag to send."),
                 @OpenApiResponse(status = STATUS_400, description = "Invalid parameter combination"),
                 @OpenApiResponse(status = STATUS_404, description = "The provided combination of "
                         + "parameters did not find a timeseries."),
@@ -445,6 +476,8 @@ public class TimeSeriesController implements CrudHandler {
 
             String results;
             String version = contentType.getParameters().get(VERSION);
+            // The binary column format carries the same paged document as version 2
+            boolean cbor = new ContentType(Formats.CBOR).equals(contentType);
 
             ZoneId tz = ZoneId.of(timezone, ZoneId.SHORT_IDS);
             begin = begin != null ? begin : "PT-24H";
@@ -454,7 +487,7 @@ public class TimeSeriesController implements CrudHandler {
                     ? DateUtils.parseUserDate(end, timezone)
                     : ZonedDateTime.now(tz);
 
-            if (version != null && version.equals("2")) {
+            if (cbor || (version != null && version.equals("2"))) {
 
                 if (datum != null) {
                     throw new IllegalArgumentException(String.format("Datum is not supported for:%s and %s",
@@ -462,10 +495,35 @@ public class TimeSeriesController implements CrudHandler {
                 }
 
                 String office = requiredParam(ctx, OFFICE);
-                TimeSeries ts = dao.getTimeseries(cursor, pageSize, names, office, unit,
-                        beginZdt, endZdt, versionDate, trim.getOrDefault(false));
+                PageTotal pageTotal = ctx.queryParamAsClass(TOTAL, PageTotal.class)
+                        .getOrDefault(PageTotal.EXACT);
+
+                // A client polling an unchanged window is answered before anything is read.
+                String versionToken = dao.getVersionToken(names, office, beginZdt, endZdt,
+                        versionDate);
+                if (versionToken != null && EntityTags.notModified(ctx,
+                        EntityTags.strong(ctx, versionToken, beginZdt.toInstant(),
+                                endZdt.toInstant()))) {
+                    notModified.mark();
+                    return;
+                }
 
-                results = Formats.format(contentType, ts);
+                if (ctx.queryParamAsClass(STREAM, Boolean.class).getOrDefault(false)
+                        && TimeSeriesStreamWriter.supports(contentType)) {
+                    streamTimeseries(ctx, dao, contentType, cursor, pageSize, names, office, unit,
+                            beginZdt, endZdt, versionDate, trim.getOrDefault(false), pageTotal);
+                    return;
+                }
+                TimeSeries ts = dao.getTimeseries(cursor, pageSize, names, office, unit,
+                        beginZdt, endZdt, versionDate, trim.getOrDefault(false), pageTotal);
+
+                byte[] body = null;
+                if (cbor) {
+                    body = Formats.formatBytes(contentType, ts);
+                    results = null;
+                } else {
+                    results = Formats.format(contentType, ts);
+                }
 
                 ctx.status(HttpServletResponse.SC_OK);
 
@@ -482,7 +540,13 @@ public class TimeSeriesController implements CrudHandler {
                 }
 
                 ctx.header("Link", linkValue.toString());
-                ctx.result(results).contentType(contentType.toString());
+                if (body != null) {
+                    ctx.result(body).contentType(contentType.toString());
+                    requestResultSize.update(body.length);
+                } else {
+                    ctx.result(results).contentType(contentType.toString());
+                    requestResultSize.update(results.length());
+                }
             } else {
                 if (versionDate != null) {
                     throw new IllegalArgumentException(String.format("Version date is only supported for:%s and %s",
@@ -502,9 +566,9 @@ public class TimeSeriesController implements CrudHandler {
                 results = dao.getTimeseries(format, names, office, unit, datum, beginZdt, endZdt, tz);
                 ctx.status(HttpServletResponse.SC_OK);
                 ctx.result(results);
+                requestResultSize.update(results.length());
             }
             addDeprecatedContentTypeWarning(ctx, contentType);
-            requestResultSize.update(results.length());
         } catch (NotFoundException e) {
             CdaError re = new CdaError("Not found.");
             logger.log(Level.WARNING, re.toString(), e);
@@ -518,6 +582,42 @@ public class TimeSeriesController implements CrudHandler {
         }
     }
 
+    /**
+     * Writes the requested page straight to the response as the values are read.  The self
+     * Link header is sent with the metadata, the next-page cursor only appears at the end of
+     * the body.
+     */
+    private void streamTimeseries(Context ctx, TimeSeriesDao dao, ContentType contentType,
+                                  String cursor, int pageSize, String names, String office,
+                                  String unit, ZonedDateTime beginZdt, ZonedDateTime endZdt,
+                                  ZonedDateTime versionDate, boolean trim,
+                                  PageTotal pageTotal) {
+        final TimeSeriesStreamWriter writer;
+        try {
+            writer = TimeSeriesStreamWriter.forContentType(contentType, ctx.res.getOutputStream());
+        } catch (IOException e) {
+            throw new FormattingException("Unable to open response stream", e);
+        }
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.contentType(contentType.toString());
+        dao.streamTimeseries(cursor, pageSize, names, office, unit, beginZdt, endZdt,
+                versionDate, trim, pageTotal, new TimeSeriesDao.RecordConsumer() {
+                    @Override
+                    public void begin(TimeSeries header) {
+                        ctx.header("Link", String.format("<%s>; rel=self; type=\"%s\"",
+                                buildRequestUrl(ctx, header, header.getPage()), contentType));
+                        writer.begin(header);
+                    }
+
+                    @Override
+                    public boolean accept(Timestamp dateTime, Double value, int qualityCode) {
+                        return writer.accept(dateTime, value, qualityCode);
+                    }
+                });
+        writer.finish();
+    }
+
     @OpenApi(ignore = true)
     @Override
     public void getOne(@NotNull Context ctx, @NotNull String id) {
@@ -536,7 +636,8 @@ public class TimeSeriesController implements CrudHandler {
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2),
-                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2)
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2),
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.CBOR)
                     },
                     required = true),
             queryParams = {
@@ -0,0 +1,156 @@
+package cwms.cda.api.caching;
+
+import cwms.cda.data.dao.AuthDao;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Answers a GET from the {@link ResponseCache} when it can and otherwise runs the wrapped
+ * handler and keeps what it produced for the lifetime of the route.  Responses are keyed on the
+ * path, the query parameters and the Accept header.  Only complete 200 responses are kept:
+ * streamed bodies, range requests, bodies over the size limit and responses marked no-store or
+ * private always go to the handler.
+ * <p>
+ * The key holds nothing about the caller, so requests with credentials always go to the
+ * handler: what they see can depend on the user and the session office.  So do requests with a
+ * time relative to now, e.g. begin=PT-24H, as the same key means a different window every time.
+ * Only use this for reference data that is the same for every caller.
+ */
+public final class CachedGetHandler implements Handler {
+    public static final String MAX_ENTRY_BYTES_KEY = "cwms.dataapi.response.cache.maxEntryBytes";
+    private static final int MAX_ENTRY_BYTES = Integer.getInteger(MAX_ENTRY_BYTES_KEY,
+            4 * 1024 * 1024);
+    // what DateUtils.parseUserDate reads as a duration or period from now
+    private static final Pattern RELATIVE_TIME = Pattern.compile("^P(T|-|\\d)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final ResponseCache cache;
+    private final Handler delegate;
+    private final long duration;
+    private final TimeUnit unit;
+
+    /**
+     * @param cache where responses are kept
+     * @param delegate produces the response on a miss
+     * @param duration how long a response may be served
+     * @param unit the unit of duration
+     */
+    public CachedGetHandler(ResponseCache cache, Handler delegate, long duration, TimeUnit unit) {
+        this.cache = cache;
+        this.delegate = delegate;
+        this.duration = duration;
+        this.unit = unit;
+    }
+
+    @Override
+    public void handle(@NotNull Context ctx) throws Exception {
+        if (!"GET".equals(ctx.method()) || bypass(ctx)) {
+            delegate.handle(ctx);
+            return;
+        }
+        String key = keyFor(ctx);
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            cached.writeTo(ctx);
+            return;
+        }
+        // taken before the read, so a write that lands during it keeps the result out
+        long generation = cache.generation();
+        delegate.handle(ctx);
+        CachedResponse response = capture(ctx);
+        if (response != null) {
+            cache.put(generation, key, response, duration, unit);
+        }
+    }
+
+    private static boolean bypass(Context ctx) {
+        String cacheControl = ctx.header(Header.CACHE_CONTROL);
+        return ctx.header(Header.RANGE) != null
+                || (cacheControl != null && cacheControl.contains("no-cache"))
+                || hasCaller(ctx)
+                || isRelativeToNow(ctx);
+    }
+
+    private static boolean hasCaller(Context ctx) {
+        return ctx.header(Header.AUTHORIZATION) != null
+                || ctx.attribute(AuthDao.DATA_API_PRINCIPAL) != null
+                || ctx.req.getUserPrincipal() != null;
+    }
+
+    private static boolean isRelativeToNow(Context ctx) {
+        for (List<String> values : ctx.queryParamMap().values()) {
+            for (String value : values) {
+                if (value != null && RELATIVE_TIME.matcher(value.trim()).find()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static String keyFor(Context ctx) {
+        StringBuilder key = new StringBuilder(ctx.path()).append('?');
+        Map<String, List<String>> params = new TreeMap<>(ctx.queryParamMap());
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(param.getKey()).append('=').append(value).append('&');
+            }
+        }
+        String accept = ctx.header(Header.ACCEPT);
+        return key.append('\n').append(accept == null ? "" : accept).toString();
+    }
+
+    @Nullable
+    private static CachedResponse capture(Context ctx) throws IOException {
+        HttpServletResponse res = ctx.res;
+        InputStream result = ctx.resultStream();
+        if (ctx.status() != HttpServletResponse.SC_OK || res.isCommitted() || result == null) {
+            return null;
+        }
+        String cacheControl = res.getHeader(Header.CACHE_CONTROL);
+        if (cacheControl != null
+                && (cacheControl.contains("no-store") || cacheControl.contains("private"))) {
+            return null;
+        }
+
+        // Read at most one byte past the limit; a larger body is handed back untouched.
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while (body.size() <= MAX_ENTRY_BYTES && (read = result.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        byte[] bytes = body.toByteArray();
+        if (bytes.length > MAX_ENTRY_BYTES) {
+            ctx.result(new SequenceInputStream(new ByteArrayInputStream(bytes), result));
+            return null;
+        }
+        ctx.result(bytes);
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : res.getHeaderNames()) {
+            if (!Header.CONTENT_TYPE.equalsIgnoreCase(name)
+                    && !Header.SET_COOKIE.equalsIgnoreCase(name)
+                    && !Header.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                headers.put(name, new ArrayList<>(res.getHeaders(name)));
+            }
+        }
+        return new CachedResponse(ctx.path(), res.getContentType(), headers, bytes);
+    }
+}
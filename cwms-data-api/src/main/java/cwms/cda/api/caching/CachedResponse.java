@@ -0,0 +1,75 @@
+package cwms.cda.api.caching;
+
+import io.javalin.http.Context;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A successful GET response as it was sent: the body, its content type and the headers the
+ * controller set.
+ */
+public final class CachedResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+    private final String contentType;
+    private final LinkedHashMap<String, List<String>> headers;
+    private final byte[] body;
+
+    public CachedResponse(String path, String contentType, Map<String, List<String>> headers,
+                          byte[] body) {
+        this.path = path;
+        this.contentType = contentType;
+        this.headers = new LinkedHashMap<>(headers);
+        this.body = body;
+    }
+
+    /**
+     * @return the request path the response was produced for, used for invalidation.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * @return the number of bytes in the body.
+     */
+    public int size() {
+        return body.length;
+    }
+
+    /**
+     * Sends this response as the result of the request.
+     *
+     * @param ctx the request being answered
+     */
+    public void writeTo(Context ctx) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            boolean first = true;
+            for (String value : header.getValue()) {
+                if (first) {
+                    ctx.res.setHeader(header.getKey(), value);
+                    first = false;
+                } else {
+                    ctx.res.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        ctx.status(200);
+        if (contentType != null) {
+            ctx.contentType(contentType);
+        }
+        ctx.result(body);
+    }
+}
@@ -0,0 +1,99 @@
+package cwms.cda.api.caching;
+
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Validates conditional GETs before any work is done.  A controller asks its DAO for a cheap
+ * version token of the data behind a request, builds the entity tag from it with
+ * {@link #strong(Context, String, Object...)} and answers with 304 through
+ * {@link #notModified(Context, String)} when the client already holds that version.
+ * <p>
+ * Javalin's generated tags hash the finished body, so they can only save the transfer, not the
+ * query and formatting.  A tag set here is kept by Javalin and compared the same way.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Builds a strong entity tag.  Two requests get the same tag only if they ask for the same
+     * thing (path, query parameters, Accept header and the resolved values passed in) and the
+     * data is at the same version, which is what makes their bodies byte for byte equal.
+     *
+     * @param ctx the request
+     * @param versionToken the version of the data, from the DAO
+     * @param resolved values the body depends on that the request doesn't spell out, such as
+     *                 a window relative to now
+     * @return the quoted tag
+     */
+    public static String strong(Context ctx, String versionToken, Object... resolved) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        digest.update(versionToken.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(CachedGetHandler.keyFor(ctx).getBytes(StandardCharsets.UTF_8));
+        for (Object value : resolved) {
+            digest.update((byte) 0);
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] hash = digest.digest();
+        StringBuilder tag = new StringBuilder(34).append('"');
+        for (int i = 0; i < 16; i++) {
+            tag.append(Character.forDigit((hash[i] >> 4) & 0xF, 16))
+                    .append(Character.forDigit(hash[i] & 0xF, 16));
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Sets the tag on the response and, if the request's If-None-Match holds it, answers the
+     * request with 304.
+     *
+     * @param ctx the request
+     * @param etag the tag of the current version
+     * @return true if the request was answered and the caller must not write a body.
+     */
+    public static boolean notModified(Context ctx, String etag) {
+        ctx.header(Header.ETAG, etag);
+        if (matches(ctx.header(Header.IF_NONE_MATCH), etag)) {
+            ctx.status(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix on the client's tag is ignored.
+     *
+     * @param ifNoneMatch the header value, may list several tags or be *
+     * @param etag the tag of the current version
+     * @return true if the header holds the tag.
+     */
+    static boolean matches(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,116 @@
+package cwms.cda.api.caching;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps responses in this instance, bounded by the total size of the bodies.  The least
+ * recently used responses are dropped first when the bound is reached; each response also
+ * carries the lifetime of the route it came from and is not served past it.
+ */
+public final class InMemoryResponseCache implements ResponseCache {
+    private final Cache<String, Entry> cache;
+    private final AtomicLong bytes = new AtomicLong();
+    // Moved on by every invalidation, whatever its path; a put that raced one is just skipped.
+    private long generation;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    /**
+     * @param maxBytes bound on the total size of the cached bodies
+     * @param metrics where hits, misses and evictions are counted
+     */
+    public InMemoryResponseCache(long maxBytes, MetricRegistry metrics) {
+        String className = ResponseCache.class.getName();
+        hits = metrics.counter(MetricRegistry.name(className, "hits"));
+        misses = metrics.counter(MetricRegistry.name(className, "misses"));
+        evictions = metrics.counter(MetricRegistry.name(className, "evictions"));
+        invalidations = metrics.counter(MetricRegistry.name(className, "invalidations"));
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.weight(key))
+                .removalListener(notification -> {
+                    Entry entry = notification.getValue();
+                    if (entry != null) {
+                        bytes.addAndGet(-entry.response.size());
+                    }
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        evictions.inc();
+                    }
+                })
+                .build();
+        metrics.gauge(MetricRegistry.name(className, "entries"),
+                () -> (Gauge<Long>) cache::size);
+        metrics.gauge(MetricRegistry.name(className, "bytes"),
+                () -> (Gauge<Long>) bytes::get);
+    }
+
+    @Nullable
+    @Override
+    public CachedResponse get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+            cache.asMap().remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.inc();
+            return null;
+        }
+        hits.inc();
+        return entry.response;
+    }
+
+    @Override
+    public synchronized long generation() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void put(long generation, String key, CachedResponse response,
+                                 long duration, TimeUnit unit) {
+        if (generation != this.generation) {
+            return;
+        }
+        bytes.addAndGet(response.size());
+        cache.put(key, new Entry(response, System.nanoTime() + unit.toNanos(duration)));
+    }
+
+    @Override
+    public synchronized void invalidate(String pathPrefix) {
+        invalidations.inc();
+        generation++;
+        cache.asMap().values().removeIf(entry -> isAtOrBelow(entry.response.getPath(),
+                pathPrefix));
+    }
+
+    static boolean isAtOrBelow(String path, String pathPrefix) {
+        if (!path.startsWith(pathPrefix)) {
+            return false;
+        }
+        return path.length() == pathPrefix.length() || path.charAt(pathPrefix.length()) == '/';
+    }
+
+    private static final class Entry {
+        private final CachedResponse response;
+        private final long expiresAt;
+
+        private Entry(CachedResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+
+        private int weight(String key) {
+            return key.length() * 2 + response.size();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package cwms.cda.api.caching;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs a handler that changes data and then drops the cached responses of the resource it
+ * changed.  The cache is cleared even when the handler fails, since a failed request may still
+ * have changed something before it failed.
+ */
+public final class InvalidatingHandler implements Handler {
+    private final ResponseCache cache;
+    private final String pathPrefix;
+    private final Handler delegate;
+
+    /**
+     * @param cache the cache to clear
+     * @param pathPrefix the resource path, without the context path, e.g. "/units/"
+     * @param delegate the handler that changes data
+     */
+    public InvalidatingHandler(ResponseCache cache, String pathPrefix, Handler delegate) {
+        this.cache = cache;
+        this.pathPrefix = pathPrefix.endsWith("/")
+                ? pathPrefix.substring(0, pathPrefix.length() - 1) : pathPrefix;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void handle(@NotNull Context ctx) throws Exception {
+        try {
+            delegate.handle(ctx);
+        } finally {
+            cache.invalidate(ctx.contextPath() + pathPrefix);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cwms.cda.api.caching;
+
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds complete GET responses so a repeated request can be answered without running the
+ * controller.  Implementations must be safe to use from many request threads; the in-memory
+ * {@link InMemoryResponseCache} is the default and a shared store can be used instead when
+ * several instances should see each other's invalidations.
+ */
+public interface ResponseCache {
+
+    /**
+     * A cache that holds nothing.
+     */
+    ResponseCache NONE = new ResponseCache() {
+        @Override
+        public CachedResponse get(String key) {
+            return null;
+        }
+
+        @Override
+        public long generation() {
+            return 0;
+        }
+
+        @Override
+        public void put(long generation, String key, CachedResponse response, long duration,
+                        TimeUnit unit) {
+            // nothing is kept
+        }
+
+        @Override
+        public void invalidate(String pathPrefix) {
+            // nothing is kept
+        }
+    };
+
+    /**
+     * @param key built by {@link CachedGetHandler}
+     * @return the response, or null if there is none or it has expired.
+     */
+    @Nullable
+    CachedResponse get(String key);
+
+    /**
+     * @return the current generation, to take before the response is produced and pass to
+     *     {@link #put} once it is.  Every {@link #invalidate} moves it on.
+     */
+    long generation();
+
+    /**
+     * Keeps a response, unless the cache was invalidated since the generation was taken: the
+     * response may then have been read before the change and would be served stale.
+     *
+     * @param generation from {@link #generation()} before the response was produced
+     * @param key built by {@link CachedGetHandler}
+     * @param response the response to keep
+     * @param duration how long the response may be served
+     * @param unit the unit of duration
+     */
+    void put(long generation, String key, CachedResponse response, long duration,
+             TimeUnit unit);
+
+    /**
+     * Drops every response for the given path or any path below it, so {@code /cwms-data/units}
+     * drops {@code /cwms-data/units} and {@code /cwms-data/units/ft} but not
+     * {@code /cwms-data/units-other}.
+     *
+     * @param pathPrefix request path, including the context path, without a trailing slash
+     */
+    void invalidate(String pathPrefix);
+}
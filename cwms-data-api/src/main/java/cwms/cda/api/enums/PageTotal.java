@@ -0,0 +1,26 @@
+package cwms.cda.api.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+        name = "Page Total",
+        description = "How the total number of values is determined on the first page of a "
+                + "time series. EXACT counts the values in the database, which runs the "
+                + "retrieval a second time. ESTIMATE derives the number of interval slots in "
+                + "the time window for regular time series and leaves the total out for "
+                + "irregular time series. NONE leaves the total out."
+)
+public enum PageTotal {
+    EXACT,
+    ESTIMATE,
+    NONE;
+
+    public static PageTotal pageTotalFor(String pageTotal) {
+        PageTotal retval = EXACT;
+
+        if (pageTotal != null && !pageTotal.isEmpty()) {
+            retval = PageTotal.valueOf(pageTotal.toUpperCase());
+        }
+        return retval;
+    }
+}
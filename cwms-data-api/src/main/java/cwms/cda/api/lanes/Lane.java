@@ -0,0 +1,56 @@
+package cwms.cda.api.lanes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The kinds of request that get their own workers, so that one kind can't take the threads and
+ * database connections the others need.
+ */
+public enum Lane {
+    /** Reads that can pull a lot of data: time series, catalogs, levels, ratings and LOBs. */
+    READ,
+    /** Anything that changes data. */
+    WRITE,
+    /** Small lookups of offices, units, parameters, groups, specifications and the like. */
+    METADATA;
+
+    private static final List<String> HEAVY_PATHS = Arrays.asList("/timeseries", "/catalog",
+            "/levels", "/ratings", "/blobs", "/clobs", "/forecast-instance");
+    // under a heavy path but only reading definitions
+    private static final List<String> LIGHT_PATHS = Arrays.asList("/ratings/template",
+            "/ratings/spec", "/timeseries/category", "/timeseries/group",
+            "/timeseries/identifier-descriptor");
+    // POSTs that only read
+    private static final List<String> READ_POSTS = Arrays.asList("/timeseries/batch-retrieve",
+            "/rate", "/reverse-rate");
+
+    /**
+     * @param method the HTTP method
+     * @param path the request path below the context path, e.g. /timeseries/recent
+     * @return the lane the request runs in
+     */
+    public static Lane of(String method, String path) {
+        boolean read = "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                || ("POST".equals(method) && READ_POSTS.stream().anyMatch(path::endsWith));
+        if (!read) {
+            return WRITE;
+        }
+        if ("OPTIONS".equals(method)
+                || LIGHT_PATHS.stream().anyMatch(p -> under(path, p))
+                || HEAVY_PATHS.stream().noneMatch(p -> under(path, p))) {
+            return METADATA;
+        }
+        return READ;
+    }
+
+    private static boolean under(String path, String prefix) {
+        return path.startsWith(prefix)
+                && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/');
+    }
+
+    String propertyName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
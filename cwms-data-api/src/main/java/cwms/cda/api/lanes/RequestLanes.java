@@ -0,0 +1,163 @@
+package cwms.cda.api.lanes;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.flogger.FluentLogger;
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded pool of workers for each {@link Lane}.  Each lane runs at most
+ * {@value #PROP_BASE}.&lt;lane&gt;.threads requests at once and holds at most
+ * {@value #PROP_BASE}.&lt;lane&gt;.queue more; past that a request is rejected at once instead of
+ * waiting behind the others, and the caller answers it with 503.
+ * <p>
+ * With {@value #PROP_BASE}.virtualThreads=true the workers are virtual threads when the JDK
+ * has them; the thread count still bounds how many requests of the lane use the database.
+ */
+public final class RequestLanes {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String PROP_BASE = "cwms.dataapi.lanes";
+    public static final String ENABLED_KEY = PROP_BASE + ".enabled";
+    public static final String RETRY_AFTER_KEY = PROP_BASE + ".retryAfterSeconds";
+
+    private static final int DEFAULT_THREADS = 16;
+    private static final int DEFAULT_QUEUE = 64;
+
+    private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+    private final Map<Lane, Meter> rejected = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waits = new EnumMap<>(Lane.class);
+    private final long retryAfterSeconds;
+
+    /**
+     * @param threads the workers of each lane
+     * @param queues how many requests each lane holds beyond its workers
+     * @param virtualThreads use virtual threads if the JDK has them
+     * @param retryAfterSeconds what rejected requests are told to wait
+     * @param metrics where the queue depth, activity, waits and rejections of the lanes go
+     */
+    public RequestLanes(Map<Lane, Integer> threads, Map<Lane, Integer> queues,
+                        boolean virtualThreads, long retryAfterSeconds, MetricRegistry metrics) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        ThreadFactory virtual = virtualThreads ? virtualThreadFactory() : null;
+        for (Lane lane : Lane.values()) {
+            int count = threads.get(lane);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(count, count, 60,
+                    TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, queues.get(lane))),
+                    virtual != null ? virtual : platformThreadFactory(lane),
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            executors.put(lane, executor);
+
+            String name = MetricRegistry.name(RequestLanes.class.getName(), lane.propertyName());
+            metrics.gauge(MetricRegistry.name(name, "queued"),
+                    () -> (Gauge<Integer>) () -> executor.getQueue().size());
+            metrics.gauge(MetricRegistry.name(name, "active"),
+                    () -> (Gauge<Integer>) executor::getActiveCount);
+            rejected.put(lane, metrics.meter(MetricRegistry.name(name, "rejected")));
+            waits.put(lane, metrics.timer(MetricRegistry.name(name, "wait")));
+        }
+    }
+
+    /**
+     * @return the lanes configured by system properties, or null if they are turned off.
+     */
+    @Nullable
+    public static RequestLanes fromSystemProperties(MetricRegistry metrics) {
+        if (!Boolean.getBoolean(ENABLED_KEY)) {
+            return null;
+        }
+        Map<Lane, Integer> threads = new EnumMap<>(Lane.class);
+        Map<Lane, Integer> queues = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            String base = PROP_BASE + "." + lane.propertyName();
+            threads.put(lane, Integer.getInteger(base + ".threads", DEFAULT_THREADS));
+            queues.put(lane, Integer.getInteger(base + ".queue", DEFAULT_QUEUE));
+        }
+        return new RequestLanes(threads, queues, Boolean.getBoolean(PROP_BASE + ".virtualThreads"),
+                Long.getLong(RETRY_AFTER_KEY, 5), metrics);
+    }
+
+    /**
+     * Runs work in lane.
+     *
+     * @throws RejectedExecutionException if the lane's workers are busy and its queue is full
+     */
+    public void execute(Lane lane, Runnable work) {
+        Timer.Context waiting = waits.get(lane).time();
+        try {
+            executors.get(lane).execute(() -> {
+                waiting.stop();
+                work.run();
+            });
+        } catch (RejectedExecutionException e) {
+            waiting.stop();
+            rejected.get(lane).mark();
+            throw e;
+        }
+    }
+
+    /**
+     * @return how long a rejected request should wait before it tries again.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    /**
+     * Waits for the requests still running or queued after {@link #shutdown()}.
+     *
+     * @return true if all of them finished in time
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ThreadPoolExecutor executor : executors.values()) {
+            long left = deadline - System.nanoTime();
+            if (!executor.awaitTermination(Math.max(0, left), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ThreadFactory platformThreadFactory(Lane lane) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable,
+                    "cda-" + lane.propertyName() + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Thread.ofVirtual().factory(), looked up at run time since the code is built for Java 8.
+     */
+    @Nullable
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.atInfo().log("Virtual threads are not available in Java %s, using platform "
+                    + "threads.", System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
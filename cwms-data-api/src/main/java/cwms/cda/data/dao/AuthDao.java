@@ -1,5 +1,7 @@
 package cwms.cda.data.dao;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.flogger.FluentLogger;
 import cwms.cda.ApiServlet;
 import cwms.cda.data.dto.auth.ApiKey;
@@ -8,6 +10,7 @@ import cwms.cda.datasource.ConnectionPreparingDataSource;
 import cwms.cda.datasource.DelegatingConnectionPreparer;
 import cwms.cda.datasource.DirectUserPreparer;
 import cwms.cda.datasource.SessionOfficePreparer;
+import cwms.cda.datasource.SessionState;
 import cwms.cda.datasource.SessionTimeZonePreparer;
 import cwms.cda.helpers.ResourceHelper;
 import cwms.cda.security.CwmsAuthException;
@@ -23,13 +26,16 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -37,6 +43,7 @@ import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 
@@ -57,7 +64,7 @@ public class AuthDao extends Dao<DataApiPrincipal> {
         + "cwms_env.set_session_user_direct(upper(?),upper(?)); end;";
 
     private static final String CHECK_API_KEY =
-        "select userid from cwms_20.at_api_keys where apikey = ?";
+        "select userid, key_name, expires from cwms_20.at_api_keys where apikey = ?";
 
     private static final String USER_FOR_EDIPI =
         "select userid from cwms_20.at_sec_cwms_users where edipi = ?";
@@ -72,6 +79,25 @@ public class AuthDao extends Dao<DataApiPrincipal> {
             + "from cwms_20.at_api_keys where UPPER(userid) = UPPER(?) and key_name = ?";
     public static final String ONLY_OWN_KEY_MESSAGE = "You may not create API keys for any user other than your own.";
 
+    /**
+     * Prefix of the principal cache properties.  {@code .maxSize} (default 10000) bounds the
+     * number of entries and {@code .expireAfterSeconds} (default 10) how long an entry lives;
+     * 0 turns the cache off.
+     * <p>
+     * Deleting an API key drops its entry only on the instance that handled the delete.  Other
+     * instances behind the same load balancer keep accepting the key, and every instance keeps
+     * the roles of a user removed from a group, until their entries expire.  Set the expiry to
+     * the longest such delay the deployment accepts.
+     */
+    public static final String PRINCIPAL_CACHE_PROP_BASE = "cwms.dataapi.auth.principalCache";
+
+    private static final PrincipalCache principalCache = new PrincipalCache(
+            Long.getLong(PRINCIPAL_CACHE_PROP_BASE + ".maxSize", 10000),
+            Long.getLong(PRINCIPAL_CACHE_PROP_BASE + ".expireAfterSeconds", 10),
+            TimeUnit.SECONDS);
+    @Nullable
+    private static volatile Timer lookupTimer = null;
+
     private static boolean hasCwmsEnvMultiOfficeAuthFix = false;
     private static String connectionUser = null;
     private static String defaultOffice = null;
@@ -93,12 +119,10 @@ public class AuthDao extends Dao<DataApiPrincipal> {
             AuthDao.defaultOffice = defaultOffice;
             try {
                 connectionUser = dsl.connectionResult(c -> c.getMetaData().getUserName());
-                dsl.execute("BEGIN cwms_env.set_session_user_direct(?,?); END;", connectionUser, defaultOffice);
+                dsl.connection(c -> setSessionUserWithOffice(c));
                 hasCwmsEnvMultiOfficeAuthFix = true;
             } catch (DataAccessException ex) {
-                if (ex.getLocalizedMessage()
-                    .toLowerCase()
-                    .contains("wrong number or types of arguments in call")) {
+                if (isWrongArguments(ex)) {
                     hasCwmsEnvMultiOfficeAuthFix = false;
                 }
             }
@@ -134,6 +158,24 @@ public class AuthDao extends Dao<DataApiPrincipal> {
         return getInstance(dsl, null);
     }
 
+    /**
+     * Publish the hit rate and size of the principal cache and the latency of principal
+     * lookups, cached or not.
+     * @param metrics the registry to publish to
+     */
+    public static void registerMetrics(MetricRegistry metrics) {
+        principalCache.registerMetrics(metrics);
+        lookupTimer = metrics.timer(MetricRegistry.name(AuthDao.class.getName(),
+                PrincipalCache.NAME, "lookup"));
+    }
+
+    /**
+     * Forget all cached principals, e.g. after roles were changed in the database.
+     */
+    public static void invalidatePrincipals() {
+        principalCache.invalidateAll();
+    }
+
     @Override
     public List<DataApiPrincipal> getAll(String limitToOffice) {
         throw new UnsupportedOperationException("Unimplemented method 'getAll'");
@@ -155,9 +197,27 @@ public class AuthDao extends Dao<DataApiPrincipal> {
      * @throws CwmsAuthException throw for any issue with verification of Key or user information.
      */
     public DataApiPrincipal getByApiKey(String apikey) throws CwmsAuthException {
-        String userName = checkKey(apikey);
-        Set<RouteRole> roles = getRolesForUser(userName);
-        return new DataApiPrincipal(userName,roles);
+        if (apikey == null) {
+            throw new CwmsAuthException("No user for key");
+        }
+        try (Timer.Context ignored = startLookup()) {
+            String hash = PrincipalCache.apiKey(apikey);
+            DataApiPrincipal cached = principalCache.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+            KeyOwner owner = checkKey(apikey);
+            Set<RouteRole> roles = getRolesForUser(owner.userId);
+            DataApiPrincipal principal = new DataApiPrincipal(owner.userId, roles);
+            principalCache.put(hash, principal, owner.keyName, owner.expires);
+            return principal;
+        }
+    }
+
+    @Nullable
+    private static Timer.Context startLookup() {
+        Timer timer = lookupTimer;
+        return timer == null ? null : timer.time();
     }
 
     /**
@@ -167,20 +227,42 @@ public class AuthDao extends Dao<DataApiPrincipal> {
      */
     private void setSessionForAuthCheck(Connection conn) throws SQLException {
         if (hasCwmsEnvMultiOfficeAuthFix) {
+            setSessionUserWithOffice(conn);
+        } else {
+            SessionState.apply(conn, SessionState.USER, connectionUser, () -> {
+                try (PreparedStatement setApiUser = conn.prepareStatement(SET_API_USER_DIRECT)) {
+                    setApiUser.setString(1,connectionUser);
+                    setApiUser.execute();
+                }
+            });
+        }
+    }
+
+    private static void setSessionUserWithOffice(Connection conn) throws SQLException {
+        Map<String, String> session = new HashMap<>();
+        session.put(SessionState.USER, connectionUser);
+        session.put(SessionState.OFFICE, defaultOffice);
+        SessionState.apply(conn, session, () -> {
             try (PreparedStatement setApiUser = conn.prepareStatement(SET_API_USER_DIRECT_WITH_OFFICE)) {
                 setApiUser.setString(1,connectionUser);
                 setApiUser.setString(2,defaultOffice);
                 setApiUser.execute();
             }
-        } else {
-            try (PreparedStatement setApiUser = conn.prepareStatement(SET_API_USER_DIRECT)) {
-                setApiUser.setString(1,connectionUser);
-                setApiUser.execute();
+        });
+    }
+
+    private static boolean isWrongArguments(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            String message = t.getLocalizedMessage();
+            if (message != null
+                && message.toLowerCase().contains("wrong number or types of arguments in call")) {
+                return true;
             }
         }
+        return false;
     }
 
-    private String checkKey(String key) throws CwmsAuthException {
+    private KeyOwner checkKey(String key) throws CwmsAuthException {
         try {
             return dsl.connectionResult(c -> {
                 setSessionForAuthCheck(c);
@@ -188,7 +270,13 @@ public class AuthDao extends Dao<DataApiPrincipal> {
                     checkForKey.setString(1,key);
                     try (ResultSet rs = checkForKey.executeQuery()) {
                         if (rs.next()) {
-                            return rs.getString(1);
+                            ZonedDateTime expires = rs.getObject("expires", ZonedDateTime.class);
+                            if (expires != null && !expires.isAfter(ZonedDateTime.now())) {
+                                throw new CwmsAuthException("Key expired");
+                            }
+                            return new KeyOwner(rs.getString("userid"),
+                                    rs.getString("key_name"),
+                                    expires == null ? null : expires.toInstant());
                         } else {
                             throw new CwmsAuthException("No user for key");
                         }
@@ -246,9 +334,18 @@ public class AuthDao extends Dao<DataApiPrincipal> {
      * @throws CwmsAuthException if the user is not in the database.
      */
     public DataApiPrincipal getPrincipalFromEdipi(Long edipi) throws CwmsAuthException {
-        String username = userForEdipi(edipi);
-        Set<RouteRole> roles = this.getRolesForUser(username);
-        return new DataApiPrincipal(username, roles);
+        try (Timer.Context ignored = startLookup()) {
+            String hash = PrincipalCache.edipi(edipi);
+            DataApiPrincipal cached = principalCache.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+            String username = userForEdipi(edipi);
+            Set<RouteRole> roles = this.getRolesForUser(username);
+            DataApiPrincipal principal = new DataApiPrincipal(username, roles);
+            principalCache.put(hash, principal, null, null);
+            return principal;
+        }
     }
 
     /**
@@ -474,6 +571,7 @@ public class AuthDao extends Dao<DataApiPrincipal> {
                 deleteKey.execute();
             }
         });
+        principalCache.invalidateKey(p.getName(), keyName);
     }
 
 
@@ -488,4 +586,17 @@ public class AuthDao extends Dao<DataApiPrincipal> {
     public void resetContext(DSLContext dslContext) {
         this.dsl = dslContext;
     }
+
+    private static final class KeyOwner {
+        private final String userId;
+        private final String keyName;
+        @Nullable
+        private final Instant expires;
+
+        private KeyOwner(String userId, String keyName, @Nullable Instant expires) {
+            this.userId = userId;
+            this.keyName = keyName;
+            this.expires = expires;
+        }
+    }
 }
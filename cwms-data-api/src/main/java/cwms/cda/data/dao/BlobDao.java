@@ -2,6 +2,7 @@ package cwms.cda.data.dao;
 
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.data.dto.Blob;
+import oracle.jdbc.OracleStatement;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 import org.jooq.Record;
@@ -15,10 +16,15 @@ import java.io.InputStream;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
 
 public class BlobDao extends JooqDao<Blob> {
+    // How much of each LOB the driver returns with the row, saving a round trip for small ones
+    // and the first read of large ones.
+    static final int LOB_PREFETCH_SIZE = Integer.getInteger("cwms.cda.data.dao.lobPrefetchSize",
+            32 * 1024);
 
     public static final String BLOB_WITH_OFFICE = "SELECT CWMS_MEDIA_TYPE.MEDIA_TYPE_ID, AT_BLOB.VALUE \n"
             + "FROM CWMS_20.AT_BLOB \n"
@@ -64,8 +70,8 @@ public class BlobDao extends JooqDao<Blob> {
     public void getBlob(String id, String office, BlobConsumer consumer) {
         // Not using jOOQ here because we want the java.sql.Blob and not an automatic field binding.  We want
         // blob so that we can pull out a stream to the data and pass that to javalin.
-        // If the request included Content-Ranges Javalin can have the stream skip to the correct
-        // location, which will avoid reading unneeded data.  Passing this stream right to the javalin
+        // If the request included a Range only that part of the LOB is read, which avoids reading
+        // unneeded data.  Passing this stream right to the javalin
         // response should let CDA return a huge blob to the client without ever holding the entire byte[]
         // in memory.
         // We can't use the stream once the connection we get from jooq is closed, so we have to pass in
@@ -74,6 +80,7 @@ public class BlobDao extends JooqDao<Blob> {
 
         dsl.connection(connection -> {
             try (PreparedStatement preparedStatement = connection.prepareStatement(BLOB_WITH_OFFICE)) {
+                prefetchLobs(preparedStatement);
                 preparedStatement.setString(1, id);
                 preparedStatement.setString(2, office);
 
@@ -92,6 +99,7 @@ public class BlobDao extends JooqDao<Blob> {
 
         dsl.connection(connection -> {
             try (PreparedStatement preparedStatement = connection.prepareStatement(BLOB_QUERY)) {
+                prefetchLobs(preparedStatement);
                 preparedStatement.setString(1, id);
 
                 try (ResultSet resultSet = preparedStatement.executeQuery()) {
@@ -179,6 +187,30 @@ public class BlobDao extends JooqDao<Blob> {
     }
 
 
+    /**
+     * Has the Oracle driver return the start of each LOB with its row.  Other drivers are left
+     * alone.
+     */
+    static void prefetchLobs(Statement statement) throws SQLException {
+        if (statement.isWrapperFor(OracleStatement.class)) {
+            statement.unwrap(OracleStatement.class).setLobPrefetchSize(LOB_PREFETCH_SIZE);
+        }
+    }
+
+    /**
+     * Reads a blob of known, limited size in one call, without growing a copy as it goes.
+     */
+    public static byte[] readFully(@NotNull java.sql.Blob blob) throws SQLException {
+        long length = blob.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Blob of " + length + " bytes is too large to read into memory");
+        }
+        if (length == 0) {
+            return new byte[0];
+        }
+        return blob.getBytes(1, (int) length);
+    }
+
     public static byte[] readFully(@NotNull InputStream stream) throws IOException {
         byte[] buffer = new byte[8192];
         int bytesRead;
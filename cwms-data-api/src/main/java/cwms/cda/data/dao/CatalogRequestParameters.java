@@ -2,6 +2,7 @@ package cwms.cda.data.dao;
 
 import static usace.cwms.db.jooq.codegen.tables.AV_TS_EXTENTS_UTC.AV_TS_EXTENTS_UTC;
 
+import java.util.Objects;
 import org.jooq.Table;
 import usace.cwms.db.jooq.codegen.tables.AV_LOC;
 import usace.cwms.db.jooq.codegen.tables.AV_LOC_GRP_ASSGN;
@@ -84,6 +85,36 @@ public class CatalogRequestParameters {
         return locationType;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CatalogRequestParameters that = (CatalogRequestParameters) o;
+        return includeExtents == that.includeExtents
+                && excludeEmpty == that.excludeEmpty
+                && Objects.equals(office, that.office)
+                && Objects.equals(idLike, that.idLike)
+                && Objects.equals(unitSystem, that.unitSystem)
+                && Objects.equals(locCatLike, that.locCatLike)
+                && Objects.equals(locGroupLike, that.locGroupLike)
+                && Objects.equals(tsCatLike, that.tsCatLike)
+                && Objects.equals(tsGroupLike, that.tsGroupLike)
+                && Objects.equals(boundingOfficeLike, that.boundingOfficeLike)
+                && Objects.equals(locationKind, that.locationKind)
+                && Objects.equals(locationType, that.locationType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(office, idLike, unitSystem, locCatLike, locGroupLike, tsCatLike,
+                tsGroupLike, boundingOfficeLike, includeExtents, excludeEmpty, locationKind,
+                locationType);
+    }
+
 
     public static class Builder {
         String office;
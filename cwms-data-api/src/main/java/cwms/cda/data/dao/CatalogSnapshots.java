@@ -0,0 +1,196 @@
+package cwms.cda.data.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import cwms.cda.data.dto.catalog.CatalogEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps, for a short time, the ordered keys of every entry that matched a catalog request.
+ * The first page of a catalog pays for one query over all the matching keys; later pages
+ * look their keys up in the snapshot and fetch just those rows by code instead of counting
+ * and filtering the whole view again.
+ * <p>
+ * Entries created or deleted after the snapshot was taken are not reflected until it
+ * expires, which is why the mode is off unless {@value #PROP_BASE}.enabled is set.
+ */
+final class CatalogSnapshots {
+    static final String PROP_BASE = "cwms.cda.data.dao.catalogSnapshot";
+
+    enum Kind {
+        LOCATIONS,
+        TIMESERIES
+    }
+
+    private final Cache<List<Object>, Snapshot> cache;
+
+    /**
+     * @param maxKeys the most keys to hold over all snapshots
+     * @param expireAfter how long a snapshot is used after it was taken
+     * @param unit unit of expireAfter
+     */
+    CatalogSnapshots(long maxKeys, long expireAfter, TimeUnit unit) {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxKeys)
+                .weigher((List<Object> key, Snapshot snapshot) -> Math.max(1, snapshot.size()))
+                .expireAfterWrite(expireAfter, unit)
+                .recordStats()
+                .build();
+    }
+
+    static CatalogSnapshots fromSystemProperties() {
+        return new CatalogSnapshots(
+                Long.getLong(PROP_BASE + ".maxKeys", 2_000_000),
+                Long.getLong(PROP_BASE + ".expireAfterSeconds", 120),
+                TimeUnit.SECONDS);
+    }
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(PROP_BASE + ".enabled");
+    }
+
+    /**
+     * @return the snapshot of the request, taken with loader if there isn't a current one.
+     */
+    Snapshot get(Kind kind, CatalogRequestParameters params, Supplier<Snapshot> loader) {
+        try {
+            return cache.get(Arrays.asList(kind, params), loader::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return the current snapshot of the request, or null if it was never taken or expired.
+     */
+    Snapshot getIfPresent(Kind kind, CatalogRequestParameters params) {
+        return cache.getIfPresent(Arrays.asList(kind, params));
+    }
+
+    /**
+     * Puts the entries of a page in snapshot order.  The database may sort ids with a
+     * different case the other way around, and the last entry has to be the last key of the
+     * page so the next page starts after it.
+     */
+    static List<CatalogEntry> inSnapshotOrder(List<? extends CatalogEntry> entries) {
+        List<CatalogEntry> retval = new ArrayList<>(entries);
+        retval.sort(Comparator.comparing(CatalogEntry::getCursor));
+        return retval;
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    /**
+     * The keys of a catalog in page order: by upper case office, then upper case id.
+     */
+    static final class Snapshot {
+        private final String[] offices;
+        private final String[] ids;
+        private final long[] codes;
+
+        private Snapshot(String[] offices, String[] ids, long[] codes) {
+            this.offices = offices;
+            this.ids = ids;
+            this.codes = codes;
+        }
+
+        int size() {
+            return codes.length;
+        }
+
+        /**
+         * @return the position of the first key after the cursor.
+         */
+        int after(String office, String id) {
+            String upperOffice = office.toUpperCase();
+            String upperId = id.toUpperCase();
+            int low = 0;
+            int high = codes.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int compared = offices[middle].compareTo(upperOffice);
+                if (compared == 0) {
+                    compared = ids[middle].compareTo(upperId);
+                }
+                if (compared <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the codes of up to count keys starting at position from.
+         */
+        List<Long> codes(int from, int count) {
+            int to = Math.min(codes.length, from + count);
+            List<Long> retval = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                retval.add(codes[i]);
+            }
+            return retval;
+        }
+    }
+
+    /**
+     * Collects the keys of a snapshot in any order.
+     */
+    static final class Builder {
+        private final List<Key> keys = new ArrayList<>();
+        // a catalog has few offices but many keys, share the names
+        private final Map<String, String> officeNames = new HashMap<>();
+
+        Builder add(String office, String id, long code) {
+            String upperOffice = officeNames.computeIfAbsent(office, String::toUpperCase);
+            keys.add(new Key(upperOffice, id.toUpperCase(), code));
+            return this;
+        }
+
+        Snapshot build() {
+            keys.sort(Comparator.comparing((Key k) -> k.office).thenComparing(k -> k.id));
+            String[] offices = new String[keys.size()];
+            String[] ids = new String[keys.size()];
+            long[] codes = new long[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                Key key = keys.get(i);
+                offices[i] = key.office;
+                ids[i] = key.id;
+                codes[i] = key.code;
+            }
+            return new Snapshot(offices, ids, codes);
+        }
+    }
+
+    private static final class Key {
+        private final String office;
+        private final String id;
+        private final long code;
+
+        private Key(String office, String id, long code) {
+            this.office = office;
+            this.id = id;
+            this.code = code;
+        }
+    }
+}
@@ -253,8 +253,8 @@ public class ClobDao extends JooqDao<Clob> {
     public void getClob(String clobId, String officeId, ClobConsumer clobConsumer) {
         // Not using jOOQ here because we want the java.sql.Clob and not an automatic field binding.  We want
         // clob so that we can pull out a stream to the data and pass that to javalin.
-        // If the request included Content-Ranges Javalin can have the stream skip to the correct
-        // location, which will avoid reading unneeded data.  Passing this stream right to the javalin
+        // If the request included a Range only that part of the LOB is read, which avoids reading
+        // unneeded data.  Passing this stream right to the javalin
         // response should let CDA return a huge (2Gb) clob to the client without ever holding the entire String
         // in memory.
         // We can't use the stream once the connection we get from jooq is closed, so we have to pass in
@@ -263,6 +263,7 @@ public class ClobDao extends JooqDao<Clob> {
 
         dsl.connection(connection -> {
             try (PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CLOB_QUERY)) {
+                BlobDao.prefetchLobs(preparedStatement);
                 preparedStatement.setString(1, officeId);
                 preparedStatement.setString(2, clobId);
 
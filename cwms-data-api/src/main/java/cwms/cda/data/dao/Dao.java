@@ -27,6 +27,7 @@ package cwms.cda.data.dao;
 import static usace.cwms.db.jooq.codegen.tables.AV_DB_CHANGE_LOG.AV_DB_CHANGE_LOG;
 
 import cwms.cda.data.dto.CwmsDTO;
+import cwms.cda.datasource.SessionState;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
@@ -59,6 +60,14 @@ public abstract class Dao<T> {
     }
 
     public int getDbVersion() {
+        return getDbVersion(dsl);
+    }
+
+    /**
+     * Same as {@link #getDbVersion()} but reads through the given context, so a context bound
+     * to an open connection does not check out another one.
+     */
+    protected static int getDbVersion(DSLContext dsl) {
         String version = getVersion(dsl);
         String[] parts = version.split("\\.");
         return Integer.parseInt(parts[0]) * 10000
@@ -79,7 +88,7 @@ public abstract class Dao<T> {
 
     protected void setOffice(Connection c, String office) throws SQLException {
         CwmsDbEnv db = CwmsDbServiceLookup.buildCwmsDb(CwmsDbEnv.class, c);
-        db.setSessionOfficeId(c,office);
+        SessionState.apply(c, SessionState.OFFICE, office, () -> db.setSessionOfficeId(c, office));
     }
 
 
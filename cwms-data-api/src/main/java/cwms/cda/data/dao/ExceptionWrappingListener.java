@@ -1,5 +1,6 @@
 package cwms.cda.data.dao;
 
+import cwms.cda.datasource.SessionState;
 import org.jooq.ExecuteContext;
 import org.jooq.impl.DefaultExecuteListener;
 
@@ -9,6 +10,10 @@ class ExceptionWrappingListener extends DefaultExecuteListener {
     public void exception(ExecuteContext ctx) {
         super.exception(ctx);
 
+        if (ctx.connection() != null) {
+            SessionState.failed(ctx.connection(), ctx.exception());
+        }
+
         RuntimeException exception = JooqDao.wrapException(ctx.exception());
 
         ctx.exception(exception);
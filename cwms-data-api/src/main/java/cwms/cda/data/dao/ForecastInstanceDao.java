@@ -16,7 +16,6 @@ import usace.cwms.db.jooq.codegen.packages.CWMS_FCST_PACKAGE;
 import usace.cwms.db.jooq.codegen.udt.records.BLOB_FILE_T;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URLEncoder;
 import java.sql.Blob;
 import java.sql.Connection;
@@ -135,7 +134,7 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
             return null;
         }
         try {
-            return JsonV2.buildObjectMapper().writeValueAsString(metadata);
+            return JsonV2.codecs().getMapper().writeValueAsString(metadata);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error serializing forecast info to JSON", e);
         }
@@ -143,7 +142,7 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
 
     private static Map<String, String> mapFromJson(String forecastInfo) {
         try {
-            return JsonV2.buildObjectMapper().readValue(forecastInfo, new TypeReference<Map<String, String>>() {
+            return JsonV2.codecs().getMapper().readValue(forecastInfo, new TypeReference<Map<String, String>>() {
             });
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error serializing forecast info to JSON", e);
@@ -215,9 +214,7 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
                             + format(param, Controllers.DESIGNATOR, URLEncoder.encode(designator, utf8))
                             + format(param, Controllers.OFFICE, URLEncoder.encode(officeId, utf8));
                 } else {
-                    try (InputStream is = blob.getBinaryStream()) {
-                        fileData = BlobDao.readFully(is);
-                    }
+                    fileData = BlobDao.readFully(blob);
                 }
             }
         }
@@ -299,6 +296,7 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
         String query = FILE_QUERY + FILE_CONDITIONS;
         connection(dsl, c -> {
             try (PreparedStatement preparedStatement = c.prepareStatement(query)) {
+                BlobDao.prefetchLobs(preparedStatement);
                 preparedStatement.setString(1, office);
                 preparedStatement.setString(2, name);
                 preparedStatement.setString(3, designator);
@@ -33,11 +33,11 @@ import cwms.cda.api.errors.AlreadyExists;
 import cwms.cda.api.errors.InvalidItemException;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.datasource.ConnectionPreparingDataSource;
+import cwms.cda.datasource.SessionState;
 import cwms.cda.security.CwmsAuthException;
 import io.javalin.http.Context;
 import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -133,18 +133,36 @@ public abstract class JooqDao<T> extends Dao<T> {
         // This method should probably be called from within a connection{  } block and jOOQ
         // code within the block should use the returned DSLContext or the connection.
         DSLContext dsl = DSL.using(connection, SQLDialect.ORACLE18C);
-        CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+        setSessionOffice(connection, officeId);
 
         return dsl;
     }
 
+    /**
+     * Sets the CWMS session office of the connection unless its session already has it.
+     * Code that changes the session office must come through here so that
+     * {@link SessionState} stays right about the pooled connections.
+     *
+     * @param connection the connection to set the office on
+     * @param officeId the office
+     */
+    public static void setSessionOffice(Connection connection, String officeId) {
+        try {
+            SessionState.apply(connection, SessionState.OFFICE, officeId, () ->
+                    CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(
+                            DSL.using(connection, SQLDialect.ORACLE18C).configuration(), officeId));
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to set session office id to " + officeId, e);
+        }
+    }
+
     private static Connection setClientInfo(Context ctx, Connection connection) {
         try {
-            connection.setClientInfo("OCSID.ECID", ApiServlet.APPLICATION_TITLE + " " + ApiServlet.VERSION);
-            connection.setClientInfo("OCSID.MODULE", ctx.endpointHandlerPath());
-            connection.setClientInfo("OCSID.ACTION", ctx.method());
-            connection.setClientInfo("OCSID.CLIENTID", ctx.url().replace(ctx.path(), "") + ctx.contextPath());
-        } catch (SQLClientInfoException ex) {
+            setClientInfo(connection, "OCSID.ECID", ApiServlet.APPLICATION_TITLE + " " + ApiServlet.VERSION);
+            setClientInfo(connection, "OCSID.MODULE", ctx.endpointHandlerPath());
+            setClientInfo(connection, "OCSID.ACTION", ctx.method());
+            setClientInfo(connection, "OCSID.CLIENTID", ctx.url().replace(ctx.path(), "") + ctx.contextPath());
+        } catch (SQLException ex) {
             logger.atWarning()
                     .withCause(ex)
                     .log("Unable to set client info on connection.");
@@ -152,6 +170,11 @@ public abstract class JooqDao<T> extends Dao<T> {
         return connection;
     }
 
+    private static void setClientInfo(Connection connection, String name, String value)
+            throws SQLException {
+        SessionState.apply(connection, name, value, () -> connection.setClientInfo(name, value));
+    }
+
     @Override
     public List<T> getAll(String officeId) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -523,7 +546,14 @@ public abstract class JooqDao<T> extends Dao<T> {
      */
     protected static void connection(DSLContext dslContext, ConnectionRunnable cr) {
         try {
-            dslContext.connection(cr);
+            dslContext.connection(c -> {
+                try {
+                    cr.run(c);
+                } catch (Throwable e) {
+                    SessionState.failed(c, e);
+                    throw e;
+                }
+            });
         } catch (RuntimeException e) {
             throw wrapException(e);
         }
@@ -538,7 +568,14 @@ public abstract class JooqDao<T> extends Dao<T> {
      */
     protected static <R> R connectionResult(DSLContext dslContext, ConnectionCallable<R> var1) {
         try {
-            return dslContext.connectionResult(var1);
+            return dslContext.connectionResult(c -> {
+                try {
+                    return var1.run(c);
+                } catch (Throwable e) {
+                    SessionState.failed(c, e);
+                    throw e;
+                }
+            });
         } catch (RuntimeException e) {
             throw wrapException(e);
         }
@@ -0,0 +1,216 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.data.dto.CwmsDTOPaginated;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SortField;
+import org.jooq.impl.DSL;
+
+/**
+ * Keyset ("seek") paging over a fixed, ascending sort order.  Instead of an offset the page
+ * cursor carries the sort key of the last row returned, and the next page is the rows that sort
+ * after it, so the database does the same work for page 100 as for page 1.
+ * <p>
+ * The keys must identify a row, otherwise rows that tie with the last row of a page are lost.
+ * Nulls sort last.  Cursors are built on {@link CwmsDTOPaginated#encodeCursor(String, int,
+ * Integer)}: the key, the total and the page size.  Cursors from before keyset paging, which
+ * carry an offset instead of a key, are still honoured.
+ */
+public final class KeysetCursor {
+    private static final Logger logger = Logger.getLogger(KeysetCursor.class.getName());
+
+    private static final String PREFIX = "keys:";
+    private static final String SEPARATOR = ",";
+    private static final String NULL = "~";
+    private static final String ALIAS = "cda_key_";
+
+    private final List<Field<?>> keys;
+    private final List<Field<?>> selected;
+
+    /**
+     * @param keys the sort key, most significant first, each sorted ascending
+     */
+    public KeysetCursor(Field<?>... keys) {
+        this.keys = Collections.unmodifiableList(Arrays.asList(keys));
+        List<Field<?>> aliased = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            aliased.add(keys[i].as(ALIAS + i));
+        }
+        this.selected = Collections.unmodifiableList(aliased);
+    }
+
+    /**
+     * @return the keys to add to the select list, so the key of the last row can be read back
+     *     even when a key is an expression such as upper(office_id).
+     */
+    public List<Field<?>> fields() {
+        return selected;
+    }
+
+    /**
+     * @return the order by clause the keys describe.
+     */
+    public List<SortField<?>> orderBy() {
+        List<SortField<?>> retval = new ArrayList<>();
+        for (Field<?> key : keys) {
+            retval.add(key.asc().nullsLast());
+        }
+        return retval;
+    }
+
+    /**
+     * Reads the page a cursor points at.
+     *
+     * @param cursor the cursor from the request, null or empty for the first page
+     * @param pageSize the page size to use if the cursor doesn't have one
+     */
+    public Page page(@Nullable String cursor, int pageSize) {
+        String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
+        if (parts.length <= 2) {
+            return new Page(null, 0, null, pageSize);
+        }
+        Integer total = null;
+        if (!"null".equals(parts[1])) {
+            try {
+                total = Integer.valueOf(parts[1]);
+            } catch (NumberFormatException e) {
+                logger.log(Level.INFO, "Could not parse {0}", parts[1]);
+            }
+        }
+        pageSize = Integer.parseInt(parts[2]);
+        if (!parts[0].startsWith(PREFIX)) {
+            return new Page(null, Integer.parseInt(parts[0]), total, pageSize);
+        }
+        String[] encoded = parts[0].substring(PREFIX.length()).split(SEPARATOR, -1);
+        if (encoded.length != keys.size()) {
+            throw new IllegalArgumentException("Cursor does not match this list.");
+        }
+        Object[] values = new Object[encoded.length];
+        for (int i = 0; i < encoded.length; i++) {
+            values[i] = decode(keys.get(i), encoded[i]);
+        }
+        return new Page(values, 0, total, pageSize);
+    }
+
+    /**
+     * @param last the last row of a page, selected with {@link #fields()}
+     * @return the key of the next page, for the page argument of a paginated DTO.
+     */
+    public String next(Record last) {
+        StringBuilder builder = new StringBuilder(PREFIX);
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(encode(last.get(selected.get(i))));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Where a request is in the list.
+     */
+    public final class Page {
+        @Nullable
+        private final Object[] after;
+        private final int offset;
+        private final Integer total;
+        private final int pageSize;
+
+        private Page(@Nullable Object[] after, int offset, Integer total, int pageSize) {
+            this.after = after;
+            this.offset = offset;
+            this.total = total;
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * @return the rows that sort after the last row of the previous page.
+         */
+        public Condition condition() {
+            if (after == null) {
+                return DSL.noCondition();
+            }
+            // (k1 > v1) or (k1 = v1 and k2 > v2) or ... with nulls sorted last
+            List<Condition> alternatives = new ArrayList<>();
+            List<Condition> ties = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                @SuppressWarnings("unchecked")
+                Field<Object> key = (Field<Object>) keys.get(i);
+                Object value = after[i];
+                if (value != null) {
+                    List<Condition> alternative = new ArrayList<>(ties);
+                    alternative.add(key.gt(value).or(key.isNull()));
+                    alternatives.add(DSL.and(alternative));
+                }
+                ties.add(value == null ? key.isNull() : key.eq(value));
+            }
+            return alternatives.isEmpty() ? DSL.falseCondition() : DSL.or(alternatives);
+        }
+
+        /**
+         * @return the rows to skip, only ever non zero for a cursor from before keyset paging.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        @Nullable
+        public Integer getTotal() {
+            return total;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        /**
+         * @return the cursor of this page, for the page argument of a paginated DTO.
+         */
+        public String getPage() {
+            if (after == null) {
+                return Integer.toString(offset);
+            }
+            StringBuilder builder = new StringBuilder(PREFIX);
+            for (int i = 0; i < after.length; i++) {
+                if (i > 0) {
+                    builder.append(SEPARATOR);
+                }
+                builder.append(encode(after[i]));
+            }
+            return builder.toString();
+        }
+    }
+
+    private static String encode(@Nullable Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        String text = value instanceof java.util.Date
+                ? Long.toString(((java.util.Date) value).getTime()) : value.toString();
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    private static Object decode(Field<?> key, String encoded) {
+        if (NULL.equals(encoded)) {
+            return null;
+        }
+        String text = new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+        if (Timestamp.class.equals(key.getType())) {
+            return new Timestamp(Long.parseLong(text));
+        }
+        return key.getDataType().convert(text);
+    }
+}
@@ -0,0 +1,280 @@
+package cwms.cda.data.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.geojson.Feature;
+import org.geojson.FeatureCollection;
+import org.geojson.LngLatAlt;
+import org.geojson.Point;
+
+/**
+ * Keeps the GeoJSON features of an office's locations on a grid of latitude and longitude
+ * cells so a map viewport gets the features inside its bounding box without reading the
+ * office's other locations.  Below {@value #PROP_BASE}.clusterBelowZoom features that share a
+ * cell of the requested zoom level are merged into one cluster feature, so the size of the
+ * response follows what can be seen rather than how many locations there are.
+ * <p>
+ * The features are read again {@value #PROP_BASE}.expireAfterSeconds after they were loaded,
+ * or when a location of the office is changed through this server.
+ */
+final class LocationFeatureIndex {
+    static final String PROP_BASE = "cwms.cda.data.dao.locationFeatures";
+    static final String CLUSTER = "cluster";
+    static final String POINT_COUNT = "point-count";
+
+    // 0.25 degree cells, about 28 km north to south
+    private static final double CELL = 0.25;
+    private static final int COLUMNS = (int) (360 / CELL);
+    private static final int ROWS = (int) (180 / CELL);
+    // clusters are a quarter of a 256 pixel map tile across, 64 pixels
+    private static final int CLUSTERS_PER_TILE = 4;
+
+    private final Cache<List<String>, Snapshot> cache;
+    private final int clusterBelowZoom;
+
+    /**
+     * @param expireAfter how long the features of an office are used after they were read
+     * @param unit unit of expireAfter
+     * @param clusterBelowZoom zoom levels under this are clustered
+     */
+    LocationFeatureIndex(long expireAfter, TimeUnit unit, int clusterBelowZoom) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(256)
+                .expireAfterWrite(expireAfter, unit)
+                .build();
+        this.clusterBelowZoom = clusterBelowZoom;
+    }
+
+    static LocationFeatureIndex fromSystemProperties() {
+        return new LocationFeatureIndex(Long.getLong(PROP_BASE + ".expireAfterSeconds", 120),
+                TimeUnit.SECONDS, Integer.getInteger(PROP_BASE + ".clusterBelowZoom", 10));
+    }
+
+    /**
+     * @return the features of the office in the unit system, read with loader if they aren't
+     *     held.
+     */
+    Snapshot get(String office, String unitSystem, Supplier<Snapshot> loader) {
+        try {
+            return cache.get(Arrays.asList(office, unitSystem), loader::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    void invalidate(String office) {
+        cache.asMap().keySet().removeIf(key -> key.get(0) != null
+                && key.get(0).equalsIgnoreCase(office));
+    }
+
+    /**
+     * @param bbox west, south, east, north in degrees.  A west edge greater than the east edge
+     *     crosses the antimeridian.
+     * @param zoom the map zoom level, or null to never cluster
+     * @param names the ids of the locations to include, or null for all
+     */
+    FeatureCollection query(Snapshot snapshot, double[] bbox, Integer zoom, Set<String> names) {
+        List<Integer> visible = new ArrayList<>();
+        if (bbox[0] <= bbox[2]) {
+            snapshot.within(bbox[0], bbox[1], bbox[2], bbox[3], names, visible);
+        } else {
+            snapshot.within(bbox[0], bbox[1], 180, bbox[3], names, visible);
+            snapshot.within(-180, bbox[1], bbox[2], bbox[3], names, visible);
+        }
+
+        List<Feature> features = new ArrayList<>(visible.size());
+        if (zoom != null && zoom < clusterBelowZoom) {
+            double size = 360.0 / (1L << zoom) / CLUSTERS_PER_TILE;
+            Map<Long, Cluster> clusters = new LinkedHashMap<>();
+            for (int i : visible) {
+                long row = (long) Math.floor((snapshot.latitudes[i] + 90) / size);
+                long column = (long) Math.floor((snapshot.longitudes[i] + 180) / size);
+                clusters.computeIfAbsent(row * (1L << 32) + column, k -> new Cluster())
+                        .add(snapshot, i);
+            }
+            for (Cluster cluster : clusters.values()) {
+                features.add(cluster.toFeature(snapshot));
+            }
+        } else {
+            for (int i : visible) {
+                features.add(snapshot.features[i]);
+            }
+        }
+
+        FeatureCollection collection = new FeatureCollection();
+        collection.setFeatures(features);
+        return collection;
+    }
+
+    private static int column(double longitude) {
+        return Math.max(0, Math.min(COLUMNS - 1, (int) Math.floor((longitude + 180) / CELL)));
+    }
+
+    private static int row(double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL)));
+    }
+
+    /**
+     * The features of one office, sorted by grid cell.
+     */
+    static final class Snapshot {
+        private final Feature[] features;
+        private final String[] ids;
+        private final double[] longitudes;
+        private final double[] latitudes;
+        private final int[] cells;
+
+        private Snapshot(Feature[] features, String[] ids, double[] longitudes,
+                         double[] latitudes, int[] cells) {
+            this.features = features;
+            this.ids = ids;
+            this.longitudes = longitudes;
+            this.latitudes = latitudes;
+            this.cells = cells;
+        }
+
+        int size() {
+            return features.length;
+        }
+
+        private void within(double west, double south, double east, double north,
+                            Set<String> names, List<Integer> retval) {
+            int firstColumn = column(west);
+            int lastColumn = column(east);
+            for (int row = row(south); row <= row(north); row++) {
+                int rowStart = row * COLUMNS;
+                int to = lowerBound(rowStart + lastColumn + 1);
+                for (int i = lowerBound(rowStart + firstColumn); i < to; i++) {
+                    if (longitudes[i] >= west && longitudes[i] <= east
+                            && latitudes[i] >= south && latitudes[i] <= north
+                            && (names == null || names.contains(ids[i]))) {
+                        retval.add(i);
+                    }
+                }
+            }
+        }
+
+        private int lowerBound(int cell) {
+            int low = 0;
+            int high = cells.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cells[middle] < cell) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Collects the features of an office in any order.
+     */
+    static final class Builder {
+        private final List<Item> items = new ArrayList<>();
+
+        /**
+         * @param feature a feature with a point geometry
+         * @param locationId the id the names filter matches
+         */
+        Builder add(Feature feature, String locationId) {
+            items.add(new Item(feature, locationId));
+            return this;
+        }
+
+        Snapshot build() {
+            items.sort(Comparator.comparingInt(item -> item.cell));
+            int size = items.size();
+            Feature[] features = new Feature[size];
+            String[] ids = new String[size];
+            double[] longitudes = new double[size];
+            double[] latitudes = new double[size];
+            int[] cells = new int[size];
+            for (int i = 0; i < size; i++) {
+                Item item = items.get(i);
+                features[i] = item.feature;
+                ids[i] = item.id;
+                longitudes[i] = item.longitude;
+                latitudes[i] = item.latitude;
+                cells[i] = item.cell;
+            }
+            return new Snapshot(features, ids, longitudes, latitudes, cells);
+        }
+    }
+
+    private static final class Item {
+        private final Feature feature;
+        private final String id;
+        private final double longitude;
+        private final double latitude;
+        private final int cell;
+
+        private Item(Feature feature, String id) {
+            this.feature = feature;
+            this.id = id;
+            LngLatAlt coordinates = ((Point) feature.getGeometry()).getCoordinates();
+            this.longitude = coordinates.getLongitude();
+            this.latitude = coordinates.getLatitude();
+            this.cell = row(latitude) * COLUMNS + column(longitude);
+        }
+    }
+
+    private static final class Cluster {
+        private int first = -1;
+        private int count;
+        private double longitudeSum;
+        private double latitudeSum;
+        private double west = Double.MAX_VALUE;
+        private double south = Double.MAX_VALUE;
+        private double east = -Double.MAX_VALUE;
+        private double north = -Double.MAX_VALUE;
+
+        private void add(Snapshot snapshot, int i) {
+            if (first < 0) {
+                first = i;
+            }
+            count++;
+            double longitude = snapshot.longitudes[i];
+            double latitude = snapshot.latitudes[i];
+            longitudeSum += longitude;
+            latitudeSum += latitude;
+            west = Math.min(west, longitude);
+            east = Math.max(east, longitude);
+            south = Math.min(south, latitude);
+            north = Math.max(north, latitude);
+        }
+
+        /**
+         * @return the feature itself for a single location, otherwise a point at the mean
+         *     position of the locations with their count and bounding box.
+         */
+        private Feature toFeature(Snapshot snapshot) {
+            if (count == 1) {
+                return snapshot.features[first];
+            }
+            Feature feature = new Feature();
+            feature.setGeometry(new Point(longitudeSum / count, latitudeSum / count));
+            feature.setBbox(new double[]{west, south, east, north});
+            feature.setProperty(CLUSTER, true);
+            feature.setProperty(POINT_COUNT, count);
+            return feature;
+        }
+    }
+}
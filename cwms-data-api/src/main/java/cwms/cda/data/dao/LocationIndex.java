@@ -0,0 +1,640 @@
+package cwms.cda.data.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An in-process index of the location ids of every office, with their kinds, types and
+ * bounding offices, so the regular expression searches of the location catalog and
+ * /locations can find the matching location codes without a regexp_like scan of the views.
+ * <p>
+ * Ids are kept sorted for anchored prefixes like "^KEY" and have trigram posting lists for
+ * other literal text like "Lake", so only a few candidates are checked against the
+ * expression.  Searches the index can't answer the way Oracle would, such as expressions
+ * using POSIX classes or back references, or searches matching more than
+ * {@value #PROP_BASE}.maxMatches locations, return null and the caller queries the database
+ * as before.
+ * <p>
+ * Locations stored, renamed or deleted through this server are applied right away; changes
+ * made elsewhere show up when the index is reloaded, {@value #PROP_BASE}.refreshSeconds after
+ * the previous load.  The index is off unless {@value #PROP_BASE}.enabled is set.
+ */
+final class LocationIndex {
+    private static final Logger logger = Logger.getLogger(LocationIndex.class.getName());
+    static final String PROP_BASE = "cwms.cda.data.dao.locationIndex";
+    private static final String MATCH_ALL = ".*";
+    private static final int GRAM = 3;
+
+    private final long refreshNanos;
+    private final int maxMatches;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    // locations changed since the current contents were loaded, by key
+    private final Map<String, Entry> changes = new ConcurrentHashMap<>();
+    private volatile Contents contents;
+
+    /**
+     * @param refreshAfter how long the contents are used before they are loaded again
+     * @param unit unit of refreshAfter
+     * @param maxMatches the most codes a search returns, more and the database is asked
+     */
+    LocationIndex(long refreshAfter, TimeUnit unit, int maxMatches) {
+        this.refreshNanos = unit.toNanos(refreshAfter);
+        this.maxMatches = maxMatches;
+    }
+
+    static LocationIndex fromSystemProperties() {
+        return new LocationIndex(Long.getLong(PROP_BASE + ".refreshSeconds", 300),
+                TimeUnit.SECONDS, Integer.getInteger(PROP_BASE + ".maxMatches", 1000));
+    }
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(PROP_BASE + ".enabled");
+    }
+
+    /**
+     * Finds the locations matching a search.
+     *
+     * @param query the search, see {@link Query#of}
+     * @param loader reads every location, called when the index is empty or due a reload.
+     *     Only one caller loads at a time, the others keep using the previous contents.
+     * @return the codes of the matching locations, or null if the index can't answer.
+     */
+    List<Long> find(Query query, Supplier<Contents> loader) {
+        Contents current = contents(loader);
+        if (current == null) {
+            return null;
+        }
+        boolean changed = !changes.isEmpty();
+        List<Long> retval = new ArrayList<>();
+        for (int i : current.candidates(query)) {
+            Entry entry = current.entries[i];
+            if ((changed && changes.containsKey(entry.key)) || !query.matches(entry)) {
+                continue;
+            }
+            if (retval.size() == maxMatches) {
+                return null;
+            }
+            retval.add(entry.code);
+        }
+        if (changed) {
+            for (Entry entry : changes.values()) {
+                if (!entry.deleted && query.matches(entry)) {
+                    if (retval.size() == maxMatches) {
+                        return null;
+                    }
+                    retval.add(entry.code);
+                }
+            }
+        }
+        return retval;
+    }
+
+    private Contents contents(Supplier<Contents> loader) {
+        Contents current = contents;
+        if ((current == null || System.nanoTime() - current.loadedAt > refreshNanos)
+                && loading.compareAndSet(false, true)) {
+            try {
+                Contents loaded = loader.get();
+                contents = loaded;
+                // changes from before the load started are in the new contents
+                changes.values().removeIf(e -> e.changedAt - loaded.loadedAt < 0);
+                logger.log(Level.FINE, "Loaded {0} locations in {1} ms", new Object[]{
+                    loaded.entries.length,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loaded.loadedAt)});
+                current = loaded;
+            } finally {
+                loading.set(false);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Records a location that was stored or renamed to.
+     */
+    void put(Entry entry) {
+        changes.put(entry.key, entry);
+    }
+
+    /**
+     * Records a location that was deleted or renamed from.
+     */
+    void remove(String office, String id) {
+        Entry entry = new Entry(office, id, 0, null, null, null, true);
+        changes.put(entry.key, entry);
+    }
+
+    void clear() {
+        contents = null;
+        changes.clear();
+    }
+
+    /**
+     * Folds the case of each character the way a case insensitive Java pattern compares
+     * them, one character for one so positions are kept.
+     */
+    static String fold(CharSequence text) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(text.charAt(i)));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * One location.
+     */
+    static final class Entry {
+        private final String id;
+        private final long code;
+        private final String kind;
+        private final String type;
+        private final String boundingOffice;
+        private final boolean deleted;
+        private final String foldedOffice;
+        private final String foldedId;
+        private final String key;
+        private final long changedAt = System.nanoTime();
+
+        Entry(String office, String id, long code, String kind, String type,
+              String boundingOffice) {
+            this(office, id, code, kind, type, boundingOffice, false);
+        }
+
+        private Entry(String office, String id, long code, String kind, String type,
+                      String boundingOffice, boolean deleted) {
+            this.id = id;
+            this.code = code;
+            this.kind = kind;
+            this.type = type;
+            this.boundingOffice = boundingOffice;
+            this.deleted = deleted;
+            this.foldedOffice = fold(office);
+            this.foldedId = fold(id);
+            this.key = foldedOffice + "/" + foldedId;
+        }
+    }
+
+    /**
+     * A loaded copy of every location.
+     */
+    static final class Contents {
+        private final Entry[] entries;
+        // entries are sorted by their folded id, this is the same order
+        private final String[] foldedIds;
+        private final Map<String, int[]> trigrams;
+        private final long loadedAt;
+
+        private Contents(Entry[] entries, Map<String, int[]> trigrams, long loadedAt) {
+            this.entries = entries;
+            this.trigrams = trigrams;
+            this.loadedAt = loadedAt;
+            this.foldedIds = new String[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                foldedIds[i] = entries[i].foldedId;
+            }
+        }
+
+        int size() {
+            return entries.length;
+        }
+
+        /**
+         * @return the positions of the entries that may match, in order.
+         */
+        int[] candidates(Query query) {
+            if (query.prefix != null) {
+                int from = lowerBound(query.prefix);
+                int to = from;
+                while (to < foldedIds.length && foldedIds[to].startsWith(query.prefix)) {
+                    to++;
+                }
+                return range(from, to);
+            }
+            if (query.literal != null) {
+                return postings(query.literal);
+            }
+            return range(0, entries.length);
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = foldedIds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (foldedIds[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static int[] range(int from, int to) {
+            int[] retval = new int[to - from];
+            for (int i = 0; i < retval.length; i++) {
+                retval[i] = from + i;
+            }
+            return retval;
+        }
+
+        /**
+         * @return the entries having every trigram of the literal.
+         */
+        private int[] postings(String literal) {
+            int[] retval = null;
+            for (int i = 0; i + GRAM <= literal.length(); i++) {
+                int[] list = trigrams.get(literal.substring(i, i + GRAM));
+                if (list == null) {
+                    return new int[0];
+                }
+                retval = retval == null ? list : intersect(retval, list);
+                if (retval.length == 0) {
+                    break;
+                }
+            }
+            return retval;
+        }
+
+        private static int[] intersect(int[] left, int[] right) {
+            int[] retval = new int[Math.min(left.length, right.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < left.length && j < right.length) {
+                if (left[i] < right[j]) {
+                    i++;
+                } else if (left[i] > right[j]) {
+                    j++;
+                } else {
+                    retval[count++] = left[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(retval, count);
+        }
+    }
+
+    /**
+     * Collects the locations of the index in any order.
+     */
+    static final class Builder {
+        private final long startedAt = System.nanoTime();
+        private final List<Entry> entries = new ArrayList<>();
+
+        Builder add(Entry entry) {
+            entries.add(entry);
+            return this;
+        }
+
+        Contents build() {
+            Entry[] sorted = entries.toArray(new Entry[0]);
+            Arrays.sort(sorted, Comparator.comparing((Entry e) -> e.foldedId)
+                    .thenComparing(e -> e.foldedOffice));
+
+            // count first so each posting list is allocated once
+            Map<String, int[]> counts = new HashMap<>();
+            forEachTrigram(sorted, (gram, i) -> counts.computeIfAbsent(gram, g -> new int[1])[0]++);
+            Map<String, int[]> trigrams = new HashMap<>(counts.size() * 2);
+            counts.forEach((gram, count) -> trigrams.put(gram, new int[count[0]]));
+            forEachTrigram(sorted, (gram, i) -> {
+                int[] list = trigrams.get(gram);
+                int[] fill = counts.get(gram);
+                list[list.length - fill[0]--] = i;
+            });
+            return new Contents(sorted, trigrams, startedAt);
+        }
+
+        private interface TrigramConsumer {
+            void accept(String gram, int position);
+        }
+
+        /**
+         * Gives each distinct trigram of each id once, in order of the entries.
+         */
+        private static void forEachTrigram(Entry[] sorted, TrigramConsumer consumer) {
+            for (int i = 0; i < sorted.length; i++) {
+                String id = sorted[i].foldedId;
+                Set<String> seen = new HashSet<>();
+                for (int j = 0; j + GRAM <= id.length(); j++) {
+                    String gram = id.substring(j, j + GRAM);
+                    if (seen.add(gram)) {
+                        consumer.accept(gram, i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A search with Oracle's case insensitive regexp_like semantics for each filter that is
+     * set.
+     */
+    static final class Query {
+        private final String office;
+        private final Pattern id;
+        private final Pattern kind;
+        private final Pattern type;
+        private final Pattern boundingOffice;
+        // folded text every matching id starts with, or contains
+        private final String prefix;
+        private final String literal;
+
+        private Query(String office, Pattern id, Pattern kind, Pattern type,
+                      Pattern boundingOffice, String prefix, String literal) {
+            this.office = office == null ? null : fold(office);
+            this.id = id;
+            this.kind = kind;
+            this.type = type;
+            this.boundingOffice = boundingOffice;
+            this.prefix = prefix;
+            this.literal = literal;
+        }
+
+        /**
+         * @param office the office of the locations, or null for all
+         * @param idLike expression the id matches, or null
+         * @param kindLike expression the kind matches, or null
+         * @param typeLike expression the type matches, or null
+         * @param boundingOfficeLike expression the bounding office matches, or null
+         * @return the query, or null if it filters nothing but the office or an expression
+         *     can't be evaluated here exactly like the database would.
+         */
+        static Query of(String office, String idLike, String kindLike, String typeLike,
+                        String boundingOfficeLike) {
+            if (idLike != null && MATCH_ALL.equals(idLike.trim())) {
+                idLike = null;
+            }
+            if (idLike == null && kindLike == null && typeLike == null
+                    && boundingOfficeLike == null) {
+                return null;
+            }
+            Pattern id = null;
+            String prefix = null;
+            String literal = null;
+            if (idLike != null) {
+                id = compile(idLike);
+                if (id == null) {
+                    return null;
+                }
+                Literals literals = Literals.of(idLike);
+                prefix = literals.prefix;
+                literal = literals.longest;
+            }
+            Pattern kind = compile(kindLike);
+            Pattern type = compile(typeLike);
+            Pattern bounding = compile(boundingOfficeLike);
+            if ((kindLike != null && kind == null) || (typeLike != null && type == null)
+                    || (boundingOfficeLike != null && bounding == null)) {
+                return null;
+            }
+            return new Query(office, id, kind, type, bounding, prefix, literal);
+        }
+
+        boolean matches(Entry entry) {
+            return (office == null || office.equals(entry.foldedOffice))
+                    && find(id, entry.id)
+                    && find(kind, entry.kind)
+                    && find(type, entry.type)
+                    && find(boundingOffice, entry.boundingOffice);
+        }
+
+        private static boolean find(Pattern pattern, String value) {
+            // like regexp_like, a null value never matches
+            return pattern == null || (value != null && pattern.matcher(value).find());
+        }
+    }
+
+    /**
+     * Compiles the POSIX extended expression as a Java pattern, if the two read it the same
+     * way.  Bracket expressions may not hold backslashes, nested brackets, POSIX classes or
+     * "&&", escapes are limited to punctuation and \d \w \s and their negations, and Java's
+     * inline flags and possessive quantifiers are refused.
+     *
+     * @return the pattern, or null if the expression isn't one of those or is null.
+     */
+    static Pattern compile(String regex) {
+        if (regex == null) {
+            return null;
+        }
+        boolean inBracket = false;
+        boolean quantified = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            char next = i + 1 < regex.length() ? regex.charAt(i + 1) : 0;
+            if (inBracket) {
+                if (c == '\\' || c == '[' || (c == '&' && next == '&')) {
+                    return null;
+                } else if (c == ']') {
+                    inBracket = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '\\':
+                    if (Character.isLetterOrDigit(next) && "dDwWsS".indexOf(next) < 0) {
+                        return null;
+                    }
+                    i++;
+                    quantified = false;
+                    break;
+                case '[':
+                    int first = next == '^' ? i + 2 : i + 1;
+                    if (first >= regex.length() || regex.charAt(first) == ']') {
+                        return null;
+                    }
+                    inBracket = true;
+                    i = first - 1;
+                    quantified = false;
+                    break;
+                case '(':
+                    if (next == '?') {
+                        return null;
+                    }
+                    quantified = false;
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                case '}':
+                    if (quantified && c == '+') {
+                        return null;
+                    }
+                    quantified = true;
+                    break;
+                default:
+                    quantified = false;
+                    break;
+            }
+        }
+        if (inBracket) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The literal text every match of an expression must contain.
+     */
+    static final class Literals {
+        // folded text a match starts with when the expression is anchored, or null
+        final String prefix;
+        // the longest folded text a match contains, or null if shorter than a trigram
+        final String longest;
+
+        private Literals(String prefix, String longest) {
+            this.prefix = prefix;
+            this.longest = longest;
+        }
+
+        /**
+         * Reads the top level of an expression accepted by {@link #compile}.  An alternation
+         * at the top level means no text is certain.  A run of text ends at a group, a
+         * bracket expression or any other atom that isn't a single character, and at an
+         * atom that may repeat a varying number of times.
+         */
+        static Literals of(String regex) {
+            if (hasTopLevelAlternation(regex)) {
+                return new Literals(null, null);
+            }
+            boolean anchored = regex.startsWith("^");
+            String prefix = null;
+            String longest = "";
+            StringBuilder run = new StringBuilder();
+            int i = anchored ? 1 : 0;
+            while (i < regex.length()) {
+                char c = regex.charAt(i);
+                char literal = 0;
+                int end;
+                if (c == '\\') {
+                    char escaped = regex.charAt(i + 1);
+                    if (!Character.isLetterOrDigit(escaped)) {
+                        literal = escaped;
+                    }
+                    end = i + 2;
+                } else if (c == '[') {
+                    end = closingBracket(regex, i) + 1;
+                } else if (c == '(') {
+                    end = closingParenthesis(regex, i) + 1;
+                } else if (c == '.' || c == '^' || c == '$') {
+                    end = i + 1;
+                } else {
+                    literal = c;
+                    end = i + 1;
+                }
+
+                int min = 1;
+                boolean exact = true;
+                if (end < regex.length()) {
+                    char q = regex.charAt(end);
+                    boolean quantifier = true;
+                    if (q == '*' || q == '?') {
+                        min = 0;
+                        exact = false;
+                        end++;
+                    } else if (q == '+') {
+                        exact = false;
+                        end++;
+                    } else if (q == '{') {
+                        int close = regex.indexOf('}', end);
+                        String[] bounds = regex.substring(end + 1, close).split(",", -1);
+                        min = Integer.parseInt(bounds[0].trim());
+                        exact = bounds.length == 1;
+                        end = close + 1;
+                    } else {
+                        quantifier = false;
+                    }
+                    if (quantifier && end < regex.length() && regex.charAt(end) == '?') {
+                        // lazy, matches the same text
+                        end++;
+                    }
+                }
+
+                if (literal != 0) {
+                    for (int n = 0; n < min; n++) {
+                        run.append(literal);
+                    }
+                }
+                if (literal == 0 || !exact) {
+                    if (anchored && prefix == null) {
+                        prefix = run.toString();
+                    }
+                    longest = longer(longest, run);
+                    run.setLength(0);
+                }
+                i = end;
+            }
+            if (anchored && prefix == null) {
+                prefix = run.toString();
+            }
+            longest = longer(longest, run);
+            return new Literals(prefix == null || prefix.isEmpty() ? null : fold(prefix),
+                    longest.length() < GRAM ? null : fold(longest));
+        }
+
+        private static String longer(String longest, CharSequence run) {
+            return run.length() > longest.length() ? run.toString() : longest;
+        }
+
+        private static boolean hasTopLevelAlternation(String regex) {
+            int depth = 0;
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == '[') {
+                    i = closingBracket(regex, i);
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == '|' && depth == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int closingBracket(String regex, int open) {
+            int first = regex.startsWith("^", open + 1) ? open + 2 : open + 1;
+            return regex.indexOf(']', first + 1);
+        }
+
+        private static int closingParenthesis(String regex, int open) {
+            int depth = 0;
+            for (int i = open; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == '[') {
+                    i = closingBracket(regex, i);
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return i;
+                }
+            }
+            return regex.length() - 1;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.data.dto.SeasonalValueBean;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Computes the values of a location level from its stored definitions, the way
+ * CWMS_LEVEL_PACKAGE.RETRIEVE_LOC_LVL_VALUES3 does, so a level time series doesn't need a value
+ * sent to the database and back for every time step.
+ * <p>
+ * A level has a definition for each effective date, which holds until the next one; there is no
+ * value before the first.  A definition is a constant, or seasonal values at offsets into an
+ * interval that repeats from an origin, held until the next value or interpolated towards it.
+ * Levels based on a time series, and virtual levels, are not handled here.
+ * <p>
+ * Instances are immutable and shared between requests.
+ */
+final class LocationLevelEvaluator {
+    private final long[] effectiveDates;
+    private final Definition[] definitions;
+
+    /**
+     * @param definitions the definitions of the level, in any order
+     */
+    LocationLevelEvaluator(List<Definition> definitions) {
+        List<Definition> sorted = new ArrayList<>(definitions);
+        sorted.sort(Comparator.comparingLong(d -> d.effectiveDate));
+        this.definitions = sorted.toArray(new Definition[0]);
+        this.effectiveDates = new long[sorted.size()];
+        for (int i = 0; i < effectiveDates.length; i++) {
+            effectiveDates[i] = this.definitions[i].effectiveDate;
+        }
+    }
+
+    /**
+     * @param times the times to compute the level at, fastest in ascending order
+     * @return the value of the level at each time, NaN where no definition is in effect.
+     */
+    double[] evaluate(List<Instant> times) {
+        double[] retval = new double[times.size()];
+        Cycle cycle = null;
+        for (int i = 0; i < retval.length; i++) {
+            long time = times.get(i).toEpochMilli();
+            int index = Arrays.binarySearch(effectiveDates, time);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index < 0) {
+                retval[i] = Double.NaN;
+                continue;
+            }
+            Definition definition = definitions[index];
+            if (definition.isConstant()) {
+                retval[i] = definition.constant;
+                continue;
+            }
+            if (cycle == null || cycle.definition != definition || !cycle.contains(time)) {
+                cycle = definition.cycleAt(time);
+            }
+            retval[i] = cycle.valueAt(time);
+        }
+        return retval;
+    }
+
+    /**
+     * One effective version of a level.
+     */
+    static final class Definition {
+        private final long effectiveDate;
+        private final double constant;
+        private final ZonedDateTime origin;
+        private final int intervalMonths;
+        private final long intervalMinutes;
+        private final boolean interpolate;
+        private final int[] offsetMonths;
+        private final long[] offsetMinutes;
+        private final double[] values;
+
+        private Definition(Instant effectiveDate, double constant, Instant origin,
+                           int intervalMonths, long intervalMinutes, boolean interpolate,
+                           List<SeasonalValueBean> seasonalValues) {
+            this.effectiveDate = effectiveDate.toEpochMilli();
+            this.constant = constant;
+            this.origin = origin == null ? null : origin.atZone(ZoneOffset.UTC);
+            this.intervalMonths = intervalMonths;
+            this.intervalMinutes = intervalMinutes;
+            this.interpolate = interpolate;
+
+            List<SeasonalValueBean> sorted = new ArrayList<>(seasonalValues);
+            sorted.sort(Comparator.comparingInt(Definition::months)
+                    .thenComparingLong(Definition::minutes));
+            offsetMonths = new int[sorted.size()];
+            offsetMinutes = new long[sorted.size()];
+            values = new double[sorted.size()];
+            for (int i = 0; i < values.length; i++) {
+                SeasonalValueBean value = sorted.get(i);
+                offsetMonths[i] = months(value);
+                offsetMinutes[i] = minutes(value);
+                values[i] = value.getValue();
+            }
+        }
+
+        static Definition constant(Instant effectiveDate, double value) {
+            return new Definition(effectiveDate, value, null, 0, 0, false,
+                    Collections.emptyList());
+        }
+
+        /**
+         * Calendar arithmetic is done in UTC, which is how the origin and effective date are
+         * stored.
+         *
+         * @param effectiveDate when the definition takes effect
+         * @param origin the start of the first interval
+         * @param intervalMonths the length of the interval in months, 0 if it is in minutes
+         * @param intervalMinutes the length of the interval in minutes, 0 if it is in months
+         * @param interpolate whether values are interpolated or held until the next
+         * @param seasonalValues the values and their offsets into the interval
+         * @throws IllegalArgumentException if there are no values or no interval
+         */
+        static Definition seasonal(Instant effectiveDate, Instant origin, int intervalMonths,
+                                   long intervalMinutes, boolean interpolate,
+                                   List<SeasonalValueBean> seasonalValues) {
+            if (seasonalValues.isEmpty()) {
+                throw new IllegalArgumentException("A seasonal level needs values.");
+            }
+            if (origin == null || intervalMonths < 0 || intervalMinutes < 0
+                    || intervalMonths + intervalMinutes == 0) {
+                throw new IllegalArgumentException("A seasonal level needs an origin and an "
+                        + "interval.");
+            }
+            return new Definition(effectiveDate, Double.NaN, origin, intervalMonths,
+                    intervalMinutes, interpolate, seasonalValues);
+        }
+
+        private boolean isConstant() {
+            return origin == null;
+        }
+
+        private static int months(SeasonalValueBean value) {
+            return value.getOffsetMonths() == null ? 0 : value.getOffsetMonths();
+        }
+
+        private static long minutes(SeasonalValueBean value) {
+            return value.getOffsetMinutes() == null ? 0 : value.getOffsetMinutes().longValue();
+        }
+
+        private long start(long cycle) {
+            return origin.plusMonths(cycle * intervalMonths)
+                    .plusMinutes(cycle * intervalMinutes)
+                    .toInstant().toEpochMilli();
+        }
+
+        private long valueTime(long cycle, int index) {
+            return origin.plusMonths(cycle * intervalMonths + offsetMonths[index])
+                    .plusMinutes(cycle * intervalMinutes + offsetMinutes[index])
+                    .toInstant().toEpochMilli();
+        }
+
+        private Cycle cycleAt(long time) {
+            long cycle;
+            if (intervalMonths > 0) {
+                ZonedDateTime at = Instant.ofEpochMilli(time).atZone(ZoneOffset.UTC);
+                cycle = Math.floorDiv(ChronoUnit.MONTHS.between(origin, at), intervalMonths);
+            } else {
+                cycle = Math.floorDiv(time - origin.toInstant().toEpochMilli(),
+                        intervalMinutes * 60_000L);
+            }
+            while (start(cycle) > time) {
+                cycle--;
+            }
+            while (start(cycle + 1) <= time) {
+                cycle++;
+            }
+
+            // the last value of the cycle before and the first of the next bound this one
+            int count = values.length;
+            long[] times = new long[count + 2];
+            double[] cycleValues = new double[count + 2];
+            times[0] = valueTime(cycle - 1, count - 1);
+            cycleValues[0] = values[count - 1];
+            for (int i = 0; i < count; i++) {
+                times[i + 1] = valueTime(cycle, i);
+                cycleValues[i + 1] = values[i];
+            }
+            times[count + 1] = valueTime(cycle + 1, 0);
+            cycleValues[count + 1] = values[0];
+            return new Cycle(this, start(cycle), start(cycle + 1), times, cycleValues);
+        }
+    }
+
+    /**
+     * The values around one interval of a seasonal definition.
+     */
+    private static final class Cycle {
+        private final Definition definition;
+        private final long start;
+        private final long end;
+        private final long[] times;
+        private final double[] values;
+
+        private Cycle(Definition definition, long start, long end, long[] times,
+                      double[] values) {
+            this.definition = definition;
+            this.start = start;
+            this.end = end;
+            this.times = times;
+            this.values = values;
+        }
+
+        private boolean contains(long time) {
+            return start <= time && time < end;
+        }
+
+        private double valueAt(long time) {
+            int index = Arrays.binarySearch(times, time);
+            if (index >= 0) {
+                return values[index];
+            }
+            index = Math.max(0, Math.min(-index - 2, times.length - 2));
+            if (!definition.interpolate) {
+                return values[index];
+            }
+            double fraction = (double) (time - times[index]) / (times[index + 1] - times[index]);
+            return values[index] + (values[index + 1] - values[index]) * fraction;
+        }
+    }
+}
@@ -29,10 +29,12 @@ import static mil.army.usace.hec.metadata.IntervalFactory.equalsName;
 import static mil.army.usace.hec.metadata.IntervalFactory.isRegular;
 import static usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL.AV_LOCATION_LEVEL;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.api.errors.NotFoundException;
-import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.LocationLevel;
 import cwms.cda.data.dto.LocationLevels;
 import cwms.cda.data.dto.SeasonalValueBean;
@@ -55,6 +57,8 @@ import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -63,9 +67,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.logging.Level;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import mil.army.usace.hec.metadata.Interval;
@@ -78,16 +85,18 @@ import org.jooq.Configuration;
 import org.jooq.DSLContext;
 import org.jooq.Record;
 import org.jooq.Record1;
+import org.jooq.Result;
+import org.jooq.SelectFieldOrAsterisk;
 import org.jooq.SelectLimitPercentAfterOffsetStep;
 import org.jooq.TableField;
 import org.jooq.conf.ParamType;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
+import org.jooq.types.DayToSecond;
 import usace.cwms.db.dao.ifc.level.CwmsDbLevel;
 import usace.cwms.db.dao.ifc.level.LocationLevelPojo;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
-import usace.cwms.db.jooq.codegen.packages.CWMS_ENV_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_LEVEL_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_LOC_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_UTIL_PACKAGE;
@@ -101,6 +110,30 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
     public static final Pattern attributeIdParsingPattern =
             Pattern.compile(ATTRIBUTE_ID_PARSING_REGEXP);
 
+    // a row of AV_LOCATION_LEVEL, with the rows of each level together
+    private static final KeysetCursor LEVEL_KEYS = new KeysetCursor(
+            DSL.upper(AV_LOCATION_LEVEL.OFFICE_ID), DSL.upper(AV_LOCATION_LEVEL.LOCATION_LEVEL_ID),
+            AV_LOCATION_LEVEL.ATTRIBUTE_ID, AV_LOCATION_LEVEL.ATTRIBUTE_VALUE,
+            AV_LOCATION_LEVEL.ATTRIBUTE_UNIT, AV_LOCATION_LEVEL.LEVEL_DATE,
+            AV_LOCATION_LEVEL.LEVEL_UNIT, AV_LOCATION_LEVEL.CALENDAR_OFFSET,
+            AV_LOCATION_LEVEL.TIME_OFFSET);
+
+    public static final String LEVEL_CACHE_PROP_BASE = "cwms.cda.data.dao.locationLevelCache";
+    private static final boolean EVALUATE_LEVELS = Boolean.parseBoolean(
+            System.getProperty(LEVEL_CACHE_PROP_BASE + ".enabled", "false"));
+
+    // The definitions of the levels asked for as time series, empty for those the database must
+    // compute.  Changes made through this class drop them and move the generation on, so a load
+    // that started before the change isn't kept; changes made anywhere else are seen once they
+    // expire.
+    private static final Cache<List<String>, Optional<LocationLevelEvaluator>> evaluators =
+            CacheBuilder.newBuilder()
+                    .maximumSize(Long.getLong(LEVEL_CACHE_PROP_BASE + ".maxSize", 1000))
+                    .expireAfterWrite(Long.getLong(LEVEL_CACHE_PROP_BASE + ".expireAfterSeconds",
+                            300), TimeUnit.SECONDS)
+                    .build();
+    private static final AtomicLong evaluatorGeneration = new AtomicLong();
+
     public LocationLevelsDaoImpl(DSLContext dsl) {
         super(dsl);
     }
@@ -118,24 +151,7 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
     public LocationLevels getLocationLevels(String cursor, int pageSize,
                                             String levelIdMask, String office, @NotNull String unit,
                                             String datum, ZonedDateTime beginZdt, ZonedDateTime endZdt) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.log(Level.INFO, "Could not parse {0}", parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
+        KeysetCursor.Page page = LEVEL_KEYS.page(cursor, pageSize);
 
         usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
 
@@ -161,25 +177,31 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
 
         Map<LevelLookup, LocationLevel.Builder> builderMap = new LinkedHashMap<>();
 
-        SelectLimitPercentAfterOffsetStep<Record> query = dsl.selectDistinct(getAddSeasonalValueFields())
+        List<SelectFieldOrAsterisk> fields = new ArrayList<>(getAddSeasonalValueFields());
+        fields.addAll(LEVEL_KEYS.fields());
+        SelectLimitPercentAfterOffsetStep<Record> query = dsl.selectDistinct(fields)
                 .from(view)
-                .where(whereCondition)
-                .orderBy(DSL.upper(view.OFFICE_ID), DSL.upper(view.LOCATION_LEVEL_ID),
-                        view.LEVEL_DATE, view.CALENDAR_OFFSET
-                )
-                .offset(offset)
-                .limit(pageSize);
+                .where(whereCondition.and(page.condition()))
+                .orderBy(LEVEL_KEYS.orderBy())
+                .offset(page.getOffset())
+                .limit(page.getPageSize());
 
         logger.info(() -> "getLocationLevels query: " + query.getSQL(ParamType.INLINED));
 
-        query.stream().forEach(r -> addSeasonalValue(r, builderMap));
+        Result<Record> rows = query.fetch();
+        rows.forEach(r -> addSeasonalValue(r, builderMap));
 
         List<LocationLevel> levels = new java.util.ArrayList<>();
         for (LocationLevel.Builder builder : builderMap.values()) {
             levels.add(builder.build());
         }
 
-        LocationLevels.Builder builder = new LocationLevels.Builder(offset, pageSize, total);
+        // the page is counted in rows, a seasonal level has a row for each of its values
+        LocationLevels.Builder builder = new LocationLevels.Builder(page.getPage(),
+                page.getPageSize(), page.getTotal());
+        if (rows.size() == page.getPageSize()) {
+            builder.withNextPage(LEVEL_KEYS.next(rows.get(rows.size() - 1)));
+        }
         builder.addAll(levels);
         return builder.build();
     }
@@ -244,6 +266,7 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                         locationLevel.getSeasonalTimeSeriesId(),
                         seasonalValues, false, locationLevel.getOfficeId());
             });
+            invalidateEvaluators(locationLevel.getOfficeId(), locationLevel.getLocationLevelId());
         } catch (DataAccessException ex) {
             throw new RuntimeException("Failed to store Location Level", ex);
         }
@@ -361,6 +384,7 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                 CWMS_LEVEL_PACKAGE.call_DELETE_LOCATION_LEVEL__2(dsl.configuration(),
                         BigInteger.valueOf(levelCode.value1()), cascadeDelete ? "T" : "F");
             }
+            invalidateEvaluators(officeId, locationLevelName);
 
         } catch (DataAccessException ex) {
             throw new RuntimeException("Failed to delete Location Level ", ex);
@@ -372,6 +396,8 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                                     String officeId) {
         CWMS_LEVEL_PACKAGE.call_RENAME_LOCATION_LEVEL(dsl.configuration(),
                 oldLocationLevelName, newLocationLevelName, officeId);
+        invalidateEvaluators(officeId, oldLocationLevelName);
+        invalidateEvaluators(officeId, newLocationLevelName);
     }
 
     @Override
@@ -614,21 +640,210 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
             attributeUnits = attribute.getUnits();
         }
         ZoneId locationZoneId = getLocationZoneId(levelRef.getLocationRef());
-        ZTSV_ARRAY specifiedTimes = buildTsvArray(start, end, interval, locationZoneId);
-        CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+        List<Instant> times = levelTimes(start, end, interval, locationZoneId);
+
+        LocationLevelEvaluator evaluator = getEvaluator(levelRef, units);
+        if (evaluator != null) {
+            if (times.isEmpty()) {
+                throw noLevelValues(levelRef, start, end);
+            }
+            return buildTimeSeries(levelRef, interval, times, evaluator.evaluate(times),
+                    locationZoneId);
+        }
+
+        ZTSV_ARRAY specifiedTimes = new ZTSV_ARRAY();
+        for (Instant time : times) {
+            specifiedTimes.add(new ZTSV_TYPE(Timestamp.from(time), null, null));
+        }
+        dsl.connection(c -> setSessionOffice(c, officeId));
 
         ZTSV_ARRAY locLvlValues = call_RETRIEVE_LOC_LVL_VALUES3(dsl.configuration(),
                 specifiedTimes, locationLevelId, units, attributeId, attributeValue,
                 attributeUnits, "UTC", officeId);
 
         if (locLvlValues.isEmpty()) {
-            throw new NotFoundException(String.format(
-                    "No time series found for: %s between start time: %s and end time: %s",
-                    levelRef, start, end));
+            throw noLevelValues(levelRef, start, end);
         }
         return buildTimeSeries(levelRef, interval, locLvlValues, locationZoneId);
     }
 
+    private static NotFoundException noLevelValues(ILocationLevelRef levelRef, Instant start,
+                                                   Instant end) {
+        return new NotFoundException(String.format(
+                "No time series found for: %s between start time: %s and end time: %s",
+                levelRef, start, end));
+    }
+
+    /**
+     * @return the evaluator of a level in the units, null if the database must compute its
+     *     values.
+     */
+    @Nullable
+    private LocationLevelEvaluator getEvaluator(ILocationLevelRef levelRef, String units) {
+        if (!EVALUATE_LEVELS || units == null) {
+            return null;
+        }
+        IAttributeParameterTypedValue attribute = levelRef.getAttribute();
+        List<String> key = Arrays.asList(upper(levelRef.getOfficeId()),
+                upper(levelRef.getLocationLevelId()),
+                attribute == null ? null : upper(attribute.getAttributeId()),
+                attribute == null ? null : String.valueOf(attribute.getValueBigDecimal()),
+                attribute == null ? null : attribute.getUnits(),
+                units);
+        long generation = evaluatorGeneration.get();
+        Optional<LocationLevelEvaluator> retval;
+        try {
+            retval = evaluators.get(key,
+                    () -> Optional.ofNullable(loadEvaluator(levelRef, units)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        if (generation != evaluatorGeneration.get()) {
+            // the level changed while this was read, let the database compute it this time
+            evaluators.invalidate(key);
+            return null;
+        }
+        return retval.orElse(null);
+    }
+
+    /**
+     * The values the stored definitions of a level give, read without the cache, so tests can
+     * compare them with RETRIEVE_LOC_LVL_VALUES3.
+     *
+     * @return null if the database must compute the level.
+     */
+    @Nullable
+    double[] evaluate(ILocationLevelRef levelRef, List<Instant> times, String units) {
+        LocationLevelEvaluator evaluator = loadEvaluator(levelRef, units);
+        return evaluator == null ? null : evaluator.evaluate(times);
+    }
+
+    /**
+     * Reads the stored definitions of a level, in SI, converted to the units.
+     *
+     * @return null if a definition is based on a time series, the level isn't stored (it may
+     *     be virtual), or the values or attribute can't be converted.
+     */
+    @Nullable
+    private LocationLevelEvaluator loadEvaluator(ILocationLevelRef levelRef, String units) {
+        usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
+        IAttributeParameterTypedValue attribute = levelRef.getAttribute();
+        Condition condition = DSL.upper(view.OFFICE_ID).eq(upper(levelRef.getOfficeId()))
+                .and(DSL.upper(view.LOCATION_LEVEL_ID).eq(upper(levelRef.getLocationLevelId())))
+                .and(DSL.upper(view.UNIT_SYSTEM).eq(UnitSystem.SI.getValue().toUpperCase()));
+        if (attribute == null) {
+            condition = condition.and(view.ATTRIBUTE_ID.isNull());
+        } else {
+            condition = condition.and(DSL.upper(view.ATTRIBUTE_ID)
+                    .eq(upper(attribute.getAttributeId())));
+        }
+        Result<Record> rows = dsl.select(getAddSeasonalValueFields())
+                .from(view)
+                .where(condition)
+                .orderBy(view.LEVEL_DATE)
+                .fetch();
+
+        Map<Timestamp, List<Record>> byDate = new LinkedHashMap<>();
+        for (Record row : rows) {
+            if (attribute == null || sameAttribute(attribute, row.get(view.ATTRIBUTE_VALUE),
+                    row.get(view.ATTRIBUTE_UNIT))) {
+                byDate.computeIfAbsent(row.get(view.LEVEL_DATE), d -> new ArrayList<>()).add(row);
+            }
+        }
+        if (byDate.isEmpty()) {
+            return null;
+        }
+
+        List<LocationLevelEvaluator.Definition> definitions = new ArrayList<>();
+        for (Map.Entry<Timestamp, List<Record>> entry : byDate.entrySet()) {
+            Record first = entry.getValue().get(0);
+            String levelUnit = first.get(view.LEVEL_UNIT);
+            if (entry.getKey() == null || first.get(view.TSID) != null
+                    || !Units.canConvertBetweenUnits(levelUnit, units)) {
+                return null;
+            }
+            Instant effectiveDate = entry.getKey().toInstant();
+            Double constant = first.get(view.CONSTANT_LEVEL);
+            if (constant != null) {
+                definitions.add(LocationLevelEvaluator.Definition.constant(effectiveDate,
+                        Units.convertUnits(constant, levelUnit, units)));
+                continue;
+            }
+
+            List<SeasonalValueBean> seasonalValues = new ArrayList<>();
+            for (Record row : entry.getValue()) {
+                Double seasonalLevel = row.get(view.SEASONAL_LEVEL);
+                if (seasonalLevel != null) {
+                    JDomSeasonalIntervalImpl offset = buildSeasonalOffset(
+                            row.get(view.CALENDAR_OFFSET), row.get(view.TIME_OFFSET));
+                    seasonalValues.add(buildSeasonalValueBean(
+                            Units.convertUnits(seasonalLevel, levelUnit, units), offset));
+                }
+            }
+            Timestamp origin = first.get(view.INTERVAL_ORIGIN);
+            String calendarInterval = first.get(view.CALENDAR_INTERVAL);
+            DayToSecond timeInterval = first.get(view.TIME_INTERVAL);
+            int intervalMonths = 0;
+            if (calendarInterval != null) {
+                JDomSeasonalIntervalImpl interval = new JDomSeasonalIntervalImpl();
+                interval.setYearMonthString(calendarInterval);
+                intervalMonths = interval.getTotalMonths();
+            }
+            long intervalMinutes = timeInterval == null ? 0
+                    : Math.round(timeInterval.getTotalMinutes());
+            try {
+                definitions.add(LocationLevelEvaluator.Definition.seasonal(effectiveDate,
+                        origin == null ? null : origin.toInstant(), intervalMonths,
+                        intervalMinutes, "T".equalsIgnoreCase(first.get(view.INTERPOLATE)),
+                        seasonalValues));
+            } catch (IllegalArgumentException ex) {
+                // not a stored definition this can compute, a virtual level or similar
+                logger.fine(() -> "Level " + levelRef + " is computed by the database: "
+                        + ex.getMessage());
+                return null;
+            }
+        }
+        return new LocationLevelEvaluator(definitions);
+    }
+
+    private static boolean sameAttribute(IAttributeParameterTypedValue attribute,
+                                         Double storedValue, String storedUnits) {
+        BigDecimal value = attribute.getValueBigDecimal();
+        if (value == null || storedValue == null) {
+            return value == null && storedValue == null;
+        }
+        double requested = value.doubleValue();
+        String units = attribute.getUnits();
+        if (units != null && storedUnits != null && !units.equalsIgnoreCase(storedUnits)) {
+            if (!Units.canConvertBetweenUnits(units, storedUnits)) {
+                return false;
+            }
+            requested = Units.convertUnits(requested, units, storedUnits);
+        }
+        // the database keeps attributes to 9 significant digits
+        return Math.abs(requested - storedValue) <= 1e-9 * Math.max(1.0, Math.abs(storedValue));
+    }
+
+    /**
+     * Drops the cached definitions of a level, of every attribute and unit.
+     */
+    private static void invalidateEvaluators(String officeId, String locationLevelId) {
+        String office = upper(officeId);
+        String levelId = upper(locationLevelId);
+        evaluatorGeneration.incrementAndGet();
+        evaluators.asMap().keySet().removeIf(key -> Objects.equals(office, key.get(0))
+                && Objects.equals(levelId, key.get(1)));
+    }
+
+    @Nullable
+    private static String upper(@Nullable String value) {
+        return value == null ? null : value.toUpperCase();
+    }
+
     public static ZTSV_ARRAY call_RETRIEVE_LOC_LVL_VALUES3(Configuration configuration,
                                                            ZTSV_ARRAY specifiedTimes,
                                                            String locationLevelId,
@@ -662,20 +877,10 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
 
     private static TimeSeries buildTimeSeries(ILocationLevelRef levelRef, Interval interval,
                                               ZTSV_ARRAY locLvlValues, ZoneId locationTimeZone) {
-        String timeSeriesId = String.format("%s.%s.%s.%s.%s.%s", levelRef.getLocationRef().getLocationId(),
-                levelRef.getParameter().getParameter(), levelRef.getParameterType().getParameterType(),
-                interval.getInterval(), levelRef.getDuration().toString(), levelRef.getSpecifiedLevel().getId());
         int size = locLvlValues.size();
-        String levelUnits = levelRef.getParameter().getUnitsString();
-        String officeId = levelRef.getOfficeId();
-        Instant start = locLvlValues.get(0).getDATE_TIME().toInstant();
-        Instant end = locLvlValues.get(size - 1).getDATE_TIME().toInstant();
-        ZonedDateTime firstValueTime = ZonedDateTime.ofInstant(start, NumericalConstants.UTC_ZONEID);
-        ZonedDateTime lastValueTime = ZonedDateTime.ofInstant(end, NumericalConstants.UTC_ZONEID);
-        TimeSeries timeSeries = new TimeSeries(null, size, size, timeSeriesId,
-                officeId, firstValueTime, lastValueTime, levelUnits,
-                java.time.Duration.ofSeconds(interval.getSeconds()),
-                null, null, locationTimeZone.getId(), null, VersionType.UNVERSIONED);
+        TimeSeries timeSeries = newTimeSeries(levelRef, interval,
+                locLvlValues.get(0).getDATE_TIME().toInstant(),
+                locLvlValues.get(size - 1).getDATE_TIME().toInstant(), size, locationTimeZone);
         for (ZTSV_TYPE tsv : locLvlValues) {
             Timestamp dateTime = tsv.getDATE_TIME();
             Double value = tsv.getVALUE();
@@ -692,9 +897,39 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
         return timeSeries;
     }
 
-    private ZTSV_ARRAY buildTsvArray(Instant start, Instant end, Interval interval,
-                                     ZoneId locationTimeZone) {
-        ZTSV_ARRAY retVal = new ZTSV_ARRAY();
+    private static TimeSeries buildTimeSeries(ILocationLevelRef levelRef, Interval interval,
+                                              List<Instant> times, double[] values,
+                                              ZoneId locationTimeZone) {
+        int size = times.size();
+        TimeSeries timeSeries = newTimeSeries(levelRef, interval, times.get(0),
+                times.get(size - 1), size, locationTimeZone);
+        for (int i = 0; i < size; i++) {
+            double value = Double.isNaN(values[i]) ? NumericalConstants.HEC_UNDEFINED_DOUBLE
+                    : values[i];
+            timeSeries.addValue(Timestamp.from(times.get(i)), value, 0);
+        }
+        return timeSeries;
+    }
+
+    private static TimeSeries newTimeSeries(ILocationLevelRef levelRef, Interval interval,
+                                            Instant start, Instant end, int size,
+                                            ZoneId locationTimeZone) {
+        String timeSeriesId = String.format("%s.%s.%s.%s.%s.%s", levelRef.getLocationRef().getLocationId(),
+                levelRef.getParameter().getParameter(), levelRef.getParameterType().getParameterType(),
+                interval.getInterval(), levelRef.getDuration().toString(), levelRef.getSpecifiedLevel().getId());
+        String levelUnits = levelRef.getParameter().getUnitsString();
+        String officeId = levelRef.getOfficeId();
+        ZonedDateTime firstValueTime = ZonedDateTime.ofInstant(start, NumericalConstants.UTC_ZONEID);
+        ZonedDateTime lastValueTime = ZonedDateTime.ofInstant(end, NumericalConstants.UTC_ZONEID);
+        return new TimeSeries(null, size, size, timeSeriesId,
+                officeId, firstValueTime, lastValueTime, levelUnits,
+                java.time.Duration.ofSeconds(interval.getSeconds()),
+                null, null, locationTimeZone.getId(), null, VersionType.UNVERSIONED);
+    }
+
+    private static List<Instant> levelTimes(Instant start, Instant end, Interval interval,
+                                            ZoneId locationTimeZone) {
+        List<Instant> retVal = new ArrayList<>();
         Interval iterateInterval = interval;
         if (interval.isIrregular()) {
             iterateInterval = IntervalFactory.findAny(isRegular()
@@ -704,7 +939,7 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
         try {
             Instant time = start;
             while (time.isBefore(end) || time.equals(end)) {
-                retVal.add(new ZTSV_TYPE(Timestamp.from(time), null, null));
+                retVal.add(time);
                 time = iterateInterval.getNextIntervalTime(time, locationTimeZone);
             }
         } catch (mil.army.usace.hec.metadata.DataSetIllegalArgumentException ex) {
@@ -26,8 +26,10 @@ package cwms.cda.data.dao;
 
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.Location;
+import cwms.cda.data.dto.catalog.CatalogEntry;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 import org.geojson.FeatureCollection;
 
 public interface LocationsDao {
@@ -47,6 +49,24 @@ public interface LocationsDao {
 
     FeatureCollection buildFeatureCollection(String names, String units, String officeId);
 
+    /**
+     * The features of the office's locations inside a map viewport.
+     *
+     * @param bbox west, south, east and north edges in degrees, the west edge is greater than
+     *     the east edge when the box crosses the antimeridian
+     * @param zoom the map zoom level, low levels merge nearby locations into clusters.  May be
+     *     null.
+     */
+    FeatureCollection buildFeatureCollection(String names, String units, String officeId,
+                                             double[] bbox, Integer zoom);
+
     Catalog getLocationCatalog(String cursor, int pageSize, CatalogRequestParameters params);
 
+    /**
+     * Reads the whole catalog in one query and hands each entry over as soon as it is read,
+     * in the order of the paged catalog.
+     */
+    void streamLocationCatalog(CatalogRequestParameters params,
+                               Consumer<? super CatalogEntry> consumer);
+
 }
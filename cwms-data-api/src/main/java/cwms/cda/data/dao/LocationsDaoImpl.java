@@ -42,6 +42,7 @@ import static org.jooq.impl.DSL.select;
 import static usace.cwms.db.jooq.codegen.tables.AV_LOC.AV_LOC;
 
 import cwms.cda.api.enums.Nation;
+import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.enums.Unit;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.data.dto.Catalog;
@@ -54,11 +55,13 @@ import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geojson.Feature;
@@ -68,10 +71,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
+import org.jooq.Record3;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectSeekStep3;
 import org.jooq.Table;
@@ -87,6 +92,13 @@ import usace.cwms.db.jooq.codegen.tables.AV_LOC2;
 public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao {
     private static final Logger logger = Logger.getLogger(LocationsDaoImpl.class.getName());
     private static final long DELETED_TS_MARKER = 0L;
+    private static final CatalogSnapshots catalogSnapshots =
+            CatalogSnapshots.fromSystemProperties();
+    private static final int CATALOG_EXPORT_FETCH_SIZE =
+            Integer.getInteger("cwms.cda.data.dao.location.catalogExportFetchSize", 5000);
+    private static final LocationIndex locationIndex = LocationIndex.fromSystemProperties();
+    private static final LocationFeatureIndex featureIndex =
+            LocationFeatureIndex.fromSystemProperties();
 
     public LocationsDaoImpl(DSLContext dsl) {
         super(dsl);
@@ -104,7 +116,9 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
     @Override
     public List<Location> getLocations(String nameRegex, String unitSystem, String datum, String officeId) {
 
-        Condition whereCondition = JooqDao.caseInsensitiveLikeRegexNullTrue(AV_LOC.LOCATION_ID, nameRegex);
+        List<Long> codes = findIndexedLocations(officeId, nameRegex, null, null, null);
+        Condition whereCondition = codes != null ? AV_LOC.LOCATION_CODE.in(codes)
+                : JooqDao.caseInsensitiveLikeRegexNullTrue(AV_LOC.LOCATION_ID, nameRegex);
 
         if (officeId != null) {
             whereCondition = whereCondition.and(AV_LOC.DB_OFFICE_ID.equalIgnoreCase(officeId));
@@ -211,6 +225,10 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                         DELETE_LOC.getRule(), officeId);
             }
         });
+        if (LocationIndex.isEnabled()) {
+            locationIndex.remove(officeId, locationName);
+        }
+        featureIndex.invalidate(officeId);
     }
 
     @Override
@@ -239,6 +257,7 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         } catch (DataAccessException ex) {
             throw new IOException("Failed to store Location", ex);
         }
+        indexLocation(location.getOfficeId(), location.getName(), null);
     }
 
     @Override
@@ -265,6 +284,93 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         } catch (DataAccessException ex) {
             throw new IOException("Failed to rename Location", ex);
         }
+        indexLocation(renamedLocation.getOfficeId(), renamedLocation.getName(), oldLocationName);
+    }
+
+    /**
+     * Applies a stored or renamed location to the location index and drops the office's
+     * map features.
+     *
+     * @param previousId the id the location was renamed from, or null
+     */
+    private void indexLocation(String office, String locationId, String previousId) {
+        featureIndex.invalidate(office);
+        if (!LocationIndex.isEnabled()) {
+            return;
+        }
+        if (previousId != null) {
+            locationIndex.remove(office, previousId);
+        }
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        try {
+            Record row = dsl.select(locationIndexFields())
+                    .from(avLoc2)
+                    .where(avLoc2.ALIASED_ITEM.isNull())
+                    .and(avLoc2.UNIT_SYSTEM.eq(UnitSystem.SI.getValue()))
+                    .and(avLoc2.DB_OFFICE_ID.equalIgnoreCase(office))
+                    .and(avLoc2.LOCATION_ID.equalIgnoreCase(locationId))
+                    .fetchAny();
+            if (row == null) {
+                locationIndex.remove(office, locationId);
+            } else {
+                locationIndex.put(locationIndexEntry(row));
+            }
+        } catch (DataAccessException ex) {
+            // the location was saved, the index has to start over to see it
+            logger.log(Level.WARNING, "Could not index location " + office + "/" + locationId,
+                    ex);
+            locationIndex.clear();
+        }
+    }
+
+    private static List<Field<?>> locationIndexFields() {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        return Arrays.asList(avLoc2.DB_OFFICE_ID, avLoc2.LOCATION_ID, avLoc2.LOCATION_CODE,
+                avLoc2.LOCATION_KIND_ID, avLoc2.LOCATION_TYPE, avLoc2.BOUNDING_OFFICE_ID);
+    }
+
+    private static LocationIndex.Entry locationIndexEntry(Record row) {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        return new LocationIndex.Entry(row.get(avLoc2.DB_OFFICE_ID),
+                row.get(avLoc2.LOCATION_ID), row.get(avLoc2.LOCATION_CODE),
+                row.get(avLoc2.LOCATION_KIND_ID), row.get(avLoc2.LOCATION_TYPE),
+                row.get(avLoc2.BOUNDING_OFFICE_ID));
+    }
+
+    private LocationIndex.Contents loadLocationIndex() {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        SelectConditionStep<Record> query = dsl.selectDistinct(locationIndexFields())
+                .from(avLoc2)
+                .where(avLoc2.ALIASED_ITEM.isNull())
+                .and(avLoc2.UNIT_SYSTEM.eq(UnitSystem.SI.getValue()))
+                .and(avLoc2.LOCATION_CODE.notEqual(DELETED_TS_MARKER));
+        logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
+        LocationIndex.Builder builder = new LocationIndex.Builder();
+        try (Cursor<Record> rows = query.fetchSize(CATALOG_EXPORT_FETCH_SIZE).fetchLazy()) {
+            for (Record row : rows) {
+                builder.add(locationIndexEntry(row));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Looks the matching locations up in the location index.
+     *
+     * @return the codes of the locations, or null if the index is off or can't answer and
+     *     the expressions have to go to the database.
+     */
+    private List<Long> findIndexedLocations(String office, String idLike, String kindLike,
+                                            String typeLike, String boundingOfficeLike) {
+        if (!LocationIndex.isEnabled()) {
+            return null;
+        }
+        LocationIndex.Query query = LocationIndex.Query.of(office, idLike, kindLike, typeLike,
+                boundingOfficeLike);
+        if (query == null) {
+            return null;
+        }
+        return locationIndex.find(query, this::loadLocationIndex);
     }
 
     @Override
@@ -279,15 +385,7 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                 .and(AV_LOC.UNIT_SYSTEM.eq(units));
 
         if (names != null && !names.isEmpty()) {
-            List<String> identifiers = new ArrayList<>();
-            if (names.contains("|")) {
-                String[] namePieces = names.split("\\|");
-                identifiers.addAll(Arrays.asList(namePieces));
-            } else {
-                identifiers.add(names);
-            }
-
-            selectQuery = selectQuery.and(AV_LOC.LOCATION_ID.in(identifiers));
+            selectQuery = selectQuery.and(AV_LOC.LOCATION_ID.in(splitNames(names)));
         }
 
         List<Feature> features = selectQuery.stream()
@@ -299,6 +397,47 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         return collection;
     }
 
+    @Override
+    public FeatureCollection buildFeatureCollection(String names, String units, String officeId,
+                                                    double[] bbox, Integer zoom) {
+        if (bbox == null) {
+            return buildFeatureCollection(names, units, officeId);
+        }
+        String unitSystem = "EN".equals(units) ? "EN" : "SI";
+
+        LocationFeatureIndex.Snapshot snapshot = featureIndex.get(officeId, unitSystem, () -> {
+            SelectConditionStep<Record> query = dsl.select(asterisk())
+                    .from(AV_LOC)
+                    .where(AV_LOC.DB_OFFICE_ID.eq(officeId))
+                    .and(AV_LOC.UNIT_SYSTEM.eq(unitSystem));
+            logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
+            LocationFeatureIndex.Builder builder = new LocationFeatureIndex.Builder();
+            try (Cursor<Record> rows = query.fetchSize(1000).fetchLazy()) {
+                for (Record row : rows) {
+                    builder.add(buildFeatureFromAvLocRecord(row), row.get(AV_LOC.LOCATION_ID));
+                }
+            }
+            return builder.build();
+        });
+
+        Set<String> identifiers = null;
+        if (names != null && !names.isEmpty()) {
+            identifiers = new HashSet<>(splitNames(names));
+        }
+        return featureIndex.query(snapshot, bbox, zoom, identifiers);
+    }
+
+    private static List<String> splitNames(String names) {
+        List<String> identifiers = new ArrayList<>();
+        if (names.contains("|")) {
+            String[] namePieces = names.split("\\|");
+            identifiers.addAll(Arrays.asList(namePieces));
+        } else {
+            identifiers.add(names);
+        }
+        return identifiers;
+    }
+
     public static Feature buildFeatureFromAvLocRecord(Record avLocRecord) {
         Feature feature = new Feature();
 
@@ -350,7 +489,7 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             // The cursor urlencodes the initial query parameters, We should decode them and use the cursor values.
             // If the user provides a page parameter and query parameters they should match.
             // If they don't match its weird and we will log it.
-            CatalogRequestParameters.Builder.from(param)
+            param = CatalogRequestParameters.Builder.from(param)
                     .withOffice(warnIfMismatch(OFFICE,
                             catPage.getSearchOffice(), param.getOffice()))
                     .withIdLike(warnIfMismatch(LIKE,
@@ -379,7 +518,14 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                 "A value must be provided for the idLike field. Specify .* if you don't care.");
 
         // "condition" needs to be used by the count query and the results query.
-        Condition condition = buildWhereCondition(params);
+        Condition condition = buildCatalogCondition(params);
+
+        if (CatalogSnapshots.isEnabled()) {
+            Catalog catalog = getLocationCatalogFromSnapshot(catPage, pageSize, params, condition);
+            if (catalog != null) {
+                return catalog;
+            }
+        }
 
         int total;
         String cursorLocation; // The location-id of the cursor in the results
@@ -405,6 +551,117 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
 
         condition = addCursorConditions(condition, cursorOffice, cursorLocation);
 
+        List<? extends CatalogEntry> entries = getLocationCatalogEntries(condition, pageSize);
+
+        return new Catalog(cursorLocation, total, pageSize, entries, params,
+                pageNumber(catPage));
+    }
+
+    private static int pageNumber(Catalog.CatalogPage catPage) {
+        return catPage == null ? 1 : catPage.getPageNumber();
+    }
+
+    /**
+     * Serves a page from the snapshot of the request.
+     *
+     * @return the page, or null if there is no snapshot for a later page or the locations
+     *     changed since the snapshot was taken; the caller then runs the regular query.
+     */
+    private Catalog getLocationCatalogFromSnapshot(Catalog.CatalogPage catPage, int pageSize,
+                                                   CatalogRequestParameters params,
+                                                   Condition condition) {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        CatalogSnapshots.Snapshot snapshot;
+        String cursorLocation;
+        int from;
+        if (catPage == null) {
+            snapshot = catalogSnapshots.get(CatalogSnapshots.Kind.LOCATIONS, params, () -> {
+                SelectConditionStep<Record3<String, String, Long>> keys = dsl
+                        .selectDistinct(avLoc2.DB_OFFICE_ID, avLoc2.LOCATION_ID,
+                                avLoc2.LOCATION_CODE)
+                        .from(avLoc2)
+                        .where(condition.and(avLoc2.ALIASED_ITEM.isNull()));
+                logger.log(Level.FINER, () -> keys.getSQL(ParamType.INLINED));
+                CatalogSnapshots.Builder builder = new CatalogSnapshots.Builder();
+                keys.fetchSize(5000).fetch().forEach(r -> builder.add(r.value1(), r.value2(),
+                        r.value3()));
+                return builder.build();
+            });
+            cursorLocation = "*";
+            from = 0;
+        } else {
+            snapshot = catalogSnapshots.getIfPresent(CatalogSnapshots.Kind.LOCATIONS, params);
+            if (snapshot == null) {
+                return null;
+            }
+            cursorLocation = catPage.getCursorId();
+            pageSize = catPage.getPageSize();
+            from = snapshot.after(catPage.getCurOffice(), catPage.getCursorId());
+        }
+
+        List<Long> codes = snapshot.codes(from, pageSize);
+        List<? extends CatalogEntry> entries = codes.isEmpty() ? new ArrayList<>()
+                : getLocationCatalogEntries(condition.and(avLoc2.LOCATION_CODE.in(codes)),
+                        pageSize);
+        if (entries.size() != codes.size()) {
+            return null;
+        }
+        return new Catalog(cursorLocation, snapshot.size(), pageSize,
+                CatalogSnapshots.inSnapshotOrder(entries), params, pageNumber(catPage));
+    }
+
+    private List<? extends CatalogEntry> getLocationCatalogEntries(Condition condition,
+                                                                   int pageSize) {
+        SelectSeekStep3<Record, String, ?, String> query = locationCatalogQuery(condition,
+                field("rownum").lessOrEqual(pageSize));
+        logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
+        return query
+                .fetchSize(1000)
+                .fetchStream()
+            .map(r -> r.into(AV_LOC2.AV_LOC2))
+            // keep the order of the query, the last entry is the cursor of the next page
+            .collect(groupingBy(usace.cwms.db.jooq.codegen.tables.records.AV_LOC2::getLOCATION_CODE,
+                    LinkedHashMap::new, toList()))
+            .values()
+            .stream()
+            .map(this::buildCatalogEntry)
+            .collect(toList());
+    }
+
+    @Override
+    public void streamLocationCatalog(CatalogRequestParameters params,
+                                      Consumer<? super CatalogEntry> consumer) {
+        Objects.requireNonNull(params.getIdLike(),
+                "A value must be provided for the idLike field. Specify .* if you don't care.");
+        SelectSeekStep3<Record, String, ?, String> query = locationCatalogQuery(
+                buildWhereCondition(params), DSL.noCondition());
+        logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
+
+        // The rows of a location and its aliases are next to each other, so only one
+        // location is held at a time.
+        List<usace.cwms.db.jooq.codegen.tables.records.AV_LOC2> rows = new ArrayList<>();
+        try (Cursor<Record> cursor = query.fetchSize(CATALOG_EXPORT_FETCH_SIZE).fetchLazy()) {
+            for (Record r : cursor) {
+                usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row = r.into(AV_LOC2.AV_LOC2);
+                if (!rows.isEmpty()
+                        && !Objects.equals(rows.get(0).getLOCATION_CODE(), row.getLOCATION_CODE())) {
+                    consumer.accept(buildCatalogEntry(rows));
+                    rows.clear();
+                }
+                rows.add(row);
+            }
+        }
+        if (!rows.isEmpty()) {
+            consumer.accept(buildCatalogEntry(rows));
+        }
+    }
+
+    /**
+     * @param limit restricts the matching locations before their aliases are joined
+     */
+    private SelectSeekStep3<Record, String, ?, String> locationCatalogQuery(Condition condition,
+                                                                           Condition limit) {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
         Field<String> dataId = avLoc2.LOCATION_ID.as("real_id");
         Field<Long> dataCode = avLoc2.LOCATION_CODE.as("real_code");
         // data/limiter/query
@@ -418,38 +675,57 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                                             .as(
                                                 select(field("\"real_id\""),field("\"real_code\""))
                                                 .from(data)
-                                                .where(field("rownum").lessOrEqual(pageSize))
+                                                .where(limit)
                                                 );
         Field<String> limitId = limiter.field("real_id",String.class);
         Field<Long> limitCode = limiter.field("location_code",Long.class);
 
-        SelectSeekStep3<Record, String, ?, String> query = dsl.with(limiter).select(
+        return dsl.with(limiter).select(
                 limitId,
                 avLoc2.LOCATION_ID.as("alias_id"),
                 avLoc2.asterisk())
             .from(limiter)
             .leftOuterJoin(avLoc2).on(avLoc2.LOCATION_CODE.eq(limitCode))
             .orderBy(avLoc2.DB_OFFICE_ID.asc(),limitId.asc(),avLoc2.ALIASED_ITEM.asc());
-        logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
-        List<? extends CatalogEntry> entries = query
-                .fetchSize(1000)
-                .fetchStream()
-            .map(r -> r.into(AV_LOC2.AV_LOC2))
-            .collect(groupingBy(usace.cwms.db.jooq.codegen.tables.records.AV_LOC2::getLOCATION_CODE))
-            .values()
-            .stream()
-            .map(l -> {
-                usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row = l.stream()
-                    .filter(r -> r.getALIASED_ITEM() == null)
-                    .findFirst()
-                    .orElseThrow(() -> new DataAccessException("Could not find location for list of aliases: " + l));
-                Set<LocationAlias> aliases = l.stream().filter(r -> r.getALIASED_ITEM() != null)
-                    .map(this::buildLocationAlias).collect(toSet());
-                return buildCatalogEntry(row, aliases);
-            })
-            .collect(toList());
+    }
+
+    /**
+     * @param rows the row of a location and the rows of its aliases
+     */
+    private LocationCatalogEntry buildCatalogEntry(
+            List<usace.cwms.db.jooq.codegen.tables.records.AV_LOC2> rows) {
+        usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row = rows.stream()
+            .filter(r -> r.getALIASED_ITEM() == null)
+            .findFirst()
+            .orElseThrow(() -> new DataAccessException("Could not find location for list of aliases: " + rows));
+        Set<LocationAlias> aliases = rows.stream().filter(r -> r.getALIASED_ITEM() != null)
+            .map(this::buildLocationAlias).collect(toSet());
+        return buildCatalogEntry(row, aliases);
+    }
 
-        return new Catalog(cursorLocation, total, pageSize, entries, params);
+    /**
+     * The filter of a catalog page.  The expressions are resolved to location codes by the
+     * location index when it can; searches of alias categories and groups match the alias
+     * rows and always go to the database.
+     */
+    private Condition buildCatalogCondition(CatalogRequestParameters params) {
+        if (params.getLocCatLike() == null && params.getLocGroupLike() == null) {
+            List<Long> codes = findIndexedLocations(params.getOffice(), params.getIdLike(),
+                    params.getLocationKind(), params.getLocationType(),
+                    params.getBoundingOfficeLike());
+            if (codes != null) {
+                Condition condition = AV_LOC2.AV_LOC2.LOCATION_CODE.in(codes)
+                        .and(AV_LOC2.AV_LOC2.UNIT_SYSTEM.equalIgnoreCase(params.getUnitSystem()))
+                        .and(AV_LOC2.AV_LOC2.ALIASED_ITEM.isNull());
+                String office = params.getOffice();
+                if (office != null) {
+                    condition = condition.and(DSL.upper(AV_LOC2.AV_LOC2.DB_OFFICE_ID)
+                            .eq(office.toUpperCase()));
+                }
+                return condition;
+            }
+        }
+        return buildWhereCondition(params);
     }
 
     private static Condition buildWhereCondition(CatalogRequestParameters params) {
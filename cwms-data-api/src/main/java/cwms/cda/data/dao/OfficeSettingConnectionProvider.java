@@ -3,12 +3,8 @@ package cwms.cda.data.dao;
 import java.sql.Connection;
 import java.sql.SQLException;
 import javax.sql.DataSource;
-import org.jooq.DSLContext;
-import org.jooq.SQLDialect;
 import org.jooq.exception.DataAccessException;
-import org.jooq.impl.DSL;
 import org.jooq.impl.DataSourceConnectionProvider;
-import usace.cwms.db.jooq.codegen.packages.CWMS_ENV_PACKAGE;
 
 class OfficeSettingConnectionProvider extends DataSourceConnectionProvider {
     private final String officeId;
@@ -22,8 +18,7 @@ class OfficeSettingConnectionProvider extends DataSourceConnectionProvider {
     public Connection acquire() throws DataAccessException {
         Connection conn = super.acquire();
         try {
-            DSLContext dsl = DSL.using(conn, SQLDialect.ORACLE18C);
-            CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+            JooqDao.setSessionOffice(conn, officeId);
             return conn;
         } catch (Exception e) {
             try {
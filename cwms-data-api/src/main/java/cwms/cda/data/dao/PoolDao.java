@@ -1,9 +1,7 @@
 package cwms.cda.data.dao;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -14,6 +12,7 @@ import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Record;
 import org.jooq.Result;
+import org.jooq.SelectFieldOrAsterisk;
 import org.jooq.exception.TooManyRowsException;
 import org.jooq.impl.DSL;
 
@@ -29,6 +28,10 @@ import static java.util.stream.Collectors.toList;
 public class PoolDao extends JooqDao<PoolType> {
 	private static Logger logger = Logger.getLogger(PoolDao.class.getName());
 
+	private static final KeysetCursor POOL_KEYS = new KeysetCursor(AV_POOL.AV_POOL.DEFINITION_TYPE,
+			DSL.upper(AV_POOL.AV_POOL.OFFICE_ID), DSL.upper(AV_POOL.AV_POOL.PROJECT_ID),
+			AV_POOL.AV_POOL.ATTRIBUTE, DSL.upper(AV_POOL.AV_POOL.POOL_NAME));
+
 	public PoolDao(DSLContext dsl) {
 		super(dsl);
 	}
@@ -176,41 +179,29 @@ public class PoolDao extends JooqDao<PoolType> {
 							   String projectIdMask, String poolNameMask,
 							   String bottomLevelMask, String topLevelMask, boolean includeExplicit,
 							   boolean includeImplicit, String officeIdMask) {
-		Integer total = null;
-		int offset = 0;
-
 		AV_POOL view = AV_POOL.AV_POOL;
 
-		if (cursor != null && !cursor.isEmpty()) {
-			String[] parts = Pools.decodeCursor(cursor);
-
-			logger.fine( () -> "decoded cursor: " + Arrays.toString(parts));
-
-			if (parts.length > 2) {
-				offset = Integer.parseInt(parts[0]);
-				if (!"null".equals(parts[1])) {
-					try {
-						total = Integer.valueOf(parts[1]);
-					} catch(NumberFormatException e){
-						logger.log(Level.INFO, "Could not parse " + parts[1]);
-					}
-				}
-				pageSize = Integer.parseInt(parts[2]); // Why are we taking pageSize as an arg and also pulling it from cursor?
-			}
-		}
+		KeysetCursor.Page page = POOL_KEYS.page(cursor, pageSize);
+		logger.fine( () -> "page: " + page.getPage());
 
 		List<String> types = getTypes(includeExplicit, includeImplicit);
 		Condition condition = getCondition(projectIdMask, poolNameMask, bottomLevelMask, topLevelMask, officeIdMask, types);
 
-		List<Pool> pools = dsl.select(DSL.asterisk()).from(view)
-				.where(condition)
-				.orderBy(view.DEFINITION_TYPE,
-						DSL.upper(view.OFFICE_ID), DSL.upper(view.PROJECT_ID), view.ATTRIBUTE, DSL.upper(view.POOL_NAME))
-				.offset(offset)
-				.limit(pageSize)
-				.stream().map(r -> toPool(r, true)).collect(toList());
-
-		Pools.Builder builder = new Pools.Builder(offset, pageSize, total);
+		List<SelectFieldOrAsterisk> fields = new ArrayList<>();
+		fields.add(view.asterisk());
+		fields.addAll(POOL_KEYS.fields());
+		Result<Record> rows = dsl.select(fields).from(view)
+				.where(condition.and(page.condition()))
+				.orderBy(POOL_KEYS.orderBy())
+				.offset(page.getOffset())
+				.limit(page.getPageSize())
+				.fetch();
+		List<Pool> pools = rows.stream().map(r -> toPool(r, true)).collect(toList());
+
+		Pools.Builder builder = new Pools.Builder(page.getPage(), page.getPageSize(), page.getTotal());
+		if (rows.size() == page.getPageSize()) {
+			builder.withNextPage(POOL_KEYS.next(rows.get(rows.size() - 1)));
+		}
 		builder.addAll(pools);
 		return builder.build();
 	}
@@ -0,0 +1,139 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import cwms.cda.security.DataApiPrincipal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Principals found for an API key or EDIPI, so that a client making many requests doesn't
+ * cost three round trips to the database on each one.
+ * <p>
+ * Entries are keyed by a SHA-256 hash of the credential; the key itself is never held.  An
+ * entry lives at most the configured time and never past the expiry of the API key it was
+ * found with.  Role changes made in the database are picked up once the entry expires.
+ * {@link #invalidateKey} only reaches this instance, so a key deleted elsewhere stays usable
+ * here until its entry expires.
+ */
+final class PrincipalCache {
+    static final String NAME = "principal-cache";
+
+    private static final String API_KEY = "apikey:";
+    private static final String EDIPI = "edipi:";
+
+    private final Cache<String, Entry> cache;
+
+    PrincipalCache(long maxSize, long expireAfter, TimeUnit unit) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfter, unit)
+                .recordStats()
+                .build();
+    }
+
+    static String apiKey(String key) {
+        return hash(API_KEY + key);
+    }
+
+    static String edipi(long edipi) {
+        return hash(EDIPI + edipi);
+    }
+
+    /**
+     * @param hash from {@link #apiKey(String)} or {@link #edipi(long)}
+     * @return the principal, or null if there is none or the key it was found with expired.
+     */
+    @Nullable
+    DataApiPrincipal get(String hash) {
+        Entry entry = cache.getIfPresent(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expires != null && !Instant.now().isBefore(entry.expires)) {
+            cache.invalidate(hash);
+            return null;
+        }
+        return entry.principal;
+    }
+
+    /**
+     * @param hash from {@link #apiKey(String)} or {@link #edipi(long)}
+     * @param principal the principal found
+     * @param keyName name of the API key the principal was found with, null for an EDIPI
+     * @param expires when that API key expires, null if it doesn't
+     */
+    void put(String hash, DataApiPrincipal principal, @Nullable String keyName,
+             @Nullable Instant expires) {
+        cache.put(hash, new Entry(principal, keyName, expires));
+    }
+
+    /**
+     * Drops the principal found with the named API key of a user.
+     */
+    void invalidateKey(String userId, String keyName) {
+        cache.asMap().values().removeIf(entry -> keyName.equals(entry.keyName)
+                && entry.principal.getName().equalsIgnoreCase(userId));
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    void registerMetrics(MetricRegistry metrics) {
+        String hitRateName = MetricRegistry.name(AuthDao.class.getName(), NAME, "hit-rate");
+        if (metrics.getGauges().get(hitRateName) == null) {
+            MetricRegistry.MetricSupplier<? extends Gauge> hitRate =
+                    () -> (Gauge<Double>) () -> cache.stats().hitRate();
+            metrics.gauge(hitRateName, hitRate);
+        }
+        String sizeName = MetricRegistry.name(AuthDao.class.getName(), NAME, "size");
+        if (metrics.getGauges().get(sizeName) == null) {
+            MetricRegistry.MetricSupplier<? extends Gauge> size =
+                    () -> (Gauge<Long>) cache::size;
+            metrics.gauge(sizeName, size);
+        }
+    }
+
+    private static String hash(String credential) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(credential.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class Entry {
+        private final DataApiPrincipal principal;
+        @Nullable
+        private final String keyName;
+        @Nullable
+        private final Instant expires;
+
+        private Entry(DataApiPrincipal principal, @Nullable String keyName,
+                      @Nullable Instant expires) {
+            this.principal = principal;
+            this.keyName = keyName;
+            this.expires = expires;
+        }
+    }
+}
@@ -44,6 +44,38 @@ public interface RatingDao {
     String retrieveRatings(String format, String names, String unit, String datum, String office,
                            String start, String end, String timezone);
 
+    /**
+     * Cheaply identifies the state of the ratings of a specification, without loading them.
+     * The token changes whenever a rating is stored, deleted, activated or deactivated.
+     *
+     * @return the token, or null if the specification has no ratings.
+     */
+    String getVersionToken(String officeId, String specificationId);
+
+
+    /**
+     * Rates values with the current ratings of a specification.
+     *
+     * @param units the units of the independent parameters followed by the unit of the
+     *              dependent parameter, in which the values are given and returned; null for
+     *              the units of the rating
+     * @param times the time of each value, used to pick the rating in effect; null to rate
+     *              every value with the rating in effect now
+     * @param values one array for each independent parameter, all the same length
+     * @return the dependent values, HEC_UNDEFINED_DOUBLE where a value can't be rated
+     * @throws cwms.cda.api.errors.NotFoundException if the specification has no ratings
+     */
+    double[] rate(String officeId, String specificationId, String[] units, long[] times,
+                  double[][] values) throws IOException, RatingException;
+
+    /**
+     * Finds the independent values that rate to the given dependent values.  Only ratings
+     * with a single independent parameter can be reversed.
+     *
+     * @see #rate(String, String, String[], long[], double[][])
+     */
+    double[] reverseRate(String officeId, String specificationId, String[] units, long[] times,
+                         double[] values) throws IOException, RatingException;
 
     void store(String ratingSet, boolean storeTemplate) throws IOException, RatingException;
 
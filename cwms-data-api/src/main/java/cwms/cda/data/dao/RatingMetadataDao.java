@@ -42,15 +42,18 @@ import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
 import org.jooq.Field;
-import org.jooq.Record1;
+import org.jooq.Record;
 import org.jooq.Record2;
+import org.jooq.Result;
 import org.jooq.SelectConditionStep;
-import org.jooq.SelectForUpdateStep;
+import org.jooq.SelectFieldOrAsterisk;
+import org.jooq.SelectLimitPercentAfterOffsetStep;
 import usace.cwms.db.jooq.codegen.packages.CWMS_RATING_PACKAGE;
 import usace.cwms.db.jooq.codegen.tables.AV_RATING_SPEC;
 
 import java.sql.Timestamp;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -77,6 +80,10 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
             + "<ratings xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
             + "xsi:noNamespaceSchemaLocation=\"https://www.hec.usace.army"
             + ".mil/xmlSchema/cwms/Ratings.xsd\"/>";
+
+    // the distinct rating ids of the specs, a page is a list of rating ids
+    private static final Field<String> RATING_ID = field("RATING_ID", String.class);
+    private static final KeysetCursor RATING_ID_KEYS = new KeysetCursor(RATING_ID);
     private final Executor executor = new ThreadPoolExecutor(6, Integer.MAX_VALUE,
             60L, TimeUnit.SECONDS,
             new LinkedBlockingQueue<>(), r -> {
@@ -99,35 +106,34 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
     public RatingMetadataList retrieve(String cursor, int pageSize, String office,
                                        String specIdMask, ZonedDateTime start,
                                        ZonedDateTime end) {
-        int offset = 0;
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length >= 2) {
-                offset = Integer.parseInt(parts[0]);
-                pageSize = Integer.parseInt(parts[parts.length - 1]);
-            }
+        String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
+        if (parts.length == 2) {
+            // the offset||pageSize cursors this list issued before keyset paging
+            cursor = CwmsDTOPaginated.encodeCursor(parts[0], Integer.parseInt(parts[1]), null);
         }
-        int finalOffset = offset;
-        int finalPageSize = pageSize;
+        KeysetCursor.Page page = RATING_ID_KEYS.page(cursor, pageSize);
 
-        return retrieve(office, specIdMask, start, end, finalOffset, finalPageSize);
+        return retrieve(office, specIdMask, start, end, page);
     }
 
     private RatingMetadataList retrieve(String office, String specIdMask, ZonedDateTime start,
-                                        ZonedDateTime end, final int offset, final int pageSize) {
+                                        ZonedDateTime end, KeysetCursor.Page page) {
+        int pageSize = page.getPageSize();
         metrics.histogram(name(RatingMetadataDao.class, "retrieve", "pageSize"))
                 .update(pageSize);
-        metrics.histogram(name(RatingMetadataDao.class, "retrieve", "offset"))
-                .update(offset);
         try (final Timer.Context ignored = markAndTime("retrieve")) {
-            Set<String> ratingIds = getRatingIds(office, specIdMask, offset, pageSize);
+            Result<Record> rows = getRatingIdRows(office, specIdMask, page);
+            Set<String> ratingIds = rows.stream()
+                    .map(r -> r.get(RATING_ID))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
 
             Map<RatingSpec, Set<AbstractRatingMetadata>> map =
                     getRatingsForIds(office, ratingIds, start, end);
 
             RatingMetadataList.Builder builder = new RatingMetadataList.Builder(pageSize);
             boolean isLastPage = ratingIds.size() < pageSize; // Not entirely certain about this...
+            String nextPage = isLastPage || rows.isEmpty() ? null
+                    : RATING_ID_KEYS.next(rows.get(rows.size() - 1));
 
             List<RatingMetadata> metadata = map.entrySet().stream()
                     .map(entry -> {
@@ -139,7 +145,8 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
                     .collect(Collectors.toList());
             map.forEach((spec, ratings) -> {
                 builder.withMetadata(metadata);
-                builder.withOffset(offset);
+                builder.withPage(page.getPage());
+                builder.withNextPage(nextPage);
                 builder.withIsLastPage(isLastPage);
             });
 
@@ -148,8 +155,19 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
     }
 
 
+    /**
+     * @return the first limit rating ids, in order, of the specs that match.
+     */
     @NotNull
-    public Set<String> getRatingIds(String office, String templateIdMask, int offset, int limit) {
+    public Set<String> getRatingIds(String office, String templateIdMask, int limit) {
+        return getRatingIdRows(office, templateIdMask, RATING_ID_KEYS.page(null, limit)).stream()
+                .map(r -> r.get(RATING_ID))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @NotNull
+    private Result<Record> getRatingIdRows(String office, String templateIdMask,
+                                           KeysetCursor.Page page) {
         AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
 
         try (final Timer.Context ignored = markAndTime("getRatingIds")) {
@@ -165,21 +183,23 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
                 condition = condition.and(ratingIdLike);
             }
 
-            Field<String> idField = field("RATING_ID", String.class);
-
             SelectConditionStep<Record2<String, String>> ratingStep = dsl.select(
                             specView.OFFICE_ID,
-                            specView.RATING_ID.as(idField))
+                            specView.RATING_ID.as(RATING_ID))
                     .from(specView)
                     .where(condition);
 
-            SelectForUpdateStep<Record1<String>> query = dsl.selectDistinct(idField)
+            List<SelectFieldOrAsterisk> fields = new ArrayList<>();
+            fields.add(RATING_ID);
+            fields.addAll(RATING_ID_KEYS.fields());
+            SelectLimitPercentAfterOffsetStep<Record> query = dsl.selectDistinct(fields)
                     .from(ratingStep)
-                    .orderBy(idField.asc())
-                    .limit(limit)
-                    .offset(offset);
+                    .where(page.condition())
+                    .orderBy(RATING_ID_KEYS.orderBy())
+                    .offset(page.getOffset())
+                    .limit(page.getPageSize());
 
-            return new LinkedHashSet<>(query.fetch(idField));
+            return query.fetch();
         }
     }
 
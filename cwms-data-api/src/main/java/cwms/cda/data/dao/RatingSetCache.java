@@ -0,0 +1,132 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hec.data.cwmsRating.RatingSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fully loaded rating sets, each stored with the version of the rating specification it was
+ * loaded at.  A lookup only hits when the caller presents the same version, so a set is
+ * reloaded as soon as a probe of the database shows a change, whoever made it.
+ * <p>
+ * The sets are shared between requests and must not be modified by callers.
+ */
+final class RatingSetCache {
+    static final String NAME = "rating-set-cache";
+
+    private final Cache<List<String>, Entry> cache;
+
+    /**
+     * @param maxSize the most sets to hold
+     * @param expireAfter how long a set is held after it was loaded
+     * @param unit unit of expireAfter
+     * @param softValues let the garbage collector drop sets when memory runs short
+     */
+    RatingSetCache(long maxSize, long expireAfter, TimeUnit unit, boolean softValues) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfter, unit)
+                .recordStats();
+        if (softValues) {
+            builder.softValues();
+        }
+        cache = builder.build();
+    }
+
+    static List<String> key(String office, String specId, @Nullable Long start,
+                            @Nullable Long end, RatingSet.DatabaseLoadMethod method) {
+        return Arrays.asList(upper(office), upper(specId), String.valueOf(start),
+                String.valueOf(end), method.name());
+    }
+
+    /**
+     * @param key from {@link #key}
+     * @param version the current version of the specification
+     * @return the set, or null if there is none or it was loaded at another version.
+     */
+    @Nullable
+    RatingSet get(List<String> key, String version) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.version.equals(version)) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry.ratingSet;
+    }
+
+    void put(List<String> key, String version, RatingSet ratingSet) {
+        cache.put(key, new Entry(version, ratingSet));
+    }
+
+    /**
+     * Drops every window of a specification.
+     */
+    void invalidate(String office, String specId) {
+        String upperOffice = upper(office);
+        String upperSpec = upper(specId);
+        cache.asMap().keySet().removeIf(key -> Objects.equals(upperOffice, key.get(0))
+                && Objects.equals(upperSpec, key.get(1)));
+    }
+
+    /**
+     * Drops every specification of an office.
+     */
+    void invalidateOffice(String office) {
+        String upperOffice = upper(office);
+        cache.asMap().keySet().removeIf(key -> Objects.equals(upperOffice, key.get(0)));
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    void registerMetrics(MetricRegistry metrics, String className) {
+        String hitRateName = MetricRegistry.name(className, NAME, "hit-rate");
+        if (metrics.getGauges().get(hitRateName) == null) {
+            MetricRegistry.MetricSupplier<? extends Gauge> hitRate =
+                    () -> (Gauge<Double>) () -> cache.stats().hitRate();
+            metrics.gauge(hitRateName, hitRate);
+        }
+        String sizeName = MetricRegistry.name(className, NAME, "size");
+        if (metrics.getGauges().get(sizeName) == null) {
+            MetricRegistry.MetricSupplier<? extends Gauge> size =
+                    () -> (Gauge<Long>) cache::size;
+            metrics.gauge(sizeName, size);
+        }
+        String evictionsName = MetricRegistry.name(className, NAME, "evictions");
+        if (metrics.getGauges().get(evictionsName) == null) {
+            MetricRegistry.MetricSupplier<? extends Gauge> evictions =
+                    () -> (Gauge<Long>) () -> cache.stats().evictionCount();
+            metrics.gauge(evictionsName, evictions);
+        }
+    }
+
+    @Nullable
+    private static String upper(@Nullable String value) {
+        return value == null ? null : value.toUpperCase();
+    }
+
+    private static final class Entry {
+        private final String version;
+        private final RatingSet ratingSet;
+
+        private Entry(String version, RatingSet ratingSet) {
+            this.version = version;
+            this.ratingSet = ratingSet;
+        }
+    }
+}
@@ -24,28 +24,53 @@
 
 package cwms.cda.data.dao;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import cwms.cda.api.errors.NotFoundException;
 import hec.data.RatingException;
+import hec.data.Units;
 import hec.data.cwmsRating.RatingSet;
 import mil.army.usace.hec.cwms.rating.io.jdbc.ConnectionProvider;
 import mil.army.usace.hec.cwms.rating.io.jdbc.RatingJdbcFactory;
+import mil.army.usace.hec.metadata.constants.NumericalConstants;
+import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
 import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
 import usace.cwms.db.jooq.codegen.packages.CWMS_RATING_PACKAGE;
+import usace.cwms.db.jooq.codegen.tables.AV_RATING;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
+    public static final String CACHE_PROP_BASE = "cwms.cda.data.dao.ratingSetCache";
 
+    // Only EAGER sets are held; the other load methods leave the set reading from the
+    // connection it was loaded with, which is closed once the request is done.
+    private static final RatingSetCache ratingSetCache = new RatingSetCache(
+            Long.getLong(CACHE_PROP_BASE + ".maxSize", 200),
+            Long.getLong(CACHE_PROP_BASE + ".expireAfterSeconds", 3600),
+            TimeUnit.SECONDS,
+            Boolean.parseBoolean(System.getProperty(CACHE_PROP_BASE + ".softValues", "true")));
 
     public RatingSetDao(DSLContext dsl) {
+        this(dsl, null);
+    }
+
+    public RatingSetDao(DSLContext dsl, @Nullable MetricRegistry metrics) {
         super(dsl);
+        if (metrics != null) {
+            ratingSetCache.registerMetrics(metrics, this.getClass().getName());
+        }
     }
 
     @Override
@@ -68,6 +93,8 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 throw (RatingException) cause;
             }
             throw new IOException("Failed to create Rating", ex);
+        } finally {
+            invalidateCached(ratingSetXml);
         }
     }
 
@@ -83,6 +110,71 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
         return office;
     }
 
+    /**
+     * Drops the cached sets of the specifications in a rating set document, or of its whole
+     * office if the specifications can't be told.
+     */
+    private static void invalidateCached(String ratingSetXml) {
+        try {
+            JsonNode node = new XmlMapper().readTree(ratingSetXml);
+            List<JsonNode> offices = node.findValues("office-id");
+            String office = offices.isEmpty() ? null
+                    : offices.get(offices.size() - 1).textValue();
+            List<JsonNode> specs = node.findValues("rating-spec-id");
+            if (office == null) {
+                ratingSetCache.invalidateAll();
+            } else if (specs.isEmpty()) {
+                ratingSetCache.invalidateOffice(office);
+            } else {
+                for (JsonNode spec : specs) {
+                    ratingSetCache.invalidate(office, spec.textValue());
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            ratingSetCache.invalidateAll();
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getVersionToken(String officeId, String specificationId) {
+        if (officeId == null || specificationId == null) {
+            return null;
+        }
+        return getVersion(officeId, specificationId);
+    }
+
+    /**
+     * A cheap probe of the ratings of a specification that changes whenever a rating is
+     * stored, deleted, activated or deactivated.
+     *
+     * @return the version, or null if the specification has no ratings.
+     */
+    @Nullable
+    String getVersion(String officeId, String specificationId) {
+        AV_RATING ratView = AV_RATING.AV_RATING;
+        Field<Integer> count = DSL.count();
+        Field<Integer> active = DSL.count().filterWhere(ratView.ACTIVE_FLAG.eq("T"));
+        Field<?> lastCreated = DSL.max(ratView.CREATE_DATE);
+        Field<?> lastEffective = DSL.max(ratView.EFFECTIVE_DATE);
+        Record rec = dsl.select(count, active, lastCreated, lastEffective)
+                .from(ratView)
+                .where(ratView.OFFICE_ID.eq(officeId.toUpperCase()))
+                .and(DSL.upper(ratView.RATING_ID).eq(specificationId.toUpperCase()))
+                .and(ratView.ALIASED_ITEM.isNull())
+                .fetchOne();
+        if (rec == null || rec.get(count) == 0) {
+            return null;
+        }
+        return rec.get(count) + ":" + rec.get(active) + ":"
+                + millis(rec.get(lastCreated, Timestamp.class)) + ":"
+                + millis(rec.get(lastEffective, Timestamp.class));
+    }
+
+    private static String millis(@Nullable Timestamp timestamp) {
+        return timestamp == null ? "" : Long.toString(timestamp.getTime());
+    }
+
     @Override
     public RatingSet retrieve(RatingSet.DatabaseLoadMethod method, String officeId,
                               String specificationId, Instant startZdt, Instant endZdt
@@ -110,10 +202,30 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
 
             RatingSet.DatabaseLoadMethod finalMethod = method;
 
+            List<String> key = null;
+            String version = null;
+            if (method == RatingSet.DatabaseLoadMethod.EAGER && officeId != null
+                    && specificationId != null) {
+                key = RatingSetCache.key(officeId, specificationId, start, end, method);
+                version = getVersion(officeId, specificationId);
+                if (version != null) {
+                    RatingSet cached = ratingSetCache.get(key, version);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
+            }
+
             connection(dsl, c -> retval[0] =
                     RatingJdbcFactory.ratingSet(finalMethod, new RatingConnectionProvider(c), officeId,
                         specificationId, start, end, false));
 
+            // The version was read before loading, so a change made in between only costs
+            // an extra load on the next request.
+            if (version != null && retval[0] != null) {
+                ratingSetCache.put(key, version, retval[0]);
+            }
+
         } catch (DataAccessException ex) {
             Throwable cause = ex.getCause();
             if (cause instanceof RatingException) {
@@ -128,6 +240,137 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
         return retval[0];
     }
 
+    @Override
+    public double[] rate(String officeId, String specificationId, @Nullable String[] units,
+                         @Nullable long[] times, double[][] values)
+            throws IOException, RatingException {
+        return rate(currentRatings(officeId, specificationId), units, times, values);
+    }
+
+    @Override
+    public double[] reverseRate(String officeId, String specificationId,
+                                @Nullable String[] units, @Nullable long[] times,
+                                double[] values) throws IOException, RatingException {
+        return reverseRate(currentRatings(officeId, specificationId), units, times, values);
+    }
+
+    private RatingSet currentRatings(String officeId, String specificationId)
+            throws IOException, RatingException {
+        RatingSet ratingSet = retrieve(RatingSet.DatabaseLoadMethod.EAGER, officeId,
+                specificationId, null, null);
+        if (ratingSet == null) {
+            throw new NotFoundException("No ratings found for " + specificationId
+                    + " in office " + officeId);
+        }
+        return ratingSet;
+    }
+
+    /**
+     * Rates with a set that may be shared through the cache.  The set is only read: values
+     * are converted to the units the set rates in before rating and the results back after,
+     * rather than setting the data units of the set.  Null entries of units are replaced with
+     * the units of the rating.
+     *
+     * @param values one array for each independent parameter
+     */
+    static double[] rate(RatingSet ratingSet, @Nullable String[] units, @Nullable long[] times,
+                         double[][] values) throws RatingException {
+        int count = values[0].length;
+        for (double[] parameter : values) {
+            if (parameter.length != count) {
+                throw new IllegalArgumentException("Every independent parameter must have "
+                        + "the same number of values.");
+            }
+        }
+        String[] setUnits = null;
+        if (units != null) {
+            fillUnits(ratingSet, units);
+            setUnits = setUnits(ratingSet);
+            double[][] converted = new double[values.length][];
+            for (int param = 0; param < values.length; param++) {
+                converted[param] = convert(values[param], units[param], setUnits[param]);
+            }
+            values = converted;
+        }
+
+        double[] results;
+        if (values.length == 1) {
+            results = times == null ? ratingSet.rate(values[0])
+                    : ratingSet.rate(times, values[0]);
+        } else {
+            // the rating takes one array of independent values for each point
+            double[][] valueSets = new double[count][values.length];
+            for (int param = 0; param < values.length; param++) {
+                for (int i = 0; i < count; i++) {
+                    valueSets[i][param] = values[param][i];
+                }
+            }
+            results = times == null ? ratingSet.rate(valueSets)
+                    : ratingSet.rate(times, valueSets);
+        }
+        if (units == null) {
+            return results;
+        }
+        int dep = units.length - 1;
+        return convert(results, setUnits[dep], units[dep]);
+    }
+
+    static double[] reverseRate(RatingSet ratingSet, @Nullable String[] units,
+                                @Nullable long[] times, double[] values)
+            throws RatingException {
+        String[] setUnits = null;
+        if (units != null) {
+            fillUnits(ratingSet, units);
+            setUnits = setUnits(ratingSet);
+            values = convert(values, units[units.length - 1], setUnits[units.length - 1]);
+        }
+        double[] results = times == null ? ratingSet.reverseRate(values)
+                : ratingSet.reverseRate(times, values);
+        return units == null ? results : convert(results, setUnits[0], units[0]);
+    }
+
+    private static String[] fillUnits(RatingSet ratingSet, String[] units)
+            throws RatingException {
+        String[] ratingUnits = ratingSet.getRatingUnits();
+        if (ratingUnits.length != units.length) {
+            throw new IllegalArgumentException("The rating takes " + ratingUnits.length
+                    + " units, " + units.length + " were given.");
+        }
+        for (int i = 0; i < units.length; i++) {
+            if (units[i] == null) {
+                units[i] = ratingUnits[i];
+            }
+        }
+        return units;
+    }
+
+    // the units the set takes and returns values in, those of the rating unless set
+    private static String[] setUnits(RatingSet ratingSet) throws RatingException {
+        String[] dataUnits = ratingSet.getDataUnits();
+        return dataUnits == null ? ratingSet.getRatingUnits() : dataUnits;
+    }
+
+    /**
+     * @return values in the to unit, the same array if the units are the same.  Values that
+     *     are missing or couldn't be rated are left as they are.
+     */
+    private static double[] convert(double[] values, String from, String to) {
+        if (from.equals(to)) {
+            return values;
+        }
+        if (!Units.canConvertBetweenUnits(from, to)) {
+            throw new IllegalArgumentException("Cannot convert between " + from + " and "
+                    + to + ".");
+        }
+        double[] retval = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            retval[i] = Double.isNaN(value) || value == NumericalConstants.HEC_UNDEFINED_DOUBLE
+                    ? value : Units.convertUnits(value, from, to);
+        }
+        return retval;
+    }
+
     // store/update
     @Override
     public void store(String ratingSetXml, boolean includeTemplate) throws IOException, RatingException {
@@ -144,6 +387,8 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 throw (RatingException) cause;
             }
             throw new IOException("Failed to store Rating", ex);
+        } finally {
+            invalidateCached(ratingSetXml);
         }
     }
 
@@ -151,12 +396,16 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
     public void delete(String officeId, String specificationId, Instant start, Instant end) {
         Timestamp startDate = new Timestamp(start.toEpochMilli());
         Timestamp endDate = new Timestamp(end.toEpochMilli());
-        dsl.connection(c->
-            CWMS_RATING_PACKAGE.call_DELETE_RATINGS(
-                getDslContext(c,officeId).configuration(), specificationId, startDate,
-                endDate, "UTC", officeId
-            )
-        );
+        try {
+            dsl.connection(c->
+                CWMS_RATING_PACKAGE.call_DELETE_RATINGS(
+                    getDslContext(c,officeId).configuration(), specificationId, startDate,
+                    endDate, "UTC", officeId
+                )
+            );
+        } finally {
+            ratingSetCache.invalidate(officeId, specificationId);
+        }
     }
 
 
@@ -26,13 +26,13 @@ package cwms.cda.data.dao;
 
 import static cwms.cda.data.dto.rating.RatingSpec.Builder.buildIndependentRoundingSpecs;
 
-import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.rating.RatingSpec;
 import cwms.cda.data.dto.rating.RatingSpecs;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -40,15 +40,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import org.jetbrains.annotations.NotNull;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Record;
+import org.jooq.Result;
 import org.jooq.ResultQuery;
+import org.jooq.SelectFieldOrAsterisk;
+import org.jooq.SelectLimitPercentAfterOffsetStep;
 import org.jooq.conf.ParamType;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.jooq.codegen.packages.CWMS_RATING_PACKAGE;
@@ -58,6 +59,11 @@ import usace.cwms.db.jooq.codegen.tables.AV_RATING_SPEC;
 public class RatingSpecDao extends JooqDao<RatingSpec> {
     private static final Logger logger = Logger.getLogger(RatingSpecDao.class.getName());
 
+    // a row of the spec and rating join, a spec has a row for each of its ratings
+    private static final KeysetCursor SPEC_KEYS = new KeysetCursor(
+            AV_RATING_SPEC.AV_RATING_SPEC.OFFICE_ID, AV_RATING_SPEC.AV_RATING_SPEC.TEMPLATE_ID,
+            AV_RATING_SPEC.AV_RATING_SPEC.RATING_ID, AV_RATING.AV_RATING.EFFECTIVE_DATE);
+
     public RatingSpecDao(DSLContext dsl) {
         super(dsl);
     }
@@ -125,36 +131,7 @@ public class RatingSpecDao extends JooqDao<RatingSpec> {
 
     public RatingSpecs retrieveRatingSpecs(String cursor, int pageSize, String office,
                                            String specIdMask) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.log(Level.INFO, "Could not parse " + parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
-
-        Set<RatingSpec> retval = getRatingSpecs(office, specIdMask, offset, pageSize);
-
-        RatingSpecs.Builder builder = new RatingSpecs.Builder(offset, pageSize, total);
-        builder.specs(new ArrayList<>(retval));
-        return builder.build();
-    }
-
-    @NotNull
-    public Set<RatingSpec> getRatingSpecs(String office, String specIdMask, int firstRow,
-                                          int pageSize) {
-        Set<RatingSpec> retVal;
+        KeysetCursor.Page page = SPEC_KEYS.page(cursor, pageSize);
 
         AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
         AV_RATING ratView = AV_RATING.AV_RATING;
@@ -174,47 +151,56 @@ public class RatingSpecDao extends JooqDao<RatingSpec> {
             condition = condition.and(maskRegex);
         }
 
-        ResultQuery<? extends Record> query = dsl.select(specView.RATING_SPEC_CODE,
-                        specView.OFFICE_ID, specView.RATING_ID, specView.DATE_METHODS,
-                        specView.TEMPLATE_ID, specView.LOCATION_ID, specView.VERSION,
-                        specView.SOURCE_AGENCY, specView.ACTIVE_FLAG, specView.AUTO_UPDATE_FLAG,
-                        specView.AUTO_ACTIVATE_FLAG, specView.AUTO_MIGRATE_EXT_FLAG,
-                        specView.IND_ROUNDING_SPECS, specView.DEP_ROUNDING_SPEC,
-                        specView.DESCRIPTION, specView.ALIASED_ITEM,
-                        ratView.RATING_SPEC_CODE, ratView.EFFECTIVE_DATE)
+        List<SelectFieldOrAsterisk> fields = new ArrayList<>(Arrays.asList(
+                specView.RATING_SPEC_CODE,
+                specView.OFFICE_ID, specView.RATING_ID, specView.DATE_METHODS,
+                specView.TEMPLATE_ID, specView.LOCATION_ID, specView.VERSION,
+                specView.SOURCE_AGENCY, specView.ACTIVE_FLAG, specView.AUTO_UPDATE_FLAG,
+                specView.AUTO_ACTIVATE_FLAG, specView.AUTO_MIGRATE_EXT_FLAG,
+                specView.IND_ROUNDING_SPECS, specView.DEP_ROUNDING_SPEC,
+                specView.DESCRIPTION, specView.ALIASED_ITEM,
+                ratView.RATING_SPEC_CODE, ratView.EFFECTIVE_DATE));
+        fields.addAll(SPEC_KEYS.fields());
+        SelectLimitPercentAfterOffsetStep<Record> query = dsl.select(fields)
                 .from(specView)
                 .leftOuterJoin(ratView)
                 .on(specView.RATING_SPEC_CODE.eq(ratView.RATING_SPEC_CODE))
-                .where(condition)
-                .orderBy(specView.OFFICE_ID, specView.TEMPLATE_ID, ratView.RATING_ID,
-                        ratView.EFFECTIVE_DATE)
-                .limit(pageSize)
-                .offset(firstRow);
+                .where(condition.and(page.condition()))
+                .orderBy(SPEC_KEYS.orderBy())
+                .offset(page.getOffset())
+                .limit(page.getPageSize());
 
         logger.fine(() -> query.getSQL(ParamType.INLINED));
 
+        Result<Record> rows = query.fetch();
         Map<RatingSpec, List<ZonedDateTime>> map = new LinkedHashMap<>();
-        try (Stream<? extends Record> stream = query.fetchStream()) {
-            stream.forEach(rec -> {
-                RatingSpec template = buildRatingSpec(rec);
+        rows.forEach(rec -> {
+            RatingSpec template = buildRatingSpec(rec);
 
-                Timestamp effectiveDate = rec.get(ratView.EFFECTIVE_DATE);
-                ZonedDateTime effective = toZdt(effectiveDate);
+            Timestamp effectiveDate = rec.get(ratView.EFFECTIVE_DATE);
+            ZonedDateTime effective = toZdt(effectiveDate);
 
-                List<ZonedDateTime> list = map.computeIfAbsent(template, k -> new ArrayList<>());
-                if (effective != null) {
-                    list.add(effective);
-                }
-            });
-        }
+            List<ZonedDateTime> list = map.computeIfAbsent(template, k -> new ArrayList<>());
+            if (effective != null) {
+                list.add(effective);
+            }
+        });
 
-        retVal = map.entrySet().stream()
+        List<RatingSpec> specs = map.entrySet().stream()
                 .map(entry -> new RatingSpec.Builder()
                         .fromRatingSpec(entry.getKey())
                         .withEffectiveDates(entry.getValue())
                         .build())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-        return retVal;
+                .collect(Collectors.toList());
+
+        // the page is counted in rows, a spec has a row for each of its ratings
+        RatingSpecs.Builder builder = new RatingSpecs.Builder(page.getPage(),
+                page.getPageSize(), page.getTotal());
+        if (rows.size() == page.getPageSize()) {
+            builder.withNextPage(SPEC_KEYS.next(rows.get(rows.size() - 1)));
+        }
+        builder.specs(specs);
+        return builder.build();
     }
 
 
@@ -24,19 +24,17 @@
 
 package cwms.cda.data.dao;
 
-import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.rating.ParameterSpec;
 import cwms.cda.data.dto.rating.RatingTemplate;
 import cwms.cda.data.dto.rating.RatingTemplates;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -44,8 +42,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Record;
+import org.jooq.Result;
 import org.jooq.ResultQuery;
-import org.jooq.SelectForUpdateStep;
+import org.jooq.SelectFieldOrAsterisk;
+import org.jooq.SelectLimitPercentAfterOffsetStep;
 import org.jooq.TableField;
 import org.jooq.conf.ParamType;
 
@@ -57,6 +57,12 @@ import usace.cwms.db.jooq.codegen.tables.AV_RATING_TEMPLATE;
 public class RatingTemplateDao extends JooqDao<RatingTemplate> {
     private static final Logger logger = Logger.getLogger(RatingTemplateDao.class.getName());
 
+    // a row of the template and spec join, a template has a row for each of its specs
+    private static final KeysetCursor TEMPLATE_KEYS = new KeysetCursor(
+            AV_RATING_TEMPLATE.AV_RATING_TEMPLATE.OFFICE_ID,
+            AV_RATING_TEMPLATE.AV_RATING_TEMPLATE.TEMPLATE_ID,
+            AV_RATING_SPEC.AV_RATING_SPEC.RATING_ID);
+
     public RatingTemplateDao(DSLContext dsl) {
         super(dsl);
     }
@@ -97,23 +103,28 @@ public class RatingTemplateDao extends JooqDao<RatingTemplate> {
 
     @NotNull
     private Set<RatingTemplate> buildRatingTemplateSet(ResultQuery<? extends Record> query) {
+        try (Stream<? extends Record> stream = query.fetchStream()) {
+            return buildRatingTemplateSet(stream);
+        }
+    }
+
+    @NotNull
+    private Set<RatingTemplate> buildRatingTemplateSet(Stream<? extends Record> stream) {
 
         TableField<usace.cwms.db.jooq.codegen.tables.records.AV_RATING_SPEC, String> idField =
                 AV_RATING_SPEC.AV_RATING_SPEC.RATING_ID;
 
         Map<RatingTemplate, List<String>> map = new LinkedHashMap<>();
 
-        try (Stream<? extends Record> stream = query.fetchStream()) {
-            stream.forEach(rec -> {
-                RatingTemplate template = buildRatingTemplate(rec);
-                String specID = rec.get(idField);
+        stream.forEach(rec -> {
+            RatingTemplate template = buildRatingTemplate(rec);
+            String specID = rec.get(idField);
 
-                List<String> list = map.computeIfAbsent(template, k -> new ArrayList<>());
-                if (specID != null) {
-                    list.add(specID);
-                }
-            });
-        }
+            List<String> list = map.computeIfAbsent(template, k -> new ArrayList<>());
+            if (specID != null) {
+                list.add(specID);
+            }
+        });
 
         return map.entrySet().stream()
                 .map(entry -> new RatingTemplate.Builder()
@@ -226,35 +237,8 @@ public class RatingTemplateDao extends JooqDao<RatingTemplate> {
 
     public RatingTemplates retrieveRatingTemplates(String cursor, int pageSize, String office,
                                                    String templateIdMask) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.log(Level.INFO, "Could not parse " + parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
-
-        Collection<RatingTemplate> templates = getRatingTemplates(office, templateIdMask, offset, pageSize);
+        KeysetCursor.Page page = TEMPLATE_KEYS.page(cursor, pageSize);
 
-        RatingTemplates.Builder builder = new RatingTemplates.Builder(offset, pageSize, total);
-        builder.templates(new ArrayList<>(templates));
-        return builder.build();
-    }
-
-    @NotNull
-    private Set<RatingTemplate> getRatingTemplates(String office, String templateIdMask,
-                                                   int firstRow, int pageSize) {
         AV_RATING_TEMPLATE tempView = AV_RATING_TEMPLATE.AV_RATING_TEMPLATE;
         AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
 
@@ -270,21 +254,33 @@ public class RatingTemplateDao extends JooqDao<RatingTemplate> {
             condition = condition.and(maskRegex);
         }
 
-        SelectForUpdateStep<? extends Record> query = dsl.select(
-                        tempView.TEMPLATE_CODE, tempView.OFFICE_ID, tempView.TEMPLATE_ID,
-                        tempView.INDEPENDENT_PARAMETERS, tempView.DEPENDENT_PARAMETER,
-                        tempView.DESCRIPTION, tempView.VERSION, tempView.RATING_METHODS,
-                        specView.TEMPLATE_CODE, specView.RATING_ID, specView.ALIASED_ITEM)
+        List<SelectFieldOrAsterisk> fields = new ArrayList<>(Arrays.asList(
+                tempView.TEMPLATE_CODE, tempView.OFFICE_ID, tempView.TEMPLATE_ID,
+                tempView.INDEPENDENT_PARAMETERS, tempView.DEPENDENT_PARAMETER,
+                tempView.DESCRIPTION, tempView.VERSION, tempView.RATING_METHODS,
+                specView.TEMPLATE_CODE, specView.RATING_ID, specView.ALIASED_ITEM));
+        fields.addAll(TEMPLATE_KEYS.fields());
+        SelectLimitPercentAfterOffsetStep<Record> query = dsl.select(fields)
                 .from(tempView)
                 .leftOuterJoin(specView).on(tempView.TEMPLATE_CODE.eq(specView.TEMPLATE_CODE))
-                .where(condition)
-                .orderBy(tempView.OFFICE_ID, tempView.TEMPLATE_ID, specView.RATING_ID)
-                .limit(pageSize)
-                .offset(firstRow);
+                .where(condition.and(page.condition()))
+                .orderBy(TEMPLATE_KEYS.orderBy())
+                .offset(page.getOffset())
+                .limit(page.getPageSize());
 
-		logger.fine(() -> query.getSQL(ParamType.INLINED));
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
 
-        return buildRatingTemplateSet(query);
+        Result<Record> rows = query.fetch();
+        Set<RatingTemplate> templates = buildRatingTemplateSet(rows.stream());
+
+        // the page is counted in rows, a template has a row for each of its specs
+        RatingTemplates.Builder builder = new RatingTemplates.Builder(page.getPage(),
+                page.getPageSize(), page.getTotal());
+        if (rows.size() == page.getPageSize()) {
+            builder.withNextPage(TEMPLATE_KEYS.next(rows.get(rows.size() - 1)));
+        }
+        builder.templates(new ArrayList<>(templates));
+        return builder.build();
     }
 
     public void create(String xml, boolean failIfExists) {
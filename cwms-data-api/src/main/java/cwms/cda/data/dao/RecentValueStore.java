@@ -0,0 +1,315 @@
+package cwms.cda.data.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TsvDqu;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The latest value of each time series /timeseries/recent was asked about, by ts_code and unit
+ * system, so status boards polling a group are answered without the windowed scan of
+ * AV_TSV_DQU.  A series is read from the database the first time it is asked for, and again
+ * when the window of the request moves.
+ * <p>
+ * Values stored through this server replace the cached value when the new one is plainly the
+ * latest, and drop it otherwise.  Changes made elsewhere are found by a poll of the data entry
+ * dates, run by a request at most every {@value #PROP_BASE}.pollSeconds, which drops the
+ * series that changed.  Deletes made elsewhere don't change a data entry date, they are seen
+ * when the value expires.  The store is off unless {@value #PROP_BASE}.enabled is set.
+ */
+final class RecentValueStore {
+    private static final Logger logger = Logger.getLogger(RecentValueStore.class.getName());
+    static final String PROP_BASE = "cwms.cda.data.dao.recentValues";
+
+    private final Cache<List<Object>, Entry> entries;
+    // upper case office and ts id to ts_code, for the series in entries
+    private final Cache<List<String>, Long> codes;
+    private final long pollNanos;
+    private final long overlapMillis;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    // bumped by every change, a load that started before one isn't kept
+    private long generation;
+    private volatile long polledAt;
+    private volatile Timestamp pollSince;
+
+    /**
+     * @param maxSize the most values to hold
+     * @param expireAfter how long a value is used after it was read
+     * @param pollEvery how often the data entry dates are polled for changes
+     * @param pollOverlap how far each poll looks back before the previous, for clock
+     *     differences and transactions committed after the previous poll
+     * @param unit unit of the times
+     */
+    RecentValueStore(long maxSize, long expireAfter, long pollEvery, long pollOverlap,
+                     TimeUnit unit) {
+        entries = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfter, unit)
+                .build();
+        codes = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfter, unit)
+                .build();
+        pollNanos = unit.toNanos(pollEvery);
+        overlapMillis = unit.toMillis(pollOverlap);
+        polledAt = System.nanoTime();
+        pollSince = new Timestamp(System.currentTimeMillis() - overlapMillis);
+    }
+
+    static RecentValueStore fromSystemProperties() {
+        return new RecentValueStore(Long.getLong(PROP_BASE + ".maxSize", 100_000),
+                Long.getLong(PROP_BASE + ".expireAfterSeconds", 900),
+                Long.getLong(PROP_BASE + ".pollSeconds", 60),
+                Long.getLong(PROP_BASE + ".pollOverlapSeconds", 120),
+                TimeUnit.SECONDS);
+    }
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(PROP_BASE + ".enabled");
+    }
+
+    /**
+     * @return the current generation, to pass to {@link #put} once the values are read.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * @return the entry of a series read for the same window, or null if it has to be read.
+     */
+    @Nullable
+    Entry get(long tsCode, String unitSystem, Timestamp pastLimit, Timestamp futureLimit) {
+        Entry entry = entries.getIfPresent(key(tsCode, unitSystem));
+        if (entry == null || !entry.pastLimit.equals(pastLimit)
+                || !entry.futureLimit.equals(futureLimit)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Keeps what was read for a series, unless it changed since the read began.
+     *
+     * @param generation from {@link #generation()} before the read
+     * @param value the latest value in the window, null if there is none
+     */
+    synchronized void put(long generation, long tsCode, String office, String tsId,
+                          String unitSystem, Timestamp pastLimit, Timestamp futureLimit,
+                          @Nullable TsvDqu value) {
+        if (generation != this.generation) {
+            return;
+        }
+        codes.put(codeKey(office, tsId), tsCode);
+        if (value != null && value.getCwmsTsId() != null) {
+            // tsId may be an alias, stores name the series either way
+            codes.put(codeKey(office, value.getCwmsTsId()), tsCode);
+        }
+        entries.put(key(tsCode, unitSystem), new Entry(pastLimit, futureLimit, value));
+    }
+
+    /**
+     * Applies values stored through this server.  The cached value is replaced when a new one
+     * is later, in the same units and in the window; it is dropped if the store may have
+     * changed it some other way.
+     */
+    synchronized void stored(String office, String tsId, String units,
+                             @Nullable Timestamp versionDate, List<TimeSeries.Record> values,
+                             StoreRule storeRule) {
+        generation++;
+        Long tsCode = codes.getIfPresent(codeKey(office, tsId));
+        if (tsCode == null || values == null || values.isEmpty()) {
+            return;
+        }
+        boolean replaces = versionDate == null && (storeRule == StoreRule.REPLACE_ALL
+                || storeRule == StoreRule.REPLACE_WITH_NON_MISSING);
+        for (Map.Entry<List<Object>, Entry> cached : entries.asMap().entrySet()) {
+            if (!tsCode.equals(cached.getKey().get(0))) {
+                continue;
+            }
+            Entry entry = cached.getValue();
+            Entry updated = replaces ? entry.with(units, values) : null;
+            if (updated != null) {
+                cached.setValue(updated);
+            } else if (entry.touchedBy(values)) {
+                entries.invalidate(cached.getKey());
+            }
+        }
+    }
+
+    /**
+     * Drops the values of a series, for every unit system.
+     *
+     * @param office the office of the series, all offices if null
+     */
+    synchronized void invalidate(@Nullable String office, String tsId) {
+        generation++;
+        if (office != null) {
+            Long tsCode = codes.getIfPresent(codeKey(office, tsId));
+            if (tsCode != null) {
+                invalidate(tsCode);
+            }
+            return;
+        }
+        String upperId = tsId.toUpperCase();
+        for (Map.Entry<List<String>, Long> code : codes.asMap().entrySet()) {
+            if (upperId.equals(code.getKey().get(1))) {
+                invalidate(code.getValue());
+            }
+        }
+    }
+
+    private void invalidate(long tsCode) {
+        entries.asMap().keySet().removeIf(key -> key.get(0).equals(tsCode));
+    }
+
+    /**
+     * Drops the series that changed since the previous poll, if a poll is due and no other
+     * request is running one.
+     *
+     * @param changedSince returns the codes of the series with values entered after a time
+     */
+    void reconcile(Function<Timestamp, Collection<Long>> changedSince) {
+        if (System.nanoTime() - polledAt < pollNanos || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            Collection<Long> changed = changedSince.apply(pollSince);
+            synchronized (this) {
+                generation++;
+                for (Long tsCode : changed) {
+                    invalidate(tsCode);
+                }
+            }
+            logger.log(Level.FINE, "{0} series changed since {1}",
+                    new Object[]{changed.size(), pollSince});
+            pollSince = new Timestamp(startedAt - overlapMillis);
+        } catch (RuntimeException ex) {
+            // the values stay until they expire, the next poll tries the same window again
+            logger.log(Level.WARNING, "Unable to poll for changed time series", ex);
+        } finally {
+            polledAt = System.nanoTime();
+            polling.set(false);
+        }
+    }
+
+    long size() {
+        return entries.size();
+    }
+
+    private static List<Object> key(long tsCode, String unitSystem) {
+        return Arrays.asList(tsCode, unitSystem);
+    }
+
+    private static List<String> codeKey(String office, String tsId) {
+        return Arrays.asList(office == null ? null : office.toUpperCase(),
+                tsId == null ? null : tsId.toUpperCase());
+    }
+
+    /**
+     * The latest value of a series in one window.
+     */
+    static final class Entry {
+        private final Timestamp pastLimit;
+        private final Timestamp futureLimit;
+        @Nullable
+        private final TsvDqu value;
+
+        private Entry(Timestamp pastLimit, Timestamp futureLimit, @Nullable TsvDqu value) {
+            this.pastLimit = pastLimit;
+            this.futureLimit = futureLimit;
+            this.value = value;
+        }
+
+        /**
+         * @return the latest value, null if the series has none in the window.
+         */
+        @Nullable
+        TsvDqu getValue() {
+            return value;
+        }
+
+        private boolean inWindow(Date time) {
+            return time.after(pastLimit) && time.before(futureLimit);
+        }
+
+        private static boolean isMissing(TimeSeries.Record record) {
+            return record.getValue() == null || record.getValue().isNaN();
+        }
+
+        /**
+         * @return whether any of the values could change what this entry holds.
+         */
+        private boolean touchedBy(List<TimeSeries.Record> values) {
+            for (TimeSeries.Record record : values) {
+                Timestamp time = record.getDateTime();
+                if (time != null && inWindow(time)
+                        && (value == null || !time.before(value.getDateTime()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return this entry with the latest of values, or null if that can't be worked out
+         *     here and the entry has to be read again.
+         */
+        @Nullable
+        private Entry with(String units, List<TimeSeries.Record> values) {
+            if (value == null || !units.equals(value.getUnitId())) {
+                return touchedBy(values) ? null : this;
+            }
+            TimeSeries.Record latest = null;
+            for (TimeSeries.Record record : values) {
+                Timestamp time = record.getDateTime();
+                if (time == null || !inWindow(time) || time.before(value.getDateTime())) {
+                    continue;
+                }
+                if (isMissing(record) || !time.after(value.getDateTime())) {
+                    // may remove or overwrite the latest value
+                    return null;
+                }
+                if (latest == null || time.after(latest.getDateTime())) {
+                    latest = record;
+                }
+            }
+            if (latest == null) {
+                return this;
+            }
+            Timestamp time = latest.getDateTime();
+            // the view's start and end dates are those of the table the value is kept in
+            if (value.getStartDate() == null || value.getEndDate() == null
+                    || time.before(value.getStartDate()) || !time.before(value.getEndDate())) {
+                return null;
+            }
+            TsvDqu newest = new TsvDqu.Builder()
+                    .from(value)
+                    .withDateTime(new Date(time.getTime()))
+                    .withDataEntryDate(new Date())
+                    .withValue(latest.getValue())
+                    .withQualityCode((long) latest.getQualityCode())
+                    .build();
+            return new Entry(pastLimit, futureLimit, newest);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" + Objects.toString(value) + "}";
+        }
+    }
+}
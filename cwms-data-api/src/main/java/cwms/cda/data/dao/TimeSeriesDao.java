@@ -1,18 +1,29 @@
 package cwms.cda.data.dao;
 
+import cwms.cda.api.enums.PageTotal;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.RecentValue;
 import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesStoreStatus;
+import cwms.cda.data.dto.catalog.CatalogEntry;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TimeSeriesDao {
 
     Catalog getTimeSeriesCatalog(String page, int pageSize, CatalogRequestParameters inputParams);
 
+    /**
+     * Reads the whole catalog in one query and hands each entry over as soon as it is read,
+     * in the order of the paged catalog.
+     */
+    void streamTimeSeriesCatalog(CatalogRequestParameters params,
+                                 Consumer<? super CatalogEntry> consumer);
+
     void create(TimeSeries input);
 
     void create(TimeSeries input,
@@ -23,12 +34,71 @@ public interface TimeSeriesDao {
     void store(TimeSeries timeSeries, boolean createAsLrts,
                StoreRule replaceAll, boolean overrideProtection);
 
+    /**
+     * Stores many time series with a single database connection.  The series are committed in
+     * groups; a series that fails is reported and does not stop the others from being stored.
+     *
+     * @param series the time series to store, each with its own office
+     * @return the outcome for each time series, in the order given
+     */
+    List<TimeSeriesStoreStatus> store(List<TimeSeries> series, boolean createAsLrts,
+                                      StoreRule storeRule, boolean overrideProtection);
+
     void delete(String officeId, String tsId, TimeSeriesDeleteOptions options);
 
     TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
                              String unit, ZonedDateTime begin, ZonedDateTime end,
                              ZonedDateTime versionDate, boolean trim);
 
+    /**
+     * Same as
+     * {@link #getTimeseries(String, int, String, String, String, ZonedDateTime, ZonedDateTime, ZonedDateTime, boolean)}
+     * with control over how the total is determined when the cursor does not already carry it.
+     */
+    TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
+                             String unit, ZonedDateTime begin, ZonedDateTime end,
+                             ZonedDateTime versionDate, boolean trim, PageTotal pageTotal);
+
+    /**
+     * Retrieves the same page of data as
+     * {@link #getTimeseries(String, int, String, String, String, ZonedDateTime, ZonedDateTime, ZonedDateTime, boolean, PageTotal)}
+     * but hands each value to the consumer as it is read instead of collecting them.
+     */
+    void streamTimeseries(String cursor, int pageSize, String names, String office,
+                          String unit, ZonedDateTime begin, ZonedDateTime end,
+                          ZonedDateTime versionDate, boolean trim, PageTotal pageTotal,
+                          RecordConsumer consumer);
+
+    /**
+     * Retrieves many time series over the same window with a single database connection.
+     * The metadata of the series is resolved up front, then the values are read one series
+     * at a time.  The consumer sees the series one after the other, each one complete before
+     * the next begins, in the order of the names, and a series is passed on as soon as its
+     * values are read.
+     * <p>
+     * The series are not paged and carry no total.
+     *
+     * @param names the time series identifiers, duplicates are retrieved once
+     * @param consumer receives the series as they are read
+     */
+    void streamTimeseries(List<String> names, String office, String unit,
+                          ZonedDateTime begin, ZonedDateTime end, ZonedDateTime versionDate,
+                          boolean trim, BatchConsumer consumer);
+
+    /**
+     * Cheaply identifies the state of the values of a time series, without retrieving them.
+     * The token changes whenever a value of the series is stored or deleted, so a response
+     * built from any window of it can be validated against it before it is built.  Changes
+     * outside the window also change it, which only costs the client a full response.
+     *
+     * @param name the time series identifier
+     * @param office the office, no token is given without one
+     * @param versionDate the version to consider, all versions if null
+     * @return the token, or null if the time series is not known.
+     */
+    String getVersionToken(String name, String office, ZonedDateTime begin, ZonedDateTime end,
+                           ZonedDateTime versionDate);
+
     String getTimeseries(String format, String names, String office, String unit, String datum,
                          ZonedDateTime begin, ZonedDateTime end, ZoneId timezone);
 
@@ -38,4 +108,38 @@ public interface TimeSeriesDao {
     List<RecentValue> findMostRecentsInRange(List<String> tsIds, Timestamp pastLimit,
                                              Timestamp futureLimit, UnitSystem unitSystem);
 
+    /**
+     * Receives a time series retrieval as it is read from the database.
+     */
+    interface RecordConsumer {
+        /**
+         * Called once with the time series metadata before any values are read.
+         * @param header the time series without values
+         */
+        void begin(TimeSeries header);
+
+        /**
+         * Called for each value, in time order.
+         * @return false if no further values are wanted.
+         */
+        boolean accept(Timestamp dateTime, Double value, int qualityCode);
+    }
+
+    /**
+     * Receives several time series read in one batch.
+     */
+    interface BatchConsumer extends RecordConsumer {
+        /**
+         * Called for each requested name that does not identify a time series, before the
+         * first series begins.
+         */
+        void missing(String name);
+
+        /**
+         * Called once all the values of the series last passed to
+         * {@link #begin(TimeSeries)} have been read.
+         */
+        void end();
+    }
+
 }
@@ -10,11 +10,14 @@ import static org.jooq.impl.DSL.select;
 import static usace.cwms.db.jooq.codegen.tables.AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
 import static usace.cwms.db.jooq.codegen.tables.AV_TS_EXTENTS_UTC.AV_TS_EXTENTS_UTC;
 
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
+import cwms.cda.api.enums.PageTotal;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.data.dto.Catalog;
@@ -22,6 +25,8 @@ import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.RecentValue;
 import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.data.dto.TimeSeriesExtents;
+import cwms.cda.data.dto.TimeSeriesStoreStatus;
+import cwms.cda.data.dto.TimeSeriesValues;
 import cwms.cda.data.dto.Tsv;
 import cwms.cda.data.dto.TsvDqu;
 import cwms.cda.data.dto.TsvId;
@@ -43,11 +48,15 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -58,6 +67,7 @@ import org.jetbrains.annotations.Nullable;
 import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Record;
@@ -65,10 +75,13 @@ import org.jooq.Record1;
 import org.jooq.Record3;
 import org.jooq.Record7;
 import org.jooq.Result;
+import org.jooq.Row1;
 import org.jooq.SQL;
+import org.jooq.Select;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectHavingStep;
 import org.jooq.SelectJoinStep;
+import org.jooq.SelectSeekStep1;
 import org.jooq.SelectSeekStep2;
 import org.jooq.Table;
 import org.jooq.TableField;
@@ -77,6 +90,7 @@ import org.jooq.TableOnConditionStep;
 import org.jooq.conf.ParamType;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConnectionProvider;
 import org.jooq.impl.SQLDataType;
 import usace.cwms.db.dao.ifc.ts.CwmsDbTs;
 import usace.cwms.db.dao.util.OracleTypeMap;
@@ -101,7 +115,30 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     public static final String PROP_BASE = "cwms.cda.data.dao.ts";
 
     public static final String VERSIONED_NAME = "isVersioned";
-
+    public static final String FIRST_PAGE_NAME = "first-page-metadata";
+    public static final String BATCH_STORE_NAME = "batch-store";
+    public static final String METADATA_NAME = "metadata";
+
+    // Value the cursor carries in the total position when the total was deliberately not
+    // determined, so later pages don't count either.
+    private static final String NO_TOTAL = "null";
+
+    private static final int BATCH_MAX_SERIES = Integer.getInteger(PROP_BASE + ".batchMaxSeries",
+            1000);
+    // Series stored between commits by a batch store.
+    private static final int BATCH_STORE_SIZE = Integer.getInteger(PROP_BASE + ".batchStoreSize",
+            100);
+    private static final int VALUE_FETCH_SIZE = Integer.getInteger(PROP_BASE + ".valueFetchSize", 5000);
+
+    private static final CatalogSnapshots catalogSnapshots =
+            CatalogSnapshots.fromSystemProperties();
+    private static final RecentValueStore recentValues = RecentValueStore.fromSystemProperties();
+    // Codes per IN list when reading recent values into the store, under Oracle's limit of 1000.
+    private static final int RECENT_VALUE_CHUNK = 1000;
+    // Names per batch retrieve metadata query, so batchMaxSeries doesn't bound the statement.
+    private static final int BATCH_METADATA_CHUNK = 1000;
+    private static final int CATALOG_EXPORT_FETCH_SIZE =
+            Integer.getInteger(PROP_BASE + ".catalogExportFetchSize", 5000);
     private static final Cache<List<String>, Boolean> isVersionedCache = CacheBuilder.newBuilder()
             .maximumSize(Integer.getInteger(PROP_BASE + "." + VERSIONED_NAME
                     + ".maxSize", 32000))
@@ -110,6 +147,20 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             .recordStats()
             .build();
 
+    // Keyed by upper case office and ts id, then by the requested unit or unit system.  Entries
+    // are dropped when this instance changes the time series; changes made elsewhere (other
+    // instances, the database directly) are only picked up once the entry expires.
+    private static final Cache<List<String>, Map<String, CachedMetadata>> metadataCache =
+            CacheBuilder.newBuilder()
+            .maximumSize(Integer.getInteger(PROP_BASE + "." + METADATA_NAME
+                    + ".maxSize", 32000))
+            .expireAfterWrite(Integer.getInteger(PROP_BASE + "." + METADATA_NAME
+                    + ".expireAfterSeconds", 600), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+    @Nullable
+    private final MetricRegistry metrics;
 
     public TimeSeriesDaoImpl(DSLContext dsl) {
         this(dsl, null);
@@ -117,6 +168,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
     public TimeSeriesDaoImpl(DSLContext dsl, @Nullable MetricRegistry metrics) {
         super(dsl);
+        this.metrics = metrics;
 
         if (metrics != null) {
             CacheStats stats = isVersionedCache.stats();
@@ -130,7 +182,58 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 MetricRegistry.MetricSupplier<? extends Gauge> mr = () -> (Gauge<Double>) stats::missRate;
                 metrics.gauge(mrName, mr);
             }
+            String metadataHitName = MetricRegistry.name(this.getClass().getName(), METADATA_NAME,
+                    "hit-rate");
+            if (metrics.getGauges().get(metadataHitName) == null) {
+                MetricRegistry.MetricSupplier<? extends Gauge> hr =
+                        () -> (Gauge<Double>) () -> metadataCache.stats().hitRate();
+                metrics.gauge(metadataHitName, hr);
+            }
+            String metadataSizeName = MetricRegistry.name(this.getClass().getName(), METADATA_NAME,
+                    "size");
+            if (metrics.getGauges().get(metadataSizeName) == null) {
+                MetricRegistry.MetricSupplier<? extends Gauge> size =
+                        () -> (Gauge<Long>) metadataCache::size;
+                metrics.gauge(metadataSizeName, size);
+            }
+            String metadataEvictionName = MetricRegistry.name(this.getClass().getName(),
+                    METADATA_NAME, "evictions");
+            if (metrics.getGauges().get(metadataEvictionName) == null) {
+                MetricRegistry.MetricSupplier<? extends Gauge> evictions =
+                        () -> (Gauge<Long>) () -> metadataCache.stats().evictionCount();
+                metrics.gauge(metadataEvictionName, evictions);
+            }
+            String savedName = MetricRegistry.name(this.getClass().getName(), FIRST_PAGE_NAME,
+                    "estimated-ms-saved");
+            if (metrics.getGauges().get(savedName) == null) {
+                // Compared within each metadata cache state: with a hit the timers cover the
+                // COUNT alone, without one they also cover the metadata query.
+                MetricRegistry.MetricSupplier<? extends Gauge> saved = () -> (Gauge<Double>) () ->
+                        (estimatedNanosSaved(metrics, true) + estimatedNanosSaved(metrics, false))
+                                / TimeUnit.MILLISECONDS.toNanos(1);
+                metrics.gauge(savedName, saved);
+            }
+        }
+    }
+
+    private Timer firstPageTimer(MetricRegistry metrics, boolean cached, boolean counted) {
+        return metrics.timer(MetricRegistry.name(this.getClass().getName(), FIRST_PAGE_NAME,
+                cached ? "cached" : "uncached", counted ? "counted" : "not-counted"));
+    }
+
+    private Counter countSkipped(MetricRegistry metrics, boolean cached) {
+        return metrics.counter(MetricRegistry.name(this.getClass().getName(), FIRST_PAGE_NAME,
+                cached ? "cached" : "uncached", "count-skipped"));
+    }
+
+    private double estimatedNanosSaved(MetricRegistry metrics, boolean cached) {
+        Timer counted = firstPageTimer(metrics, cached, true);
+        Timer uncounted = firstPageTimer(metrics, cached, false);
+        if (counted.getCount() == 0 || uncounted.getCount() == 0) {
+            return 0.0;
         }
+        double perRequest = counted.getSnapshot().getMean() - uncounted.getSnapshot().getMean();
+        return Math.max(0.0, perRequest) * countSkipped(metrics, cached).getCount();
     }
 
     public String getTimeseries(String format, String names, String office, String units,
@@ -149,10 +252,45 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                                        String units,
                                        ZonedDateTime beginTime, ZonedDateTime endTime,
                                     ZonedDateTime versionDate, boolean shouldTrim) {
-        TimeSeries retVal = null;
+        return getTimeseries(page, pageSize, names, office, units, beginTime, endTime,
+                versionDate, shouldTrim, PageTotal.EXACT);
+    }
+
+    @Override
+    public TimeSeries getTimeseries(String page, int pageSize, String names, String office,
+                                    String units,
+                                    ZonedDateTime beginTime, ZonedDateTime endTime,
+                                    ZonedDateTime versionDate, boolean shouldTrim,
+                                    PageTotal pageTotal) {
+        final TimeSeries[] retVal = new TimeSeries[1];
+        final boolean wantValues = pageSize != 0;
+        streamTimeseries(page, pageSize, names, office, units, beginTime, endTime, versionDate,
+                shouldTrim, pageTotal, new RecordConsumer() {
+                    @Override
+                    public void begin(TimeSeries header) {
+                        if (wantValues) {
+                            retVal[0] = header;
+                        }
+                    }
+
+                    @Override
+                    public boolean accept(Timestamp dateTime, Double value, int qualityCode) {
+                        return retVal[0].addValue(dateTime, value, qualityCode);
+                    }
+                });
+        return retVal[0];
+    }
+
+    @Override
+    public void streamTimeseries(String page, int pageSize, String names, String office,
+                                 String units,
+                                 ZonedDateTime beginTime, ZonedDateTime endTime,
+                                 ZonedDateTime versionDate, boolean shouldTrim,
+                                 PageTotal pageTotal, RecordConsumer consumer) {
         String cursor = null;
         Timestamp tsCursor = null;
         Integer total = null;
+        boolean firstPage = true;
 
         if (page != null && !page.isEmpty()) {
             final String[] parts = CwmsDTOPaginated.decodeCursor(page);
@@ -171,7 +309,10 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 tsCursor = Timestamp.from(Instant.ofEpochMilli(Long.parseLong(parts[0])));
 
                 if (parts.length > 2) {
-                    total = Integer.parseInt(parts[1]);
+                    firstPage = false;
+                    if (!NO_TOTAL.equals(parts[1])) {
+                        total = Integer.parseInt(parts[1]);
+                    }
                 }
 
                 // Use the pageSize from the original cursor, for consistent paging
@@ -182,6 +323,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         final String recordCursor = cursor;
         final int recordPageSize = pageSize;
 
+        final CachedMetadata cachedMetadata = getCachedMetadata(office, names, units);
+
         // Call some stored_procs to validate the user input and get the ts_code and tsid for the provided name.
         final Field<String> officeId = CWMS_UTIL_PACKAGE.call_GET_DB_OFFICE_ID(
                 office != null ? DSL.val(office) : CWMS_UTIL_PACKAGE.call_USER_OFFICE_ID());
@@ -263,27 +406,27 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         // Now we're going to call the retrieve_ts_out_tab function to get the data and build an
         // internal table from it so we can manipulate it further
         // This code assumes the database timezone is in UTC (per Oracle recommendation)
+        // With cached metadata the resolved names are bound instead of being looked up again
         SQL retrieveSelectData = DSL.sql(
                 "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,"
                         + "cwms_20.cwms_util.to_timestamp(?), cwms_20.cwms_util.to_timestamp(?), 'UTC',"
                         + "?,?,?,?,?,"
                         + getVersionPart(versionDate) + ",?,?) ) retrieveTs",
-                tsId, unit,
+                cachedMetadata != null ? DSL.val(cachedMetadata.name) : tsId,
+                cachedMetadata != null ? DSL.val(cachedMetadata.units) : unit,
                 beginTimeMilli, endTimeMilli,  //tz hardcoded
                 trim, startInclusive, endInclusive, previous, next,
-                versionDateMilli, maxVersion, officeId);
-
-        Field<String> tzName;
-        if (this.getDbVersion() >= Dao.CWMS_21_1_1) {
-            tzName = AV_CWMS_TS_ID2.TIME_ZONE_ID;
-        } else {
-            tzName = DSL.inline(null, SQLDataType.VARCHAR);
-        }
+                versionDateMilli,
+                maxVersion, cachedMetadata != null ? DSL.val(cachedMetadata.officeId) : officeId);
 
 
+        final boolean countTotal = firstPage && pageTotal == PageTotal.EXACT;
+        final boolean estimateTotal = firstPage && pageTotal == PageTotal.ESTIMATE;
         Field<Integer> totalField;
         if (total != null) {
             totalField = DSL.val(total).as("TOTAL");
+        } else if (!countTotal) {
+            totalField = DSL.inline(null, SQLDataType.INTEGER).as("TOTAL");
         } else {
             // If we don't know the total, fetch it from the database (only for first fetch).
             // Total is only an estimate, as it can change if fetching current data,
@@ -306,6 +449,99 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             totalField = DSL.selectCount().from(DSL.table(retrieveSelectCount)).asField("TOTAL");
         }
 
+        VersionType finalDateVersionType = getVersionType(dsl, names, office, versionDate != null);
+        Timer.Context metadataTimer = null;
+        if (metrics != null && firstPage) {
+            metadataTimer = firstPageTimer(metrics, cachedMetadata != null, countTotal).time();
+            if (!countTotal) {
+                metrics.counter(MetricRegistry.name(this.getClass().getName(),
+                        FIRST_PAGE_NAME, "count-skipped")).inc();
+                countSkipped(metrics, cachedMetadata != null).inc();
+            }
+        }
+        TimeSeries timeseries;
+        try {
+            if (cachedMetadata != null) {
+                Integer recordTotal = total;
+                if (countTotal) {
+                    recordTotal = dsl.selectCount()
+                            .from(DSL.table(retrieveSelectData))
+                            .fetchOne(0, Integer.class);
+                } else if (estimateTotal) {
+                    recordTotal = estimateTotal(cachedMetadata.intervalMinutes,
+                            cachedMetadata.intervalOffset, beginTime, endTime);
+                }
+                timeseries = cachedMetadata.toTimeSeries(recordCursor, recordPageSize,
+                        recordTotal, beginTime, endTime, versionDate, finalDateVersionType);
+            } else {
+                timeseries = retrieveMetadata(valid, totalField, office, names, units,
+                        recordCursor, recordPageSize, estimateTotal, beginTime, endTime,
+                        versionDate, finalDateVersionType);
+            }
+        } finally {
+            if (metadataTimer != null) {
+                metadataTimer.stop();
+            }
+        }
+
+        consumer.begin(timeseries);
+
+        if (pageSize != 0) {
+            SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
+                    dsl.select(
+                                    dateTimeCol,
+                                    valueCol,
+                                    qualityNormCol
+                            )
+                            .from(retrieveSelectData)
+                            .where(dateTimeCol
+                                    .greaterOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
+                                            DSL.nvl(DSL.val(tsCursor == null ? null :
+                                                            tsCursor.toInstant().toEpochMilli()),
+                                                    DSL.val(beginTime.toInstant().toEpochMilli())))))
+                            .and(dateTimeCol
+                                    .lessOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
+                                            DSL.val(endTime.toInstant().toEpochMilli())))
+                            );
+
+            if (pageSize > 0) {
+                query.limit(DSL.val(pageSize + 1));
+            }
+
+            logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+            // Read lazily so that large pages are handed to the consumer as they arrive
+            // instead of being materialized as a jOOQ Result first.
+            try (Cursor<Record3<Timestamp, Double, BigDecimal>> rows =
+                         query.fetchSize(VALUE_FETCH_SIZE).fetchLazy()) {
+                while (rows.hasNext()) {
+                    Record3<Timestamp, Double, BigDecimal> tsRecord = rows.fetchNext();
+                    if (!consumer.accept(tsRecord.getValue(dateTimeCol),
+                            tsRecord.getValue(valueCol),
+                            tsRecord.getValue(qualityNormCol).intValue())) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the metadata query of a single time series and caches the result.
+     */
+    private TimeSeries retrieveMetadata(
+            CommonTableExpression<Record7<BigDecimal, String, String, String, String, BigDecimal,
+                    String>> valid, Field<Integer> totalField, String office, String names,
+            String units, String recordCursor, int recordPageSize, boolean estimateTotal,
+            ZonedDateTime beginTime, ZonedDateTime endTime, ZonedDateTime versionDate,
+            VersionType dateVersionType) {
+        Field<String> tzName;
+        if (this.getDbVersion() >= Dao.CWMS_21_1_1) {
+            tzName = AV_CWMS_TS_ID2.TIME_ZONE_ID;
+        } else {
+            tzName = DSL.inline(null, SQLDataType.VARCHAR);
+        }
+
         SelectJoinStep<?> metadataQuery =
                 dsl.with(valid)
                         .select(
@@ -340,59 +576,411 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
         logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
 
-        VersionType finalDateVersionType = getVersionType(dsl, names, office, versionDate != null);
-        TimeSeries timeseries = metadataQuery.fetchOne(tsMetadata -> {
+        return metadataQuery.fetchOne(tsMetadata -> {
             String vert = (String) tsMetadata.getValue("VERTICAL_DATUM");
-            VerticalDatumInfo verticalDatumInfo = parseVerticalDatumInfo(vert);
-
-            return new TimeSeries(recordCursor, recordPageSize, tsMetadata.getValue("TOTAL",
-                    Integer.class), tsMetadata.getValue("NAME", String.class),
+            CachedMetadata metadata = new CachedMetadata(
+                    tsMetadata.getValue("NAME", String.class),
                     tsMetadata.getValue("office_id", String.class),
-                    beginTime, endTime, tsMetadata.getValue("units", String.class),
-                    Duration.ofMinutes(tsMetadata.get("interval") == null ? 0 :
-                            tsMetadata.getValue("interval", Long.class)),
-                    verticalDatumInfo,
-                    tsMetadata.getValue(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET).longValue(),
-                    tsMetadata.getValue(tzName),
-                    versionDate, finalDateVersionType
-            );
+                    tsMetadata.getValue("units", String.class),
+                    tsMetadata.get("interval") == null ? 0 :
+                            tsMetadata.getValue("interval", Long.class),
+                    parseVerticalDatumInfo(vert),
+                    tsMetadata.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET, Long.class),
+                    tsMetadata.getValue(tzName));
+            putCachedMetadata(office, names, units, metadata);
+
+            Integer recordTotal = tsMetadata.getValue("TOTAL", Integer.class);
+            if (estimateTotal) {
+                recordTotal = estimateTotal(metadata.intervalMinutes, metadata.intervalOffset,
+                        beginTime, endTime);
+            }
+
+            return metadata.toTimeSeries(recordCursor, recordPageSize, recordTotal, beginTime,
+                    endTime, versionDate, dateVersionType);
         });
+    }
 
-        if (pageSize != 0) {
-            SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
-                    dsl.select(
-                                    dateTimeCol,
-                                    valueCol,
-                                    qualityNormCol
-                            )
-                            .from(retrieveSelectData)
-                            .where(dateTimeCol
-                                    .greaterOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
-                                            DSL.nvl(DSL.val(tsCursor == null ? null :
-                                                            tsCursor.toInstant().toEpochMilli()),
-                                                    DSL.val(beginTime.toInstant().toEpochMilli())))))
-                            .and(dateTimeCol
-                                    .lessOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
-                                            DSL.val(endTime.toInstant().toEpochMilli())))
-                            );
+    @Nullable
+    @Override
+    public String getVersionToken(String name, String office, ZonedDateTime begin,
+                                  ZonedDateTime end, ZonedDateTime versionDate) {
+        if (name == null || office == null) {
+            return null;
+        }
+        // get_ts_code resolves the name as the retrieval does, without a scan of the ids
+        Field<BigDecimal> tsCode = CWMS_TS_PACKAGE.call_GET_TS_CODE__2(DSL.val(name),
+                DSL.val(office.toUpperCase()));
+        Table<Record1<BigDecimal>> series = select(tsCode.as("tscode")).asTable("series");
+        Field<BigDecimal> seriesCode = series.field("tscode", BigDecimal.class);
+        // The schema keeps one extents row per version of a series, updated by every store
+        // and delete of its values, so its last update is the series' change marker.
+        Condition ofSeries = AV_TS_EXTENTS_UTC.TS_CODE.eq(
+                seriesCode.coerce(AV_TS_EXTENTS_UTC.TS_CODE));
+        if (versionDate != null) {
+            ofSeries = ofSeries.and(AV_TS_EXTENTS_UTC.VERSION_TIME.eq(
+                    Timestamp.from(versionDate.toInstant())));
+        }
+        Field<Timestamp> lastUpdate = max(AV_TS_EXTENTS_UTC.LAST_UPDATE);
+        Field<Timestamp> earliest = DSL.min(AV_TS_EXTENTS_UTC.EARLIEST_TIME);
+        Field<Timestamp> latest = max(AV_TS_EXTENTS_UTC.LATEST_TIME);
+        Record state;
+        try {
+            state = dsl.select(seriesCode, lastUpdate, earliest, latest)
+                    .from(series)
+                    .leftJoin(AV_TS_EXTENTS_UTC).on(ofSeries)
+                    .groupBy(seriesCode)
+                    .fetchOne();
+        } catch (DataAccessException ex) {
+            // An unknown name; the retrieval that follows reports it.
+            logger.log(Level.FINE, "No version token for " + name, ex);
+            return null;
+        }
+        if (state == null || state.get(seriesCode) == null) {
+            return null;
+        }
+        return state.get(seriesCode) + ":" + millis(state.get(lastUpdate)) + ":"
+                + millis(state.get(earliest)) + ":" + millis(state.get(latest));
+    }
 
-            if (pageSize > 0) {
-                query.limit(DSL.val(pageSize + 1));
+    private static String millis(@Nullable Timestamp timestamp) {
+        return timestamp == null ? "" : Long.toString(timestamp.getTime());
+    }
+
+    @Nullable
+    private static List<String> metadataKey(String office, String tsId) {
+        // Without an office the user's office is used, which differs between users.
+        if (office == null || tsId == null) {
+            return null;
+        }
+        return Arrays.asList(office.toUpperCase(), tsId.toUpperCase());
+    }
+
+    private static List<String> versionedKey(@Nullable String office, String tsId) {
+        // Cased like metadataKey so the single and batch paths share entries.  Without an office
+        // the user's office is used; those entries are kept apart under a null office.
+        return Arrays.asList(office == null ? null : office.toUpperCase(), tsId.toUpperCase());
+    }
+
+    @Nullable
+    static CachedMetadata getCachedMetadata(String office, String tsId, String units) {
+        List<String> key = metadataKey(office, tsId);
+        Map<String, CachedMetadata> byUnits = key == null ? null
+                : metadataCache.getIfPresent(key);
+        return byUnits == null ? null : byUnits.get(units);
+    }
+
+    static void putCachedMetadata(String office, String tsId, String units,
+                                  CachedMetadata metadata) {
+        List<String> key = metadataKey(office, tsId);
+        if (key != null && units != null) {
+            metadataCache.asMap().computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                    .put(units, metadata);
+        }
+    }
+
+    /**
+     * Drops what is cached about a time series, for every unit it was retrieved in.  Called
+     * whenever the identifier is written or values are deleted; stores of values go through
+     * {@link #valuesStored}.
+     *
+     * @param office the office of the time series, all offices if null
+     * @param tsId the time series identifier
+     */
+    public static void invalidateMetadata(@Nullable String office, String tsId) {
+        if (tsId == null) {
+            return;
+        }
+        invalidateCachedMetadata(office, tsId);
+        if (RecentValueStore.isEnabled()) {
+            recentValues.invalidate(office, tsId);
+        }
+    }
+
+    /**
+     * Brings what is cached about a time series up to date after values were stored.  A store
+     * only changes the metadata when it creates the identifier, which has no entry yet, marks
+     * it versioned, or sets the interval offset of a regular time series that had none.
+     * Stores of values to a known time series, most of what ingest does, keep the entry.
+     *
+     * @param office the office of the time series, all offices if null
+     * @param tsId the time series identifier
+     * @param versionDate the version stored, null if the store is not versioned
+     */
+    static void valuesStored(@Nullable String office, String tsId,
+                             @Nullable Timestamp versionDate) {
+        List<String> key = metadataKey(office, tsId);
+        if (key == null) {
+            invalidateCachedMetadata(office, tsId);
+            return;
+        }
+        Map<String, CachedMetadata> byUnits = metadataCache.getIfPresent(key);
+        if (byUnits != null && byUnits.values().stream()
+                .anyMatch(CachedMetadata::isOffsetUndefined)) {
+            metadataCache.invalidate(key);
+        }
+        if (versionDate != null) {
+            // the series is versioned now, only the entries that say otherwise are wrong
+            isVersionedCache.asMap().entrySet().removeIf(e -> !e.getValue()
+                    && tsId.equalsIgnoreCase(e.getKey().get(1))
+                    && (e.getKey().get(0) == null || office.equalsIgnoreCase(e.getKey().get(0))));
+        }
+    }
+
+    private static void invalidateCachedMetadata(@Nullable String office, String tsId) {
+        if (office != null) {
+            metadataCache.invalidate(metadataKey(office, tsId));
+        } else {
+            String upperId = tsId.toUpperCase();
+            metadataCache.asMap().keySet().removeIf(key -> upperId.equals(key.get(1)));
+        }
+        isVersionedCache.asMap().keySet().removeIf(key -> tsId.equalsIgnoreCase(key.get(1))
+                && (office == null || key.get(0) == null || office.equalsIgnoreCase(key.get(0))));
+    }
+
+    @Override
+    public void streamTimeseries(List<String> names, String office, String units,
+                                 ZonedDateTime beginTime, ZonedDateTime endTime,
+                                 ZonedDateTime versionDate, boolean shouldTrim,
+                                 BatchConsumer consumer) {
+        // upper case name -> name as requested, in request order
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                requested.putIfAbsent(name.trim().toUpperCase(), name.trim());
             }
+        }
+        if (requested.size() > BATCH_MAX_SERIES) {
+            throw new IllegalArgumentException(String.format("At most %d time series can be "
+                    + "retrieved in one request, %d were requested.", BATCH_MAX_SERIES,
+                    requested.size()));
+        }
+        if (requested.isEmpty()) {
+            return;
+        }
 
-            logger.fine(() -> query.getSQL(ParamType.INLINED));
+        // Everything below runs on the one connection
+        connection(dsl, c -> {
+            DSLContext batchDsl = DSL.using(dsl.configuration()
+                    .derive(new DefaultConnectionProvider(c)));
+            List<TimeSeries> found = retrieveBatchMetadata(batchDsl, requested, office, units,
+                    beginTime, endTime, versionDate, consumer);
+
+            Field<Timestamp> dateTimeCol = field("DATE_TIME", Timestamp.class).as("DATE_TIME");
+            Field<Double> valueCol = field("VALUE", Double.class).as("VALUE");
+            Field<Integer> qualityCol = field("QUALITY_CODE", Integer.class).as("QUALITY_CODE");
+            Field<BigDecimal> qualityNormCol = CWMS_TS_PACKAGE.call_NORMALIZE_QUALITY(
+                    DSL.nvl(qualityCol, DSL.inline(5))).as("QUALITY_NORM");
+
+            Long versionDateMilli = null;
+            String maxVersion = "F";
+            if (versionDate != null) {
+                versionDateMilli = versionDate.toInstant().toEpochMilli();
+            } else {
+                maxVersion = "T";
+            }
 
-            query.forEach(tsRecord -> timeseries.addValue(
-                            tsRecord.getValue(dateTimeCol),
-                            tsRecord.getValue(valueCol),
-                            tsRecord.getValue(qualityNormCol).intValue()
-                    )
-            );
+            // One statement per series on the same connection, so each series goes out as soon
+            // as its values are read instead of after every series was read and sorted.
+            for (TimeSeries header : found) {
+                SQL retrieveSelectData = DSL.sql(
+                        "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,"
+                                + "cwms_20.cwms_util.to_timestamp(?), cwms_20.cwms_util.to_timestamp(?), 'UTC',"
+                                + "?,?,?,?,?,"
+                                + getVersionPart(versionDate) + ",?,?) ) retrieveTs",
+                        header.getName(), header.getUnits(),
+                        beginTime.toInstant().toEpochMilli(), endTime.toInstant().toEpochMilli(),
+                        OracleTypeMap.formatBool(shouldTrim), "T", "T", "F", "F",
+                        versionDateMilli, maxVersion, header.getOfficeId());
+
+                SelectSeekStep1<Record3<Timestamp, Double, BigDecimal>, Timestamp> query =
+                        batchDsl.select(dateTimeCol, valueCol, qualityNormCol)
+                                .from(DSL.table(retrieveSelectData))
+                                .orderBy(dateTimeCol);
+
+                logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+                consumer.begin(header);
+                try (Cursor<Record3<Timestamp, Double, BigDecimal>> values =
+                             query.fetchSize(VALUE_FETCH_SIZE).fetchLazy()) {
+                    boolean wanted = true;
+                    while (wanted && values.hasNext()) {
+                        Record3<Timestamp, Double, BigDecimal> row = values.fetchNext();
+                        wanted = consumer.accept(row.value1(), row.value2(),
+                                row.value3().intValue());
+                    }
+                }
+                consumer.end();
+            }
+        });
+    }
 
-            retVal = timeseries;
+    /**
+     * Resolves the metadata of every requested time series that is not cached, with one query
+     * per {@value #BATCH_METADATA_CHUNK} names.  Names that do not resolve are passed to
+     * {@link BatchConsumer#missing(String)}.
+     *
+     * @return the headers of the time series found, in request order
+     */
+    private List<TimeSeries> retrieveBatchMetadata(DSLContext batchDsl,
+                                                   Map<String, String> requested, String office,
+                                                   String units, ZonedDateTime beginTime,
+                                                   ZonedDateTime endTime,
+                                                   ZonedDateTime versionDate,
+                                                   BatchConsumer consumer) {
+        Map<String, TimeSeries> byName = new LinkedHashMap<>();
+        // upper case, names are matched without regard to case like GET /timeseries does
+        List<String> uncached = new ArrayList<>();
+        for (Map.Entry<String, String> entry : requested.entrySet()) {
+            CachedMetadata cached = getCachedMetadata(office, entry.getKey(), units);
+            Boolean isVersioned = versionDate != null ? Boolean.FALSE
+                    : isVersionedCache.getIfPresent(versionedKey(office, entry.getKey()));
+            if (cached == null || isVersioned == null) {
+                uncached.add(entry.getKey());
+            } else {
+                byName.put(entry.getKey(), cached.toTimeSeries(null, -1, null, beginTime, endTime,
+                        versionDate, batchVersionType(versionDate, isVersioned)));
+            }
+        }
+        if (uncached.isEmpty()) {
+            return inRequestOrder(requested, byName, consumer);
         }
 
-        return retVal;
+        final Field<String> officeId = CWMS_UTIL_PACKAGE.call_GET_DB_OFFICE_ID(
+                office != null ? DSL.val(office) : CWMS_UTIL_PACKAGE.call_USER_OFFICE_ID());
+        final Field<String> tsId = AV_CWMS_TS_ID2.CWMS_TS_ID;
+        Field<String> loc = CWMS_UTIL_PACKAGE.call_SPLIT_TEXT(tsId,
+                DSL.val(BigInteger.valueOf(1L)), DSL.val("."),
+                DSL.val(BigInteger.valueOf(6L)));
+        Field<String> param = DSL.upper(CWMS_UTIL_PACKAGE.call_SPLIT_TEXT(tsId,
+                DSL.val(BigInteger.valueOf(2L)), DSL.val("."),
+                DSL.val(BigInteger.valueOf(6L))));
+        Field<String> unit = units.compareToIgnoreCase("SI") == 0
+                || units.compareToIgnoreCase("EN") == 0
+                ? CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
+                        CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(AV_CWMS_TS_ID2.TS_CODE),
+                        DSL.val(units, String.class))
+                : DSL.val(units, String.class);
+        Field<String> tzName = getDbVersion(batchDsl) >= Dao.CWMS_21_1_1
+                ? AV_CWMS_TS_ID2.TIME_ZONE_ID
+                : DSL.inline(null, SQLDataType.VARCHAR);
+        // Only needed to describe the versions when no version date is given
+        Field<String> versioned = versionDate == null
+                ? CWMS_TS_PACKAGE.call_IS_TSID_VERSIONED(tsId, AV_CWMS_TS_ID2.DB_OFFICE_ID)
+                : DSL.inline(null, SQLDataType.VARCHAR);
+
+        for (int i = 0; i < uncached.size(); i += BATCH_METADATA_CHUNK) {
+            List<String> chunk = uncached.subList(i,
+                    Math.min(uncached.size(), i + BATCH_METADATA_CHUNK));
+            List<Row1<String>> rows = new ArrayList<>(chunk.size());
+            for (String name : chunk) {
+                rows.add(DSL.row(name));
+            }
+            @SuppressWarnings("unchecked")
+            Row1<String>[] rowArray = rows.toArray(new Row1[0]);
+            Table<Record1<String>> requestedTs = DSL.values(rowArray).as("req", "requested");
+            Field<String> requestedName = requestedTs.field("requested", String.class);
+            // get_ts_id resolves a name or alias to the identifier as stored, or to null, like
+            // GET /timeseries does, so the join is on the identifier column itself.
+            Field<String> resolved = CWMS_TS_PACKAGE.call_GET_TS_ID__2(requestedName, officeId);
+
+            SelectConditionStep<? extends Record> metadataQuery = batchDsl.select(
+                            requestedName.as("REQUESTED"),
+                            tsId.as("NAME"),
+                            AV_CWMS_TS_ID2.DB_OFFICE_ID.as("office_id"),
+                            unit.as("units"),
+                            CWMS_TS_PACKAGE.call_GET_TS_INTERVAL__2(tsId).as("interval"),
+                            DSL.choose(param)
+                                    .when("ELEV", CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
+                                            loc, unit, AV_CWMS_TS_ID2.DB_OFFICE_ID))
+                                    .otherwise("")
+                                    .as("VERTICAL_DATUM"),
+                            AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+                            tzName.as("TIME_ZONE_ID"),
+                            versioned.as("VERSIONED"))
+                    .from(requestedTs)
+                    .join(AV_CWMS_TS_ID2).on(tsId.eq(resolved))
+                    .where(AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(officeId))
+                    .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull());
+
+            logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
+
+            for (Record tsMetadata : metadataQuery.fetch()) {
+                String key = tsMetadata.getValue("REQUESTED", String.class);
+                String name = tsMetadata.getValue("NAME", String.class);
+
+                boolean isVersioned = false;
+                if (versionDate == null) {
+                    isVersioned = OracleTypeMap.parseBool(
+                            tsMetadata.getValue("VERSIONED", String.class));
+                    isVersionedCache.put(versionedKey(office, key), isVersioned);
+                }
+                CachedMetadata metadata = new CachedMetadata(name,
+                        tsMetadata.getValue("office_id", String.class),
+                        tsMetadata.getValue("units", String.class),
+                        tsMetadata.get("interval") == null ? 0 :
+                                tsMetadata.getValue("interval", Long.class),
+                        parseVerticalDatumInfo(tsMetadata.getValue("VERTICAL_DATUM", String.class)),
+                        tsMetadata.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET, Long.class),
+                        tsMetadata.getValue("TIME_ZONE_ID", String.class));
+                putCachedMetadata(office, key, units, metadata);
+                byName.put(key, metadata.toTimeSeries(null, -1, null, beginTime, endTime,
+                        versionDate, batchVersionType(versionDate, isVersioned)));
+            }
+        }
+        return inRequestOrder(requested, byName, consumer);
+    }
+
+    private static VersionType batchVersionType(ZonedDateTime versionDate, boolean isVersioned) {
+        if (versionDate != null) {
+            return VersionType.SINGLE_VERSION;
+        }
+        return isVersioned ? VersionType.MAX_AGGREGATE : VersionType.UNVERSIONED;
+    }
+
+    private static List<TimeSeries> inRequestOrder(Map<String, String> requested,
+                                                   Map<String, TimeSeries> byName,
+                                                   BatchConsumer consumer) {
+        List<TimeSeries> found = new ArrayList<>(byName.size());
+        for (Map.Entry<String, String> entry : requested.entrySet()) {
+            TimeSeries header = byName.get(entry.getKey());
+            if (header == null) {
+                consumer.missing(entry.getValue());
+            } else {
+                found.add(header);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Number of interval slots in the window, which is the number of values a regular time
+     * series has when nothing is missing.  Calendar intervals (months, years) are treated as
+     * their nominal length, so this is an estimate.
+     *
+     * @param intervalMinutes the interval, 0 or null for irregular time series
+     * @param offsetMinutes the interval offset, null if undefined
+     * @return the estimated total, null for irregular time series
+     */
+    static Integer estimateTotal(Long intervalMinutes, Long offsetMinutes,
+                                 ZonedDateTime beginTime, ZonedDateTime endTime) {
+        if (intervalMinutes == null || intervalMinutes <= 0) {
+            return null;
+        }
+        long step = TimeUnit.MINUTES.toMillis(intervalMinutes);
+        long offset = 0;
+        if (offsetMinutes != null && offsetMinutes > 0 && offsetMinutes < intervalMinutes) {
+            offset = TimeUnit.MINUTES.toMillis(offsetMinutes);
+        }
+        long begin = beginTime.toInstant().toEpochMilli();
+        long end = endTime.toInstant().toEpochMilli();
+
+        // first slot at or after begin
+        long first = -Math.floorDiv(offset - begin, step) * step + offset;
+        if (first > end) {
+            return 0;
+        }
+        long slots = (end - first) / step + 1;
+        return (int) Math.min(slots, Integer.MAX_VALUE);
     }
 
     private static String getVersionPart(ZonedDateTime versionDate) {
@@ -435,7 +1023,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     }
 
     private static boolean isVersioned(DSLContext dsl, String tsId, String office) {
-        final List<String> cacheKey = Arrays.asList(office, tsId);
+        final List<String> cacheKey = versionedKey(office, tsId);
 
         Boolean cachedValue = isVersionedCache.getIfPresent(cacheKey);
         if (cachedValue == null) {
@@ -479,22 +1067,9 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         String cursorTsId = "*";
         String cursorOffice = null;
         Catalog.CatalogPage catPage = null;
-        if (page == null || page.isEmpty()) {
-            SelectConditionStep<Record1<Integer>> totalQuery = dsl
-                    .select(countDistinct(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE))
-                    .from(buildFromTable(inputParams))
-                    .where(buildWhereConditions(inputParams));
-            logger.fine(() -> totalQuery.getSQL(ParamType.INLINED));
-            total = totalQuery.fetchOne(0, int.class);
-        } else {
-            logger.fine("getting non-default page");
+        if (page != null && !page.isEmpty()) {
             // Information provided by the page value overrides anything provided
             catPage = new Catalog.CatalogPage(page);
-            total = catPage.getTotal();
-            pageSize = catPage.getPageSize();
-            cursorTsId = catPage.getCursorId();  // cursor cwms_id
-            cursorOffice = catPage.getCurOffice();  // cursor office
-
             inputParams = CatalogRequestParameters.Builder.from(inputParams)
                     .withOffice(catPage.getSearchOffice())
                     .withIdLike(catPage.getIdLike())
@@ -509,6 +1084,136 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         }
         final CatalogRequestParameters params = inputParams;
 
+        if (CatalogSnapshots.isEnabled()) {
+            Catalog catalog = getTimeSeriesCatalogFromSnapshot(catPage, pageSize, params);
+            if (catalog != null) {
+                return catalog;
+            }
+        }
+
+        if (catPage == null) {
+            SelectConditionStep<Record1<Integer>> totalQuery = dsl
+                    .select(countDistinct(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE))
+                    .from(buildFromTable(params))
+                    .where(buildWhereConditions(params));
+            logger.fine(() -> totalQuery.getSQL(ParamType.INLINED));
+            total = totalQuery.fetchOne(0, int.class);
+        } else {
+            logger.fine("getting non-default page");
+            total = catPage.getTotal();
+            pageSize = catPage.getPageSize();
+            cursorTsId = catPage.getCursorId();  // cursor cwms_id
+            cursorOffice = catPage.getCurOffice();  // cursor office
+        }
+
+        List<? extends CatalogEntry> entries = getTimeSeriesCatalogEntries(params,
+                buildPagingConditions(cursorOffice, cursorTsId), pageSize);
+
+        return new Catalog(catPage != null ? catPage.toString() : null,
+                total, pageSize, entries, params, catPage == null ? 1 : catPage.getPageNumber());
+    }
+
+    /**
+     * Serves a page from the snapshot of the request.
+     *
+     * @return the page, or null if there is no snapshot for a later page or the time series
+     *     changed since the snapshot was taken; the caller then runs the regular query.
+     */
+    private Catalog getTimeSeriesCatalogFromSnapshot(Catalog.CatalogPage catPage, int pageSize,
+                                                     CatalogRequestParameters params) {
+        CatalogSnapshots.Snapshot snapshot;
+        int from;
+        if (catPage == null) {
+            snapshot = catalogSnapshots.get(CatalogSnapshots.Kind.TIMESERIES, params, () -> {
+                SelectConditionStep<Record3<String, String, Long>> keys = dsl
+                        .selectDistinct(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID,
+                                AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID,
+                                AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE.coerce(Long.class))
+                        .from(buildFromTable(params))
+                        .where(buildWhereConditions(params));
+                logger.fine(() -> keys.getSQL(ParamType.INLINED));
+                CatalogSnapshots.Builder builder = new CatalogSnapshots.Builder();
+                keys.fetchSize(5000).fetch().forEach(r -> builder.add(r.value1(), r.value2(),
+                        r.value3()));
+                return builder.build();
+            });
+            from = 0;
+        } else {
+            snapshot = catalogSnapshots.getIfPresent(CatalogSnapshots.Kind.TIMESERIES, params);
+            if (snapshot == null) {
+                return null;
+            }
+            pageSize = catPage.getPageSize();
+            from = snapshot.after(catPage.getCurOffice(), catPage.getCursorId());
+        }
+
+        List<Long> codes = snapshot.codes(from, pageSize);
+        List<? extends CatalogEntry> entries = codes.isEmpty() ? new ArrayList<>()
+                : getTimeSeriesCatalogEntries(params, Collections.singletonList(
+                        AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE.in(codes)), pageSize);
+        if (entries.size() != codes.size()) {
+            return null;
+        }
+        return new Catalog(catPage != null ? catPage.toString() : null, snapshot.size(),
+                pageSize, CatalogSnapshots.inSnapshotOrder(entries), params,
+                catPage == null ? 1 : catPage.getPageNumber());
+    }
+
+    private List<? extends CatalogEntry> getTimeSeriesCatalogEntries(
+            CatalogRequestParameters params, List<Condition> pagingConditions, int pageSize) {
+        SelectSeekStep2<Record, String, String> overallQuery = timeSeriesCatalogQuery(params,
+                pagingConditions, pageSize);
+
+        logger.fine(() -> overallQuery.getSQL(ParamType.INLINED));
+        Result<?> result = overallQuery.fetch();
+
+        Map<String, TimeseriesCatalogEntry.Builder> tsIdExtentMap = new LinkedHashMap<>();
+        result.forEach(row -> {
+            TimeseriesCatalogEntry.Builder builder = tsIdExtentMap.computeIfAbsent(
+                    catalogKey(row), k -> catalogEntryBuilder(row, params));
+            addCatalogExtents(builder, row, params);
+        });
+
+        return tsIdExtentMap.entrySet().stream()
+                .map(e -> e.getValue().build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamTimeSeriesCatalog(CatalogRequestParameters params,
+                                        Consumer<? super CatalogEntry> consumer) {
+        SelectSeekStep2<Record, String, String> query = timeSeriesCatalogQuery(params,
+                Collections.emptyList(), null);
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+        // The rows of a time series, one per extent, are next to each other so only one
+        // entry is held at a time.
+        String current = null;
+        TimeseriesCatalogEntry.Builder builder = null;
+        try (Cursor<Record> rows = query.fetchSize(CATALOG_EXPORT_FETCH_SIZE).fetchLazy()) {
+            for (Record row : rows) {
+                String key = catalogKey(row);
+                if (!key.equals(current)) {
+                    if (builder != null) {
+                        consumer.accept(builder.build());
+                    }
+                    builder = catalogEntryBuilder(row, params);
+                    current = key;
+                }
+                addCatalogExtents(builder, row, params);
+            }
+        }
+        if (builder != null) {
+            consumer.accept(builder.build());
+        }
+    }
+
+    /**
+     * @param limit the most time series to return, or null for all of them
+     */
+    private SelectSeekStep2<Record, String, String> timeSeriesCatalogQuery(
+            CatalogRequestParameters params, List<Condition> pagingConditions,
+            @Nullable Integer limit) {
         List<TableField> pageEntryFields = new ArrayList<>(getCwmsTsIdFields());
         if (params.isIncludeExtents()) {
             pageEntryFields.addAll(getExtentsFields());
@@ -523,73 +1228,72 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         }
 
         List<Condition> whereConditions = buildWhereConditions(params);
-        List<Condition> pagingConditions = buildPagingConditions(cursorOffice, cursorTsId);
-
 
         TableLike innerFrom = buildFromTable(params);
         Field codeField = innerFrom.field(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE);
 
-        SelectSeekStep2<? extends Record, String, String> innerSelect = dsl.select(codeField)
-                .from(innerFrom)
-                .where(whereConditions).and(DSL.and(pagingConditions))
-                .orderBy(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID,
-                        DSL.upper(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID));
+        Select codes;
+        if (limit == null) {
+            codes = dsl.select(codeField)
+                    .from(innerFrom)
+                    .where(whereConditions);
+        } else {
+            SelectSeekStep2<? extends Record, String, String> innerSelect = dsl.select(codeField)
+                    .from(innerFrom)
+                    .where(whereConditions).and(DSL.and(pagingConditions))
+                    .orderBy(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID,
+                            DSL.upper(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID));
 
-        Field codeField2 = innerSelect.field(codeField);
+            Field codeField2 = innerSelect.field(codeField);
 
-        SelectConditionStep codes = dsl.select(codeField2)
-                .from(innerSelect)
-                .where(field("rownum").lessOrEqual(pageSize));
+            codes = dsl.select(codeField2)
+                    .from(innerSelect)
+                    .where(field("rownum").lessOrEqual(limit));
+        }
 
-        SelectSeekStep2<Record, String, String> overallQuery = dsl.select(pageEntryFields)
+        return dsl.select(pageEntryFields)
                 .from(fromTable)
                 .where(
                         codeField.in(codes)
                 )
                 .orderBy(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID,
                         DSL.upper(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID));
+    }
 
-        logger.fine(() -> overallQuery.getSQL(ParamType.INLINED));
-        Result<?> result = overallQuery.fetch();
-
-        Map<String, TimeseriesCatalogEntry.Builder> tsIdExtentMap = new LinkedHashMap<>();
-        result.forEach(row -> {
-            String officeTsId = row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID)
-                    + "/"
-                    + row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID);
-            if (!tsIdExtentMap.containsKey(officeTsId)) {
-                TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
-                        .officeId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID))
-                        .cwmsTsId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID))
-                        .units(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.UNIT_ID))
-                        .interval(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_ID))
-                        .intervalOffset(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_UTC_OFFSET));
-                if (this.getDbVersion() > Dao.CWMS_21_1_1) {
-                    builder.timeZone(row.get("TIME_ZONE_ID", String.class));
-                }
-                if (params.isIncludeExtents()) {
-                    builder.withExtents(new ArrayList<>());
-                }
-                tsIdExtentMap.put(officeTsId, builder);
-            }
-
-            if (params.isIncludeExtents()) {
-                TimeSeriesExtents extents =
-                        new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
-                        );
-                tsIdExtentMap.get(officeTsId).withExtent(extents);
-            }
-        });
+    private static String catalogKey(Record row) {
+        return row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID)
+                + "/"
+                + row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID);
+    }
 
-        List<? extends CatalogEntry> entries = tsIdExtentMap.entrySet().stream()
-                .map(e -> e.getValue().build())
-                .collect(Collectors.toList());
+    private TimeseriesCatalogEntry.Builder catalogEntryBuilder(Record row,
+                                                               CatalogRequestParameters params) {
+        TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
+                .officeId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID))
+                .cwmsTsId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID))
+                .units(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.UNIT_ID))
+                .interval(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_ID))
+                .intervalOffset(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_UTC_OFFSET));
+        if (this.getDbVersion() > Dao.CWMS_21_1_1) {
+            builder.timeZone(row.get("TIME_ZONE_ID", String.class));
+        }
+        if (params.isIncludeExtents()) {
+            builder.withExtents(new ArrayList<>());
+        }
+        return builder;
+    }
 
-        return new Catalog(catPage != null ? catPage.toString() : null,
-                total, pageSize, entries, params);
+    private static void addCatalogExtents(TimeseriesCatalogEntry.Builder builder, Record row,
+                                          CatalogRequestParameters params) {
+        if (params.isIncludeExtents()) {
+            TimeSeriesExtents extents =
+                    new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
+                            row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
+                            row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
+                            row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
+                    );
+            builder.withExtent(extents);
+        }
     }
 
     private static @NotNull List<Condition> buildPagingConditions(String cursorOffice, String cursorTsId) {
@@ -867,7 +1571,15 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                                                     Timestamp futuredate, UnitSystem unitSystem) {
         List<RecentValue> retval = Collections.emptyList();
 
-        if (tsIds != null && !tsIds.isEmpty()) {
+        if (tsIds != null && !tsIds.isEmpty() && RecentValueStore.isEnabled()) {
+            List<RecentMember> members = dsl.select(AV_CWMS_TS_ID2.DB_OFFICE_ID,
+                            AV_CWMS_TS_ID2.TS_CODE, AV_CWMS_TS_ID2.CWMS_TS_ID)
+                    .from(AV_CWMS_TS_ID2)
+                    .where(AV_CWMS_TS_ID2.CWMS_TS_ID.in(tsIds))
+                    .fetch(r -> new RecentMember(r.get(AV_CWMS_TS_ID2.TS_CODE, Long.class),
+                            r.get(AV_CWMS_TS_ID2.DB_OFFICE_ID), r.get(AV_CWMS_TS_ID2.CWMS_TS_ID)));
+            retval = storedRecents(members, pastdate, futuredate, unitSystem);
+        } else if (tsIds != null && !tsIds.isEmpty()) {
             String tsFieldName = "TSVIEW_CWMS_TS_ID";
             Field<String> tsField = AV_CWMS_TS_ID2.CWMS_TS_ID.as(tsFieldName);
 
@@ -973,6 +1685,28 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     public List<RecentValue> findRecentsInRange(String office, String categoryId, String groupId,
                                                 @NotNull Timestamp pastLimit, @NotNull Timestamp futureLimit,
                                                  @NotNull UnitSystem unitSystem) {
+        if (RecentValueStore.isEnabled()) {
+            AV_TS_GRP_ASSGN assignments = AV_TS_GRP_ASSGN.AV_TS_GRP_ASSGN;
+            Condition inGroup = DSL.noCondition();
+            if (office != null) {
+                inGroup = inGroup.and(assignments.DB_OFFICE_ID.eq(office));
+            }
+            if (categoryId != null) {
+                inGroup = inGroup.and(assignments.CATEGORY_ID.eq(categoryId));
+            }
+            if (groupId != null) {
+                inGroup = inGroup.and(assignments.GROUP_ID.eq(groupId));
+            }
+            List<RecentMember> members = dsl.select(assignments.DB_OFFICE_ID,
+                            assignments.TS_CODE, assignments.TS_ID)
+                    .from(assignments)
+                    .where(inGroup)
+                    .orderBy(assignments.ATTRIBUTE)
+                    .fetch(r -> new RecentMember(r.get(assignments.TS_CODE, Long.class),
+                            r.get(assignments.DB_OFFICE_ID), r.get(assignments.TS_ID)));
+            return storedRecents(members, pastLimit, futureLimit, unitSystem);
+        }
+
         AV_TSV_DQU tsvView = AV_TSV_DQU.AV_TSV_DQU;  // should we look at the daterange and
         // possible use 30D view?
 
@@ -1039,6 +1773,135 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 ;
     }
 
+    /**
+     * Answers a recent value request from {@link #recentValues}, reading the series it doesn't
+     * hold for the window with the same query the database path uses.
+     *
+     * @param members the series asked for, in the order of the response
+     */
+    private List<RecentValue> storedRecents(List<RecentMember> members, Timestamp pastLimit,
+                                            Timestamp futureLimit, UnitSystem unitSystem) {
+        recentValues.reconcile(since -> changedSince(since, pastLimit));
+        String system = unitSystem.getValue();
+        long generation = recentValues.generation();
+
+        Map<Long, TsvDqu> values = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (RecentMember member : members) {
+            RecentValueStore.Entry entry = recentValues.get(member.tsCode, system, pastLimit,
+                    futureLimit);
+            if (entry == null) {
+                missing.add(member.tsCode);
+            } else {
+                values.put(member.tsCode, entry.getValue());
+            }
+        }
+
+        List<Long> codes = new ArrayList<>(missing);
+        for (int i = 0; i < codes.size(); i += RECENT_VALUE_CHUNK) {
+            List<Long> chunk = codes.subList(i, Math.min(codes.size(), i + RECENT_VALUE_CHUNK));
+            Map<Long, TsvDqu> read = readRecentValues(chunk, pastLimit, futureLimit, unitSystem);
+            for (Long tsCode : chunk) {
+                values.put(tsCode, read.get(tsCode));
+            }
+        }
+        for (RecentMember member : members) {
+            if (missing.contains(member.tsCode)) {
+                recentValues.put(generation, member.tsCode, member.officeId, member.tsId, system,
+                        pastLimit, futureLimit, values.get(member.tsCode));
+            }
+        }
+
+        List<RecentValue> retval = new ArrayList<>();
+        for (RecentMember member : members) {
+            TsvDqu value = values.get(member.tsCode);
+            if (value != null) {
+                retval.add(new RecentValue(member.tsId, value));
+            }
+        }
+        return retval;
+    }
+
+    private Map<Long, TsvDqu> readRecentValues(List<Long> tsCodes, Timestamp pastLimit,
+                                               Timestamp futureLimit, UnitSystem unitSystem) {
+        AV_TSV_DQU tsvView = AV_TSV_DQU.AV_TSV_DQU;
+        Field<String> defUnitsField = CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
+                        CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(tsvView.TS_CODE),
+                        DSL.val(unitSystem, String.class))
+                .as(DEFAULT_UNITS);
+        Field<Timestamp> maxDateTimeField = max(tsvView.DATE_TIME)
+                .over(partitionBy(tsvView.TS_CODE))
+                .as(MAX_DATE_TIME);
+
+        SelectConditionStep<? extends Record> innerSelect
+                = dsl.select(tsvView.OFFICE_ID, tsvView.CWMS_TS_ID, tsvView.TS_CODE,
+                        tsvView.DATE_TIME, tsvView.VERSION_DATE, tsvView.DATA_ENTRY_DATE,
+                        tsvView.VALUE, tsvView.QUALITY_CODE, tsvView.START_DATE,
+                        tsvView.END_DATE, tsvView.UNIT_ID, defUnitsField, maxDateTimeField)
+                .from(tsvView)
+                .where(tsvView.TS_CODE.in(tsCodes)
+                        .and(tsvView.VALUE.isNotNull())
+                        .and(tsvView.DATE_TIME.lt(futureLimit))
+                        .and(tsvView.DATE_TIME.gt(pastLimit))
+                        .and(tsvView.START_DATE.le(futureLimit))
+                        .and(tsvView.END_DATE.gt(pastLimit)));
+
+        Field<Timestamp> dateTime = innerSelect.field(tsvView.DATE_TIME);
+        Field<String> unit = innerSelect.field(tsvView.UNIT_ID);
+        Field[] queryFields = new Field[]{
+                innerSelect.field(tsvView.OFFICE_ID),
+                innerSelect.field(tsvView.CWMS_TS_ID),
+                innerSelect.field(tsvView.TS_CODE),
+                innerSelect.field(tsvView.VERSION_DATE),
+                innerSelect.field(tsvView.DATA_ENTRY_DATE),
+                innerSelect.field(tsvView.VALUE),
+                innerSelect.field(tsvView.QUALITY_CODE),
+                innerSelect.field(tsvView.START_DATE),
+                innerSelect.field(tsvView.END_DATE),
+                dateTime,
+                unit};
+
+        SelectConditionStep<? extends Record> query = dsl.select(queryFields)
+                .from(innerSelect)
+                .where(dateTime.eq(maxDateTimeField).and(unit.eq(defUnitsField)));
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+        Map<Long, TsvDqu> retval = new HashMap<>();
+        for (Record r : query.fetch()) {
+            // versions of the latest time, the last one read is kept like the original query
+            retval.put(r.get(tsvView.TS_CODE), buildTsvDqu(tsvView, r));
+        }
+        return retval;
+    }
+
+    /**
+     * @return the codes of the series with values entered after since.  Values before
+     *     pastLimit are left out, they aren't in the windows recent values are asked for.
+     */
+    private Collection<Long> changedSince(Timestamp since, Timestamp pastLimit) {
+        AV_TSV tsv = AV_TSV.AV_TSV;
+        return dsl.selectDistinct(tsv.TS_CODE)
+                .from(tsv)
+                .where(tsv.DATA_ENTRY_DATE.gt(since)
+                        .and(tsv.DATE_TIME.gt(pastLimit))
+                        .and(tsv.END_DATE.gt(pastLimit)))
+                .fetch(tsv.TS_CODE);
+    }
+
+    /**
+     * A series a recent value is asked for, by its code and the name it was asked by.
+     */
+    private static final class RecentMember {
+        private final long tsCode;
+        private final String officeId;
+        private final String tsId;
+
+        private RecentMember(long tsCode, String officeId, String tsId) {
+            this.tsCode = tsCode;
+            this.officeId = officeId;
+            this.tsId = tsId;
+        }
+    }
 
     @Override
     public void create(TimeSeries input) {
@@ -1112,44 +1975,201 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         setOffice(connection,officeId);
         CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
 
-        final int count = values == null ? 0 : values.size();
+        if (versionDate != null) {
+            setVersioned(getDslContext(connection, officeId).configuration(), officeId, tsId);
+        }
+
+        storeValues(connection, tsDao, officeId, tsId, units, versionDate, values, createAsLrts,
+                storeRule, overrideProtection);
+        stored(officeId, tsId, units, versionDate, values, storeRule);
+    }
 
-        final long[] timeArray = new long[count];
-        final double[] valueArray = new double[count];
-        final int[] qualityArray = new int[count];
+    private static void setVersioned(Configuration configuration, String officeId, String tsId) {
+        try {
+            CWMS_TS_PACKAGE.call_SET_TSID_VERSIONED(configuration, tsId, "T", officeId);
+        } catch (DataAccessException e) {
+            if (e.getCause() instanceof SQLException) {
+                SQLException cause = (SQLException)e.getCause();
 
-        if (values != null && !values.isEmpty()) {
-            Iterator<TimeSeries.Record> iter = values.iterator();
-            for (int i = 0; iter.hasNext(); i++) {
-                TimeSeries.Record value = iter.next();
-                timeArray[i] = value.getDateTime().getTime();
-                valueArray[i] = value.getValue();
-                qualityArray[i] = value.getQualityCode();
+                if (cause.getErrorCode() != TS_ID_MISSING_CODE) {
+                    throw e;
+                }
+                // Ignore tsId not found exceptions. tsDao.store() will create tsId if it is not found
+                logger.log(Level.FINER, e, () -> "TS ID: " + tsId + " not found at office: " + officeId);
+            } else {
+                throw e;
             }
         }
+    }
 
-        if (versionDate != null) {
+    private static void storeValues(Connection connection, CwmsDbTs tsDao, String officeId,
+                                    String tsId, String units, Timestamp versionDate,
+                                    List<TimeSeries.Record> values, boolean createAsLrts,
+                                    StoreRule storeRule, boolean overrideProtection)
+            throws SQLException {
+        // Values deserialized from a request are already column oriented, so this hands the
+        // backing arrays to the store call without building anything per point.
+        final TimeSeriesValues columns = TimeSeriesValues.of(values);
+        final int count = columns.size();
+        final long[] timeArray = columns.getDateTimeArray();
+        final double[] valueArray = columns.getValueArray();
+        final int[] qualityArray = columns.getQualityCodeArray();
+
+        tsDao.store(connection, officeId, tsId, units, timeArray, valueArray, qualityArray, count,
+                storeRule.getRule(), overrideProtection, versionDate, createAsLrts);
+    }
+
+    /**
+     * Updates the caches for values that were stored and committed.
+     */
+    private static void stored(String officeId, String tsId, String units,
+                               Timestamp versionDate, List<TimeSeries.Record> values,
+                               StoreRule storeRule) {
+        valuesStored(officeId, tsId, versionDate);
+        if (RecentValueStore.isEnabled()) {
+            recentValues.stored(officeId, tsId, units, versionDate, values, storeRule);
+        }
+    }
+
+    @Override
+    public List<TimeSeriesStoreStatus> store(List<TimeSeries> series, boolean createAsLrts,
+                                             StoreRule storeRule, boolean overrideProtection) {
+        if (series.size() > BATCH_MAX_SERIES) {
+            throw new IllegalArgumentException("At most " + BATCH_MAX_SERIES + " time series "
+                    + "can be stored at once, " + series.size() + " were sent.");
+        }
+        final TimeSeriesStoreStatus[] statuses = new TimeSeriesStoreStatus[series.size()];
+        final long start = System.nanoTime();
+        connection(dsl, connection -> {
+            DSLContext batchDsl = DSL.using(dsl.configuration()
+                    .derive(new DefaultConnectionProvider(connection)));
+            CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
+            boolean autoCommit = connection.getAutoCommit();
+            // Grouping the series under one commit relies on cwms_ts.store_ts leaving the
+            // transaction to its caller, which TimeSeriesBatchStoreTestIT checks.
+            connection.setAutoCommit(false);
             try {
-                CWMS_TS_PACKAGE.call_SET_TSID_VERSIONED(getDslContext(connection, officeId).configuration(),
-                        tsId, "T", officeId);
-            } catch (DataAccessException e) {
-                if (e.getCause() instanceof SQLException) {
-                    SQLException cause = (SQLException)e.getCause();
-
-                    if (cause.getErrorCode() != TS_ID_MISSING_CODE) {
-                        throw e;
+                String sessionOffice = null;
+                // indexes of the series stored since the last commit
+                List<Integer> uncommitted = new ArrayList<>();
+                for (int i = 0; i < statuses.length; i++) {
+                    TimeSeries ts = series.get(i);
+                    String officeId = ts.getOfficeId();
+                    String tsId = ts.getName();
+                    List<TimeSeries.Record> values = ts.getValues();
+                    int count = values == null ? 0 : values.size();
+                    if (tsId == null || officeId == null || ts.getUnits() == null) {
+                        statuses[i] = TimeSeriesStoreStatus.failed(tsId, officeId, count,
+                                "The name, office-id and units are required.");
+                        continue;
                     }
-                    // Ignore tsId not found exceptions. tsDao.store() will create tsId if it is not found
-                    logger.log(Level.FINER, e, () -> "TS ID: " + tsId + " not found at office: " + officeId);
-                } else {
-                    throw e;
+                    if (count == 0) {
+                        // same as create, nothing to store and the identifier isn't created
+                        statuses[i] = TimeSeriesStoreStatus.stored(tsId, officeId, 0);
+                        continue;
+                    }
+                    Timestamp versionDate = ts.getVersionDate() == null ? null
+                            : Timestamp.from(ts.getVersionDate().toInstant());
+                    try {
+                        if (!officeId.equalsIgnoreCase(sessionOffice)) {
+                            setOffice(connection, officeId);
+                            sessionOffice = officeId;
+                        }
+                        if (versionDate != null && !Boolean.TRUE.equals(
+                                isVersionedCache.getIfPresent(versionedKey(officeId, tsId)))) {
+                            setVersioned(batchDsl.configuration(), officeId, tsId);
+                        }
+                        storeValues(connection, tsDao, officeId, tsId, ts.getUnits(),
+                                versionDate, values, createAsLrts, storeRule,
+                                overrideProtection);
+                        if (versionDate != null) {
+                            // later series of the same request skip the round trip
+                            isVersionedCache.put(versionedKey(officeId, tsId), true);
+                        }
+                        statuses[i] = TimeSeriesStoreStatus.stored(tsId, officeId, count);
+                        uncommitted.add(i);
+                    } catch (SQLException | DataAccessException e) {
+                        // The failed call is rolled back on its own, what was stored before
+                        // it in this group is still committed with the group.
+                        logger.log(Level.FINE, e, () -> "Batch store of " + tsId + " failed");
+                        statuses[i] = TimeSeriesStoreStatus.failed(tsId, officeId, count,
+                                storeFailure(e));
+                    }
+                    if (uncommitted.size() >= BATCH_STORE_SIZE) {
+                        commit(connection, series, statuses, uncommitted, storeRule);
+                    }
+                }
+                commit(connection, series, statuses, uncommitted, storeRule);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+
+        if (metrics != null) {
+            long stored = 0;
+            for (TimeSeriesStoreStatus status : statuses) {
+                if (status.isStored()) {
+                    stored += status.getValueCount();
                 }
             }
+            metrics.meter(MetricRegistry.name(this.getClass().getName(), BATCH_STORE_NAME,
+                    "points")).mark(stored);
+            long elapsed = System.nanoTime() - start;
+            if (stored > 0 && elapsed > 0) {
+                metrics.histogram(MetricRegistry.name(this.getClass().getName(),
+                        BATCH_STORE_NAME, "points-per-second"))
+                        .update(stored * TimeUnit.SECONDS.toNanos(1) / elapsed);
+            }
         }
+        return Arrays.asList(statuses);
+    }
 
-        tsDao.store(connection, officeId, tsId, units, timeArray, valueArray, qualityArray, count,
-                storeRule.getRule(), overrideProtection, versionDate, createAsLrts);
+    /**
+     * Commits the series stored since the last commit, and only then updates the caches for
+     * them.  If the commit fails they are reported as failed and their entries are dropped.
+     */
+    private static void commit(Connection connection, List<TimeSeries> series,
+                               TimeSeriesStoreStatus[] statuses, List<Integer> uncommitted,
+                               StoreRule storeRule) {
+        if (uncommitted.isEmpty()) {
+            return;
+        }
+        try {
+            connection.commit();
+            for (int i : uncommitted) {
+                TimeSeries ts = series.get(i);
+                stored(ts.getOfficeId(), ts.getName(), ts.getUnits(), ts.getVersionDate() == null
+                        ? null : Timestamp.from(ts.getVersionDate().toInstant()),
+                        ts.getValues(), storeRule);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Batch store commit failed", e);
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            for (int i : uncommitted) {
+                TimeSeries ts = series.get(i);
+                statuses[i] = TimeSeriesStoreStatus.failed(ts.getName(), ts.getOfficeId(),
+                        statuses[i].getValueCount(), storeFailure(e));
+                // the series was marked versioned in the cache before the commit
+                invalidateMetadata(ts.getOfficeId(), ts.getName());
+            }
+        }
+        uncommitted.clear();
+    }
 
+    // The first line of a database error names the CWMS exception, the rest is stack.
+    private static String storeFailure(Exception e) {
+        Throwable cause = e instanceof DataAccessException && e.getCause() != null
+                ? e.getCause() : e;
+        String message = cause.getMessage();
+        if (message == null) {
+            return cause.getClass().getSimpleName();
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
     }
 
     public void update(TimeSeries input, boolean createAsLrts, StoreRule storeRule,
@@ -1189,10 +2209,56 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                     options.getVersionDate(), null, options.getMaxVersion(),
                     options.getTsItemMask(), options.getOverrideProtection());
         });
+        invalidateMetadata(officeId, tsId);
     }
 
 
 
+    /**
+     * The parts of a time series header that only change when the time series identifier
+     * changes, as opposed to the page, total and time window of a request.
+     */
+    static final class CachedMetadata {
+        // INTERVAL_UTC_OFFSET of a regular time series before its first value sets it
+        private static final long UTC_OFFSET_UNDEFINED = Integer.MAX_VALUE;
+
+        private final String name;
+        private final String officeId;
+        private final String units;
+        private final long intervalMinutes;
+        private final VerticalDatumInfo verticalDatumInfo;
+        private final Long intervalOffset;
+        private final String timeZone;
+
+        CachedMetadata(String name, String officeId, String units, long intervalMinutes,
+                       VerticalDatumInfo verticalDatumInfo, Long intervalOffset,
+                       String timeZone) {
+            this.name = name;
+            this.officeId = officeId;
+            this.units = units;
+            this.intervalMinutes = intervalMinutes;
+            this.verticalDatumInfo = verticalDatumInfo;
+            this.intervalOffset = intervalOffset;
+            this.timeZone = timeZone;
+        }
+
+        /**
+         * @return whether the next store may set the interval offset.
+         */
+        boolean isOffsetUndefined() {
+            return intervalMinutes > 0
+                    && (intervalOffset == null || intervalOffset == UTC_OFFSET_UNDEFINED);
+        }
+
+        TimeSeries toTimeSeries(String page, int pageSize, Integer total,
+                                ZonedDateTime begin, ZonedDateTime end,
+                                ZonedDateTime versionDate, VersionType versionType) {
+            return new TimeSeries(page, pageSize, total, name, officeId, begin, end, units,
+                    Duration.ofMinutes(intervalMinutes), verticalDatumInfo, intervalOffset,
+                    timeZone, versionDate, versionType);
+        }
+    }
+
     public enum OverrideProtection {
         /**
          * If set to True, all specified values are quietly deleted.
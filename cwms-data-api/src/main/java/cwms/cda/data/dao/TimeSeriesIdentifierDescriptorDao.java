@@ -28,18 +28,21 @@ import static usace.cwms.db.dao.util.OracleTypeMap.parseBool;
 import static usace.cwms.db.dao.util.OracleTypeMap.toZoneId;
 
 import com.google.common.flogger.FluentLogger;
-import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.TimeSeriesIdentifierDescriptor;
 import cwms.cda.data.dto.TimeSeriesIdentifierDescriptors;
 import java.math.BigDecimal;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.logging.Level;
 import java.util.stream.Collectors;
 import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SelectFieldOrAsterisk;
 import usace.cwms.db.dao.ifc.ts.CwmsDbTs;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
@@ -50,6 +53,13 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
 
     private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
+    // a distinct row of AV_CWMS_TS_ID2, as it was sorted for offset paging
+    private static final KeysetCursor TS_ID_KEYS = new KeysetCursor(
+            AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID, AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.CWMS_TS_ID,
+            AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+            AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TS_ACTIVE_FLAG,
+            AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TIME_ZONE_ID);
+
     public TimeSeriesIdentifierDescriptorDao(DSLContext dsl) {
         super(dsl);
     }
@@ -67,72 +77,54 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                 OracleTypeMap.formatBool(failIfExists), tsid.getOfficeId());
             logger.atFine().log("Created tsCode: %s for %s", tsCode, tsid.getTimeSeriesId());
         });
+        TimeSeriesDaoImpl.invalidateMetadata(tsid.getOfficeId(), tsid.getTimeSeriesId());
     }
 
     public TimeSeriesIdentifierDescriptors getTimeSeriesIdentifiers(String cursor, int pageSize, String office,
                                                                     String idRegex) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.at(Level.INFO).log("Could not parse %s", parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
-
-        Collection<TimeSeriesIdentifierDescriptor> retval = getTimeSeriesIdentifiers(office, idRegex, offset, pageSize);
-
-        TimeSeriesIdentifierDescriptors.Builder builder = new TimeSeriesIdentifierDescriptors.Builder(offset, pageSize, total);
-        builder.withDescriptors(retval);
-        return builder.build();
-    }
-
-
-    public Collection<TimeSeriesIdentifierDescriptor> getTimeSeriesIdentifiers(String office, String idRegex, int firstRow,
-                                                                               int pageSize) {
+        KeysetCursor.Page page = TS_ID_KEYS.page(cursor, pageSize);
 
-        Condition whereCondition = AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID.equalIgnoreCase(office);
+        AV_CWMS_TS_ID2 view = AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
+        Condition whereCondition = view.DB_OFFICE_ID.equalIgnoreCase(office);
         if (idRegex != null && !idRegex.isEmpty()) {
             whereCondition = whereCondition.and(
-                    JooqDao.caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.CWMS_TS_ID, idRegex));
+                    JooqDao.caseInsensitiveLikeRegex(view.CWMS_TS_ID, idRegex));
         }
 
-        return dsl
-                .selectDistinct(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.CWMS_TS_ID,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TS_ACTIVE_FLAG,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TIME_ZONE_ID)
-                .from(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2)
-                .where(whereCondition)
-                .orderBy(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID, AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.CWMS_TS_ID,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TS_ACTIVE_FLAG,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TIME_ZONE_ID)
-                .limit(pageSize)
-                .offset(firstRow)
-                .stream()
+        List<SelectFieldOrAsterisk> fields = new ArrayList<>(Arrays.asList(view.DB_OFFICE_ID,
+                view.CWMS_TS_ID, view.INTERVAL_UTC_OFFSET, view.TS_ACTIVE_FLAG,
+                view.TIME_ZONE_ID));
+        fields.addAll(TS_ID_KEYS.fields());
+        Result<Record> rows = dsl
+                .selectDistinct(fields)
+                .from(view)
+                .where(whereCondition.and(page.condition()))
+                .orderBy(TS_ID_KEYS.orderBy())
+                .offset(page.getOffset())
+                .limit(page.getPageSize())
+                .fetch();
+
+        List<TimeSeriesIdentifierDescriptor> descriptors = rows.stream()
                 .map(this::toDescriptor)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+
+        TimeSeriesIdentifierDescriptors.Builder builder = new TimeSeriesIdentifierDescriptors.Builder(
+                page.getPage(), page.getPageSize(), page.getTotal());
+        if (rows.size() == page.getPageSize()) {
+            builder.withNextPage(TS_ID_KEYS.next(rows.get(rows.size() - 1)));
+        }
+        builder.withDescriptors(descriptors);
+        return builder.build();
     }
 
-    private TimeSeriesIdentifierDescriptor toDescriptor(org.jooq.Record5<String, String, BigDecimal, String, String> r) {
-        String officeId = r.get(r.field1());
-        String tsId = r.get(r.field2());
-        BigDecimal utcOffset = r.get(r.field3());
-        String activeFlag = r.get(r.field4());
-        String zoneId = r.get(r.field5());
+    private TimeSeriesIdentifierDescriptor toDescriptor(Record r) {
+        AV_CWMS_TS_ID2 view = AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
+        String officeId = r.get(view.DB_OFFICE_ID);
+        String tsId = r.get(view.CWMS_TS_ID);
+        BigDecimal utcOffset = r.get(view.INTERVAL_UTC_OFFSET);
+        String activeFlag = r.get(view.TS_ACTIVE_FLAG);
+        String zoneId = r.get(view.TIME_ZONE_ID);
 
         String locationId = null;
         if( tsId != null && tsId.contains(".")){
@@ -180,6 +172,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.updateTsId(connection, office, timeseriesId, utcOffsetMinutes, intervalForward, intervalBackward, activeFlag);
         });
+        TimeSeriesDaoImpl.invalidateMetadata(office, timeseriesId);
 
     }
 
@@ -193,7 +186,8 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                         officeId);
             }
         });
-        
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, origId);
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, newId);
     }
 
     public void delete(String office, String timeseriesId, DeleteMethod method) {
@@ -219,6 +213,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteAll(connection, officeId, tsId);
         });
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, tsId);
     }
 
     public void deleteData(String officeId, String tsId) {
@@ -235,5 +230,6 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteKey(connection, officeId, tsId);
         });
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, tsId);
     }
 }
@@ -14,7 +14,6 @@ import cwms.cda.data.dto.binarytimeseries.BinaryTimeSeries;
 import cwms.cda.data.dto.binarytimeseries.BinaryTimeSeriesRow;
 import cwms.cda.helpers.ReplaceUtils;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URLEncoder;
 import java.sql.Blob;
 import java.sql.CallableStatement;
@@ -234,10 +233,7 @@ public final class TimeSeriesBinaryDao extends JooqDao<BinaryTimeSeries> {
                     + format("&%s=%s", Controllers.BLOB_ID, URLEncoder.encode(binaryId, "UTF-8"));
             builder.withValueUrl(url);
         } else {
-            try (InputStream is = b.getBinaryStream()) {
-                byte[] bytes = BlobDao.readFully(is);
-                builder.withBinaryValue(bytes);
-            }
+            builder.withBinaryValue(BlobDao.readFully(b));
         }
         return builder.build();
     }
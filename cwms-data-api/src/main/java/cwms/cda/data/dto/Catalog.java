@@ -43,6 +43,15 @@ public class Catalog extends CwmsDTOPaginated {
 
     public Catalog(String page, int total, int pageSize, List<? extends CatalogEntry> entries,
                    CatalogRequestParameters param) {
+        this(page, total, pageSize, entries, param, 0);
+    }
+
+    /**
+     * @param pageNumber the number of this page, counting from 1, or 0 if it isn't known.
+     *                   The next page cursor carries the following number.
+     */
+    public Catalog(String page, int total, int pageSize, List<? extends CatalogEntry> entries,
+                   CatalogRequestParameters param, int pageNumber) {
         super(page, pageSize, total);
 
         Objects.requireNonNull(entries, "List of catalog entries must be a valid list, even if empty");
@@ -50,7 +59,7 @@ public class Catalog extends CwmsDTOPaginated {
         if (entries.size() == pageSize) {
             nextPage = encodeCursor(new CatalogPage(
                             entries.get(entries.size() - 1).getCursor(),
-                            param
+                            param, pageNumber > 0 ? pageNumber + 1 : 0
                     ).toString(),
                     pageSize, total);
 
@@ -83,13 +92,15 @@ public class Catalog extends CwmsDTOPaginated {
         private final String boundingOfficeLike;
         private final boolean includeExtents;
         private final boolean excludeEmpty;
+        private final int pageNumber;
         private int total;
         private int pageSize;
 
         public CatalogPage(String page) {
             String[] parts = CwmsDTOPaginated.decodeCursor(page, CwmsDTOPaginated.delimiter);
 
-            if (parts.length != 12) {
+            // Cursors from before the page number was added have 12 parts.
+            if (parts.length != 12 && parts.length != 13) {
                 throw new IllegalArgumentException("Invalid Catalog Page Provided, please verify "
                         + "you are using a page variable from the catalog endpoint");
             }
@@ -105,13 +116,21 @@ public class Catalog extends CwmsDTOPaginated {
             boundingOfficeLike = nullOrVal(parts[7]);
             includeExtents = Boolean.parseBoolean(parts[8]);
             excludeEmpty = Boolean.parseBoolean(parts[9]);
-            total = Integer.parseInt(parts[10]);
-            pageSize = Integer.parseInt(parts[11]);
+            pageNumber = parts.length == 13 ? Integer.parseInt(parts[10]) : 0;
+            total = Integer.parseInt(parts[parts.length - 2]);
+            pageSize = Integer.parseInt(parts[parts.length - 1]);
         }
 
 
 
         public CatalogPage(String curElement, CatalogRequestParameters params) {
+            this(curElement, params, 0);
+        }
+
+        /**
+         * @param pageNumber the number of the page this cursor points to, or 0 if unknown.
+         */
+        public CatalogPage(String curElement, CatalogRequestParameters params, int pageNumber) {
             String[] parts = curElement.split("/");
             this.curOffice = parts[0];
             this.cursorId = parts[1];
@@ -125,6 +144,7 @@ public class Catalog extends CwmsDTOPaginated {
             this.boundingOfficeLike = params.getBoundingOfficeLike();
             this.includeExtents = params.isIncludeExtents();
             this.excludeEmpty = params.isExcludeEmpty();
+            this.pageNumber = pageNumber;
         }
 
         private String nullOrVal(String val) {
@@ -187,6 +207,14 @@ public class Catalog extends CwmsDTOPaginated {
             return excludeEmpty;
         }
 
+        /**
+         * @return the number of the page this cursor points to, counting from 1, or 0 if the
+         *     cursor doesn't say.
+         */
+        public int getPageNumber() {
+            return pageNumber;
+        }
+
 
         @Override
         public String toString() {
@@ -200,6 +228,7 @@ public class Catalog extends CwmsDTOPaginated {
                     + CwmsDTOPaginated.delimiter + boundingOfficeLike
                     + CwmsDTOPaginated.delimiter + includeExtents
                     + CwmsDTOPaginated.delimiter + excludeEmpty
+                    + (pageNumber > 0 ? CwmsDTOPaginated.delimiter + pageNumber : "")
                     ;
         }
     }
@@ -29,11 +29,18 @@ public class LocationLevels extends CwmsDTOPaginated {
     private int offset;
 
     public LocationLevels(int offset, int pageSize, Integer total) {
-        super(Integer.toString(offset), pageSize, total);
-        levels = new ArrayList<>();
+        this(Integer.toString(offset), pageSize, total);
         this.offset = offset;
     }
 
+    /**
+     * @param page the cursor of this page, as made by a {@link cwms.cda.data.dao.KeysetCursor}
+     */
+    public LocationLevels(String page, int pageSize, Integer total) {
+        super(page, pageSize, total);
+        levels = new ArrayList<>();
+    }
+
     public List<LocationLevel> getLevels() {
         return Collections.unmodifiableList(levels);
     }
@@ -42,12 +49,34 @@ public class LocationLevels extends CwmsDTOPaginated {
     public static class Builder {
         private LocationLevels workingLevels;
 
+        private final boolean keyset;
+        private String nextPage;
+
         public Builder(int offset, int pageSize, Integer total) {
             workingLevels = new LocationLevels(offset, pageSize, total);
+            keyset = false;
+        }
+
+        public Builder(String page, int pageSize, Integer total) {
+            workingLevels = new LocationLevels(page, pageSize, total);
+            keyset = true;
+        }
+
+        /**
+         * Sets the cursor of the next page, for a builder made with a keyset page.
+         * @param page the next page, null if this is the last page
+         */
+        public LocationLevels.Builder withNextPage(String page) {
+            this.nextPage = page;
+            return this;
         }
 
         public LocationLevels build() {
-            if (this.workingLevels.levels.size() == this.workingLevels.pageSize) {
+            if (this.nextPage != null) {
+                this.workingLevels.nextPage = encodeCursor(this.nextPage,
+                        this.workingLevels.pageSize,
+                        this.workingLevels.total);
+            } else if (!keyset && this.workingLevels.levels.size() == this.workingLevels.pageSize) {
 
                 String cursor =
                         Integer.toString(this.workingLevels.offset + this.workingLevels.levels.size());
@@ -33,11 +33,18 @@ public class Pools extends CwmsDTOPaginated {
     private int offset;
 
     public Pools(int offset, int pageSize, Integer total) {
-        super(Integer.toString(offset), pageSize, total);
-        pools = new ArrayList<>();
+        this(Integer.toString(offset), pageSize, total);
         this.offset = offset;
     }
 
+    /**
+     * @param page the cursor of this page, as made by a {@link cwms.cda.data.dao.KeysetCursor}
+     */
+    public Pools(String page, int pageSize, Integer total) {
+        super(page, pageSize, total);
+        pools = new ArrayList<>();
+    }
+
     public List<Pool> getPools() {
         return Collections.unmodifiableList(pools);
     }
@@ -46,12 +53,34 @@ public class Pools extends CwmsDTOPaginated {
     public static class Builder {
         private Pools workingPools;
 
+        private final boolean keyset;
+        private String nextPage;
+
         public Builder(int offset, int pageSize, Integer total) {
             workingPools = new Pools(offset, pageSize, total);
+            keyset = false;
+        }
+
+        public Builder(String page, int pageSize, Integer total) {
+            workingPools = new Pools(page, pageSize, total);
+            keyset = true;
+        }
+
+        /**
+         * Sets the cursor of the next page, for a builder made with a keyset page.
+         * @param page the next page, null if this is the last page
+         */
+        public Pools.Builder withNextPage(String page) {
+            this.nextPage = page;
+            return this;
         }
 
         public Pools build() {
-            if (this.workingPools.pools.size() == this.workingPools.pageSize) {
+            if (this.nextPage != null) {
+                this.workingPools.nextPage = encodeCursor(this.nextPage,
+                        this.workingPools.pageSize,
+                        this.workingPools.total);
+            } else if (!keyset && this.workingPools.pools.size() == this.workingPools.pageSize) {
 
                 String cursor =
                         Integer.toString(this.workingPools.offset + this.workingPools.pools.size());
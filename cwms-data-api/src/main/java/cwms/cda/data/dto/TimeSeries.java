@@ -8,11 +8,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonRootName;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.api.errors.FieldException;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.cbor.CborFormatter;
 import cwms.cda.formatters.json.JsonV2;
 import cwms.cda.formatters.xml.XMLv2;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -32,6 +35,7 @@ import java.util.List;
 @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
 @FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
 @FormattableWith(contentType = Formats.XMLV2, formatter = XMLv2.class, aliases = {Formats.XML})
+@FormattableWith(contentType = Formats.CBOR, formatter = CborFormatter.class)
 public class TimeSeries extends CwmsDTOPaginated {
     public static final String ZONED_DATE_TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ'['VV']'";
 
@@ -83,7 +87,7 @@ public class TimeSeries extends CwmsDTOPaginated {
                     implementation = Record.class
             )
     )
-    List<Record> values;
+    TimeSeriesValues values;
 
     @Schema(
             accessMode = AccessMode.READ_ONLY,
@@ -128,7 +132,7 @@ public class TimeSeries extends CwmsDTOPaginated {
         this.verticalDatumInfo = info;
         this.intervalOffset = intervalOffset;
         this.timeZone = timeZone;
-        values = new ArrayList<>();
+        values = new TimeSeriesValues();
     }
 
     public String getName() {
@@ -162,6 +166,8 @@ public class TimeSeries extends CwmsDTOPaginated {
 
     // Use the array shape to optimize data transfer to client
     @JsonFormat(shape=JsonFormat.Shape.ARRAY)
+    @JsonSerialize(using = TimeSeriesValues.Serializer.class)
+    @JsonDeserialize(using = TimeSeriesValues.Deserializer.class)
     public List<Record> getValues() {
         return values;
     }
@@ -205,7 +211,8 @@ public class TimeSeries extends CwmsDTOPaginated {
             nextPage = encodeCursor(String.format("%d", dateTime.toInstant().toEpochMilli()), pageSize, total);
             return false;
         } else {
-            return values.add(new Record(dateTime, value, qualityCode));
+            values.add(dateTime.getTime(), value, qualityCode);
+            return true;
         }
     }
 
@@ -29,11 +29,15 @@ public class TimeSeriesIdentifierDescriptors extends CwmsDTOPaginated {
     private int offset;
 
     private TimeSeriesIdentifierDescriptors(int offset, int pageSize, Integer total, List<TimeSeriesIdentifierDescriptor> specsList) {
-        super(Integer.toString(offset), pageSize, total);
-        descriptors = new ArrayList<>(specsList);
+        this(Integer.toString(offset), pageSize, total, specsList);
         this.offset = offset;
     }
 
+    private TimeSeriesIdentifierDescriptors(String page, int pageSize, Integer total, List<TimeSeriesIdentifierDescriptor> specsList) {
+        super(page, pageSize, total);
+        descriptors = new ArrayList<>(specsList);
+    }
+
     public List<TimeSeriesIdentifierDescriptor> getDescriptors() {
         return Collections.unmodifiableList(descriptors);
     }
@@ -46,16 +50,38 @@ public class TimeSeriesIdentifierDescriptors extends CwmsDTOPaginated {
 
     public static class Builder {
         private final int offset;
+        private final String page;
         private final int pageSize;
         private final Integer total;
         private List<TimeSeriesIdentifierDescriptor> descriptors;
+        private String nextPage;
 
         public Builder(int offset, int pageSize, Integer total) {
             this.offset = offset;
+            this.page = null;
+            this.pageSize = pageSize;
+            this.total = total;
+        }
+
+        /**
+         * @param page the cursor of this page, as made by a {@link cwms.cda.data.dao.KeysetCursor}
+         */
+        public Builder(String page, int pageSize, Integer total) {
+            this.offset = 0;
+            this.page = page;
             this.pageSize = pageSize;
             this.total = total;
         }
 
+        /**
+         * Sets the cursor of the next page, for a builder made with a keyset page.
+         * @param page the next page, null if this is the last page
+         */
+        public Builder withNextPage(String page) {
+            this.nextPage = page;
+            return this;
+        }
+
         public Builder withDescriptors(Collection<TimeSeriesIdentifierDescriptor> descList) {
             this.descriptors = null;
             if(descList != null) {
@@ -66,6 +92,13 @@ public class TimeSeriesIdentifierDescriptors extends CwmsDTOPaginated {
         }
 
         public TimeSeriesIdentifierDescriptors build() {
+            if (page != null) {
+                TimeSeriesIdentifierDescriptors retval = new TimeSeriesIdentifierDescriptors(page,
+                        pageSize, total, descriptors);
+                retval.nextPage = nextPage == null ? null
+                        : encodeCursor(nextPage, retval.pageSize, retval.total);
+                return retval;
+            }
             TimeSeriesIdentifierDescriptors retval = new TimeSeriesIdentifierDescriptors(offset,
                     pageSize, total, descriptors);
 
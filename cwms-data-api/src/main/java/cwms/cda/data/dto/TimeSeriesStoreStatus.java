@@ -0,0 +1,73 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRootName;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonRootName("store-status")
+@Schema(description = "Outcome of storing one time series of a batch")
+@JsonPropertyOrder({"name", "office-id", "stored", "value-count", "message"})
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TimeSeriesStoreStatus {
+
+    @Schema(description = "Time series identifier as it was sent")
+    private String name;
+
+    @Schema(description = "Office of the time series as it was sent")
+    private String officeId;
+
+    @Schema(description = "Whether the values were stored and committed")
+    private boolean stored;
+
+    @Schema(description = "Number of values sent for the time series")
+    private int valueCount;
+
+    @Schema(description = "Why the time series was not stored")
+    private String message;
+
+    @SuppressWarnings("unused") // required so Jackson can initialize it
+    private TimeSeriesStoreStatus() {
+    }
+
+    private TimeSeriesStoreStatus(String name, String officeId, boolean stored, int valueCount,
+                                  String message) {
+        this.name = name;
+        this.officeId = officeId;
+        this.stored = stored;
+        this.valueCount = valueCount;
+        this.message = message;
+    }
+
+    public static TimeSeriesStoreStatus stored(String name, String officeId, int valueCount) {
+        return new TimeSeriesStoreStatus(name, officeId, true, valueCount, null);
+    }
+
+    public static TimeSeriesStoreStatus failed(String name, String officeId, int valueCount,
+                                               String message) {
+        return new TimeSeriesStoreStatus(name, officeId, false, valueCount, message);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public boolean isStored() {
+        return stored;
+    }
+
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
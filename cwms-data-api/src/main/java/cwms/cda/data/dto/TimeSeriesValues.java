@@ -0,0 +1,453 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Column oriented storage for the values of a {@link TimeSeries}.
+ * <p>
+ * The times, values and quality codes are held in growable primitive arrays, with missing
+ * values tracked in a bitmap (and stored as NaN in the value column).  The class still
+ * presents itself as a {@code List<TimeSeries.Record>} so existing callers keep working, but
+ * each Record handed out is a view created on demand; the serializer, deserializer and the
+ * database store path work on the columns directly.
+ */
+public final class TimeSeriesValues extends AbstractList<TimeSeries.Record>
+        implements RandomAccess {
+    static final String DATE_TIME = "date-time";
+    static final String VALUE = "value";
+    static final String QUALITY_CODE = "quality-code";
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] times;
+    private double[] values;
+    private int[] qualities;
+    private final BitSet nulls = new BitSet();
+    private int size = 0;
+
+    public TimeSeriesValues() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TimeSeriesValues(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        times = new long[capacity];
+        values = new double[capacity];
+        qualities = new int[capacity];
+    }
+
+    /**
+     * @param records the records to store
+     * @return records if it is already column oriented, otherwise a columnar copy of it.
+     */
+    public static TimeSeriesValues of(List<TimeSeries.Record> records) {
+        if (records instanceof TimeSeriesValues) {
+            return (TimeSeriesValues) records;
+        }
+        TimeSeriesValues retval = new TimeSeriesValues(records == null ? 0 : records.size());
+        if (records != null) {
+            for (TimeSeries.Record record : records) {
+                retval.add(record);
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Appends a value.
+     * @param dateTime milliseconds since the epoch
+     * @param value the value, or null if missing
+     * @param qualityCode the quality code
+     */
+    public void add(long dateTime, Double value, int qualityCode) {
+        if (value == null) {
+            nulls.set(size);
+            add(dateTime, Double.NaN, qualityCode);
+        } else {
+            add(dateTime, value.doubleValue(), qualityCode);
+        }
+    }
+
+    /**
+     * Appends a value that is present.
+     * @param dateTime milliseconds since the epoch
+     * @param value the value
+     * @param qualityCode the quality code
+     */
+    public void add(long dateTime, double value, int qualityCode) {
+        ensureCapacity(size + 1);
+        times[size] = dateTime;
+        values[size] = value;
+        qualities[size] = qualityCode;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean add(TimeSeries.Record record) {
+        if (record.getDateTime() == null) {
+            throw new IllegalArgumentException("Time series values require a date-time");
+        }
+        add(record.getDateTime().getTime(), record.getValue(), record.getQualityCode());
+        return true;
+    }
+
+    @Override
+    public TimeSeries.Record get(int index) {
+        checkIndex(index);
+        return new TimeSeries.Record(new Timestamp(times[index]),
+                nulls.get(index) ? null : values[index], qualities[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        nulls.clear();
+        modCount++;
+    }
+
+    /**
+     * @param index position of the value
+     * @return the time of the value in milliseconds since the epoch
+     */
+    public long getDateTime(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    /**
+     * @param index position of the value
+     * @return the value, NaN if it is missing.
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * @param index position of the value
+     * @return true if the value is missing.
+     */
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return nulls.get(index);
+    }
+
+    public int getQualityCode(int index) {
+        checkIndex(index);
+        return qualities[index];
+    }
+
+    /**
+     * The returned arrays are the backing storage, trimmed to {@link #size()}; they must not
+     * be modified.
+     * @return the times in milliseconds since the epoch
+     */
+    public long[] getDateTimeArray() {
+        trimToSize();
+        return times;
+    }
+
+    /**
+     * @return the values, NaN where a value is missing. Backing storage, see
+     *     {@link #getDateTimeArray()}.
+     */
+    public double[] getValueArray() {
+        trimToSize();
+        return values;
+    }
+
+    /**
+     * @return the quality codes. Backing storage, see {@link #getDateTimeArray()}.
+     */
+    public int[] getQualityCodeArray() {
+        trimToSize();
+        return qualities;
+    }
+
+    private void trimToSize() {
+        if (times.length != size) {
+            times = Arrays.copyOf(times, size);
+            values = Arrays.copyOf(values, size);
+            qualities = Arrays.copyOf(qualities, size);
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > times.length) {
+            int newCapacity = Math.max(minCapacity,
+                    Math.max(DEFAULT_CAPACITY, times.length + (times.length >> 1)));
+            times = Arrays.copyOf(times, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            qualities = Arrays.copyOf(qualities, newCapacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Writes the values straight from the columns.  Array shape (the JSON default) produces
+     * [date-time, value, quality-code] triples, Object shape (used for XML) produces one
+     * element per value with the missing values omitted.
+     */
+    public static final class Serializer extends StdSerializer<List<TimeSeries.Record>>
+            implements ContextualSerializer {
+        private final boolean asObjects;
+
+        public Serializer() {
+            this(false);
+        }
+
+        private Serializer(boolean asObjects) {
+            super(List.class, false);
+            this.asObjects = asObjects;
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider,
+                                                  BeanProperty property) {
+            JsonFormat.Value format = findFormatOverrides(provider, property, handledType());
+            boolean objects = format != null && format.getShape() == JsonFormat.Shape.OBJECT;
+            return objects == asObjects ? this : new Serializer(objects);
+        }
+
+        @Override
+        public void serialize(List<TimeSeries.Record> records, JsonGenerator gen,
+                              SerializerProvider provider) throws IOException {
+            TimeSeriesValues columns = of(records);
+            final int count = columns.size();
+            gen.writeStartArray(records, count);
+            for (int i = 0; i < count; i++) {
+                boolean missing = columns.nulls.get(i);
+                if (asObjects) {
+                    gen.writeStartObject();
+                    gen.writeNumberField(DATE_TIME, columns.times[i]);
+                    if (!missing) {
+                        gen.writeNumberField(VALUE, columns.values[i]);
+                    }
+                    gen.writeNumberField(QUALITY_CODE, columns.qualities[i]);
+                    gen.writeEndObject();
+                } else {
+                    gen.writeStartArray();
+                    gen.writeNumber(columns.times[i]);
+                    if (missing) {
+                        gen.writeNull();
+                    } else {
+                        gen.writeNumber(columns.values[i]);
+                    }
+                    gen.writeNumber(columns.qualities[i]);
+                    gen.writeEndArray();
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * Reads values straight into the columns. Accepts both the [date-time, value, quality-code]
+     * array form and the object form, so the same deserializer serves JSON and XML.
+     */
+    public static final class Deserializer extends StdDeserializer<TimeSeriesValues> {
+
+        public Deserializer() {
+            super(TimeSeriesValues.class);
+        }
+
+        @Override
+        public TimeSeriesValues deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            return deserialize(p, ctxt, new TimeSeriesValues());
+        }
+
+        @Override
+        public TimeSeriesValues deserialize(JsonParser p, DeserializationContext ctxt,
+                                            TimeSeriesValues columns) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_STRING && p.getText().trim().isEmpty()) {
+                // an empty XML element
+                return columns;
+            }
+            if (!p.isExpectedStartArrayToken()) {
+                return (TimeSeriesValues) ctxt.handleUnexpectedToken(TimeSeriesValues.class, p);
+            }
+
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_ARRAY) {
+                    readArray(p, ctxt, columns);
+                } else if (token == JsonToken.START_OBJECT) {
+                    readObject(p, ctxt, columns);
+                } else {
+                    ctxt.handleUnexpectedToken(TimeSeries.Record.class, p);
+                }
+            }
+            return columns;
+        }
+
+        private void readArray(JsonParser p, DeserializationContext ctxt,
+                               TimeSeriesValues columns) throws IOException {
+            Long time = null;
+            Double value = null;
+            int quality = 0;
+            int index = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                switch (index++) {
+                    case 0:
+                        time = readTime(p, ctxt);
+                        break;
+                    case 1:
+                        value = readValue(p, ctxt);
+                        break;
+                    case 2:
+                        quality = readQuality(p, ctxt);
+                        break;
+                    default:
+                        ctxt.reportInputMismatch(this,
+                                "Time series values are [date-time, value, quality-code]");
+                }
+            }
+            add(ctxt, columns, time, value, quality);
+        }
+
+        private void readObject(JsonParser p, DeserializationContext ctxt,
+                                TimeSeriesValues columns) throws IOException {
+            Long time = null;
+            Double value = null;
+            int quality = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                if (DATE_TIME.equals(name)) {
+                    time = readTime(p, ctxt);
+                } else if (VALUE.equals(name)) {
+                    value = readValue(p, ctxt);
+                } else if (QUALITY_CODE.equals(name)) {
+                    quality = readQuality(p, ctxt);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            add(ctxt, columns, time, value, quality);
+        }
+
+        private void add(DeserializationContext ctxt, TimeSeriesValues columns, Long time,
+                         Double value, int quality) throws IOException {
+            if (time == null) {
+                ctxt.reportInputMismatch(this, "Time series value is missing the date-time");
+                return;
+            }
+            columns.add(time, value, quality);
+        }
+
+        private static long readTime(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return p.getLongValue();
+            } else if (token == JsonToken.VALUE_STRING) {
+                String text = p.getText().trim();
+                try {
+                    return Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    return ctxt.parseDate(text).getTime();
+                }
+            }
+            throw ctxt.wrongTokenException(p, Timestamp.class, JsonToken.VALUE_NUMBER_INT,
+                    "date-time must be milliseconds since the epoch");
+        }
+
+        private static Double readValue(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            } else if (token.isNumeric()) {
+                return p.getDoubleValue();
+            } else if (token == JsonToken.VALUE_STRING) {
+                String text = p.getText().trim();
+                if (text.isEmpty()) {
+                    return null;
+                }
+                try {
+                    return Double.valueOf(text);
+                } catch (NumberFormatException e) {
+                    return (Double) ctxt.handleWeirdStringValue(Double.class, text,
+                            "not a valid number");
+                }
+            }
+            throw ctxt.wrongTokenException(p, Double.class, JsonToken.VALUE_NUMBER_FLOAT,
+                    "value must be a number or null");
+        }
+
+        private static int readQuality(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return 0;
+            } else if (token == JsonToken.VALUE_NUMBER_INT) {
+                return p.getIntValue();
+            } else if (token == JsonToken.VALUE_STRING) {
+                String text = p.getText().trim();
+                try {
+                    return text.isEmpty() ? 0 : Integer.parseInt(text);
+                } catch (NumberFormatException e) {
+                    return (Integer) ctxt.handleWeirdStringValue(Integer.class, text,
+                            "not a valid quality code");
+                }
+            }
+            throw ctxt.wrongTokenException(p, Integer.class, JsonToken.VALUE_NUMBER_INT,
+                    "quality-code must be an integer");
+        }
+    }
+}
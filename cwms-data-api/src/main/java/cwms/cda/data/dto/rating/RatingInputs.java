@@ -0,0 +1,50 @@
+package cwms.cda.data.dto.rating;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Values to rate or reverse rate")
+@JsonPropertyOrder({"units", "times", "values"})
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RatingInputs {
+
+    @Schema(description = "Units of the independent parameters followed by the unit of the "
+            + "dependent parameter. Values are read and written in these units. If not given "
+            + "the units of the rating are used.")
+    private String[] units;
+
+    @Schema(description = "Milliseconds since 1970-01-01 (Unix Epoch), always UTC, of each "
+            + "value; selects the rating in effect. If not given every value is rated with the "
+            + "rating in effect now.")
+    private long[] times;
+
+    @Schema(description = "The values to rate, one array per independent parameter. To "
+            + "reverse rate, a single array of dependent values.")
+    private double[][] values;
+
+    @SuppressWarnings("unused") // required so Jackson can initialize it
+    private RatingInputs() {
+    }
+
+    public RatingInputs(String[] units, long[] times, double[][] values) {
+        this.units = units;
+        this.times = times;
+        this.values = values;
+    }
+
+    public String[] getUnits() {
+        return units;
+    }
+
+    public long[] getTimes() {
+        return times;
+    }
+
+    public double[][] getValues() {
+        return values;
+    }
+}
@@ -89,6 +89,10 @@ public class RatingMetadataList extends CwmsDTOPaginated {
 
         private int offset;
 
+        private String page;
+
+        private String nextPage;
+
         private List<RatingMetadata> metadata;
 
         private boolean isLastPage = false;
@@ -118,6 +122,24 @@ public class RatingMetadataList extends CwmsDTOPaginated {
             return this;
         }
 
+        /**
+         * Sets the cursor of this page, in place of an offset.
+         * @param page the cursor of this page, as made by a {@link cwms.cda.data.dao.KeysetCursor}
+         */
+        public Builder withPage(String page) {
+            this.page = page;
+            return this;
+        }
+
+        /**
+         * Sets the cursor of the next page, for a builder given a keyset page.
+         * @param page the next page, null if this is the last page
+         */
+        public Builder withNextPage(String page) {
+            this.nextPage = page;
+            return this;
+        }
+
 
         private int getSize() {
             int retval = 0;
@@ -141,6 +163,10 @@ public class RatingMetadataList extends CwmsDTOPaginated {
             // CwmsDTOPaginated always puts the pageSize as the last entry in the list
             // we don't need to include it in these results.
 
+            if (page != null) {
+                // cast so this isn't taken for the delimiter overload
+                return CwmsDTOPaginated.encodeCursor((Object) page);
+            }
             return CwmsDTOPaginated.encodeCursor(offset);
         }
 
@@ -148,6 +174,10 @@ public class RatingMetadataList extends CwmsDTOPaginated {
             if (metadata == null || metadata.isEmpty() || isLastPage) {
                 return null;
             }
+            if (page != null) {
+                return nextPage == null ? null
+                        : CwmsDTOPaginated.encodeCursor(nextPage, pageSize, null);
+            }
             return CwmsDTOPaginated.encodeCursor(offset + pageSize, pageSize);
         }
 
@@ -29,11 +29,15 @@ public class RatingSpecs extends CwmsDTOPaginated {
     private int offset;
 
     private RatingSpecs(int offset, int pageSize, Integer total, List<RatingSpec> specsList) {
-        super(Integer.toString(offset), pageSize, total);
-        specs = new ArrayList<>(specsList);
+        this(Integer.toString(offset), pageSize, total, specsList);
         this.offset = offset;
     }
 
+    private RatingSpecs(String page, int pageSize, Integer total, List<RatingSpec> specsList) {
+        super(page, pageSize, total);
+        specs = new ArrayList<>(specsList);
+    }
+
     public List<RatingSpec> getSpecs() {
         return Collections.unmodifiableList(specs);
     }
@@ -46,22 +50,50 @@ public class RatingSpecs extends CwmsDTOPaginated {
 
     public static class Builder {
         private final int offset;
+        private final String page;
         private final int pageSize;
         private final Integer total;
         private List<RatingSpec> specs;
+        private String nextPage;
 
         public Builder(int offset, int pageSize, Integer total) {
             this.offset = offset;
+            this.page = null;
+            this.pageSize = pageSize;
+            this.total = total;
+        }
+
+        /**
+         * @param page the cursor of this page, as made by a {@link cwms.cda.data.dao.KeysetCursor}
+         */
+        public Builder(String page, int pageSize, Integer total) {
+            this.offset = 0;
+            this.page = page;
             this.pageSize = pageSize;
             this.total = total;
         }
 
+        /**
+         * Sets the cursor of the next page, for a builder made with a keyset page.
+         * @param page the next page, null if this is the last page
+         */
+        public Builder withNextPage(String page) {
+            this.nextPage = page;
+            return this;
+        }
+
         public Builder specs(List<RatingSpec> specList) {
             this.specs = specList;
             return this;
         }
 
         public RatingSpecs build() {
+            if (page != null) {
+                RatingSpecs retval = new RatingSpecs(page, pageSize, total, specs);
+                retval.nextPage = nextPage == null ? null
+                        : encodeCursor(nextPage, retval.pageSize, retval.total);
+                return retval;
+            }
             RatingSpecs retval = new RatingSpecs(offset, pageSize, total, specs);
 
             if (this.specs.size() == this.pageSize) {
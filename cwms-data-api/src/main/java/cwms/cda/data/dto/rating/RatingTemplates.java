@@ -29,11 +29,16 @@ public class RatingTemplates extends CwmsDTOPaginated {
 
     private RatingTemplates(int offset, int pageSize, Integer total,
                             List<RatingTemplate> templates) {
-        super(Integer.toString(offset), pageSize, total);
-        this.templates = new ArrayList<>(templates);
+        this(Integer.toString(offset), pageSize, total, templates);
         this.offset = offset;
     }
 
+    private RatingTemplates(String page, int pageSize, Integer total,
+                            List<RatingTemplate> templates) {
+        super(page, pageSize, total);
+        this.templates = new ArrayList<>(templates);
+    }
+
     public List<RatingTemplate> getTemplates() {
         return Collections.unmodifiableList(templates);
     }
@@ -46,16 +51,38 @@ public class RatingTemplates extends CwmsDTOPaginated {
 
     public static class Builder {
         private final int offset;
+        private final String page;
         private final int pageSize;
         private final Integer total;
         private List<RatingTemplate> templates;
+        private String nextPage;
 
         public Builder(int offset, int pageSize, Integer total) {
             this.offset = offset;
+            this.page = null;
             this.pageSize = pageSize;
             this.total = total;
         }
 
+        /**
+         * @param page the cursor of this page, as made by a {@link cwms.cda.data.dao.KeysetCursor}
+         */
+        public Builder(String page, int pageSize, Integer total) {
+            this.offset = 0;
+            this.page = page;
+            this.pageSize = pageSize;
+            this.total = total;
+        }
+
+        /**
+         * Sets the cursor of the next page, for a builder made with a keyset page.
+         * @param page the next page, null if this is the last page
+         */
+        public Builder withNextPage(String page) {
+            this.nextPage = page;
+            return this;
+        }
+
         public Builder templates(List<RatingTemplate> specList) {
             this.templates = specList;
             return this;
@@ -80,6 +107,12 @@ public class RatingTemplates extends CwmsDTOPaginated {
         }
 
         public RatingTemplates build() {
+            if (page != null) {
+                RatingTemplates retval = new RatingTemplates(page, pageSize, total, templates);
+                retval.nextPage = nextPage == null ? null
+                        : encodeCursor(nextPage, retval.pageSize, retval.total);
+                return retval;
+            }
             RatingTemplates retval = new RatingTemplates(offset, pageSize, total, templates);
 
             int count = getCount();
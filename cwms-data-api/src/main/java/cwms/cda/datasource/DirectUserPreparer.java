@@ -16,9 +16,13 @@ public class DirectUserPreparer implements ConnectionPreparer {
     public Connection prepare(Connection conn) {
         if (user != null) {
             String sql = "begin cwms_env.set_session_user_direct(upper(?)); end;";
-            try (PreparedStatement setApiUser = conn.prepareStatement(sql)) {
-                setApiUser.setString(1,user);
-                setApiUser.execute();                
+            try {
+                SessionState.apply(conn, SessionState.USER, user, () -> {
+                    try (PreparedStatement setApiUser = conn.prepareStatement(sql)) {
+                        setApiUser.setString(1, user);
+                        setApiUser.execute();
+                    }
+                });
             } catch (Exception e) {
                 throw new DataAccessException("Unable to set user session.  "
                         + "user empty = " + user.isEmpty(), e);
@@ -0,0 +1,172 @@
+package cwms.cda.datasource;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import oracle.jdbc.OracleConnection;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers the session settings (time zone, CWMS user and office, client info) last applied to
+ * each physical database connection, so a pooled connection that already has them isn't sent
+ * the same PL/SQL call again on its next checkout.
+ * <p>
+ * Settings are keyed on the driver's physical connection, found by unwrapping the pool's proxy.
+ * Connections that don't unwrap to an Oracle connection are not tracked and always get every
+ * call.  A setting that fails is forgotten along with the rest of that connection's settings,
+ * since the session is then in an unknown state.  So is any other statement that fails on the
+ * connection, see {@link #failed(Connection, Throwable)}: PL/SQL that raises may have changed
+ * the session before it did.  Setting the user also forgets the office, because CWMS may change
+ * the session office along with the user.
+ * <p>
+ * Tracking is off unless {@value #ENABLED_KEY}=true.
+ */
+public final class SessionState {
+    public static final String ENABLED_KEY = "cwms.dataapi.session.reuse";
+    public static final String TIME_ZONE = "time-zone";
+    public static final String USER = "user";
+    public static final String OFFICE = "office";
+
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty(ENABLED_KEY, "false"));
+
+    // weak, identity compared keys; a connection the pool discards takes its entry with it.
+    private static final Cache<Connection, Map<String, String>> sessions =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    private static volatile Counter applied = new Counter();
+    private static volatile Counter skipped = new Counter();
+
+    private SessionState() {
+    }
+
+    // for tests; the class is usually loaded long before a test could set the property
+    static void setEnabled(boolean value) {
+        enabled = value;
+        sessions.invalidateAll();
+    }
+
+    /**
+     * A call that changes the state of the session.
+     */
+    @FunctionalInterface
+    public interface Setting {
+        void apply() throws SQLException;
+    }
+
+    /**
+     * Publish how many session calls were made and how many were skipped because the
+     * connection already had the setting.
+     * @param metrics the registry to publish to
+     */
+    public static void registerMetrics(MetricRegistry metrics) {
+        applied = metrics.counter(MetricRegistry.name(SessionState.class.getName(), "applied"));
+        skipped = metrics.counter(MetricRegistry.name(SessionState.class.getName(), "skipped"));
+    }
+
+    /**
+     * Runs setting unless the session of connection already has key set to value.  A null
+     * value is always applied.
+     *
+     * @param connection the connection, as checked out of the pool
+     * @param key what setting changes
+     * @param value the value setting gives it
+     * @param setting the call that changes it
+     * @return true if setting was run
+     */
+    public static boolean apply(Connection connection, String key, String value, Setting setting)
+            throws SQLException {
+        return apply(connection, Collections.singletonMap(key, value), setting);
+    }
+
+    /**
+     * Runs setting unless the session of connection already has all of values, for a call
+     * that changes several settings at once.
+     *
+     * @param connection the connection, as checked out of the pool
+     * @param values the keys and the values setting gives them
+     * @param setting the call that changes them
+     * @return true if setting was run
+     */
+    public static boolean apply(Connection connection, Map<String, String> values,
+                                Setting setting) throws SQLException {
+        if (values.containsValue(null)) {
+            // a null leaves the session in a state the map can't describe
+            forget(connection);
+            setting.apply();
+            applied.inc();
+            return true;
+        }
+        Map<String, String> session = session(connection);
+        if (session != null && holds(session, values)) {
+            skipped.inc();
+            return false;
+        }
+        try {
+            setting.apply();
+        } catch (SQLException | RuntimeException e) {
+            if (session != null) {
+                session.clear();
+            }
+            throw e;
+        }
+        applied.inc();
+        if (session != null) {
+            if (values.containsKey(USER) && !values.containsKey(OFFICE)) {
+                session.remove(OFFICE);
+            }
+            session.putAll(values);
+        }
+        return true;
+    }
+
+    /**
+     * Forgets what is known about the session of connection, for code that changes it without
+     * going through {@link #apply(Connection, String, String, Setting)}.
+     */
+    public static void forget(Connection connection) throws SQLException {
+        Map<String, String> session = session(connection);
+        if (session != null) {
+            session.clear();
+        }
+    }
+
+    /**
+     * Forgets what is known about the session of connection after something failed on it.
+     *
+     * @param connection the connection the failure happened on
+     * @param cause the failure; an error while forgetting is added to it as suppressed
+     */
+    public static void failed(Connection connection, Throwable cause) {
+        try {
+            forget(connection);
+        } catch (SQLException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static boolean holds(Map<String, String> session, Map<String, String> values) {
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            if (!Objects.equals(session.get(value.getKey()), value.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static Map<String, String> session(Connection connection) throws SQLException {
+        if (!enabled || !connection.isWrapperFor(OracleConnection.class)) {
+            return null;
+        }
+        Connection physical = connection.unwrap(OracleConnection.class);
+        return sessions.asMap().computeIfAbsent(physical, c -> new ConcurrentHashMap<>());
+    }
+}
@@ -17,13 +17,22 @@ import java.util.Map;
 final class ContentTypeAliasMap
 {
 	private final Map<String, ContentType> _contentTypeMap = new HashMap<>();
-	private static final Map<Class<? extends CwmsDTOBase>, ContentTypeAliasMap> ALIAS_MAP = new HashMap<>();
+	// computed once per class and never changed, safe to read from any request thread
+	private static final ClassValue<ContentTypeAliasMap> ALIAS_MAP = new ClassValue<ContentTypeAliasMap>()
+	{
+		@Override
+		protected ContentTypeAliasMap computeValue(Class<?> dtoClass)
+		{
+			return new ContentTypeAliasMap(dtoClass);
+		}
+	};
+	private static final ContentTypeAliasMap EMPTY = new ContentTypeAliasMap();
 
 	private ContentTypeAliasMap()
 	{
 	}
 
-	private ContentTypeAliasMap(Class<? extends CwmsDTOBase> dtoClass)
+	private ContentTypeAliasMap(Class<?> dtoClass)
 	{
 		FormattableWith[] formats = dtoClass.getAnnotationsByType(FormattableWith.class);
 		for (FormattableWith format : formats)
@@ -39,12 +48,12 @@ final class ContentTypeAliasMap
 
 	public static ContentTypeAliasMap forDtoClass(@NotNull Class<? extends CwmsDTOBase> dtoClass)
 	{
-		return ALIAS_MAP.computeIfAbsent(dtoClass, ContentTypeAliasMap::new);
+		return ALIAS_MAP.get(dtoClass);
 	}
 
 	public static ContentTypeAliasMap empty()
 	{
-		return new ContentTypeAliasMap();
+		return EMPTY;
 	}
 
 	public ContentType getContentType(String alias)
@@ -25,13 +25,11 @@
 package cwms.cda.formatters;
 
 import cwms.cda.data.dto.CwmsDTOBase;
-import cwms.cda.formatters.annotations.FormattableWith;
 
 import javax.validation.constraints.NotNull;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +56,8 @@ public class Formats {
     public static final String GEOJSON = "application/geo+json";
     public static final String PGJSON = "application/vnd.pg+json";
     public static final String NAMED_PGJSON = "application/vnd.named+pg+json";
+    public static final String CBOR = "application/cbor";
+    public static final String NDJSON = "application/x-ndjson";
     public static final String DEFAULT = "*/*";
 
     public static final String JSON_LEGACY = "json";
@@ -74,7 +74,8 @@ public class Formats {
 
     static {
         contentTypeList.addAll(
-                Stream.of(JSON, JSONV1, XML, XMLV1, XMLV2, WML2, JSONV2, TAB, CSV, GEOJSON, PGJSON, NAMED_PGJSON)
+                Stream.of(JSON, JSONV1, XML, XMLV1, XMLV2, WML2, JSONV2, TAB, CSV, GEOJSON, PGJSON, NAMED_PGJSON, CBOR,
+                        NDJSON)
                         .map(ContentType::new)
                         .collect(Collectors.toList()));
     }
@@ -93,13 +94,21 @@ public class Formats {
     }
 
 
-    private final Map<ContentType, Map<Class<? extends CwmsDTOBase>, OutputFormatter>> formatters = new LinkedHashMap<>();
-
     private static final Formats formats = new Formats();
 
     private Formats() {
     }
 
+    /**
+     * Reads the formatters of every DTO up front, so the first requests don't pay for it.
+     *
+     * @return how many DTO classes have formatters
+     */
+    public static int preload() {
+        return FormatterRegistry.preload(Formats.class.getClassLoader(),
+                CwmsDTOBase.class.getPackage().getName());
+    }
+
     public static String getLegacyTypeFromContentType(ContentType contentType)
     {
         return typeMap.entrySet()
@@ -112,8 +121,7 @@ public class Formats {
 
     private String getFormatted(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
         Objects.requireNonNull(toFormat, "Object to be formatted should not be null");
-        formatters.keySet().forEach(k -> logger.fine(k::toString));
-        OutputFormatter outputFormatter = getOutputFormatter(type, toFormat.getClass());
+        OutputFormatter outputFormatter = textFormatter(type, toFormat.getClass());
 
         if (outputFormatter != null) {
             return outputFormatter.format(toFormat);
@@ -125,13 +133,22 @@ public class Formats {
 
     }
 
-    private String getFormatted(ContentType type, List<? extends CwmsDTOBase> dtos, Class<?
-            extends CwmsDTOBase> rootType) throws FormattingException {
-        for (ContentType key : formatters.keySet()) {
-            logger.finest(() -> key.toString());
+    private byte[] getFormattedBytes(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
+        Objects.requireNonNull(toFormat, "Object to be formatted should not be null");
+        OutputFormatter outputFormatter = getOutputFormatter(type, toFormat.getClass());
+
+        if (outputFormatter != null) {
+            return outputFormatter.formatBytes(toFormat);
+        } else {
+            String message = String.format("No Format for this content-type and data-type : (%s, %s)",
+                    type.toString(), toFormat.getClass().getName());
+            throw new UnsupportedFormatException(message);
         }
+    }
 
-        OutputFormatter outputFormatter = getOutputFormatter(type, rootType);
+    private String getFormatted(ContentType type, List<? extends CwmsDTOBase> dtos, Class<?
+            extends CwmsDTOBase> rootType) throws FormattingException {
+        OutputFormatter outputFormatter = textFormatter(type, rootType);
 
         if (outputFormatter != null) {
             return outputFormatter.format(dtos);
@@ -172,27 +189,17 @@ public class Formats {
 
     private OutputFormatter getOutputFormatter(ContentType type,
                                                Class<? extends CwmsDTOBase> klass) {
-        OutputFormatter outputFormatter = null;
-        Map<Class<? extends CwmsDTOBase>, OutputFormatter> contentFormatters = formatters.get(type);
-        if (contentFormatters != null && contentFormatters.containsKey(klass)) {
-            outputFormatter = contentFormatters.get(klass);
-        } else { // not in the list, look it up.
-            FormattableWith[] annotationsByType = klass.getAnnotationsByType(FormattableWith.class);
-            for (FormattableWith fw : annotationsByType) {
-                ContentType fwCt = new ContentType(fw.contentType());
-                if (type.equals(fwCt)) {
-                    try {
-                        outputFormatter = fw.formatter()
-                                            .getDeclaredConstructor()
-                                            .newInstance();
-                        formatters.computeIfAbsent(type, k -> new HashMap<>())
-                                  .put(klass,outputFormatter);
-                    } catch (Exception ex) {
-                        logger.log(Level.SEVERE, "Unable to create formatter.", ex);
-                        return null;
-                    }
-                }
-            }
+        return FormatterRegistry.get(type, klass);
+    }
+
+    // A binary format negotiated by a caller that can only send text is as unavailable to it
+    // as one that doesn't exist.
+    private OutputFormatter textFormatter(ContentType type, Class<? extends CwmsDTOBase> klass) {
+        OutputFormatter outputFormatter = getOutputFormatter(type, klass);
+        if (outputFormatter != null && outputFormatter.isBinary()) {
+            throw new UnsupportedFormatException(String.format("%s is a binary format and is not "
+                    + "available for this request : (%s, %s)", outputFormatter.getContentType(),
+                    type.toString(), klass.getName()));
         }
         return outputFormatter;
     }
@@ -201,6 +208,18 @@ public class Formats {
         return formats.getFormatted(type, toFormat);
     }
 
+    /**
+     * Formats the object as bytes. Required for binary content types, which have no String form.
+     *
+     * @param type     the content type to produce
+     * @param toFormat the object to format
+     * @return the formatted object
+     * @throws FormattingException if the object could not be formatted
+     */
+    public static byte[] formatBytes(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
+        return formats.getFormattedBytes(type, toFormat);
+    }
+
     public static String format(ContentType type, List<? extends CwmsDTOBase> toFormat, Class<?
             extends CwmsDTOBase> rootType) throws FormattingException {
         return formats.getFormatted(type, toFormat, rootType);
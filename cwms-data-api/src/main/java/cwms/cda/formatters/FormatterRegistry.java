@@ -0,0 +1,184 @@
+package cwms.cda.formatters;
+
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.formatters.annotations.FormattableWith;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The formatters of each DTO class, read once from its {@link FormattableWith} annotations and
+ * never changed afterwards, so request threads can look them up without locking.
+ * <p>
+ * {@link #preload(ClassLoader, String)} reads every DTO of a package at startup; a class it
+ * didn't see is read the first time it is asked for.
+ */
+final class FormatterRegistry {
+    private static final Logger logger = Logger.getLogger(FormatterRegistry.class.getName());
+
+    // formatters hold no per request state, one of each serves every DTO.
+    private static final Map<Class<? extends OutputFormatter>, OutputFormatter> instances =
+            new ConcurrentHashMap<>();
+
+    private static final ClassValue<Formatters> registry = new ClassValue<Formatters>() {
+        @Override
+        protected Formatters computeValue(Class<?> type) {
+            return new Formatters(type);
+        }
+    };
+
+    private FormatterRegistry() {
+    }
+
+    /**
+     * @return the formatter for the type and class, null if there isn't one.
+     */
+    static OutputFormatter get(ContentType type, Class<? extends CwmsDTOBase> klass) {
+        return registry.get(klass).get(type);
+    }
+
+    /**
+     * Reads the formatters and content type aliases of every DTO in a package.
+     *
+     * @param loader the class loader the DTOs come from
+     * @param packageName e.g. cwms.cda.data.dto
+     * @return how many DTO classes have formatters
+     */
+    static int preload(ClassLoader loader, String packageName) {
+        int count = 0;
+        for (String className : classNames(loader, packageName)) {
+            Class<?> klass;
+            try {
+                klass = Class.forName(className, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.log(Level.FINE, "Skipping " + className, e);
+                continue;
+            }
+            if (CwmsDTOBase.class.isAssignableFrom(klass)
+                    && klass.getAnnotationsByType(FormattableWith.class).length > 0) {
+                registry.get(klass);
+                ContentTypeAliasMap.forDtoClass(klass.asSubclass(CwmsDTOBase.class));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<String> classNames(ClassLoader loader, String packageName) {
+        String path = packageName.replace('.', '/');
+        List<String> retval = new ArrayList<>();
+        try {
+            Enumeration<URL> urls = loader.getResources(path);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                if ("file".equals(url.getProtocol())) {
+                    Path root = Paths.get(url.toURI());
+                    try (Stream<Path> files = Files.walk(root)) {
+                        retval.addAll(files.map(root::relativize)
+                                .map(Path::toString)
+                                .filter(name -> name.endsWith(".class"))
+                                .map(name -> packageName + "." + toClassName(name))
+                                .collect(Collectors.toList()));
+                    }
+                } else if ("jar".equals(url.getProtocol())) {
+                    URLConnection connection = url.openConnection();
+                    // a cached jar is shared with the class loader, which must not see it closed
+                    connection.setUseCaches(false);
+                    try (JarFile jar = ((JarURLConnection) connection).getJarFile()) {
+                        for (JarEntry entry : Collections.list(jar.entries())) {
+                            String name = entry.getName();
+                            if (name.startsWith(path + "/") && name.endsWith(".class")) {
+                                retval.add(toClassName(name));
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to list the classes of " + packageName
+                    + ", their formatters will be read when first used.", e);
+        }
+        return retval;
+    }
+
+    private static String toClassName(String fileName) {
+        return fileName.substring(0, fileName.length() - ".class".length())
+                .replace('/', '.')
+                .replace('\\', '.');
+    }
+
+    /**
+     * The formatters of one DTO class.
+     */
+    private static final class Formatters {
+        private final List<ContentType> types = new ArrayList<>();
+        private final List<OutputFormatter> formatters = new ArrayList<>();
+        // the content types the class declares, as they are written
+        private final Map<String, OutputFormatter> declared = new HashMap<>();
+
+        Formatters(Class<?> klass) {
+            for (FormattableWith fw : klass.getAnnotationsByType(FormattableWith.class)) {
+                OutputFormatter formatter = instance(fw.formatter());
+                if (formatter != null) {
+                    types.add(new ContentType(fw.contentType()));
+                    formatters.add(formatter);
+                }
+            }
+            for (ContentType type : types) {
+                declared.put(type.toString(), find(type));
+            }
+        }
+
+        OutputFormatter get(ContentType type) {
+            OutputFormatter retval = declared.get(type.toString());
+            return retval != null ? retval : find(type);
+        }
+
+        // ContentType.equals isn't symmetric, so this compares the way lookups always have,
+        // the last annotation that matches wins.
+        private OutputFormatter find(ContentType type) {
+            OutputFormatter retval = null;
+            for (int i = 0; i < types.size(); i++) {
+                if (type.equals(types.get(i))) {
+                    retval = formatters.get(i);
+                }
+            }
+            return retval;
+        }
+    }
+
+    private static OutputFormatter instance(Class<? extends OutputFormatter> formatterClass) {
+        OutputFormatter retval = instances.get(formatterClass);
+        if (retval == null) {
+            try {
+                retval = formatterClass.getDeclaredConstructor().newInstance();
+            } catch (Exception ex) {
+                logger.log(Level.SEVERE, "Unable to create formatter.", ex);
+                return null;
+            }
+            OutputFormatter existing = instances.putIfAbsent(formatterClass, retval);
+            if (existing != null) {
+                retval = existing;
+            }
+        }
+        return retval;
+    }
+}
@@ -0,0 +1,50 @@
+package cwms.cda.formatters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * The writers and readers of one configured mapper, made once for each type.  ObjectWriter and
+ * ObjectReader are immutable and thread safe, and one made for a type skips the root type
+ * lookups a plain {@link ObjectMapper#writeValueAsString(Object)} does on every call.
+ * <p>
+ * The mapper must not be configured any further once it is given to this class.
+ */
+public final class JacksonCodecs {
+    private final ObjectMapper mapper;
+
+    private final ClassValue<ObjectWriter> writers = new ClassValue<ObjectWriter>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return mapper.writerFor(type);
+        }
+    };
+
+    private final ClassValue<ObjectReader> readers = new ClassValue<ObjectReader>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return mapper.readerFor(type);
+        }
+    };
+
+    public JacksonCodecs(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * @param value the value to write, may be null
+     * @return the writer for the class of value
+     */
+    public ObjectWriter writerFor(Object value) {
+        return value == null ? mapper.writer() : writers.get(value.getClass());
+    }
+
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.get(type);
+    }
+}
@@ -0,0 +1,68 @@
+package cwms.cda.formatters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Writes each value it is given as one line of newline delimited JSON
+ * ({@value Formats#NDJSON}).  Values are written with the version 2 JSON mapper as they arrive
+ * and nothing is kept after the line is written, so an export of any size needs the memory
+ * of a single value.
+ * <p>
+ * {@link #close()} flushes what is left but leaves the stream open for its owner.
+ */
+public final class NdJsonWriter<T> implements Consumer<T>, Closeable {
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private long count = 0;
+
+    public NdJsonWriter(OutputStream out) {
+        this(JsonV2.codecs().getMapper(), out);
+    }
+
+    NdJsonWriter(ObjectMapper mapper, OutputStream out) {
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try {
+            this.generator = mapper.getFactory().createGenerator(out);
+        } catch (IOException e) {
+            throw new FormattingException("Could not open output for " + Formats.NDJSON, e);
+        }
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // the lines are separated below, not by the generator
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void accept(T value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+            if (++count % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new FormattingException("Could not write " + Formats.NDJSON + " line", e);
+        }
+    }
+
+    /**
+     * @return the number of lines written so far.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -1,6 +1,7 @@
 package cwms.cda.formatters;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import cwms.cda.data.dto.CwmsDTOBase;
@@ -9,6 +10,15 @@ public interface OutputFormatter {
     String getContentType();
     String format(CwmsDTOBase dto);
     String format(List<? extends CwmsDTOBase> dtoList);
+    default byte[] formatBytes(CwmsDTOBase dto) {
+        return format(dto).getBytes(StandardCharsets.UTF_8);
+    }
+    /**
+     * @return true if the format has no String form and can only be written with formatBytes.
+     */
+    default boolean isBinary() {
+        return false;
+    }
     default <T extends CwmsDTOBase> T parseContent(String content, Class<T> type) {
         throw new UnsupportedOperationException("Unable to process your request. Deserialization of "
                 + getContentType() + " not yet supported.");
@@ -0,0 +1,134 @@
+package cwms.cda.formatters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the result of a batch retrieval as one JSON document:
+ * {@code {"time-series": [...], "not-found": [...]}}.  Each element of "time-series" is a
+ * version 2 TimeSeries document and is flushed to the client as soon as its last value is
+ * written, so the first series arrives while the later ones are still being read.
+ */
+public final class TimeSeriesBatchWriter implements TimeSeriesDao.BatchConsumer {
+    private static final String TIME_SERIES = "time-series";
+    private static final String NOT_FOUND = "not-found";
+
+    private final ObjectMapper mapper;
+    private final JsonGenerator generator;
+    private final List<String> missing = new ArrayList<>();
+
+    private boolean started = false;
+    private TimeSeriesStreamWriter current;
+    private int seriesCount = 0;
+    private long valueCount = 0;
+
+    /**
+     * @param out where the document is written
+     */
+    public TimeSeriesBatchWriter(OutputStream out) {
+        this.mapper = JsonV2.codecs().getMapper();
+        try {
+            this.generator = mapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } catch (IOException e) {
+            throw new FormattingException("Could not open output for time series batch", e);
+        }
+    }
+
+    // Nothing is written until the retrieval produces something, so a request that fails
+    // validation can still be answered with an error.
+    private void start() throws IOException {
+        if (!started) {
+            started = true;
+            generator.writeStartObject();
+            generator.writeFieldName(TIME_SERIES);
+            generator.writeStartArray();
+        }
+    }
+
+    /**
+     * @param contentType the negotiated content type
+     * @return true if the content type can be written by this class.
+     */
+    public static boolean supports(ContentType contentType) {
+        return new ContentType(Formats.JSONV2).equals(contentType);
+    }
+
+    @Override
+    public void missing(String name) {
+        missing.add(name);
+    }
+
+    @Override
+    public void begin(TimeSeries header) {
+        try {
+            start();
+        } catch (IOException e) {
+            throw new FormattingException("Could not write time series batch", e);
+        }
+        current = new TimeSeriesStreamWriter(mapper, generator);
+        current.begin(header);
+    }
+
+    @Override
+    public boolean accept(Timestamp dateTime, Double value, int qualityCode) {
+        return current.accept(dateTime, value, qualityCode);
+    }
+
+    @Override
+    public void end() {
+        current.finish();
+        seriesCount++;
+        valueCount += current.getCount();
+        current = null;
+    }
+
+    /**
+     * Lists the names that were not found and closes the document.
+     */
+    public void finish() {
+        try {
+            start();
+            generator.writeEndArray();
+            generator.writeFieldName(NOT_FOUND);
+            generator.writeStartArray();
+            for (String name : missing) {
+                generator.writeString(name);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        } catch (IOException e) {
+            throw new FormattingException("Could not complete time series batch", e);
+        }
+    }
+
+    /**
+     * @return the number of time series written so far.
+     */
+    public int getSeriesCount() {
+        return seriesCount;
+    }
+
+    /**
+     * @return the number of values written so far, over all time series.
+     */
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * @return the names that did not identify a time series.
+     */
+    public List<String> getMissing() {
+        return missing;
+    }
+}
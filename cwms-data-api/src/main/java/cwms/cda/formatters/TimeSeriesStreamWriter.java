@@ -0,0 +1,241 @@
+package cwms.cda.formatters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dto.CwmsDTOPaginated;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.xml.XMLv2;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.Map;
+import javax.xml.namespace.QName;
+
+/**
+ * Writes a version 2 TimeSeries document directly to an OutputStream as the values are read
+ * from the database.  Neither the values nor the formatted document are ever held in memory.
+ * <p>
+ * The metadata is written first, then the values, then the page and next-page cursors.  The
+ * cursors come last because the next-page cursor is only known once the last value of the
+ * page has been read.  A time series written into a larger document is not paged and has no
+ * cursors.
+ */
+public final class TimeSeriesStreamWriter implements TimeSeriesDao.RecordConsumer {
+    private static final String VALUES = "values";
+    private static final String PAGE = "page";
+    private static final String NEXT_PAGE = "next-page";
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final ObjectMapper mapper;
+    private final JsonGenerator generator;
+    private final boolean xml;
+    private final boolean ownsGenerator;
+    private final boolean paged;
+
+    private String page;
+    private String nextPage;
+    private int pageSize;
+    private Integer total;
+    private int count = 0;
+
+    private TimeSeriesStreamWriter(ObjectMapper mapper, OutputStream out, boolean xml)
+            throws IOException {
+        this.mapper = mapper;
+        this.xml = xml;
+        this.generator = mapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.ownsGenerator = true;
+        this.paged = true;
+    }
+
+    /**
+     * Writes the time series as a JSON value, without paging cursors, into a document someone
+     * else is writing.  {@link #finish()} flushes the generator but leaves it open.
+     */
+    TimeSeriesStreamWriter(ObjectMapper mapper, JsonGenerator generator) {
+        this.mapper = mapper;
+        this.xml = false;
+        this.generator = generator;
+        this.ownsGenerator = false;
+        this.paged = false;
+    }
+
+    /**
+     * @param contentType the negotiated content type
+     * @return true if the content type can be written by this class.
+     */
+    public static boolean supports(ContentType contentType) {
+        return new ContentType(Formats.JSONV2).equals(contentType)
+                || new ContentType(Formats.XMLV2).equals(contentType);
+    }
+
+    /**
+     * Creates a writer for the given content type.
+     * @param contentType either {@link Formats#JSONV2} or {@link Formats#XMLV2}
+     * @param out where the document is written
+     * @return a writer ready to receive a time series
+     */
+    public static TimeSeriesStreamWriter forContentType(ContentType contentType, OutputStream out) {
+        try {
+            if (new ContentType(Formats.XMLV2).equals(contentType)) {
+                return new TimeSeriesStreamWriter(XMLv2.codecs().getMapper(), out, true);
+            } else if (new ContentType(Formats.JSONV2).equals(contentType)) {
+                return new TimeSeriesStreamWriter(JsonV2.codecs().getMapper(), out, false);
+            }
+        } catch (IOException e) {
+            throw new FormattingException("Could not open output for " + contentType, e);
+        }
+        throw new UnsupportedFormatException("Streaming is not available for " + contentType);
+    }
+
+    @Override
+    public void begin(TimeSeries header) {
+        page = header.getPage();
+        pageSize = header.getPageSize();
+        total = header.getTotal();
+
+        try {
+            ObjectNode fields = mapper.valueToTree(header);
+            fields.remove(VALUES);
+            fields.remove(PAGE);
+            fields.remove(NEXT_PAGE);
+
+            if (xml) {
+                ((ToXmlGenerator) generator).setNextName(new QName("timeseries"));
+            }
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> it = fields.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                writeField(field.getKey(), field.getValue());
+            }
+
+            generator.writeFieldName(VALUES);
+            if (xml) {
+                generator.writeStartObject();
+            } else {
+                generator.writeStartArray();
+            }
+            // Get the metadata on the wire before the first value is read.
+            generator.flush();
+        } catch (IOException e) {
+            throw new FormattingException("Could not write time series header", e);
+        }
+    }
+
+    private void writeField(String name, JsonNode value) throws IOException {
+        generator.writeFieldName(name);
+        if (!xml) {
+            mapper.writeTree(generator, value);
+        } else if (value.isArray()) {
+            // Match the wrapped list elements the XmlMapper produces for collections.
+            generator.writeStartObject();
+            for (JsonNode element : value) {
+                writeField(name, element);
+            }
+            generator.writeEndObject();
+        } else if (value.isObject()) {
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> it = value.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                writeField(field.getKey(), field.getValue());
+            }
+            generator.writeEndObject();
+        } else {
+            mapper.writeTree(generator, value);
+        }
+    }
+
+    @Override
+    public boolean accept(Timestamp dateTime, Double value, int qualityCode) {
+        // Same paging rules as TimeSeries.addValue
+        if (paged && (page == null || page.isEmpty()) && count == 0) {
+            page = CwmsDTOPaginated.encodeCursor(String.format("%d", dateTime.getTime()),
+                    pageSize, total);
+        }
+        if (paged && pageSize > 0 && count == pageSize) {
+            nextPage = CwmsDTOPaginated.encodeCursor(String.format("%d", dateTime.getTime()),
+                    pageSize, total);
+            return false;
+        }
+
+        try {
+            if (xml) {
+                generator.writeFieldName(VALUES);
+                generator.writeStartObject();
+                generator.writeNumberField("date-time", dateTime.getTime());
+                if (value != null) {
+                    generator.writeNumberField("value", value);
+                }
+                generator.writeNumberField("quality-code", qualityCode);
+                generator.writeEndObject();
+            } else {
+                generator.writeStartArray();
+                generator.writeNumber(dateTime.getTime());
+                if (value != null) {
+                    generator.writeNumber(value);
+                } else {
+                    generator.writeNull();
+                }
+                generator.writeNumber(qualityCode);
+                generator.writeEndArray();
+            }
+            count++;
+            if (count % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new FormattingException("Could not write time series value", e);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the paging cursors and closes the time series.
+     */
+    public void finish() {
+        try {
+            if (xml) {
+                generator.writeEndObject();
+            } else {
+                generator.writeEndArray();
+            }
+            if (paged && page != null) {
+                generator.writeStringField(PAGE, page);
+            }
+            if (paged && nextPage != null) {
+                generator.writeStringField(NEXT_PAGE, nextPage);
+            }
+            generator.writeEndObject();
+            if (ownsGenerator) {
+                generator.close();
+            } else {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new FormattingException("Could not complete time series document", e);
+        }
+    }
+
+    /**
+     * @return the number of values written so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the cursor of the following page, null until the page is complete or if
+     *     there is no more data.
+     */
+    public String getNextPage() {
+        return nextPage;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.formatters.cbor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.OutputFormatter;
+import cwms.cda.formatters.UnsupportedFormatException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Binary formatter for CBOR (RFC 8949).
+ * <p>
+ * The document has the same fields as the JSON version 2 format, except that time series values
+ * are written column wise: {@code "values": {"date-time": [...], "value": [...],
+ * "quality-code": [...]}} with null in the value column for missing values.  Clients decode
+ * three flat numeric arrays instead of parsing one text triple per point.
+ * <p>
+ * CBOR has no String representation, use {@link Formats#formatBytes} to format.
+ */
+public class CborFormatter implements OutputFormatter {
+
+    private final ObjectMapper om;
+
+    public CborFormatter() {
+        this.om = buildCborMapper();
+    }
+
+    @NotNull
+    public static ObjectMapper buildCborMapper() {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.WRITE_MINIMAL_DOUBLES)
+                .build();
+        ObjectMapper retVal = new CBORMapper(factory);
+
+        retVal.findAndRegisterModules();
+        retVal.disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS);
+        retVal.disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+
+        retVal.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
+        retVal.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        retVal.registerModule(new JavaTimeModule());
+        retVal.addMixIn(TimeSeries.class, TimeSeriesCborMixin.class);
+        return retVal;
+    }
+
+    @Override
+    public String getContentType() {
+        return Formats.CBOR;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public String format(CwmsDTOBase dto) {
+        throw new UnsupportedFormatException(getContentType()
+                + " is a binary format and cannot be formatted as text.");
+    }
+
+    @Override
+    public String format(List<? extends CwmsDTOBase> dtoList) {
+        throw new UnsupportedFormatException(getContentType()
+                + " is a binary format and cannot be formatted as text.");
+    }
+
+    @Override
+    public byte[] formatBytes(CwmsDTOBase dto) {
+        try {
+            return om.writeValueAsBytes(dto);
+        } catch (IOException e) {
+            throw new FormattingException("Could not format :" + dto, e);
+        }
+    }
+
+    @Override
+    public <T extends CwmsDTOBase> T parseContent(InputStream content, Class<T> type) {
+        try {
+            return om.readValue(content, type);
+        } catch (IOException e) {
+            throw new FormattingException("Could not deserialize:" + content, e);
+        }
+    }
+}
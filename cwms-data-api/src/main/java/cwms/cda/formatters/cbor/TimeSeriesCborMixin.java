@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.formatters.cbor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesValues;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+abstract class TimeSeriesCborMixin {
+    private static final String DATE_TIME = "date-time";
+    private static final String VALUE = "value";
+    private static final String QUALITY_CODE = "quality-code";
+
+    // Values are written as three columns rather than one array per point
+    @JsonSerialize(using = ColumnSerializer.class)
+    @JsonDeserialize(using = ColumnDeserializer.class)
+    abstract List<TimeSeries.Record> getValues();
+
+    static final class ColumnSerializer extends StdSerializer<List<TimeSeries.Record>> {
+
+        ColumnSerializer() {
+            super(List.class, false);
+        }
+
+        @Override
+        public void serialize(List<TimeSeries.Record> records, JsonGenerator gen,
+                              SerializerProvider provider) throws IOException {
+            TimeSeriesValues columns = TimeSeriesValues.of(records);
+            final int count = columns.size();
+            gen.writeStartObject();
+            gen.writeFieldName(DATE_TIME);
+            gen.writeArray(columns.getDateTimeArray(), 0, count);
+            gen.writeFieldName(VALUE);
+            gen.writeStartArray(records, count);
+            double[] values = columns.getValueArray();
+            for (int i = 0; i < count; i++) {
+                if (columns.isNull(i)) {
+                    gen.writeNull();
+                } else {
+                    gen.writeNumber(values[i]);
+                }
+            }
+            gen.writeEndArray();
+            gen.writeFieldName(QUALITY_CODE);
+            gen.writeArray(columns.getQualityCodeArray(), 0, count);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class ColumnDeserializer extends StdDeserializer<TimeSeriesValues> {
+
+        ColumnDeserializer() {
+            super(TimeSeriesValues.class);
+        }
+
+        @Override
+        public TimeSeriesValues deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            return deserialize(p, ctxt, new TimeSeriesValues());
+        }
+
+        @Override
+        public TimeSeriesValues deserialize(JsonParser p, DeserializationContext ctxt,
+                                            TimeSeriesValues columns) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (TimeSeriesValues) ctxt.handleUnexpectedToken(TimeSeriesValues.class, p);
+            }
+
+            long[] times = new long[0];
+            double[] values = new double[0];
+            BitSet nulls = new BitSet();
+            int[] qualities = new int[0];
+            int timeCount = 0;
+            int valueCount = 0;
+            int qualityCount = 0;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken token = p.nextToken();
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    ctxt.reportInputMismatch(this, "Time series column '%s' must be an array",
+                            name);
+                }
+                if (DATE_TIME.equals(name)) {
+                    while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                        requireNumber(p, ctxt, token, name);
+                        if (timeCount == times.length) {
+                            times = Arrays.copyOf(times, grow(timeCount));
+                        }
+                        times[timeCount++] = p.getLongValue();
+                    }
+                } else if (VALUE.equals(name)) {
+                    while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                        if (valueCount == values.length) {
+                            values = Arrays.copyOf(values, grow(valueCount));
+                        }
+                        if (token == JsonToken.VALUE_NULL) {
+                            nulls.set(valueCount);
+                            values[valueCount++] = Double.NaN;
+                        } else {
+                            requireNumber(p, ctxt, token, name);
+                            values[valueCount++] = p.getDoubleValue();
+                        }
+                    }
+                } else if (QUALITY_CODE.equals(name)) {
+                    while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                        requireNumber(p, ctxt, token, name);
+                        if (qualityCount == qualities.length) {
+                            qualities = Arrays.copyOf(qualities, grow(qualityCount));
+                        }
+                        qualities[qualityCount++] = p.getIntValue();
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+
+            if (valueCount != timeCount || (qualityCount != 0 && qualityCount != timeCount)) {
+                ctxt.reportInputMismatch(this,
+                        "Time series columns differ in length: %d date-time, %d value, "
+                                + "%d quality-code", timeCount, valueCount, qualityCount);
+            }
+            for (int i = 0; i < timeCount; i++) {
+                int quality = qualityCount == 0 ? 0 : qualities[i];
+                if (nulls.get(i)) {
+                    columns.add(times[i], (Double) null, quality);
+                } else {
+                    columns.add(times[i], values[i], quality);
+                }
+            }
+            return columns;
+        }
+
+        private static int grow(int current) {
+            return Math.max(64, current + (current >> 1));
+        }
+
+        private void requireNumber(JsonParser p, DeserializationContext ctxt, JsonToken token,
+                                   String column) throws IOException {
+            if (token == null || !token.isNumeric()) {
+                ctxt.reportInputMismatch(this, "Time series column '%s' contains %s, expected a "
+                        + "number", column, p.getText());
+            }
+        }
+    }
+}
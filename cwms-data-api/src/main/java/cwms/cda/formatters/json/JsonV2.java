@@ -34,6 +34,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import cwms.cda.data.dto.CwmsDTOBase;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.JacksonCodecs;
 import cwms.cda.formatters.OutputFormatter;
 import org.jetbrains.annotations.NotNull;
 
@@ -46,10 +47,18 @@ import java.util.List;
  */
 public class JsonV2 implements OutputFormatter {
 
-    private final ObjectMapper om;
+    // the mapper is immutable once built, one is shared by every instance.
+    private static final JacksonCodecs codecs = new JacksonCodecs(buildObjectMapper());
 
     public JsonV2() {
-        this.om = buildObjectMapper();
+    }
+
+    /**
+     * The readers and writers of the mapper all instances share, for code that reads or writes
+     * JSON v2 outside of a formatter.  Don't configure the mapper any further.
+     */
+    public static JacksonCodecs codecs() {
+        return codecs;
     }
 
     @NotNull
@@ -75,7 +84,7 @@ public class JsonV2 implements OutputFormatter {
     @Override
     public String format(CwmsDTOBase dto) {
         try {
-            return om.writeValueAsString(dto);
+            return codecs.writerFor(dto).writeValueAsString(dto);
         } catch (JsonProcessingException e) {
             throw new FormattingException("Could not format :" + dto, e);
         }
@@ -84,7 +93,7 @@ public class JsonV2 implements OutputFormatter {
     @Override
     public String format(List<? extends CwmsDTOBase> dtoList) {
         try {
-            return om.writeValueAsString(dtoList);
+            return codecs.writerFor(dtoList).writeValueAsString(dtoList);
         } catch (JsonProcessingException e) {
             throw new FormattingException("Could not format :" + dtoList, e);
         }
@@ -93,7 +102,7 @@ public class JsonV2 implements OutputFormatter {
     @Override
     public <T extends CwmsDTOBase> T parseContent(String content, Class<T> type) {
         try {
-            return om.readValue(content, type);
+            return codecs.readerFor(type).readValue(content);
         } catch (JsonProcessingException e) {
             throw new FormattingException("Could not deserialize:" + content, e);
         }
@@ -102,7 +111,7 @@ public class JsonV2 implements OutputFormatter {
     @Override
     public <T extends CwmsDTOBase> T parseContent(InputStream content, Class<T> type) {
         try {
-            return om.readValue(content, type);
+            return codecs.readerFor(type).readValue(content);
         } catch (IOException e) {
             throw new FormattingException("Could not deserialize:" + content, e);
         }
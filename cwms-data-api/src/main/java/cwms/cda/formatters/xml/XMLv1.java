@@ -11,6 +11,7 @@ import cwms.cda.data.dto.Office;
 import cwms.cda.data.dto.VerticalDatumInfo;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.JacksonCodecs;
 import cwms.cda.formatters.OutputFormatter;
 import io.javalin.http.InternalServerErrorResponse;
 import org.jetbrains.annotations.NotNull;
@@ -24,6 +25,8 @@ import java.util.logging.Logger;
 
 public class XMLv1 implements OutputFormatter {
     private static final Logger logger = Logger.getLogger(XMLv1.class.getName());
+    // building an XmlMapper is expensive; one is shared by every request.
+    private static final JacksonCodecs codecs = new JacksonCodecs(buildObjectMapper());
 
     public XMLv1() {
 
@@ -37,11 +40,11 @@ public class XMLv1 implements OutputFormatter {
     @Override
     public String format(CwmsDTOBase dto) {
         try {
-            XmlMapper xmlMapper = buildObjectMapper();
             if (dto instanceof Office) {
-                return xmlMapper.writeValueAsString(new XMLv1Office(Collections.singletonList((Office)dto)));
+                XMLv1Office offices = new XMLv1Office(Collections.singletonList((Office)dto));
+                return codecs.writerFor(offices).writeValueAsString(offices);
             }
-            return xmlMapper.writeValueAsString(dto);
+            return codecs.writerFor(dto).writeValueAsString(dto);
         } catch (IOException ex) {
             String msg = dto != null ?
                     "Error rendering '" + dto + "' to XML"
@@ -56,11 +59,11 @@ public class XMLv1 implements OutputFormatter {
     @SuppressWarnings("unchecked") // we're ALWAYS checking before conversion in this function
     public String format(List<? extends CwmsDTOBase> dtoList) {
         try {
-            XmlMapper xmlMapper = buildObjectMapper();
             if (!dtoList.isEmpty() && dtoList.get(0) instanceof Office) {
-                return xmlMapper.writeValueAsString(new XMLv1Office((List<Office>) dtoList));
+                XMLv1Office offices = new XMLv1Office((List<Office>) dtoList);
+                return codecs.writerFor(offices).writeValueAsString(offices);
             }
-            return xmlMapper.writeValueAsString(dtoList);
+            return codecs.writerFor(dtoList).writeValueAsString(dtoList);
         } catch (Exception err) {
             logger.log(Level.WARNING, "Error doing XML format of office list", err);
             throw new InternalServerErrorResponse("Invalid Parameters");
@@ -70,8 +73,7 @@ public class XMLv1 implements OutputFormatter {
     @Override
     public <T extends CwmsDTOBase> T parseContent(String content, Class<T> type) {
         try {
-            XmlMapper retval = buildObjectMapper();
-            return retval.readValue(content, type);
+            return codecs.readerFor(type).readValue(content);
         } catch (IOException e) {
             throw new FormattingException("Could not deserialize:" + content, e);
         }
@@ -80,8 +82,7 @@ public class XMLv1 implements OutputFormatter {
     @Override
     public <T extends CwmsDTOBase> T parseContent(InputStream content, Class<T> type) {
         try {
-            XmlMapper retval = buildObjectMapper();
-            return retval.readValue(content, type);
+            return codecs.readerFor(type).readValue(content);
         } catch (IOException e) {
             throw new FormattingException("Could not deserialize:" + content, e);
         }
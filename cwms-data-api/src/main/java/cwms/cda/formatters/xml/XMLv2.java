@@ -11,6 +11,7 @@ import cwms.cda.data.dto.CwmsDTOBase;
 import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.JacksonCodecs;
 import cwms.cda.formatters.OutputFormatter;
 import io.javalin.http.InternalServerErrorResponse;
 import org.jetbrains.annotations.NotNull;
@@ -23,10 +24,20 @@ import java.util.logging.Logger;
 
 public class XMLv2 implements OutputFormatter {
     private static final Logger logger = Logger.getLogger(XMLv2.class.getName());
+    // building an XmlMapper is expensive; one is shared by every request.
+    private static final JacksonCodecs codecs = new JacksonCodecs(buildXmlMapper());
 
     public XMLv2() {
     }
 
+    /**
+     * The readers and writers of the mapper all instances share, for code that reads or writes
+     * XML v2 outside of a formatter.  Don't configure the mapper any further.
+     */
+    public static JacksonCodecs codecs() {
+        return codecs;
+    }
+
     @Override
     public String getContentType() {
         return Formats.XMLV2;
@@ -35,7 +46,7 @@ public class XMLv2 implements OutputFormatter {
     @Override
     public String format(CwmsDTOBase dto) {
         try {
-            return buildXmlMapper().writeValueAsString(dto);
+            return codecs.writerFor(dto).writeValueAsString(dto);
         } catch (JsonProcessingException ex) {
             String msg = dto != null ?
                     "Error rendering '" + dto + "' to XML"
@@ -49,7 +60,7 @@ public class XMLv2 implements OutputFormatter {
     @Override
     public String format(List<? extends CwmsDTOBase> dtoList) {
         try {
-            return buildXmlMapper().writeValueAsString(dtoList);
+            return codecs.writerFor(dtoList).writeValueAsString(dtoList);
         } catch (JsonProcessingException ex) {
             String msg = dtoList != null ?
                     "Error rendering '" + dtoList + "' to XML"
@@ -63,8 +74,7 @@ public class XMLv2 implements OutputFormatter {
     @Override
     public <T extends CwmsDTOBase> T parseContent(String content, Class<T> type) {
         try {
-            XmlMapper retval = buildXmlMapper();
-            return retval.readValue(content, type);
+            return codecs.readerFor(type).readValue(content);
         } catch (IOException e) {
             throw new FormattingException("Could not deserialize:" + content, e);
         }
@@ -73,14 +83,13 @@ public class XMLv2 implements OutputFormatter {
     @Override
     public <T extends CwmsDTOBase> T parseContent(InputStream content, Class<T> type) {
         try {
-            XmlMapper retval = buildXmlMapper();
-            return retval.readValue(content, type);
+            return codecs.readerFor(type).readValue(content);
         } catch (IOException e) {
             throw new FormattingException("Could not deserialize:" + content, e);
         }
     }
 
-    private static @NotNull XmlMapper buildXmlMapper() {
+    public static @NotNull XmlMapper buildXmlMapper() {
         XmlMapper retval = new XmlMapper();
         retval.findAndRegisterModules();
         // Without these two disables an Instant gets written as 3333333.335000000
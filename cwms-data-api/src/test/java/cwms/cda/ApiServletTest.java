@@ -4,12 +4,35 @@ package cwms.cda;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.api.lanes.Lane;
+import cwms.cda.api.lanes.RequestLanes;
 import io.javalin.http.Handler;
 import io.javalin.http.HandlerEntry;
 import io.javalin.http.HandlerType;
 import io.javalin.http.PathMatcher;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -114,7 +137,65 @@ public class ApiServletTest {
 
     }
 
-
+    @ParameterizedTest
+    @CsvSource({"false", "true"})
+    void test_lane_request_completes_once(boolean javalinCompletes) throws Exception {
+        AsyncContext async = mock(AsyncContext.class);
+        List<AsyncListener> listeners = new ArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+        List<Throwable> errors = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        doAnswer(inv -> listeners.add(inv.getArgument(0))).when(async).addListener(any());
+        // like the container: a second complete() is an error
+        doAnswer(inv -> {
+            if (completions.incrementAndGet() > 1) {
+                IllegalStateException e = new IllegalStateException("already complete");
+                errors.add(e);
+                throw e;
+            }
+            for (AsyncListener listener : listeners) {
+                listener.onComplete(new AsyncEvent(async));
+            }
+            done.countDown();
+            return null;
+        }).when(async).complete();
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getContextPath()).thenReturn("/cwms-data");
+        when(req.getRequestURI()).thenReturn("/cwms-data/offices");
+        when(req.startAsync()).thenReturn(async);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+
+        Map<Lane, Integer> one = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            one.put(lane, 1);
+        }
+        RequestLanes lanes = new RequestLanes(one, one, false, 5, new MetricRegistry());
+        ApiServlet servlet = new ApiServlet() {
+            @Override
+            void serve(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                if (javalinCompletes) {
+                    // Javalin completes the request itself when a handler answers with a future
+                    async.complete();
+                }
+            }
+        };
+        servlet.totalRequests = new Meter();
+        servlet.lanes = lanes;
+        try {
+            servlet.service(req, resp);
+            assertTrue(done.await(5, TimeUnit.SECONDS), "request was not completed");
+            lanes.shutdown();
+            assertTrue(lanes.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            lanes.shutdown();
+        }
+        assertEquals(1, completions.get());
+        assertTrue(errors.isEmpty(), "request was completed more than once");
+        verify(resp).setStatus(HttpServletResponse.SC_OK);
+        verify(resp, never()).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(resp, never()).sendError(anyInt());
+    }
 }
-
-
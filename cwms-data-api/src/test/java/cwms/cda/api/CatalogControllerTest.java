@@ -87,4 +87,14 @@ public class CatalogControllerTest extends ControllerTest {
         assertNotNull(response.getOutputStream(), "Output stream wasn't created");
 
     }
+
+    @Test
+    void page_numbers_are_bucketed_for_metrics() {
+        assertEquals("unknown", CatalogController.pageBucket(0));
+        assertEquals("1", CatalogController.pageBucket(1));
+        assertEquals("5", CatalogController.pageBucket(5));
+        assertEquals("6-10", CatalogController.pageBucket(10));
+        assertEquals("11-100", CatalogController.pageBucket(11));
+        assertEquals("101+", CatalogController.pageBucket(4000));
+    }
 }
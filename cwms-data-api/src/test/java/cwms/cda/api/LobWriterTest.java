@@ -0,0 +1,86 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Clob;
+import java.util.Arrays;
+import javax.sql.rowset.serial.SerialBlob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LobWriterTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "' bytes=3-', 3, 9",
+        "bytes=0-0, 0, 0",
+        "bytes=2-5, 2, 5",
+        "bytes=4-1000, 4, 9",
+        "bytes=-4, 6, 9",
+        "bytes=-50, 0, 9",
+        "BYTES = 1 - 2, 1, 2",
+    })
+    void testRanges(String header, long first, long last) {
+        LobWriter.Range range = LobWriter.Range.parse(header, null, 10);
+        assertEquals(first, range.first);
+        assertEquals(last, range.last);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"items=0-1", "bytes=0-1,4-5", "bytes=5-2", "bytes=x-", "bytes=3",
+            "bytes=--1"})
+    void testRangesThatAreIgnored(String header) {
+        assertNull(LobWriter.Range.parse(header, null, 10));
+    }
+
+    @Test
+    void testUnsatisfiableRanges() {
+        assertSame(LobWriter.Range.UNSATISFIABLE, LobWriter.Range.parse("bytes=10-", null, 10));
+        assertSame(LobWriter.Range.UNSATISFIABLE, LobWriter.Range.parse("bytes=-0", null, 10));
+        assertSame(LobWriter.Range.UNSATISFIABLE, LobWriter.Range.parse("bytes=0-", null, 0));
+    }
+
+    @Test
+    void testIfRangeSendsEverything() {
+        assertNull(LobWriter.Range.parse("bytes=3-", "\"abc\"", 10));
+        assertNull(LobWriter.Range.parse(null, null, 10));
+    }
+
+    @Test
+    void testCopyBlobRange() throws Exception {
+        byte[] data = new byte[200_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = LobWriter.copy(new SerialBlob(data), 70_000, 100_000, out);
+
+        assertEquals(100_000, written);
+        assertArrayEquals(Arrays.copyOfRange(data, 70_000, 170_000), out.toByteArray());
+    }
+
+    @Test
+    void testCopyClobAsSingleBytes() throws Exception {
+        String text = "first line\nsecond line \u00e9t\u00e9\n";
+        Clob clob = mock(Clob.class);
+        // JDBC positions start at 1
+        when(clob.getCharacterStream(4, text.length() - 3))
+                .thenReturn(new StringReader(text.substring(3)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = LobWriter.copy(clob, 3, text.length() - 3, out);
+
+        assertEquals(text.length() - 3, written);
+        assertEquals("st line\nsecond line ?t?\n",
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
@@ -22,8 +22,11 @@ import io.javalin.plugin.json.JsonMapperKt;
 import org.junit.jupiter.api.Test;
 
 import static cwms.cda.api.DataApiTestIT.getResourceTemplateStatic;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -61,6 +64,61 @@ class LocationControllerTest extends ControllerTest
         assertEquals(Nation.US, location.getNation());
     }
 
+    @Test
+    void testParseBoundingBox()
+    {
+        assertNull(LocationController.parseBoundingBox(null));
+        assertNull(LocationController.parseBoundingBox(" "));
+        assertArrayEquals(new double[]{-98.5, 35.2, -94.4, 37.1},
+                LocationController.parseBoundingBox("-98.5, 35.2,-94.4,37.1"));
+        // crossing the antimeridian
+        assertArrayEquals(new double[]{170, -20, -170, 10},
+                LocationController.parseBoundingBox("170,-20,-170,10"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseBoundingBox("1,2,3"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseBoundingBox("a,2,3,4"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseBoundingBox("-98,37,-94,35"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseBoundingBox("-190,35,-94,37"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseBoundingBox("NaN,35,-94,37"));
+    }
+
+    @Test
+    void testParseZoom()
+    {
+        double[] bbox = {-98.5, 35.2, -94.4, 37.1};
+        assertNull(LocationController.parseZoom(null, bbox));
+        assertEquals(Integer.valueOf(7), LocationController.parseZoom(" 7", bbox));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseZoom("abc", bbox));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseZoom("-1", bbox));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationController.parseZoom("7", null));
+    }
+
+    @Test
+    void testNonNumericZoomIsBadRequest()
+    {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        TestHttpServletResponse response = new TestHttpServletResponse();
+        HashMap<String, Object> attributes = new HashMap<>();
+        attributes.put(JsonMapperKt.JSON_MAPPER_KEY, new JavalinJackson());
+        when(request.getHeader("Accept")).thenReturn(Formats.GEOJSON);
+        when(request.getQueryString()).thenReturn("office=" + OFFICE_ID
+                + "&bbox=-98.5,35.2,-94.4,37.1&zoom=abc");
+        Context context = new Context(request, response, attributes);
+
+        new LocationController(new MetricRegistry()).getAll(context);
+
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    }
+
     /**
      * Test of getOne method, of class LocationController.
      */
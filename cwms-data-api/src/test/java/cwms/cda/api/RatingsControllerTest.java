@@ -1,6 +1,7 @@
 package cwms.cda.api;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -9,11 +10,14 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.codahale.metrics.MetricRegistry;
+import cwms.cda.ApiServlet;
 
 import cwms.cda.data.dao.DaoTest;
 import cwms.cda.data.dao.JsonRatingUtils;
 import cwms.cda.data.dao.JsonRatingUtilsTest;
+import cwms.cda.data.dao.RatingDao;
 import cwms.cda.formatters.Formats;
+import fixtures.TestHttpServletResponse;
 import fixtures.TestServletInputStream;
 import hec.data.cwmsRating.RatingSet;
 import io.javalin.core.util.Header;
@@ -37,6 +41,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.sql.DataSource;
 import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
 import org.jetbrains.annotations.Nullable;
+import org.jooq.DSLContext;
 import org.jooq.tools.jdbc.MockConnection;
 import org.jooq.tools.jdbc.MockFileDatabase;
 import org.junit.jupiter.api.Assertions;
@@ -102,6 +107,52 @@ class RatingsControllerTest {
 
     }
 
+    @Test
+    void not_modified_skips_loading_the_ratings() throws Exception {
+        String office = "SWT";
+        RatingSet ratingSet = RatingXmlFactory.ratingSet(JsonRatingUtilsTest.loadResourceAsString(
+                "cwms/cda/data/dao/BEAV.Stage_Flow.BASE.PRODUCTION.xml"));
+        String specId = ratingSet.getName();
+        RatingDao dao = mock(RatingDao.class);
+        when(dao.getVersionToken(office, specId)).thenReturn("3:1:1675335600000:1675335600000");
+        when(dao.retrieve(RatingSet.DatabaseLoadMethod.EAGER, office, specId, null, null))
+                .thenReturn(ratingSet);
+
+        RatingController controller = new RatingController(new MetricRegistry()) {
+            @Override
+            protected RatingDao getRatingDao(DSLContext dsl) {
+                return dao;
+            }
+        };
+
+        HttpServletRequest request = ratingRequest(office, specId);
+        TestHttpServletResponse response = new TestHttpServletResponse();
+        controller.getOne(new Context(request, response, new HashMap<>()), specId);
+        assertEquals(200, response.getStatus());
+        String etag = response.getHeader(Header.ETAG);
+        assertNotNull(etag);
+
+        HttpServletRequest conditional = ratingRequest(office, specId);
+        when(conditional.getHeader(Header.IF_NONE_MATCH)).thenReturn(etag);
+        TestHttpServletResponse notModified = new TestHttpServletResponse();
+        controller.getOne(new Context(conditional, notModified, new HashMap<>()), specId);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(etag, notModified.getHeader(Header.ETAG));
+
+        // only the first request loaded the ratings
+        verify(dao, times(1)).retrieve(RatingSet.DatabaseLoadMethod.EAGER, office, specId,
+                null, null);
+    }
+
+    private static HttpServletRequest ratingRequest(String office, String specId) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(Header.ACCEPT)).thenReturn(Formats.JSONV2);
+        when(request.getQueryString()).thenReturn("office=" + office);
+        when(request.getRequestURI()).thenReturn("/cwms-data/ratings/" + specId);
+        when(request.getAttribute(ApiServlet.DATA_SOURCE)).thenReturn(mock(DataSource.class));
+        return request;
+    }
+
     @Disabled("incomplete")
     @Test
     void retrieve_create_retrieve_delete_retrieve_json() throws Exception{
@@ -17,6 +17,7 @@ import mil.army.usace.hec.cwms.rating.io.xml.RatingSetContainerXmlFactory;
 import mil.army.usace.hec.cwms.rating.io.xml.RatingSpecXmlFactory;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
@@ -29,6 +30,7 @@ import static cwms.cda.api.Controllers.OFFICE;
 import static cwms.cda.api.Controllers.STORE_TEMPLATE;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @Tag("integration")
 public class RatingsControllerTestIT extends DataApiTestIT
@@ -160,6 +162,43 @@ public class RatingsControllerTestIT extends DataApiTestIT
 			.contentType(is(test._expectedContentType));
 	}
 
+	@Test
+	void test_rate_and_reverse_rate()
+	{
+		float flow = given()
+			.log().ifValidationFails(LogDetail.ALL,true)
+			.contentType(Formats.JSON)
+			.body("{\"values\": [[10.0]]}")
+			.queryParam(OFFICE, SPK)
+		.when()
+			.redirects().follow(true)
+			.redirects().max(3)
+			.post("/ratings/" + EXISTING_SPEC + "/rate")
+		.then()
+			.assertThat()
+			.log().ifValidationFails(LogDetail.ALL,true)
+			.statusCode(is(HttpServletResponse.SC_OK))
+			.body("rating-id", is(EXISTING_SPEC))
+			.body("values.size()", is(1))
+			.extract().path("values[0]");
+
+		float stage = given()
+			.log().ifValidationFails(LogDetail.ALL,true)
+			.contentType(Formats.JSON)
+			.body("{\"values\": [[" + flow + "]]}")
+			.queryParam(OFFICE, SPK)
+		.when()
+			.redirects().follow(true)
+			.redirects().max(3)
+			.post("/ratings/" + EXISTING_SPEC + "/reverse-rate")
+		.then()
+			.assertThat()
+			.log().ifValidationFails(LogDetail.ALL,true)
+			.statusCode(is(HttpServletResponse.SC_OK))
+			.extract().path("values[0]");
+		assertEquals(10.0, stage, 0.01);
+	}
+
 	enum GetOneTest
 	{
 		DEFAULT(Formats.DEFAULT, Formats.XMLV2),
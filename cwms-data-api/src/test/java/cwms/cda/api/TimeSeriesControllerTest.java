@@ -14,11 +14,13 @@ import static org.mockito.Mockito.when;
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.enums.PageTotal;
 import cwms.cda.data.dao.TimeSeriesDao;
 import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.json.JsonV2;
 import cwms.cda.formatters.xml.XMLv2;
+import fixtures.TestHttpServletResponse;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
 import java.io.ByteArrayInputStream;
@@ -67,10 +69,11 @@ class TimeSeriesControllerTest extends ControllerTest {
         //    ZonedDateTime end,
         //    ZonedDateTime versionDate
         //    boolean trim
+        //    PageTotal pageTotal
 
         when(
                 dao.getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
-                         isNotNull(), isNotNull(), isNull(), eq(false) )).thenReturn(expected);
+                         isNotNull(), isNotNull(), isNull(), eq(false), eq(PageTotal.EXACT))).thenReturn(expected);
 
 
         // build mock request and response
@@ -116,7 +119,7 @@ class TimeSeriesControllerTest extends ControllerTest {
         // Check that the controller accessed our mock dao in the expected way
         verify(dao, times(1)).
                 getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
-                         isNotNull(), isNotNull(), isNull(), eq(false));
+                         isNotNull(), isNotNull(), isNull(), eq(false), eq(PageTotal.EXACT));
 
         // Make sure controller thought it was happy
         verify(response).setStatus(200);
@@ -133,6 +136,75 @@ class TimeSeriesControllerTest extends ControllerTest {
         assertSimilar(expected, actual);
     }
 
+    @Test
+    void testNotModifiedSkipsRetrieval() {
+        String officeId = "LRL";
+        String tsId = "RYAN3.Stage.Inst.5Minutes.0.ZSTORE_TS_TEST";
+        TimeSeriesDao dao = mock(TimeSeriesDao.class);
+        when(dao.getVersionToken(eq(tsId), eq(officeId), isNotNull(), isNotNull(), isNull()))
+                .thenReturn("42:3:1675335600000");
+        when(dao.getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
+                isNotNull(), isNotNull(), isNull(), eq(false), eq(PageTotal.EXACT)))
+                .thenReturn(buildTimeSeries(officeId, tsId));
+
+        TimeSeriesController controller = new TimeSeriesController(new MetricRegistry()) {
+            @Override
+            protected DSLContext getDslContext(Context ctx) {
+                return null;
+            }
+
+            @NotNull
+            @Override
+            protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+                return dao;
+            }
+        };
+
+        Map<String, String> urlParams = new LinkedHashMap<>();
+        urlParams.put("office", officeId);
+        urlParams.put("name", tsId);
+        urlParams.put("begin", "2023-02-02T00:00:00Z");
+        urlParams.put("end", "2023-02-03T00:00:00Z");
+        String paramStr = buildParamStr(urlParams);
+
+        // a client without a tag gets one with the first response
+        HttpServletRequest plain = mock(HttpServletRequest.class);
+        TestHttpServletResponse plainResponse = new TestHttpServletResponse();
+        when(plain.getHeader(Header.ACCEPT)).thenReturn(Formats.JSONV2);
+        when(plain.getQueryString()).thenReturn(paramStr);
+        when(plain.getRequestURI()).thenReturn("/cwms-data/timeseries");
+        when(plain.getRequestURL()).thenReturn(new StringBuffer("http://127.0.0.1:7001/cwms-data/timeseries"));
+        controller.getAll(new Context(plain, plainResponse, new LinkedHashMap<>()));
+        assertEquals(200, plainResponse.getStatus());
+        String etag = plainResponse.getHeader(Header.ETAG);
+        assertNotNull(etag);
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        TestHttpServletResponse response = new TestHttpServletResponse();
+        when(request.getHeader(Header.ACCEPT)).thenReturn(Formats.JSONV2);
+        when(request.getHeader(Header.IF_NONE_MATCH)).thenReturn("\"stale\"");
+        when(request.getQueryString()).thenReturn(paramStr);
+        when(request.getRequestURI()).thenReturn("/cwms-data/timeseries");
+        when(request.getRequestURL()).thenReturn(new StringBuffer("http://127.0.0.1:7001/cwms-data/timeseries"));
+        controller.getAll(new Context(request, response, new LinkedHashMap<>()));
+        assertEquals(etag, response.getHeader(Header.ETAG));
+        assertEquals(200, response.getStatus());
+
+        HttpServletRequest conditional = mock(HttpServletRequest.class);
+        TestHttpServletResponse notModified = new TestHttpServletResponse();
+        when(conditional.getHeader(Header.ACCEPT)).thenReturn(Formats.JSONV2);
+        when(conditional.getHeader(Header.IF_NONE_MATCH)).thenReturn(etag);
+        when(conditional.getQueryString()).thenReturn(paramStr);
+        when(conditional.getRequestURI()).thenReturn("/cwms-data/timeseries");
+        controller.getAll(new Context(conditional, notModified, new LinkedHashMap<>()));
+
+        assertEquals(304, notModified.getStatus());
+        assertEquals(etag, notModified.getHeader(Header.ETAG));
+        // only the unconditional and the stale requests read the values
+        verify(dao, times(2)).getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
+                isNotNull(), isNotNull(), isNull(), eq(false), eq(PageTotal.EXACT));
+    }
+
     private void assertSimilar(TimeSeries expected, TimeSeries actual) {
         // Make sure ts we got back resembles the fakeTS our mock dao was supposed to return.
         assertEquals(expected.getOfficeId(), actual.getOfficeId(), "offices did not match");
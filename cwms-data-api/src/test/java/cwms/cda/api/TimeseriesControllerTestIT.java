@@ -161,6 +161,167 @@ class TimeseriesControllerTestIT extends DataApiTestIT {
 
     }
 
+    @Test
+    void test_batch_retrieve() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        InputStream resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/1day_offset.json");
+        assertNotNull(resource);
+        String tsData = IOUtils.toString(resource, "UTF-8");
+
+        JsonNode ts = mapper.readTree(tsData);
+        String tsId = ts.get("name").asText();
+        String location = tsId.split("\\.")[0];
+        String officeId = ts.get("office-id").asText();
+
+        createLocation(location, true, officeId);
+
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSONV2)
+                .body(tsData)
+                .header("Authorization", user.toHeaderValue())
+                .queryParam("office", officeId)
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK));
+
+        String firstPoint = "2023-02-02T06:00:00-05:00";
+        String missing = location + ".Flow.Inst.1Hour.0.does-not-exist";
+        given()
+                .config(RestAssured.config().jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE)))
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSON)
+                .body(mapper.writeValueAsString(new String[]{tsId, missing, tsId.toUpperCase()}))
+                .queryParam("office", officeId)
+                .queryParam("unit", "F")
+                .queryParam("begin", firstPoint)
+                .queryParam("end", firstPoint)
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/batch-retrieve")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                // the upper case duplicate is only retrieved once
+                .body("'time-series'.size()", equalTo(1))
+                .body("'time-series'[0].name", equalTo(tsId))
+                .body("'time-series'[0].values.size()", equalTo(1))
+                .body("'time-series'[0].values[0][0]", equalTo(1675335600000L))
+                .body("'time-series'[0].values[0][1]", closeTo(35, 0.0001))
+                .body("'not-found'.size()", equalTo(1))
+                .body("'not-found'[0]", equalTo(missing));
+
+        // names differing from the stored one only in case resolve, as they do on GET
+        String mixedCase = swapCase(tsId);
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSON)
+                .body(mapper.writeValueAsString(new String[]{mixedCase}))
+                .queryParam("office", officeId)
+                .queryParam("unit", "F")
+                .queryParam("begin", firstPoint)
+                .queryParam("end", firstPoint)
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/batch-retrieve")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("'time-series'.size()", equalTo(1))
+                .body("'time-series'[0].name", equalTo(tsId))
+                .body("'time-series'[0].values.size()", equalTo(1))
+                .body("'not-found'.size()", equalTo(0));
+    }
+
+    private static String swapCase(String value) {
+        StringBuilder swapped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c)
+                    : Character.toUpperCase(c));
+        }
+        return swapped.toString();
+    }
+
+    @Test
+    void test_batch_store() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        InputStream resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/1day_offset.json");
+        assertNotNull(resource);
+        JsonNode ts = mapper.readTree(IOUtils.toString(resource, "UTF-8"));
+        resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/1day_offset_bad_units.json");
+        assertNotNull(resource);
+        JsonNode badUnits = mapper.readTree(IOUtils.toString(resource, "UTF-8"));
+
+        String tsId = ts.get("name").asText();
+        String location = tsId.split("\\.")[0];
+        String officeId = ts.get("office-id").asText();
+
+        createLocation(location, true, officeId);
+
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        // the bad units don't keep the good series from being stored
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSON)
+                .contentType(Formats.JSONV2)
+                .body(mapper.writeValueAsString(mapper.createArrayNode().add(badUnits).add(ts)))
+                .header("Authorization", user.toHeaderValue())
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/batch")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("size()", equalTo(2))
+                .body("[0].stored", equalTo(false))
+                .body("[0].message", containsString("is not a recognized CWMS Database unit"))
+                .body("[1].name", equalTo(tsId))
+                .body("[1].stored", equalTo(true))
+                .body("[1].'value-count'", equalTo(2));
+
+        given()
+                .config(RestAssured.config().jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE)))
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .queryParam("office", officeId)
+                .queryParam("unit", "F")
+                .queryParam("name", tsId)
+                .queryParam("begin", "2023-02-02T06:00:00-05:00")
+                .queryParam("end", "2023-02-03T06:00:00-05:00")
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .get("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("values.size()", equalTo(2))
+                .body("values[1][1]", closeTo(36, 0.0001));
+    }
+
     @Test
     void test_lrl_1day_bad_units() throws Exception {
         ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,142 @@
+package cwms.cda.api.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import fixtures.TestHttpServletResponse;
+import cwms.cda.data.dao.AuthDao;
+import cwms.cda.security.DataApiPrincipal;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.util.ContextUtil;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+
+class CachedGetHandlerTest {
+
+    private static Context context(String method, String path, String query, String accept) {
+        return context(mock(HttpServletRequest.class), method, path, query, accept);
+    }
+
+    private static Context context(HttpServletRequest request, String method, String path,
+                                   String query, String accept) {
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn("/cwms-data" + path);
+        when(request.getContextPath()).thenReturn("/cwms-data");
+        when(request.getQueryString()).thenReturn(query);
+        when(request.getHeader(Header.ACCEPT)).thenReturn(accept);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(ContextUtil.maxRequestSizeKey, Integer.MAX_VALUE);
+        return ContextUtil.init(request, new TestHttpServletResponse(), "*", new HashMap<>(),
+                HandlerType.valueOf(method), attributes);
+    }
+
+    @Test
+    void testRepeatedGetIsServedFromCache() throws Exception {
+        ResponseCache cache = new InMemoryResponseCache(1024 * 1024, new MetricRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        Handler units = ctx -> {
+            ctx.header("Content-Version", "1");
+            ctx.contentType("application/json");
+            ctx.result("units " + calls.incrementAndGet());
+        };
+        Handler handler = new CachedGetHandler(cache, units, 1, TimeUnit.HOURS);
+
+        Context first = context("GET", "/units", "office=SPK&format=json", "application/json");
+        handler.handle(first);
+        assertEquals("units 1", first.resultString());
+
+        // same parameters in another order
+        Context second = context("GET", "/units", "format=json&office=SPK", "application/json");
+        handler.handle(second);
+        assertEquals("units 1", second.resultString());
+        assertEquals("1", second.res.getHeader("Content-Version"));
+        assertEquals(1, calls.get());
+
+        Context otherAccept = context("GET", "/units", "office=SPK&format=json",
+                "application/xml");
+        handler.handle(otherAccept);
+        assertEquals("units 2", otherAccept.resultString());
+
+        new InvalidatingHandler(cache, "/units/", ctx -> { })
+                .handle(context("POST", "/units", null, null));
+        Context afterWrite = context("GET", "/units", "office=SPK&format=json",
+                "application/json");
+        handler.handle(afterWrite);
+        assertEquals("units 3", afterWrite.resultString());
+    }
+
+    @Test
+    void testResponseReadBeforeAWriteIsNotCached() throws Exception {
+        ResponseCache cache = new InMemoryResponseCache(1024 * 1024, new MetricRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        Handler units = ctx -> {
+            ctx.result("units " + calls.incrementAndGet());
+            // the write lands after the read, before the response is kept
+            if (calls.get() == 1) {
+                new InvalidatingHandler(cache, "/units/", write -> { })
+                        .handle(context("POST", "/units", null, null));
+            }
+        };
+        Handler handler = new CachedGetHandler(cache, units, 1, TimeUnit.HOURS);
+
+        handler.handle(context("GET", "/units", null, null));
+        Context afterWrite = context("GET", "/units", null, null);
+        handler.handle(afterWrite);
+        assertEquals("units 2", afterWrite.resultString());
+    }
+
+    @Test
+    void testErrorsAreNotCached() throws Exception {
+        ResponseCache cache = new InMemoryResponseCache(1024 * 1024, new MetricRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        Handler notFound = ctx -> {
+            calls.incrementAndGet();
+            ctx.status(404).result("not found");
+        };
+        Handler handler = new CachedGetHandler(cache, notFound, 1, TimeUnit.HOURS);
+
+        handler.handle(context("GET", "/offices/XYZ", null, null));
+        handler.handle(context("GET", "/offices/XYZ", null, null));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testCallersAndRelativeTimesAreNotCached() throws Exception {
+        ResponseCache cache = new InMemoryResponseCache(1024 * 1024, new MetricRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        Handler offices = ctx -> ctx.result("offices " + calls.incrementAndGet());
+        Handler handler = new CachedGetHandler(cache, offices, 1, TimeUnit.HOURS);
+
+        HttpServletRequest withKey = mock(HttpServletRequest.class);
+        when(withKey.getHeader(Header.AUTHORIZATION)).thenReturn("apikey 1234");
+        handler.handle(context(withKey, "GET", "/offices", null, null));
+        handler.handle(context(withKey, "GET", "/offices", null, null));
+        assertEquals(2, calls.get());
+
+        HttpServletRequest withPrincipal = mock(HttpServletRequest.class);
+        when(withPrincipal.getAttribute(AuthDao.DATA_API_PRINCIPAL)).thenReturn(
+                mock(DataApiPrincipal.class));
+        handler.handle(context(withPrincipal, "GET", "/offices", null, null));
+        handler.handle(context(withPrincipal, "GET", "/offices", null, null));
+        assertEquals(4, calls.get());
+
+        handler.handle(context("GET", "/offices", "begin=PT-24H", null));
+        handler.handle(context("GET", "/offices", "begin=PT-24H", null));
+        assertEquals(6, calls.get());
+
+        // an office that starts with P is not a time
+        handler.handle(context("GET", "/offices", "office=POA", null));
+        handler.handle(context("GET", "/offices", "office=POA", null));
+        assertEquals(7, calls.get());
+    }
+}
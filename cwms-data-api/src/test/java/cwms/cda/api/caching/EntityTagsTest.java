@@ -0,0 +1,55 @@
+package cwms.cda.api.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import fixtures.TestHttpServletResponse;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+
+class EntityTagsTest {
+
+    private static Context context(String query, String accept) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRequestURI()).thenReturn("/cwms-data/timeseries");
+        when(request.getQueryString()).thenReturn(query);
+        when(request.getHeader(Header.ACCEPT)).thenReturn(accept);
+        return new Context(request, new TestHttpServletResponse(), new LinkedHashMap<>());
+    }
+
+    @Test
+    void testTagFollowsVersionAndRequest() {
+        Instant begin = Instant.parse("2023-02-02T00:00:00Z");
+        String tag = EntityTags.strong(context("name=a&office=SPK", "application/json"), "1:2:3",
+                begin);
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+        // parameter order doesn't matter
+        assertEquals(tag, EntityTags.strong(context("office=SPK&name=a", "application/json"),
+                "1:2:3", begin));
+
+        assertNotEquals(tag, EntityTags.strong(context("name=a&office=SPK", "application/json"),
+                "1:3:3", begin));
+        assertNotEquals(tag, EntityTags.strong(context("name=a&office=SPK", "application/xml"),
+                "1:2:3", begin));
+        assertNotEquals(tag, EntityTags.strong(context("name=a&office=SPK", "application/json"),
+                "1:2:3", begin.plusSeconds(1)));
+    }
+
+    @Test
+    void testMatches() {
+        String tag = "\"abc\"";
+        assertTrue(EntityTags.matches("\"abc\"", tag));
+        assertTrue(EntityTags.matches("\"xyz\", W/\"abc\"", tag));
+        assertTrue(EntityTags.matches("*", tag));
+        assertFalse(EntityTags.matches(null, tag));
+        assertFalse(EntityTags.matches("\"abcd\"", tag));
+    }
+}
@@ -0,0 +1,101 @@
+package cwms.cda.api.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class InMemoryResponseCacheTest {
+
+    private static CachedResponse response(String path, int size) {
+        return new CachedResponse(path, "application/json", Collections.emptyMap(),
+                new byte[size]);
+    }
+
+    private static long count(MetricRegistry metrics, String name) {
+        return metrics.counter(MetricRegistry.name(ResponseCache.class.getName(), name))
+                .getCount();
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        MetricRegistry metrics = new MetricRegistry();
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024, metrics);
+        cache.put(cache.generation(), "/cwms-data/units?\n", response("/cwms-data/units", 10), 1,
+                TimeUnit.HOURS);
+
+        assertNotNull(cache.get("/cwms-data/units?\n"));
+        assertNull(cache.get("/cwms-data/units?\napplication/xml"));
+        assertEquals(1, count(metrics, "hits"));
+        assertEquals(1, count(metrics, "misses"));
+    }
+
+    @Test
+    void testExpiry() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024,
+                new MetricRegistry());
+        cache.put(cache.generation(), "/cwms-data/offices?\n", response("/cwms-data/offices", 10),
+                0, TimeUnit.SECONDS);
+        assertNull(cache.get("/cwms-data/offices?\n"));
+    }
+
+    @Test
+    void testInvalidateResourceAndBelow() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024,
+                new MetricRegistry());
+        cache.put(cache.generation(), "a", response("/cwms-data/units", 10), 1, TimeUnit.HOURS);
+        cache.put(cache.generation(), "b", response("/cwms-data/units/ft", 10), 1, TimeUnit.HOURS);
+        cache.put(cache.generation(), "c", response("/cwms-data/units-other", 10), 1,
+                TimeUnit.HOURS);
+        cache.put(cache.generation(), "d", response("/cwms-data/offices", 10), 1, TimeUnit.HOURS);
+
+        cache.invalidate("/cwms-data/units");
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    void testPutAfterInvalidationIsSkipped() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024,
+                new MetricRegistry());
+        long generation = cache.generation();
+        // a write to another resource lands while the response is read
+        cache.invalidate("/cwms-data/offices");
+        cache.put(generation, "a", response("/cwms-data/units", 10), 1, TimeUnit.HOURS);
+        assertNull(cache.get("a"));
+
+        cache.put(cache.generation(), "a", response("/cwms-data/units", 10), 1, TimeUnit.HOURS);
+        assertNotNull(cache.get("a"));
+    }
+
+    @Test
+    void testEvictsWhenFull() {
+        MetricRegistry metrics = new MetricRegistry();
+        InMemoryResponseCache cache = new InMemoryResponseCache(10 * 1024, metrics);
+        for (int i = 0; i < 20; i++) {
+            cache.put(cache.generation(), "key" + i, response("/cwms-data/parameters", 1024), 1,
+                    TimeUnit.HOURS);
+        }
+        assertTrue(count(metrics, "evictions") >= 10);
+        long bytes = (Long) metrics.getGauges()
+                .get(MetricRegistry.name(ResponseCache.class.getName(), "bytes")).getValue();
+        assertTrue(bytes <= 10 * 1024);
+    }
+
+    @Test
+    void testIsAtOrBelow() {
+        assertTrue(InMemoryResponseCache.isAtOrBelow("/a/units", "/a/units"));
+        assertTrue(InMemoryResponseCache.isAtOrBelow("/a/units/ft", "/a/units"));
+        assertFalse(InMemoryResponseCache.isAtOrBelow("/a/unitsx", "/a/units"));
+        assertFalse(InMemoryResponseCache.isAtOrBelow("/a/offices", "/a/units"));
+    }
+}
@@ -0,0 +1,82 @@
+package cwms.cda.api.lanes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RequestLanesTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "GET, /timeseries, READ",
+        "GET, /timeseries/recent/SWT, READ",
+        "GET, /catalog/TIMESERIES, READ",
+        "GET, /levels/Loc.Elev.Inst.0.Top/timeseries, READ",
+        "GET, /blobs/A, READ",
+        "POST, /timeseries/batch-retrieve, READ",
+        "POST, /ratings/ALBT.Stage;Flow.COE.Production/rate, READ",
+        "GET, /timeseries/group, METADATA",
+        "GET, /ratings/spec/ALBT.Stage;Flow.COE.Production, METADATA",
+        "GET, /offices, METADATA",
+        "GET, /timeseriesx, METADATA",
+        "OPTIONS, /timeseries, METADATA",
+        "POST, /timeseries, WRITE",
+        "PATCH, /locations/ALBT, WRITE",
+        "DELETE, /blobs/A, WRITE",
+    })
+    void testLanes(String method, String path, Lane expected) {
+        assertEquals(expected, Lane.of(method, path));
+    }
+
+    @Test
+    void testFullLaneRejects() throws Exception {
+        Map<Lane, Integer> one = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            one.put(lane, 1);
+        }
+        MetricRegistry metrics = new MetricRegistry();
+        RequestLanes lanes = new RequestLanes(one, one, false, 7, metrics);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+        try {
+            lanes.execute(Lane.READ, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            lanes.execute(Lane.READ, () -> { });
+            assertThrows(RejectedExecutionException.class,
+                    () -> lanes.execute(Lane.READ, () -> { }));
+
+            // a busy lane doesn't hold up the others
+            lanes.execute(Lane.METADATA, other::countDown);
+            assertTrue(other.await(5, TimeUnit.SECONDS));
+
+            String name = MetricRegistry.name(RequestLanes.class.getName(), "read");
+            assertEquals(1, metrics.meter(MetricRegistry.name(name, "rejected")).getCount());
+            assertEquals(1, metrics.getGauges().get(MetricRegistry.name(name, "queued"))
+                    .getValue());
+            // the running request and the rejected one, the queued one is still waiting
+            assertEquals(2, metrics.timer(MetricRegistry.name(name, "wait")).getCount());
+            assertEquals(7, lanes.getRetryAfterSeconds());
+        } finally {
+            release.countDown();
+            lanes.shutdown();
+        }
+    }
+}
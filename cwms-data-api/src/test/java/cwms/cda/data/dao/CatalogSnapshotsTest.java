@@ -0,0 +1,76 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import cwms.cda.data.dto.catalog.CatalogEntry;
+import cwms.cda.data.dto.catalog.LocationCatalogEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CatalogSnapshotsTest {
+
+    private static CatalogSnapshots.Snapshot snapshot() {
+        return new CatalogSnapshots.Builder()
+                .add("SWT", "Keys", 3)
+                .add("spk", "Black_Butte", 1)
+                .add("SWT", "ARBU", 2)
+                .add("SPK", "Pine_Flat", 4)
+                .build();
+    }
+
+    @Test
+    void testPagesFollowTheCursor() {
+        CatalogSnapshots.Snapshot snapshot = snapshot();
+        assertEquals(4, snapshot.size());
+        assertEquals(Arrays.asList(1L, 4L), snapshot.codes(0, 2));
+
+        int from = snapshot.after("SPK", "PINE_FLAT");
+        assertEquals(2, from);
+        assertEquals(Arrays.asList(2L, 3L), snapshot.codes(from, 2));
+        assertEquals(4, snapshot.after("SWT", "KEYS"));
+        assertEquals(0, snapshot.codes(4, 2).size());
+        // a cursor whose entry is gone still lands after where it was
+        assertEquals(3, snapshot.after("SWT", "BBB"));
+    }
+
+    @Test
+    void testSnapshotIsSharedByEqualRequests() {
+        CatalogSnapshots snapshots = new CatalogSnapshots(100, 1, TimeUnit.MINUTES);
+        CatalogRequestParameters params = new CatalogRequestParameters.Builder()
+                .withOffice("SWT").withIdLike(".*").build();
+        AtomicInteger loads = new AtomicInteger();
+
+        CatalogSnapshots.Snapshot first = snapshots.get(CatalogSnapshots.Kind.TIMESERIES,
+                params, () -> {
+                    loads.incrementAndGet();
+                    return snapshot();
+                });
+        CatalogSnapshots.Snapshot second = snapshots.get(CatalogSnapshots.Kind.TIMESERIES,
+                CatalogRequestParameters.Builder.from(params).build(), () -> {
+                    loads.incrementAndGet();
+                    return snapshot();
+                });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertNull(snapshots.getIfPresent(CatalogSnapshots.Kind.LOCATIONS, params));
+        assertNull(snapshots.getIfPresent(CatalogSnapshots.Kind.TIMESERIES,
+                CatalogRequestParameters.Builder.from(params).withIdLike("A.*").build()));
+    }
+
+    @Test
+    void testEntriesAreSortedLikeTheSnapshot() {
+        List<CatalogEntry> entries = CatalogSnapshots.inSnapshotOrder(Arrays.asList(
+                new LocationCatalogEntry.Builder().officeId("SWT").name("abc").build(),
+                new LocationCatalogEntry.Builder().officeId("SWT").name("ABD").build(),
+                new LocationCatalogEntry.Builder().officeId("SPK").name("zzz").build()));
+        assertEquals("SPK/ZZZ", entries.get(0).getCursor());
+        assertEquals("SWT/ABC", entries.get(1).getCursor());
+        assertEquals("SWT/ABD", entries.get(2).getCursor());
+    }
+}
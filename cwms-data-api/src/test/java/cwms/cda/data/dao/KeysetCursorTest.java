@@ -0,0 +1,122 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cwms.cda.data.dto.CwmsDTOPaginated;
+import cwms.cda.data.dto.TimeSeriesIdentifierDescriptors;
+import cwms.cda.data.dto.rating.RatingMetadata;
+import cwms.cda.data.dto.rating.RatingMetadataList;
+import cwms.cda.data.dto.rating.RatingSpecs;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+    private static final Field<String> OFFICE = DSL.field(DSL.name("OFFICE_ID"), SQLDataType.VARCHAR);
+    private static final Field<Double> VALUE = DSL.field(DSL.name("ATTRIBUTE_VALUE"), SQLDataType.DOUBLE);
+    private static final Field<Timestamp> DATE = DSL.field(DSL.name("LEVEL_DATE"), SQLDataType.TIMESTAMP);
+    private static final KeysetCursor KEYS = new KeysetCursor(DSL.upper(OFFICE), VALUE, DATE);
+    private static final DSLContext dsl = DSL.using(SQLDialect.DEFAULT);
+
+    private static Record last(String office, Double value, Timestamp date) {
+        Record record = dsl.newRecord(KEYS.fields().toArray(new Field<?>[0]));
+        record.fromArray(office, value, date);
+        return record;
+    }
+
+    @Test
+    void testFirstPage() {
+        KeysetCursor.Page page = KEYS.page(null, 50);
+        assertEquals("0", page.getPage());
+        assertEquals(0, page.getOffset());
+        assertEquals(50, page.getPageSize());
+        assertNull(page.getTotal());
+        assertEquals(dsl.renderInlined(DSL.noCondition()), dsl.renderInlined(page.condition()));
+    }
+
+    @Test
+    void testNextPageSeeksPastTheLastRow() {
+        Timestamp date = new Timestamp(1_700_000_000_000L);
+        String next = KEYS.next(last("SWT", 12.5, date));
+        String cursor = CwmsDTOPaginated.encodeCursor(next, 100, 1234);
+
+        KeysetCursor.Page page = KEYS.page(cursor, 20);
+        assertEquals(next, page.getPage());
+        assertEquals(0, page.getOffset());
+        assertEquals(100, page.getPageSize());
+        assertEquals(1234, page.getTotal());
+
+        String expected = dsl.renderInlined(DSL.or(
+                DSL.and(DSL.upper(OFFICE).gt("SWT").or(DSL.upper(OFFICE).isNull())),
+                DSL.and(DSL.upper(OFFICE).eq("SWT"), VALUE.gt(12.5).or(VALUE.isNull())),
+                DSL.and(DSL.upper(OFFICE).eq("SWT"), VALUE.eq(12.5),
+                        DATE.gt(date).or(DATE.isNull()))));
+        assertEquals(expected, dsl.renderInlined(page.condition()));
+    }
+
+    @Test
+    void testNullKeysOnlyTie() {
+        String next = KEYS.next(last("SWT", null, null));
+        KeysetCursor.Page page = KEYS.page(CwmsDTOPaginated.encodeCursor(next, 10, null), 10);
+
+        String expected = dsl.renderInlined(DSL.or(
+                DSL.and(DSL.upper(OFFICE).gt("SWT").or(DSL.upper(OFFICE).isNull()))));
+        assertEquals(expected, dsl.renderInlined(page.condition()));
+        assertEquals(next, page.getPage());
+    }
+
+    @Test
+    void testOffsetCursorsStillWork() {
+        KeysetCursor.Page page = KEYS.page(CwmsDTOPaginated.encodeCursor("500", 100, null), 20);
+        assertEquals(500, page.getOffset());
+        assertEquals(100, page.getPageSize());
+        assertEquals(dsl.renderInlined(DSL.noCondition()), dsl.renderInlined(page.condition()));
+    }
+
+    @Test
+    void testCursorFromAnotherList() {
+        KeysetCursor offices = new KeysetCursor(OFFICE);
+        Record record = dsl.newRecord(offices.fields().get(0));
+        record.fromArray("SWT");
+        String next = offices.next(record);
+        String cursor = CwmsDTOPaginated.encodeCursor(next, 10, null);
+        assertThrows(IllegalArgumentException.class, () -> KEYS.page(cursor, 10));
+    }
+
+    @Test
+    void testListsHandBackTheNextKey() {
+        KeysetCursor ids = new KeysetCursor(OFFICE);
+        Record record = dsl.newRecord(ids.fields().get(0));
+        record.fromArray("SWT");
+        String next = ids.next(record);
+
+        RatingSpecs specs = new RatingSpecs.Builder("0", 10, null)
+                .withNextPage(next)
+                .specs(new ArrayList<>())
+                .build();
+        assertEquals(next, ids.page(specs.getNextPage(), 5).getPage());
+        assertEquals(10, ids.page(specs.getNextPage(), 5).getPageSize());
+
+        TimeSeriesIdentifierDescriptors descriptors =
+                new TimeSeriesIdentifierDescriptors.Builder("0", 10, null)
+                        .withDescriptors(new ArrayList<>())
+                        .build();
+        assertNull(descriptors.getNextPage());
+
+        RatingMetadataList metadata = new RatingMetadataList.Builder(10)
+                .withMetadata(Collections.singletonList(new RatingMetadata.Builder().build()))
+                .withPage(next)
+                .withNextPage(next)
+                .build();
+        assertEquals(next, ids.page(metadata.getNextPage(), 5).getPage());
+    }
+}
@@ -0,0 +1,112 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.geojson.Feature;
+import org.geojson.FeatureCollection;
+import org.geojson.Point;
+import org.junit.jupiter.api.Test;
+
+class LocationFeatureIndexTest {
+
+    private static Feature feature(String id, double longitude, double latitude) {
+        Feature feature = new Feature();
+        feature.setId(id);
+        feature.setGeometry(new Point(longitude, latitude));
+        return feature;
+    }
+
+    private static LocationFeatureIndex.Snapshot snapshot() {
+        LocationFeatureIndex.Builder builder = new LocationFeatureIndex.Builder();
+        for (Feature feature : Arrays.asList(
+                feature("KEYS", -96.25, 36.15),
+                feature("ARBU", -96.90, 34.40),
+                feature("TULSA", -95.99, 36.15),
+                feature("BLACK_BUTTE", -122.35, 39.81),
+                feature("PINE_FLAT", -119.32, 36.83),
+                feature("ATTU", 173.19, 52.92),
+                feature("SEWARD", -149.44, 60.10))) {
+            builder.add(feature, feature.getId());
+        }
+        return builder.build();
+    }
+
+    private static Set<String> ids(FeatureCollection collection) {
+        return collection.getFeatures().stream().map(Feature::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    void testFeaturesInsideTheBox() {
+        LocationFeatureIndex index = new LocationFeatureIndex(1, TimeUnit.MINUTES, 10);
+        LocationFeatureIndex.Snapshot snapshot = snapshot();
+
+        FeatureCollection oklahoma = index.query(snapshot,
+                new double[]{-98.5, 34.0, -94.4, 37.1}, null, null);
+        assertEquals(new HashSet<>(Arrays.asList("KEYS", "ARBU", "TULSA")), ids(oklahoma));
+
+        FeatureCollection keysOnly = index.query(snapshot,
+                new double[]{-96.26, 36.14, -96.24, 36.16}, 18, null);
+        assertEquals(Collections.singleton("KEYS"), ids(keysOnly));
+
+        FeatureCollection named = index.query(snapshot,
+                new double[]{-180, -90, 180, 90}, null, new HashSet<>(Arrays.asList("ARBU",
+                        "PINE_FLAT", "MISSING")));
+        assertEquals(new HashSet<>(Arrays.asList("ARBU", "PINE_FLAT")), ids(named));
+
+        FeatureCollection pacific = index.query(snapshot,
+                new double[]{170, 50, -140, 65}, null, null);
+        assertEquals(new HashSet<>(Arrays.asList("ATTU", "SEWARD")), ids(pacific));
+    }
+
+    @Test
+    void testLowZoomClusters() {
+        LocationFeatureIndex index = new LocationFeatureIndex(1, TimeUnit.MINUTES, 10);
+        FeatureCollection collection = index.query(snapshot(),
+                new double[]{-130, 30, -90, 45}, 4, null);
+
+        List<Feature> clusters = collection.getFeatures().stream()
+                .filter(f -> Boolean.TRUE.equals(f.getProperty(LocationFeatureIndex.CLUSTER)))
+                .collect(Collectors.toList());
+        assertEquals(1, clusters.size());
+        Feature cluster = clusters.get(0);
+        assertEquals(3, (int) cluster.getProperty(LocationFeatureIndex.POINT_COUNT));
+        Point center = (Point) cluster.getGeometry();
+        assertEquals((-96.25 - 96.90 - 95.99) / 3, center.getCoordinates().getLongitude(), 1e-9);
+        assertEquals(-96.90, cluster.getBbox()[0], 1e-9);
+        assertEquals(36.15, cluster.getBbox()[3], 1e-9);
+        // the California locations are each alone in their cell
+        assertEquals(new HashSet<>(Arrays.asList("BLACK_BUTTE", "PINE_FLAT")),
+                collection.getFeatures().stream()
+                        .filter(f -> f.getId() != null)
+                        .map(Feature::getId).collect(Collectors.toSet()));
+
+        FeatureCollection detailed = index.query(snapshot(),
+                new double[]{-130, 30, -90, 45}, 10, null);
+        assertEquals(5, detailed.getFeatures().size());
+        assertTrue(detailed.getFeatures().stream().allMatch(f -> f.getId() != null));
+    }
+
+    @Test
+    void testChangedOfficeIsReadAgain() {
+        LocationFeatureIndex index = new LocationFeatureIndex(1, TimeUnit.MINUTES, 10);
+        LocationFeatureIndex.Snapshot first = index.get("SWT", "SI",
+                LocationFeatureIndexTest::snapshot);
+        assertSame(first, index.get("SWT", "SI", LocationFeatureIndexTest::snapshot));
+        LocationFeatureIndex.Snapshot other = index.get("SPK", "SI",
+                LocationFeatureIndexTest::snapshot);
+
+        index.invalidate("swt");
+        assertNotSame(first, index.get("SWT", "SI", LocationFeatureIndexTest::snapshot));
+        assertSame(other, index.get("SPK", "SI", LocationFeatureIndexTest::snapshot));
+    }
+}
@@ -0,0 +1,169 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LocationIndexTest {
+    private static final List<LocationIndex.Entry> LOCATIONS = Arrays.asList(
+            new LocationIndex.Entry("SWT", "KEYS", 1, "PROJECT", "Dam", "SWT"),
+            new LocationIndex.Entry("SWT", "Keystone_Lake", 2, "SITE", null, "SWT"),
+            new LocationIndex.Entry("SWT", "ARBU", 3, "STREAMGAGE", null, null),
+            new LocationIndex.Entry("SPK", "Black_Butte", 4, "PROJECT", "Dam", "SPK"),
+            new LocationIndex.Entry("SPK", "Black_Butte-Outlet", 5, "OUTLET", null, "SPK"),
+            new LocationIndex.Entry("SPK", "Pine_Flat_Lake", 6, "PROJECT", null, "SPK"),
+            new LocationIndex.Entry("SPK", "Keys", 7, "SITE", null, "SPK"));
+
+    private static LocationIndex.Contents contents(List<LocationIndex.Entry> entries) {
+        LocationIndex.Builder builder = new LocationIndex.Builder();
+        entries.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static LocationIndex index() {
+        return new LocationIndex(5, TimeUnit.MINUTES, 1000);
+    }
+
+    private static List<Long> find(LocationIndex index, String office, String idLike,
+                                   String kindLike) {
+        List<Long> codes = index.find(LocationIndex.Query.of(office, idLike, kindLike, null,
+                null), () -> contents(LOCATIONS));
+        Collections.sort(codes);
+        return codes;
+    }
+
+    @Test
+    void testSearches() {
+        LocationIndex index = index();
+        assertEquals(Arrays.asList(1L, 2L, 7L), find(index, null, "^keys", null));
+        assertEquals(Arrays.asList(1L, 7L), find(index, null, "^KEYS$", null));
+        assertEquals(Arrays.asList(1L, 2L), find(index, "swt", "^KeY", null));
+        assertEquals(Arrays.asList(2L, 6L), find(index, null, "lake", null));
+        assertEquals(Arrays.asList(4L, 5L), find(index, null, "butte", null));
+        assertEquals(Collections.singletonList(5L), find(index, null, "Butte-[a-z]+", null));
+        assertEquals(Arrays.asList(3L, 4L, 5L), find(index, null, "ARBU|Black", null));
+        assertEquals(Arrays.asList(1L, 4L, 6L), find(index, null, null, "^project$"));
+        assertEquals(Arrays.asList(4L, 6L), find(index, null, "_", "proj"));
+        assertEquals(Collections.emptyList(), find(index, null, "^zzz", null));
+    }
+
+    @Test
+    void testNullFieldsNeverMatch() {
+        List<Long> codes = index().find(LocationIndex.Query.of(null, null, null, ".*", null),
+                () -> contents(LOCATIONS));
+        Collections.sort(codes);
+        assertEquals(Arrays.asList(1L, 4L), codes);
+    }
+
+    @Test
+    void testQueriesTheIndexCannotAnswer() {
+        assertNull(LocationIndex.Query.of("SWT", null, null, null, null));
+        assertNull(LocationIndex.Query.of(null, ".*", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "[[:alpha:]]", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "(a)\\1", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "[a\\]]", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "(?i)keys", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "a*+", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "[a-z&&[^k]]", null, null, null));
+        assertNull(LocationIndex.Query.of(null, "keys", "(", null, null));
+        assertNotNull(LocationIndex.Query.of(null, "^Black_Butte\\.\\d{2,}$", null, null, null));
+
+        LocationIndex small = new LocationIndex(5, TimeUnit.MINUTES, 2);
+        assertNull(small.find(LocationIndex.Query.of(null, "e", null, null, null),
+                () -> contents(LOCATIONS)));
+    }
+
+    @Test
+    void testLiterals() {
+        LocationIndex.Literals literals = LocationIndex.Literals.of("^Black_But+e");
+        assertEquals(LocationIndex.fold("Black_But"), literals.prefix);
+        assertEquals(LocationIndex.fold("Black_But"), literals.longest);
+
+        literals = LocationIndex.Literals.of("x?Pine(_Flat)?_Lake");
+        assertNull(literals.prefix);
+        assertEquals(LocationIndex.fold("_Lake"), literals.longest);
+
+        literals = LocationIndex.Literals.of("^a{3}b.*Outlet$");
+        assertEquals(LocationIndex.fold("aaab"), literals.prefix);
+        assertEquals(LocationIndex.fold("Outlet"), literals.longest);
+
+        literals = LocationIndex.Literals.of("Lake|Dam");
+        assertNull(literals.prefix);
+        assertNull(literals.longest);
+    }
+
+    @Test
+    void testChangesApplyBeforeReload() {
+        LocationIndex index = index();
+        AtomicInteger loads = new AtomicInteger();
+        LocationIndex.Query query = LocationIndex.Query.of(null, "^keys", null, null, null);
+        index.find(query, () -> {
+            loads.incrementAndGet();
+            return contents(LOCATIONS);
+        });
+
+        index.remove("spk", "KEYS");
+        index.put(new LocationIndex.Entry("SWT", "Keyhole", 8, "SITE", null, null));
+        index.remove("SWT", "Keystone_Lake");
+        index.put(new LocationIndex.Entry("SWT", "Keystone_Reservoir", 2, "SITE", null, null));
+        List<Long> codes = index.find(query, () -> {
+            loads.incrementAndGet();
+            return contents(LOCATIONS);
+        });
+        Collections.sort(codes);
+        assertEquals(Arrays.asList(1L, 2L), codes);
+        assertEquals(Collections.singletonList(8L), index.find(
+                LocationIndex.Query.of(null, "hole", null, null, null), () -> null));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testReloadDropsChangesItContains() throws Exception {
+        LocationIndex index = new LocationIndex(0, TimeUnit.NANOSECONDS, 1000);
+        LocationIndex.Query query = LocationIndex.Query.of(null, "^new", null, null, null);
+        index.find(query, () -> contents(LOCATIONS));
+        index.put(new LocationIndex.Entry("SWT", "New_Location", 9, "SITE", null, null));
+        Thread.sleep(1);
+
+        List<LocationIndex.Entry> reloaded = new ArrayList<>(LOCATIONS);
+        reloaded.add(new LocationIndex.Entry("SWT", "New_Location", 9, "SITE", null, null));
+        assertEquals(Collections.singletonList(9L), index.find(query, () -> contents(reloaded)));
+        // once the load covers it, the change is gone and the contents answer alone
+        assertEquals(Collections.emptyList(), index.find(query, () -> contents(LOCATIONS)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"^loc_1", "_12", "7$", "^LOC_[0-9]{2}$", "oc_(1|2)3", "c_9.9",
+            "_1+0", "^l?oc_5", "x*_42", "OC_\\d1"})
+    void testSameAsScanningEveryId(String regex) {
+        List<LocationIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            entries.add(new LocationIndex.Entry(i % 2 == 0 ? "SWT" : "SPK", "Loc_" + i, i,
+                    null, null, null));
+        }
+        LocationIndex index = new LocationIndex(5, TimeUnit.MINUTES, 10000);
+        List<Long> codes = index.find(LocationIndex.Query.of(null, regex, null, null, null),
+                () -> contents(entries));
+        Collections.sort(codes);
+
+        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (pattern.matcher("Loc_" + i).find()) {
+                expected.add((long) i);
+            }
+        }
+        assertEquals(expected, codes);
+    }
+}
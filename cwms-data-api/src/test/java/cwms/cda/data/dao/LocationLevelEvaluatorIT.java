@@ -0,0 +1,138 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import cwms.cda.api.DataApiTestIT;
+import cwms.cda.data.dto.LocationLevel;
+import cwms.cda.data.dto.SeasonalValueBean;
+import fixtures.CwmsDataApiSetupCallback;
+import hec.data.level.JDomLocationLevelRef;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import usace.cwms.db.jooq.codegen.udt.records.ZTSV_ARRAY;
+import usace.cwms.db.jooq.codegen.udt.records.ZTSV_TYPE;
+
+/**
+ * Checks that the values computed from the stored definitions of a level match what
+ * RETRIEVE_LOC_LVL_VALUES3 gives for the same times.
+ */
+@Tag("integration")
+class LocationLevelEvaluatorIT extends DataApiTestIT {
+    private static final String OFFICE = "SPK";
+    private static final String LOCATION = "level_evaluator";
+    private static final String UNITS = "ft";
+    private static final ZonedDateTime EFFECTIVE = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0,
+            ZoneId.of("UTC"));
+
+    private static final String CONSTANT = LOCATION + ".Elev.Inst.0.Top of Flood";
+    private static final String SEASONAL_STEP = LOCATION + ".Elev.Inst.0.Top of Conservation";
+    private static final String SEASONAL_INTERPOLATED = LOCATION + ".Elev.Inst.0.Bottom of Flood";
+
+    @BeforeAll
+    static void storeLevels() throws Exception {
+        createLocation(LOCATION, true, OFFICE);
+        List<LocationLevel> levels = Arrays.asList(
+                new LocationLevel.Builder(CONSTANT, EFFECTIVE)
+                        .withOfficeId(OFFICE)
+                        .withConstantValue(1234.5)
+                        .withLevelUnitsId(UNITS)
+                        .build(),
+                // a year of values held until the next
+                new LocationLevel.Builder(SEASONAL_STEP, EFFECTIVE)
+                        .withOfficeId(OFFICE)
+                        .withLevelUnitsId(UNITS)
+                        .withIntervalOrigin(EFFECTIVE)
+                        .withIntervalMonths(12)
+                        .withInterpolateString("false")
+                        .withSeasonalValues(Arrays.asList(
+                                seasonal(1200.0, 0, 0), seasonal(1210.0, 3, 0),
+                                seasonal(1230.0, 5, 14 * 1440), seasonal(1215.0, 9, 0)))
+                        .build(),
+                // a day of values interpolated between
+                new LocationLevel.Builder(SEASONAL_INTERPOLATED, EFFECTIVE)
+                        .withOfficeId(OFFICE)
+                        .withLevelUnitsId(UNITS)
+                        .withIntervalOrigin(EFFECTIVE)
+                        .withIntervalMinutes(1440)
+                        .withInterpolateString("true")
+                        .withSeasonalValues(Arrays.asList(
+                                seasonal(1100.0, 0, 0), seasonal(1104.0, 0, 360),
+                                seasonal(1101.5, 0, 900)))
+                        .build());
+        CwmsDataApiSetupCallback.getDatabaseLink().connection(c -> {
+            LocationLevelsDaoImpl dao = new LocationLevelsDaoImpl(dslContext(c, OFFICE));
+            for (LocationLevel level : levels) {
+                dao.storeLocationLevel(level, EFFECTIVE.getZone());
+            }
+        });
+    }
+
+    @AfterAll
+    static void deleteLevels() throws Exception {
+        CwmsDataApiSetupCallback.getDatabaseLink().connection(c -> {
+            LocationLevelsDaoImpl dao = new LocationLevelsDaoImpl(dslContext(c, OFFICE));
+            for (String levelId : Arrays.asList(CONSTANT, SEASONAL_STEP, SEASONAL_INTERPOLATED)) {
+                dao.deleteLocationLevel(levelId, EFFECTIVE, OFFICE, true);
+            }
+        });
+    }
+
+    private static SeasonalValueBean seasonal(double value, int months, long minutes) {
+        return new SeasonalValueBean.Builder(value)
+                .withOffsetMonths(months)
+                .withOffsetMinutes(BigInteger.valueOf(minutes))
+                .build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {CONSTANT, SEASONAL_STEP, SEASONAL_INTERPOLATED})
+    void testValuesMatchTheDatabase(String levelId) throws Exception {
+        List<Instant> times = new ArrayList<>();
+        // every 15 minutes for two days, then every 6 hours to the end of the second year
+        Instant time = EFFECTIVE.toInstant();
+        Instant end = EFFECTIVE.plusYears(2).toInstant();
+        while (time.isBefore(end)) {
+            times.add(time);
+            time = time.plus(times.size() < 192 ? Duration.ofMinutes(15) : Duration.ofHours(6));
+        }
+
+        CwmsDataApiSetupCallback.getDatabaseLink().connection(c -> {
+            DSLContext dsl = dslContext(c, OFFICE);
+            LocationLevelsDaoImpl dao = new LocationLevelsDaoImpl(dsl);
+            double[] computed = dao.evaluate(new JDomLocationLevelRef(OFFICE, levelId), times,
+                    UNITS);
+            assertNotNull(computed, levelId + " should be computed from its definitions");
+
+            ZTSV_ARRAY specifiedTimes = new ZTSV_ARRAY();
+            for (Instant t : times) {
+                specifiedTimes.add(new ZTSV_TYPE(Timestamp.from(t), null, null));
+            }
+            ZTSV_ARRAY stored = LocationLevelsDaoImpl.call_RETRIEVE_LOC_LVL_VALUES3(
+                    dsl.configuration(), specifiedTimes, levelId, UNITS, null, null, null,
+                    "UTC", OFFICE);
+
+            assertEquals(times.size(), stored.size());
+            for (int i = 0; i < times.size(); i++) {
+                ZTSV_TYPE expected = stored.get(i);
+                assertEquals(times.get(i), expected.getDATE_TIME().toInstant());
+                assertEquals(expected.getVALUE(), computed[i],
+                        1e-6 * Math.abs(expected.getVALUE()),
+                        levelId + " at " + times.get(i));
+            }
+        });
+    }
+}
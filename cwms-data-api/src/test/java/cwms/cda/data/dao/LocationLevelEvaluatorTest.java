@@ -0,0 +1,131 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.SeasonalValueBean;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LocationLevelEvaluatorTest {
+    private static final Instant ORIGIN = Instant.parse("2000-01-01T00:00:00Z");
+    private static final double DELTA = 1e-9;
+
+    private static SeasonalValueBean value(double value, int months, long minutes) {
+        return new SeasonalValueBean.Builder(value)
+                .withOffsetMonths(months)
+                .withOffsetMinutes(BigInteger.valueOf(minutes))
+                .build();
+    }
+
+    // a yearly cycle, 100 from the start of January and 200 from the start of July
+    private static LocationLevelEvaluator.Definition yearly(boolean interpolate) {
+        return LocationLevelEvaluator.Definition.seasonal(ORIGIN, ORIGIN, 12, 0, interpolate,
+                Arrays.asList(value(200, 6, 0), value(100, 0, 0)));
+    }
+
+    private static double at(LocationLevelEvaluator evaluator, String time) {
+        return evaluator.evaluate(Collections.singletonList(Instant.parse(time)))[0];
+    }
+
+    @Test
+    void testConstantLevelsChangeAtEachEffectiveDate() {
+        Instant second = Instant.parse("2020-06-01T00:00:00Z");
+        LocationLevelEvaluator evaluator = new LocationLevelEvaluator(Arrays.asList(
+                LocationLevelEvaluator.Definition.constant(second, 20.0),
+                LocationLevelEvaluator.Definition.constant(ORIGIN, 10.0)));
+
+        assertTrue(Double.isNaN(at(evaluator, "1999-12-31T23:59:59Z")));
+        assertEquals(10.0, at(evaluator, "2000-01-01T00:00:00Z"), DELTA);
+        assertEquals(10.0, at(evaluator, "2020-05-31T23:59:59Z"), DELTA);
+        assertEquals(20.0, at(evaluator, "2020-06-01T00:00:00Z"), DELTA);
+        assertEquals(20.0, at(evaluator, "2030-01-01T00:00:00Z"), DELTA);
+    }
+
+    @Test
+    void testSeasonalValuesAreHeldUntilTheNext() {
+        LocationLevelEvaluator evaluator = new LocationLevelEvaluator(
+                Collections.singletonList(yearly(false)));
+
+        assertEquals(100.0, at(evaluator, "2023-01-01T00:00:00Z"), DELTA);
+        assertEquals(100.0, at(evaluator, "2023-06-30T23:00:00Z"), DELTA);
+        assertEquals(200.0, at(evaluator, "2023-07-01T00:00:00Z"), DELTA);
+        assertEquals(200.0, at(evaluator, "2023-12-31T23:00:00Z"), DELTA);
+    }
+
+    @Test
+    void testSeasonalValuesAreInterpolated() {
+        LocationLevelEvaluator evaluator = new LocationLevelEvaluator(
+                Collections.singletonList(yearly(true)));
+
+        assertEquals(100.0, at(evaluator, "2023-01-01T00:00:00Z"), DELTA);
+        assertEquals(200.0, at(evaluator, "2023-07-01T00:00:00Z"), DELTA);
+        // 181 days from January to July, 184 from July to January
+        assertEquals(150.0, at(evaluator, "2023-04-01T12:00:00Z"), DELTA);
+        assertEquals(150.0, at(evaluator, "2023-10-01T00:00:00Z"), DELTA);
+    }
+
+    @Test
+    void testValuesBeforeTheFirstOffsetComeFromThePreviousCycle() {
+        // a daily cycle with values at 06:00 and 18:00
+        LocationLevelEvaluator.Definition daily = LocationLevelEvaluator.Definition.seasonal(
+                ORIGIN, ORIGIN, 0, 24 * 60, true,
+                Arrays.asList(value(10, 0, 6 * 60), value(30, 0, 18 * 60)));
+        LocationLevelEvaluator evaluator = new LocationLevelEvaluator(
+                Collections.singletonList(daily));
+
+        assertEquals(20.0, at(evaluator, "2023-03-05T00:00:00Z"), DELTA);
+        assertEquals(10.0, at(evaluator, "2023-03-05T06:00:00Z"), DELTA);
+        assertEquals(20.0, at(evaluator, "2023-03-05T12:00:00Z"), DELTA);
+        assertEquals(30.0, at(evaluator, "2023-03-05T18:00:00Z"), DELTA);
+    }
+
+    @Test
+    void testTimesBeforeTheOrigin() {
+        Instant effective = Instant.parse("1990-01-01T00:00:00Z");
+        LocationLevelEvaluator evaluator = new LocationLevelEvaluator(Collections.singletonList(
+                LocationLevelEvaluator.Definition.seasonal(effective, ORIGIN, 12, 0, false,
+                        Arrays.asList(value(100, 0, 0), value(200, 6, 0)))));
+
+        assertEquals(200.0, at(evaluator, "1995-08-01T00:00:00Z"), DELTA);
+        assertEquals(100.0, at(evaluator, "1995-02-01T00:00:00Z"), DELTA);
+    }
+
+    @Test
+    void testMatchesPointByPointOverManyCycles() {
+        LocationLevelEvaluator evaluator = new LocationLevelEvaluator(
+                Collections.singletonList(yearly(true)));
+        List<Instant> times = new ArrayList<>();
+        Instant time = Instant.parse("2021-11-15T00:00:00Z");
+        for (int i = 0; i < 2_000; i++) {
+            times.add(time);
+            time = time.plus(Duration.ofHours(7));
+        }
+
+        double[] expected = new double[times.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = evaluator.evaluate(Collections.singletonList(times.get(i)))[0];
+        }
+        assertArrayEquals(expected, evaluator.evaluate(times), DELTA);
+    }
+
+    @Test
+    void testSeasonalLevelsNeedValuesAndAnInterval() {
+        List<SeasonalValueBean> values = Collections.singletonList(value(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () ->
+                LocationLevelEvaluator.Definition.seasonal(ORIGIN, ORIGIN, 12, 0, false,
+                        Collections.emptyList()));
+        assertThrows(IllegalArgumentException.class, () ->
+                LocationLevelEvaluator.Definition.seasonal(ORIGIN, ORIGIN, 0, 0, false, values));
+        assertThrows(IllegalArgumentException.class, () ->
+                LocationLevelEvaluator.Definition.seasonal(ORIGIN, null, 12, 0, false, values));
+    }
+}
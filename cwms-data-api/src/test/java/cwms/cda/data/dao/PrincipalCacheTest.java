@@ -0,0 +1,71 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.security.DataApiPrincipal;
+import cwms.cda.security.Role;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PrincipalCacheTest {
+
+    private static DataApiPrincipal principal(String user) {
+        return new DataApiPrincipal(user, Collections.singleton(new Role("CWMS Users")));
+    }
+
+    @Test
+    void testKeysAreHashed() {
+        String hash = PrincipalCache.apiKey("secret");
+        assertFalse(hash.contains("secret"));
+        assertEquals(64, hash.length());
+        assertEquals(hash, PrincipalCache.apiKey("secret"));
+        assertNotEquals(PrincipalCache.apiKey("1234"), PrincipalCache.edipi(1234));
+    }
+
+    @Test
+    void testHitAndKeyExpiry() {
+        PrincipalCache cache = new PrincipalCache(100, 1, TimeUnit.HOURS);
+        DataApiPrincipal user = principal("USER1");
+        cache.put(PrincipalCache.apiKey("a"), user, "key a", null);
+        cache.put(PrincipalCache.apiKey("b"), user, "key b", Instant.now().minusSeconds(1));
+
+        assertSame(user, cache.get(PrincipalCache.apiKey("a")));
+        assertNull(cache.get(PrincipalCache.apiKey("b")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testInvalidateKey() {
+        PrincipalCache cache = new PrincipalCache(100, 1, TimeUnit.HOURS);
+        cache.put(PrincipalCache.apiKey("a"), principal("USER1"), "mykey", null);
+        cache.put(PrincipalCache.apiKey("b"), principal("USER2"), "mykey", null);
+        cache.put(PrincipalCache.edipi(1234), principal("USER1"), null, null);
+
+        cache.invalidateKey("user1", "mykey");
+
+        assertNull(cache.get(PrincipalCache.apiKey("a")));
+        assertEquals("USER2", cache.get(PrincipalCache.apiKey("b")).getName());
+        assertEquals("USER1", cache.get(PrincipalCache.edipi(1234)).getName());
+    }
+
+    @Test
+    void testHitRateGauge() {
+        MetricRegistry metrics = new MetricRegistry();
+        PrincipalCache cache = new PrincipalCache(100, 1, TimeUnit.HOURS);
+        cache.registerMetrics(metrics);
+        cache.put(PrincipalCache.edipi(1), principal("USER1"), null, null);
+        cache.get(PrincipalCache.edipi(1));
+        cache.get(PrincipalCache.edipi(2));
+
+        Object hitRate = metrics.getGauges().get(MetricRegistry.name(AuthDao.class.getName(),
+                PrincipalCache.NAME, "hit-rate")).getValue();
+        assertEquals(0.5, (Double) hitRate, 0.0001);
+    }
+}
@@ -220,7 +220,7 @@ class RatingMetadataDaoTestIT extends DataApiTestIT {
             String mask = "*";
 
             String office = "SWT";
-            Set<String> ratingIds = dao.getRatingIds(office, mask, 0, 100);
+            Set<String> ratingIds = dao.getRatingIds(office, mask, 100);
 
             Map<cwms.cda.data.dto.rating.RatingSpec, Set<AbstractRatingMetadata>> got
                     = dao.getRatingsForIds(office, ratingIds, null, null);
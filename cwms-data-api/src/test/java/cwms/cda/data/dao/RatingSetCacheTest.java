@@ -0,0 +1,62 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import hec.data.cwmsRating.RatingSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RatingSetCacheTest {
+    private static final RatingSet.DatabaseLoadMethod EAGER = RatingSet.DatabaseLoadMethod.EAGER;
+
+    private static RatingSetCache cache() {
+        return new RatingSetCache(10, 1, TimeUnit.HOURS, false);
+    }
+
+    @Test
+    void testKeyIgnoresCase() {
+        assertEquals(RatingSetCache.key("SWT", "ARBU.Elev;Stor.Linear.Production", 1L, null,
+                        EAGER),
+                RatingSetCache.key("swt", "arbu.elev;stor.linear.production", 1L, null, EAGER));
+    }
+
+    @Test
+    void testVersionMustMatch() {
+        RatingSetCache cache = cache();
+        RatingSet ratingSet = mock(RatingSet.class);
+        List<String> key = RatingSetCache.key("SWT", "spec", null, null, EAGER);
+        cache.put(key, "1:1:100:100", ratingSet);
+
+        assertSame(ratingSet, cache.get(key, "1:1:100:100"));
+        assertNull(cache.get(key, "2:2:200:100"));
+        // a stale set is dropped, not kept for the old version
+        assertNull(cache.get(key, "1:1:100:100"));
+    }
+
+    @Test
+    void testInvalidateSpecification() {
+        RatingSetCache cache = cache();
+        List<String> allTime = RatingSetCache.key("SWT", "spec", null, null, EAGER);
+        List<String> window = RatingSetCache.key("SWT", "spec", 1L, 2L, EAGER);
+        List<String> other = RatingSetCache.key("SWT", "other", null, null, EAGER);
+        List<String> otherOffice = RatingSetCache.key("SPK", "spec", null, null, EAGER);
+        for (List<String> key : Arrays.asList(allTime, window, other, otherOffice)) {
+            cache.put(key, "v", mock(RatingSet.class));
+        }
+
+        cache.invalidate("swt", "SPEC");
+
+        assertNull(cache.get(allTime, "v"));
+        assertNull(cache.get(window, "v"));
+        assertEquals(2, cache.size());
+
+        cache.invalidateOffice("SPK");
+        assertNull(cache.get(otherOffice, "v"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,66 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hec.data.cwmsRating.RatingSet;
+import java.time.Instant;
+import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class RatingSetDaoRateTest {
+    private static RatingSet ratingSet;
+
+    @BeforeAll
+    static void load() throws Exception {
+        String xml = JsonRatingUtilsTest.loadResourceAsString(
+                "cwms/cda/data/dao/BEAV.Stage_Flow.BASE.PRODUCTION.xml");
+        ratingSet = RatingXmlFactory.ratingSet(xml);
+    }
+
+    @Test
+    void testRateAndReverseRate() throws Exception {
+        double[] stages = {3.0, 4.5, 6.0};
+        double[] flows = RatingSetDao.rate(ratingSet, null, null, new double[][]{stages});
+        assertEquals(stages.length, flows.length);
+        assertTrue(flows[0] < flows[1] && flows[1] < flows[2]);
+
+        double[] back = RatingSetDao.reverseRate(ratingSet, null, null, flows);
+        assertArrayEquals(stages, back, 0.001);
+    }
+
+    @Test
+    void testUnitsArePutBack() throws Exception {
+        double[] feet = {4.5};
+        long[] times = {Instant.parse("2020-01-01T00:00:00Z").toEpochMilli()};
+        double[] flowFromFeet = RatingSetDao.rate(ratingSet, null, times,
+                new double[][]{feet});
+        String[] before = ratingSet.getDataUnits();
+
+        String[] units = {"m", null};
+        double[] flowFromMeters = RatingSetDao.rate(ratingSet, units, times,
+                new double[][]{{4.5 * 0.3048}});
+        assertEquals(flowFromFeet[0], flowFromMeters[0], 0.001);
+        // the missing unit was taken from the rating
+        assertEquals("cfs", units[1]);
+        assertArrayEquals(before, ratingSet.getDataUnits());
+    }
+
+    @Test
+    void testReverseRateConvertsUnits() throws Exception {
+        double[] flows = RatingSetDao.rate(ratingSet, null, null, new double[][]{{4.5}});
+        String[] units = {"m", null};
+        double[] meters = RatingSetDao.reverseRate(ratingSet, units, null, flows);
+        assertEquals(4.5 * 0.3048, meters[0], 0.001);
+        assertEquals("cfs", units[1]);
+    }
+
+    @Test
+    void testUnitCountMustMatch() {
+        assertThrows(IllegalArgumentException.class, () -> RatingSetDao.rate(ratingSet,
+                new String[]{"ft"}, null, new double[][]{{4.5}}));
+    }
+}
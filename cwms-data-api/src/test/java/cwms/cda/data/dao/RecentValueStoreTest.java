@@ -0,0 +1,212 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TsvDqu;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RecentValueStoreTest {
+    private static final String OFFICE = "SPK";
+    private static final String TS_ID = "Loc.Stage.Inst.1Hour.0.raw";
+    private static final long TS_CODE = 42;
+    private static final ZonedDateTime NOW =
+            ZonedDateTime.of(2024, 6, 1, 12, 0, 0, 0, ZoneId.of("UTC"));
+    private static final Timestamp PAST = Timestamp.from(NOW.minusDays(14).toInstant());
+    private static final Timestamp FUTURE = Timestamp.from(NOW.plusDays(14).toInstant());
+
+    private static RecentValueStore store(long pollSeconds) {
+        return new RecentValueStore(100, 600, pollSeconds, 60, TimeUnit.SECONDS);
+    }
+
+    private static Timestamp hoursFromNow(int hours) {
+        return Timestamp.from(NOW.plusHours(hours).toInstant());
+    }
+
+    private static TsvDqu value(int hours, double value) {
+        return new TsvDqu.Builder()
+                .withOfficeId(OFFICE)
+                .withCwmsTsId(TS_ID)
+                .withUnitId("m")
+                .withDateTime(hoursFromNow(hours))
+                .withValue(value)
+                .withQualityCode(0L)
+                .withStartDate(Timestamp.from(NOW.withDayOfYear(1).toInstant()))
+                .withEndDate(Timestamp.from(NOW.withDayOfYear(1).plusYears(1).toInstant()))
+                .build();
+    }
+
+    private static List<TimeSeries.Record> records(Object... hoursAndValues) {
+        TimeSeries ts = new TimeSeries(null, 0, 0, TS_ID, OFFICE, NOW, NOW, "m",
+                Duration.ofHours(1));
+        for (int i = 0; i < hoursAndValues.length; i += 2) {
+            ts.addValue(hoursFromNow((Integer) hoursAndValues[i]),
+                    (Double) hoursAndValues[i + 1], 3);
+        }
+        return ts.getValues();
+    }
+
+    private static RecentValueStore loaded(TsvDqu value) {
+        RecentValueStore store = store(60);
+        store.put(store.generation(), TS_CODE, OFFICE, TS_ID, "SI", PAST, FUTURE, value);
+        return store;
+    }
+
+    @Test
+    void testValuesAreOnlyUsedForTheSameWindow() {
+        RecentValueStore store = loaded(value(0, 1.0));
+
+        assertNotNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+        assertNull(store.get(TS_CODE, "EN", PAST, FUTURE));
+        assertNull(store.get(TS_CODE, "SI", hoursFromNow(-1), FUTURE));
+    }
+
+    @Test
+    void testSeriesWithoutAValueAreKept() {
+        RecentValueStore store = loaded(null);
+
+        RecentValueStore.Entry entry = store.get(TS_CODE, "SI", PAST, FUTURE);
+        assertNotNull(entry);
+        assertNull(entry.getValue());
+    }
+
+    @Test
+    void testLaterValuesAreWrittenThrough() {
+        RecentValueStore store = loaded(value(0, 1.0));
+
+        store.stored(OFFICE, TS_ID.toUpperCase(), "m", null, records(1, 2.0, 2, 3.0),
+                StoreRule.REPLACE_ALL);
+
+        TsvDqu latest = store.get(TS_CODE, "SI", PAST, FUTURE).getValue();
+        assertEquals(hoursFromNow(2).getTime(), latest.getDateTime().getTime());
+        assertEquals(3.0, latest.getValue());
+        assertEquals(3L, latest.getQualityCode());
+        assertEquals("m", latest.getUnitId());
+    }
+
+    @Test
+    void testOlderValuesLeaveTheLatest() {
+        RecentValueStore store = loaded(value(0, 1.0));
+
+        store.stored(OFFICE, TS_ID, "m", null, records(-2, 5.0), StoreRule.DELETE_INSERT);
+
+        assertEquals(1.0, store.get(TS_CODE, "SI", PAST, FUTURE).getValue().getValue());
+    }
+
+    @Test
+    void testStoresThatMayChangeTheLatestDropIt() {
+        // overwrites the latest value
+        RecentValueStore store = loaded(value(0, 1.0));
+        store.stored(OFFICE, TS_ID, "m", null, records(0, 2.0), StoreRule.REPLACE_ALL);
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+
+        // in other units
+        store = loaded(value(0, 1.0));
+        store.stored(OFFICE, TS_ID, "ft", null, records(1, 2.0), StoreRule.REPLACE_ALL);
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+
+        // to a version
+        store = loaded(value(0, 1.0));
+        store.stored(OFFICE, TS_ID, "m", hoursFromNow(0), records(1, 2.0),
+                StoreRule.REPLACE_ALL);
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+
+        // a rule that may keep what is there
+        store = loaded(value(0, 1.0));
+        store.stored(OFFICE, TS_ID, "m", null, records(1, 2.0), StoreRule.DO_NOT_REPLACE);
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+
+        // the first value of a series that had none
+        store = loaded(null);
+        store.stored(OFFICE, TS_ID, "m", null, records(1, 2.0), StoreRule.REPLACE_ALL);
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+    }
+
+    @Test
+    void testReadsStartedBeforeAChangeAreNotKept() {
+        RecentValueStore store = store(60);
+        long generation = store.generation();
+        store.stored(OFFICE, TS_ID, "m", null, records(1, 2.0), StoreRule.REPLACE_ALL);
+        store.put(generation, TS_CODE, OFFICE, TS_ID, "SI", PAST, FUTURE, value(0, 1.0));
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+
+        generation = store.generation();
+        store.put(generation, TS_CODE, OFFICE, TS_ID, "SI", PAST, FUTURE, value(0, 1.0));
+        assertNotNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+    }
+
+    @Test
+    void testInvalidateDropsEveryUnitSystem() {
+        RecentValueStore store = loaded(value(0, 1.0));
+        store.put(store.generation(), TS_CODE, OFFICE, TS_ID, "EN", PAST, FUTURE, value(0, 3.3));
+
+        store.invalidate(null, TS_ID.toLowerCase());
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testPollDropsTheSeriesThatChanged() {
+        RecentValueStore store = store(0);
+        long generation = store.generation();
+        store.put(generation, TS_CODE, OFFICE, TS_ID, "SI", PAST, FUTURE, value(0, 1.0));
+        store.put(generation, 7, OFFICE, "Other.Flow.Inst.1Hour.0.raw", "SI", PAST, FUTURE,
+                null);
+
+        AtomicInteger polls = new AtomicInteger();
+        store.reconcile(since -> {
+            polls.incrementAndGet();
+            assertNotNull(since);
+            return Collections.singletonList(TS_CODE);
+        });
+
+        assertEquals(1, polls.get());
+        assertNull(store.get(TS_CODE, "SI", PAST, FUTURE));
+        assertNotNull(store.get(7, "SI", PAST, FUTURE));
+    }
+
+    @Test
+    void testPollsWaitUntilTheyAreDue() {
+        RecentValueStore store = store(60);
+        AtomicInteger polls = new AtomicInteger();
+
+        store.reconcile(since -> {
+            polls.incrementAndGet();
+            return Arrays.asList(1L, 2L);
+        });
+
+        assertEquals(0, polls.get());
+    }
+
+    @Test
+    void testPollsLookBackFromTheStartOfThePrevious() {
+        RecentValueStore store = store(0);
+        Date[] seen = new Date[2];
+        long before = System.currentTimeMillis();
+        store.reconcile(since -> {
+            seen[0] = since;
+            return Collections.emptyList();
+        });
+        store.reconcile(since -> {
+            seen[1] = since;
+            return Collections.emptyList();
+        });
+
+        // the overlap is 60 seconds
+        assertTrue(seen[1].getTime() >= before - 60_000);
+        assertTrue(seen[1].getTime() >= seen[0].getTime());
+    }
+}
@@ -0,0 +1,49 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import cwms.cda.api.DataApiTestIT;
+import fixtures.CwmsDataApiSetupCallback;
+import mil.army.usace.hec.test.database.CwmsDatabaseContainer;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import usace.cwms.db.dao.ifc.ts.CwmsDbTs;
+import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
+
+@Tag("integration")
+class TimeSeriesBatchStoreTestIT extends DataApiTestIT {
+
+    /**
+     * POST /timeseries/batch commits groups of series at once, which only holds while
+     * cwms_ts.store_ts leaves the commit to its caller.
+     */
+    @Test
+    void test_store_ts_leaves_the_commit_to_the_caller() throws Exception {
+        String officeId = "SPK";
+        String location = "BatchCommit";
+        String tsId = location + ".Stage.Inst.1Hour.0.batch-commit";
+        createLocation(location, true, officeId);
+
+        CwmsDatabaseContainer<?> db = CwmsDataApiSetupCallback.getDatabaseLink();
+        db.connection(c -> {
+            try {
+                DSLContext dsl = dslContext(c, officeId);
+                c.setAutoCommit(false);
+                CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, c);
+                tsDao.store(c, officeId, tsId, "ft", new long[]{1675335600000L},
+                        new double[]{35.0}, new int[]{0}, 1, StoreRule.REPLACE_ALL.getRule(),
+                        false, null, false);
+                // null once the transaction is committed
+                String transaction = dsl.select(DSL.field(
+                                "dbms_transaction.local_transaction_id", String.class))
+                        .fetchOne(0, String.class);
+                assertNotNull(transaction, "store_ts committed the transaction it was called in");
+                c.rollback();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cwms.cda.api.enums.PageTotal;
+import cwms.cda.data.dto.TimeSeries;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesDaoImplTest {
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-21T08:00:00Z[UTC]");
+
+    @Test
+    void testEstimateRegular() {
+        // 15 minute data over 1 hour, both ends inclusive
+        assertEquals(5, TimeSeriesDaoImpl.estimateTotal(15L, 0L, BEGIN, BEGIN.plusHours(1)));
+        assertEquals(25, TimeSeriesDaoImpl.estimateTotal(60L, null, BEGIN, BEGIN.plusDays(1)));
+    }
+
+    @Test
+    void testEstimateUnalignedWindow() {
+        // slots at :00 :15 :30 :45, window 08:05 to 09:05 holds :15 :30 :45 and 09:00
+        assertEquals(4, TimeSeriesDaoImpl.estimateTotal(15L, 0L, BEGIN.plusMinutes(5),
+                BEGIN.plusMinutes(65)));
+        // hourly with a 30 minute offset, window 08:00 to 10:00 holds 08:30 and 09:30
+        assertEquals(2, TimeSeriesDaoImpl.estimateTotal(60L, 30L, BEGIN, BEGIN.plusHours(2)));
+    }
+
+    @Test
+    void testEstimateEmptyWindow() {
+        assertEquals(0, TimeSeriesDaoImpl.estimateTotal(60L, 0L, BEGIN.plusMinutes(1),
+                BEGIN.plusMinutes(59)));
+    }
+
+    @Test
+    void testNoEstimateForIrregular() {
+        assertNull(TimeSeriesDaoImpl.estimateTotal(0L, null, BEGIN, BEGIN.plusDays(1)));
+        assertNull(TimeSeriesDaoImpl.estimateTotal(null, null, BEGIN, BEGIN.plusDays(1)));
+    }
+
+    @Test
+    void testPageTotalFor() {
+        assertEquals(PageTotal.EXACT, PageTotal.pageTotalFor(null));
+        assertEquals(PageTotal.ESTIMATE, PageTotal.pageTotalFor("estimate"));
+        assertEquals(PageTotal.NONE, PageTotal.pageTotalFor("NONE"));
+    }
+
+    private static TimeSeriesDaoImpl.CachedMetadata metadata(String name, String units) {
+        return new TimeSeriesDaoImpl.CachedMetadata(name, "SPK", units, 60L, null, 0L, "UTC");
+    }
+
+    @Test
+    void testMetadataCachedByOfficeIdAndUnits() {
+        String tsId = "CacheTest.Stage.Inst.1Hour.0.units";
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", tsId, "ft", metadata(tsId, "ft"));
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", tsId, "m", metadata(tsId, "m"));
+
+        TimeSeriesDaoImpl.CachedMetadata cached =
+                TimeSeriesDaoImpl.getCachedMetadata("spk", tsId.toLowerCase(), "m");
+        assertNotNull(cached);
+        TimeSeries header = cached.toTimeSeries(null, 500, null, BEGIN, BEGIN.plusDays(1),
+                null, null);
+        assertEquals(tsId, header.getName());
+        assertEquals("m", header.getUnits());
+        assertEquals(Long.valueOf(0L), header.getIntervalOffset());
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata("SWT", tsId, "m"));
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", tsId, "cm"));
+        // The session office differs between users, so requests without one are not cached
+        TimeSeriesDaoImpl.putCachedMetadata(null, tsId, "ft", metadata(tsId, "ft"));
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata(null, tsId, "ft"));
+
+        TimeSeriesDaoImpl.invalidateMetadata("SPK", tsId);
+    }
+
+    @Test
+    void testInvalidateMetadata() {
+        String tsId = "CacheTest.Stage.Inst.1Hour.0.invalidate";
+        String other = "CacheTest.Flow.Inst.1Hour.0.invalidate";
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", tsId, "ft", metadata(tsId, "ft"));
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", tsId, "m", metadata(tsId, "m"));
+        TimeSeriesDaoImpl.putCachedMetadata("SWT", tsId, "ft", metadata(tsId, "ft"));
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", other, "ft", metadata(other, "ft"));
+
+        TimeSeriesDaoImpl.invalidateMetadata("spk", tsId.toUpperCase());
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", tsId, "ft"));
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", tsId, "m"));
+        assertNotNull(TimeSeriesDaoImpl.getCachedMetadata("SWT", tsId, "ft"));
+        assertNotNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", other, "ft"));
+
+        TimeSeriesDaoImpl.invalidateMetadata(null, tsId);
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata("SWT", tsId, "ft"));
+        assertNotNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", other, "ft"));
+
+        TimeSeriesDaoImpl.invalidateMetadata("SPK", other);
+    }
+
+    @Test
+    void testValueStoresKeepMetadata() {
+        String tsId = "CacheTest.Stage.Inst.1Hour.0.stored";
+        String unset = "CacheTest.Stage.Inst.1Hour.0.offset-unset";
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", tsId, "ft", metadata(tsId, "ft"));
+        TimeSeriesDaoImpl.putCachedMetadata("SPK", unset, "ft",
+                new TimeSeriesDaoImpl.CachedMetadata(unset, "SPK", "ft", 60L, null,
+                        (long) Integer.MAX_VALUE, "UTC"));
+
+        TimeSeriesDaoImpl.valuesStored("spk", tsId, null);
+        assertNotNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", tsId, "ft"));
+        // the first values of a regular series set its interval offset
+        TimeSeriesDaoImpl.valuesStored("SPK", unset, null);
+        assertNull(TimeSeriesDaoImpl.getCachedMetadata("SPK", unset, "ft"));
+
+        TimeSeriesDaoImpl.invalidateMetadata("SPK", tsId);
+    }
+}
@@ -1,7 +1,10 @@
 package cwms.cda.data.dto;
 
 import cwms.cda.data.dao.CatalogRequestParameters;
+import cwms.cda.data.dto.catalog.LocationCatalogEntry;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -44,5 +47,35 @@ class CatalogTest
 		assertEquals(page.getIdLike(),fromString.getIdLike());
 		assertNull(page.getSearchOffice());
 		assertEquals(page.getCurOffice(),fromString.getCurOffice());
+		assertEquals(0, fromString.getPageNumber());
+	}
+
+	@Test
+	void test_catalog_page_number() {
+		CatalogRequestParameters params = new CatalogRequestParameters.Builder()
+				.withIdLike(".*")
+				.build();
+
+		final CatalogPage page = new CatalogPage("SPK/a", params, 3);
+		final CatalogPage fromString = new CatalogPage(Catalog.encodeCursor(page.toString(),10,100));
+		assertEquals(3, fromString.getPageNumber());
+		assertEquals(100, fromString.getTotal());
+		assertEquals(10, fromString.getPageSize());
+		assertEquals("a", fromString.getCursorId());
+	}
+
+	@Test
+	void test_next_page_counts_pages() {
+		CatalogRequestParameters params = new CatalogRequestParameters.Builder()
+				.withIdLike(".*")
+				.build();
+		List<LocationCatalogEntry> entries = Collections.singletonList(
+				new LocationCatalogEntry.Builder().officeId("SPK").name("a").build());
+
+		Catalog catalog = new Catalog(null, 5, 1, entries, params, 2);
+		assertEquals(3, new CatalogPage(catalog.getNextPage()).getPageNumber());
+
+		catalog = new Catalog(null, 5, 1, entries, params);
+		assertEquals(0, new CatalogPage(catalog.getNextPage()).getPageNumber());
 	}
 }
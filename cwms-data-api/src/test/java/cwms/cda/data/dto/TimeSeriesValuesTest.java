@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TimeSeriesValuesTest {
+
+    private static final long START = 1624287600000L;
+
+    @Test
+    void testColumnsMatchRecords() {
+        TimeSeriesValues columns = new TimeSeriesValues(1);
+        List<TimeSeries.Record> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Double value = i % 7 == 0 ? null : i * 1.5;
+            columns.add(START + i * 900000L, value, i % 3);
+            records.add(new TimeSeries.Record(new Timestamp(START + i * 900000L), value, i % 3));
+        }
+
+        assertEquals(records, columns);
+        assertEquals(100, columns.size());
+        assertTrue(columns.isNull(0));
+        assertTrue(Double.isNaN(columns.getValue(0)));
+        assertNull(columns.get(0).getValue());
+        assertFalse(columns.isNull(1));
+        assertEquals(1.5, columns.getValue(1));
+        assertEquals(START + 900000L, columns.getDateTime(1));
+        assertEquals(1, columns.getQualityCode(1));
+    }
+
+    @Test
+    void testArraysAreTrimmed() {
+        TimeSeriesValues columns = TimeSeriesValues.of(new ArrayList<>());
+        columns.add(START, 1.0, 0);
+        columns.add(START + 1000, null, 5);
+
+        assertArrayEquals(new long[]{START, START + 1000}, columns.getDateTimeArray());
+        assertArrayEquals(new int[]{0, 5}, columns.getQualityCodeArray());
+        double[] values = columns.getValueArray();
+        assertEquals(2, values.length);
+        assertEquals(1.0, values[0]);
+        assertTrue(Double.isNaN(values[1]));
+
+        // still growable after handing out the arrays
+        columns.add(START + 2000, 3.0, 0);
+        assertEquals(3, columns.getDateTimeArray().length);
+    }
+
+    @Test
+    void testOfReturnsSameInstance() {
+        TimeSeriesValues columns = new TimeSeriesValues();
+        assertTrue(columns == TimeSeriesValues.of(columns));
+        assertEquals(0, TimeSeriesValues.of(null).size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {Formats.JSONV2, Formats.XMLV2})
+    void testRoundTrip(String format) {
+        ContentType contentType = Formats.parseHeader(format, TimeSeries.class);
+        TimeSeries ts = new TimeSeries(null, -1, 0, "Test.Stage.Inst.15Minutes.0.raw", "SPK",
+                ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]"),
+                ZonedDateTime.parse("2021-06-21T09:00:00-07:00[PST8PDT]"), "m",
+                Duration.ofMinutes(15));
+        ts.addValue(new Timestamp(START), 0.0, 0);
+        ts.addValue(new Timestamp(START + 900000L), null, 5);
+        ts.addValue(new Timestamp(START + 1800000L), 2.25, 3);
+
+        String body = Formats.format(contentType, ts);
+        TimeSeries parsed = Formats.parseContent(contentType, body, TimeSeries.class);
+
+        assertInstanceOf(TimeSeriesValues.class, parsed.getValues());
+        assertEquals(ts.getValues(), parsed.getValues());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"timeseries_create.json", "timeseries_create.xml"})
+    void testParseRequestBody(String resource) throws Exception {
+        String format = resource.endsWith(".xml") ? Formats.XMLV2 : Formats.JSONV2;
+        ContentType contentType = Formats.parseHeader(format, TimeSeries.class);
+        String body;
+        try (InputStream stream = getClass().getResourceAsStream("/cwms/cda/api/" + resource)) {
+            body = IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+
+        TimeSeries parsed = Formats.parseContent(contentType, body, TimeSeries.class);
+        TimeSeriesValues columns = TimeSeriesValues.of(parsed.getValues());
+
+        assertEquals(4, columns.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(START + i * 900000L, columns.getDateTime(i));
+            assertEquals(i, columns.getValue(i));
+            assertEquals(0, columns.getQualityCode(i));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package cwms.cda.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SessionStateTest {
+
+    @BeforeAll
+    static void enable() {
+        SessionState.setEnabled(true);
+    }
+
+    @AfterAll
+    static void disable() {
+        SessionState.setEnabled(false);
+    }
+
+    private static Connection physical() throws ClassNotFoundException {
+        // the driver is only on the test runtime classpath
+        return mock(Connection.class, withSettings()
+                .extraInterfaces(Class.forName("oracle.jdbc.OracleConnection")));
+    }
+
+    /**
+     * A pool proxy around the physical connection, a new one for every checkout.
+     */
+    private static Connection checkout(Connection physical) throws SQLException {
+        Connection proxy = mock(Connection.class);
+        when(proxy.isWrapperFor(any())).thenReturn(true);
+        when(proxy.unwrap(any())).thenReturn(physical);
+        return proxy;
+    }
+
+    @Test
+    void testSameSettingIsSkippedOnTheNextCheckout() throws Exception {
+        Connection physical = physical();
+        AtomicInteger calls = new AtomicInteger();
+        assertTrue(SessionState.apply(checkout(physical), SessionState.OFFICE, "SWT",
+                calls::incrementAndGet));
+        assertFalse(SessionState.apply(checkout(physical), SessionState.OFFICE, "SWT",
+                calls::incrementAndGet));
+        assertTrue(SessionState.apply(checkout(physical), SessionState.OFFICE, "SPK",
+                calls::incrementAndGet));
+        assertTrue(SessionState.apply(checkout(physical()), SessionState.OFFICE, "SPK",
+                calls::incrementAndGet));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testUserForgetsOffice() throws Exception {
+        Connection connection = checkout(physical());
+        AtomicInteger calls = new AtomicInteger();
+        SessionState.apply(connection, SessionState.OFFICE, "SWT", calls::incrementAndGet);
+        SessionState.apply(connection, SessionState.USER, "Q0WEBTEST", calls::incrementAndGet);
+        assertTrue(SessionState.apply(connection, SessionState.OFFICE, "SWT",
+                calls::incrementAndGet));
+        assertFalse(SessionState.apply(connection, SessionState.USER, "Q0WEBTEST",
+                calls::incrementAndGet));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testFailureForgetsTheSession() throws Exception {
+        Connection connection = checkout(physical());
+        SessionState.apply(connection, SessionState.TIME_ZONE, "UTC", () -> { });
+        SessionState.apply(connection, SessionState.OFFICE, "SWT", () -> { });
+        assertThrows(SQLException.class, () -> SessionState.apply(connection,
+                SessionState.USER, "Q0WEBTEST", () -> {
+                    throw new SQLException("ORA-20000");
+                }));
+        assertTrue(SessionState.apply(connection, SessionState.TIME_ZONE, "UTC", () -> { }));
+        assertTrue(SessionState.apply(connection, SessionState.OFFICE, "SWT", () -> { }));
+    }
+
+    @Test
+    void testUntrackedSettingsAlwaysRun() throws Exception {
+        Connection other = mock(Connection.class);
+        assertTrue(SessionState.apply(other, SessionState.OFFICE, "SWT", () -> { }));
+        assertTrue(SessionState.apply(other, SessionState.OFFICE, "SWT", () -> { }));
+
+        Connection connection = checkout(physical());
+        assertTrue(SessionState.apply(connection, SessionState.OFFICE, null, () -> { }));
+        assertTrue(SessionState.apply(connection, SessionState.OFFICE, null, () -> { }));
+    }
+
+    @Test
+    void testFailedStatementForgetsTheSession() throws Exception {
+        Connection connection = checkout(physical());
+        SessionState.apply(connection, SessionState.OFFICE, "SWT", () -> { });
+        SessionState.failed(connection, new SQLException("ORA-06512"));
+        assertTrue(SessionState.apply(connection, SessionState.OFFICE, "SWT", () -> { }));
+    }
+
+    @Test
+    void testDisabledAlwaysRuns() throws Exception {
+        SessionState.setEnabled(false);
+        try {
+            Connection connection = checkout(physical());
+            assertTrue(SessionState.apply(connection, SessionState.OFFICE, "SWT", () -> { }));
+            assertTrue(SessionState.apply(connection, SessionState.OFFICE, "SWT", () -> { }));
+        } finally {
+            SessionState.setEnabled(true);
+        }
+    }
+}
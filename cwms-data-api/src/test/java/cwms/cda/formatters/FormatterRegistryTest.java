@@ -0,0 +1,56 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.Blob;
+import cwms.cda.data.dto.Clob;
+import cwms.cda.data.dto.County;
+import cwms.cda.data.dto.Office;
+import cwms.cda.formatters.json.JsonV1;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.xml.XMLv2;
+import org.junit.jupiter.api.Test;
+
+class FormatterRegistryTest {
+    @Test
+    void testPreloadReadsTheDtoPackage() {
+        int count = Formats.preload();
+        assertTrue(count > 20, "only found " + count);
+    }
+
+    @Test
+    void testFormattersAreShared() {
+        ContentType json = new ContentType(Formats.JSONV2);
+        OutputFormatter formatter = FormatterRegistry.get(json, Blob.class);
+        assertInstanceOf(JsonV2.class, formatter);
+        assertSame(formatter, FormatterRegistry.get(json, County.class));
+        assertSame(formatter, FormatterRegistry.get(new ContentType(Formats.JSONV2), Blob.class));
+    }
+
+    @Test
+    void testLookupsMatchAsBefore() {
+        // unversioned json matches both versions, the last declared wins
+        assertInstanceOf(JsonV2.class, FormatterRegistry.get(new ContentType(Formats.JSON),
+                Office.class));
+        assertInstanceOf(JsonV1.class, FormatterRegistry.get(new ContentType(Formats.JSONV1),
+                Office.class));
+        assertInstanceOf(JsonV2.class, FormatterRegistry.get(
+                new ContentType("application/json;version=2;q=0.5"), Office.class));
+        assertNull(FormatterRegistry.get(new ContentType(Formats.CSV), Blob.class));
+    }
+
+    @Test
+    void testXmlRoundTripWithSharedMapper() {
+        Clob clob = new Clob("SWT", "TEST/CLOB", "description", "value");
+        OutputFormatter xml = new XMLv2();
+        String formatted = xml.format(clob);
+        assertEquals(formatted, Formats.format(new ContentType(Formats.XMLV2), clob));
+        Clob parsed = xml.parseContent(formatted, Clob.class);
+        assertEquals(clob.getId(), parsed.getId());
+        assertEquals(clob.getValue(), parsed.getValue());
+    }
+}
@@ -0,0 +1,67 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.data.dto.catalog.CatalogEntry;
+import cwms.cda.data.dto.catalog.LocationCatalogEntry;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class NdJsonWriterTest {
+
+    private static LocationCatalogEntry entry(int i) {
+        return new LocationCatalogEntry.Builder()
+                .officeId("SWT")
+                .name("Location_" + i)
+                .latitude(35.0 + i / 1000.0)
+                .longitude(-97.0)
+                .build();
+    }
+
+    @Test
+    void testOneLinePerEntry() throws Exception {
+        ObjectMapper mapper = JsonV2.buildObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = 2500;
+        try (NdJsonWriter<CatalogEntry> writer = new NdJsonWriter<>(out)) {
+            for (int i = 0; i < count; i++) {
+                writer.accept(entry(i));
+            }
+            assertEquals(count, writer.getCount());
+        }
+
+        String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        String[] lines = body.split("\n");
+        assertEquals(count, lines.length);
+        for (int i = 0; i < count; i++) {
+            assertFalse(lines[i].startsWith(" "), "line " + i + " has a separator");
+            assertEquals(mapper.valueToTree(entry(i)), mapper.readTree(lines[i]));
+        }
+    }
+
+    @Test
+    void testStreamIsLeftOpen() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new IllegalStateException("closed by the writer");
+            }
+        };
+        try (NdJsonWriter<CatalogEntry> writer = new NdJsonWriter<>(out)) {
+            writer.accept(entry(1));
+        }
+        assertTrue(out.size() > 0);
+    }
+
+    @Test
+    void testContentTypeIsKnown() {
+        ContentType contentType = Formats.parseHeaderAndQueryParm(Formats.NDJSON, null);
+        assertEquals(new ContentType(Formats.NDJSON), contentType);
+    }
+}
@@ -0,0 +1,97 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.data.dto.TimeSeries;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesBatchWriterTest {
+
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+    private static final ZonedDateTime END = ZonedDateTime.parse("2021-06-22T08:00:00-07:00[PST8PDT]");
+
+    private static TimeSeries header(String name) {
+        return new TimeSeries(null, -1, null, name, "SPK", BEGIN, END, "ft", Duration.ZERO);
+    }
+
+    private static Timestamp time(int i) {
+        return Timestamp.from(BEGIN.plusHours(i).toInstant());
+    }
+
+    @Test
+    void testEachSeriesIsATimeSeries() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimeSeriesBatchWriter writer = new TimeSeriesBatchWriter(out);
+        writer.missing("Test.Flow.Inst.1Hour.0.missing");
+
+        TimeSeries first = header("Test.Stage.Inst.1Hour.0.raw");
+        writer.begin(header(first.getName()));
+        for (int i = 0; i < 3; i++) {
+            Double value = i == 1 ? null : 10.0 + i;
+            first.addValue(time(i), value, 0);
+            assertTrue(writer.accept(time(i), value, 0));
+        }
+        writer.end();
+        // The first series is complete on the wire before the second begins
+        int firstLength = out.size();
+
+        TimeSeries second = header("Test.Elev.Inst.1Hour.0.raw");
+        writer.begin(header(second.getName()));
+        writer.end();
+        writer.finish();
+
+        assertTrue(firstLength > 0);
+        assertEquals(2, writer.getSeriesCount());
+        assertEquals(3, writer.getValueCount());
+
+        String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        JsonNode document = new ObjectMapper().readTree(body);
+        JsonNode series = document.get("time-series");
+        assertEquals(2, series.size());
+        assertEquals(1, document.get("not-found").size());
+        assertEquals("Test.Flow.Inst.1Hour.0.missing", document.get("not-found").get(0).asText());
+
+        ContentType contentType = new ContentType(Formats.JSONV2);
+        TimeSeries actual = Formats.parseContent(contentType, series.get(0).toString(),
+                TimeSeries.class);
+        assertEquals(first.getName(), actual.getName());
+        assertEquals(first.getValues(), actual.getValues());
+        // series in a batch are not paged
+        assertFalse(series.get(0).has("page"));
+        assertFalse(series.get(0).has("next-page"));
+
+        actual = Formats.parseContent(contentType, series.get(1).toString(), TimeSeries.class);
+        assertEquals(second.getName(), actual.getName());
+        assertTrue(actual.getValues().isEmpty());
+    }
+
+    @Test
+    void testNothingFound() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimeSeriesBatchWriter writer = new TimeSeriesBatchWriter(out);
+        assertEquals(0, out.size());
+        writer.missing("Test.Flow.Inst.1Hour.0.missing");
+        writer.finish();
+
+        JsonNode document = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals(0, document.get("time-series").size());
+        assertEquals(1, document.get("not-found").size());
+    }
+
+    @Test
+    void testSupports() {
+        assertTrue(TimeSeriesBatchWriter.supports(new ContentType(Formats.JSONV2)));
+        assertFalse(TimeSeriesBatchWriter.supports(new ContentType(Formats.XMLV2)));
+        assertTrue(TimeSeriesBatchWriter.supports(Formats.parseHeader(Formats.JSON,
+                TimeSeries.class)));
+    }
+}
@@ -0,0 +1,83 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TimeSeriesStreamWriterTest {
+
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+    private static final ZonedDateTime END = ZonedDateTime.parse("2021-06-22T08:00:00-07:00[PST8PDT]");
+
+    private static TimeSeries header(int pageSize) {
+        return new TimeSeries(null, pageSize, 4, "Test.Test.Elev.0.0.RAW", "SPK", BEGIN, END,
+                "ft", Duration.ZERO);
+    }
+
+    private static Timestamp time(int i) {
+        return Timestamp.from(BEGIN.plusHours(i).toInstant());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {Formats.JSONV2, Formats.XMLV2})
+    void testStreamedMatchesFormatted(String format) {
+        ContentType contentType = Formats.parseHeader(format, TimeSeries.class);
+
+        TimeSeries expected = header(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimeSeriesStreamWriter writer = TimeSeriesStreamWriter.forContentType(contentType, out);
+        writer.begin(header(3));
+        for (int i = 0; i < 4; i++) {
+            Double value = i == 1 ? null : 10.0 + i;
+            boolean added = expected.addValue(time(i), value, 0);
+            assertEquals(added, writer.accept(time(i), value, 0));
+        }
+        writer.finish();
+
+        String streamed = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        TimeSeries actual = Formats.parseContent(contentType, streamed, TimeSeries.class);
+
+        assertEquals(3, writer.getCount());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getUnits(), actual.getUnits());
+        assertEquals(expected.getValues(), actual.getValues());
+        assertEquals(expected.getPage(), actual.getPage());
+        assertEquals(expected.getNextPage(), actual.getNextPage());
+        assertEquals(expected.getTotal(), actual.getTotal());
+    }
+
+    @Test
+    void testLastPageHasNoNextPage() {
+        ContentType contentType = Formats.parseHeader(Formats.JSONV2, TimeSeries.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimeSeriesStreamWriter writer = TimeSeriesStreamWriter.forContentType(contentType, out);
+        writer.begin(header(10));
+        assertTrue(writer.accept(time(0), 1.0, 0));
+        writer.finish();
+
+        assertNull(writer.getNextPage());
+        String streamed = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertNotNull(streamed);
+        assertFalse(streamed.contains("next-page"));
+        assertTrue(streamed.endsWith("}"));
+    }
+
+    @Test
+    void testSupports() {
+        assertTrue(TimeSeriesStreamWriter.supports(new ContentType(Formats.JSONV2)));
+        assertTrue(TimeSeriesStreamWriter.supports(new ContentType(Formats.XMLV2)));
+        assertFalse(TimeSeriesStreamWriter.supports(new ContentType(Formats.CSV)));
+    }
+}
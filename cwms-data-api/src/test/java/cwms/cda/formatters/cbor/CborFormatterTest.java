@@ -0,0 +1,99 @@
+package cwms.cda.formatters.cbor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesValues;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.UnsupportedFormatException;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class CborFormatterTest {
+    private static TimeSeries buildTimeSeries(int count) {
+        ZonedDateTime begin = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+        TimeSeries ts = new TimeSeries(null, count, count, "Test.Stage.Inst.15Minutes.0.raw",
+                "SPK", begin, begin.plusMinutes(15L * count), "ft", Duration.ofMinutes(15));
+        for (int i = 0; i < count; i++) {
+            Double value = i % 50 == 7 ? null : 100.0 + Math.sin(i / 10.0) * 25.0;
+            ts.addValue(Timestamp.from(begin.plusMinutes(15L * i).toInstant()), value,
+                    i % 50 == 7 ? 5 : 3);
+        }
+        return ts;
+    }
+
+    @Test
+    void testRoundTrip() {
+        TimeSeries ts = buildTimeSeries(200);
+        ContentType contentType = Formats.parseHeader(Formats.CBOR, TimeSeries.class);
+
+        byte[] body = Formats.formatBytes(contentType, ts);
+        TimeSeries parsed = Formats.parseContent(contentType, new ByteArrayInputStream(body),
+                TimeSeries.class);
+
+        assertEquals(ts.getName(), parsed.getName());
+        assertEquals(ts.getOfficeId(), parsed.getOfficeId());
+        assertEquals(ts.getUnits(), parsed.getUnits());
+        assertEquals(ts.getInterval(), parsed.getInterval());
+        assertTrue(ts.getBegin().isEqual(parsed.getBegin()));
+        assertEquals(ts.getPage(), parsed.getPage());
+        assertEquals(ts.getTotal(), parsed.getTotal());
+        assertInstanceOf(TimeSeriesValues.class, parsed.getValues());
+        assertEquals(ts.getValues(), parsed.getValues());
+    }
+
+    @Test
+    void testValuesAreColumns() throws Exception {
+        TimeSeries ts = buildTimeSeries(10);
+        byte[] body = new CborFormatter().formatBytes(ts);
+
+        JsonNode values = new CBORMapper().readTree(body).get("values");
+        assertTrue(values.isObject());
+        assertEquals(10, values.get("date-time").size());
+        assertEquals(10, values.get("value").size());
+        assertEquals(10, values.get("quality-code").size());
+        assertTrue(values.get("value").get(7).isNull());
+        assertEquals(ts.getValues().get(3).getDateTime().getTime(),
+                values.get("date-time").get(3).asLong());
+    }
+
+    @Test
+    void testMismatchedColumnsRejected() throws Exception {
+        CBORMapper mapper = new CBORMapper();
+        JsonNode tree = mapper.readTree(new CborFormatter().formatBytes(buildTimeSeries(10)));
+        ((ArrayNode) tree.get("values").get("value")).remove(0);
+        byte[] body = mapper.writeValueAsBytes(tree);
+
+        assertThrows(FormattingException.class, () -> new CborFormatter()
+                .parseContent(new ByteArrayInputStream(body), TimeSeries.class));
+    }
+
+    @Test
+    void testTextFormattingIsNotAcceptable() {
+        TimeSeries ts = buildTimeSeries(10);
+        ContentType contentType = Formats.parseHeader(Formats.CBOR, TimeSeries.class);
+        assertThrows(UnsupportedFormatException.class, () -> Formats.format(contentType, ts));
+    }
+
+    @Test
+    void testSmallerThanJson() {
+        TimeSeries ts = buildTimeSeries(1000);
+        byte[] cbor = new CborFormatter().formatBytes(ts);
+        byte[] json = new JsonV2().format(ts).getBytes(StandardCharsets.UTF_8);
+        assertTrue(cbor.length < json.length,
+                () -> "cbor " + cbor.length + " bytes, json " + json.length + " bytes");
+    }
+}
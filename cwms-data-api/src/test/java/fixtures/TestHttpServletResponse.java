@@ -4,8 +4,13 @@ import io.javalin.http.HttpCode;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.Cookie;
@@ -22,6 +27,7 @@ public class TestHttpServletResponse implements HttpServletResponse {
     private String contentType="<not set by application>";
 
     private ServletOutputStream output = new TestServletOutputStream();
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
 
     @Override
     public void flushBuffer() throws IOException {
@@ -130,8 +136,7 @@ public class TestHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void addHeader(String arg0, String arg1) {
-        // TODO Auto-generated method stub
-
+        headers.computeIfAbsent(arg0, k -> new ArrayList<>()).add(arg1);
     }
 
     @Override
@@ -142,8 +147,7 @@ public class TestHttpServletResponse implements HttpServletResponse {
 
     @Override
     public boolean containsHeader(String arg0) {
-        // TODO Auto-generated method stub
-        return false;
+        return headers.containsKey(arg0);
     }
 
     @Override
@@ -172,20 +176,18 @@ public class TestHttpServletResponse implements HttpServletResponse {
 
     @Override
     public String getHeader(String arg0) {
-        // TODO Auto-generated method stub
-        return null;
+        List<String> values = headers.get(arg0);
+        return values == null ? null : values.get(0);
     }
 
     @Override
     public Collection<String> getHeaderNames() {
-        // TODO Auto-generated method stub
-        return null;
+        return new ArrayList<>(headers.keySet());
     }
 
     @Override
     public Collection<String> getHeaders(String arg0) {
-        // TODO Auto-generated method stub
-        return null;
+        return headers.getOrDefault(arg0, Collections.emptyList());
     }
 
     @Override
@@ -218,8 +220,9 @@ public class TestHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void setHeader(String arg0, String arg1) {
-        // TODO Auto-generated method stub
-
+        List<String> values = new ArrayList<>();
+        values.add(arg1);
+        headers.put(arg0, values);
     }
 
     @Override
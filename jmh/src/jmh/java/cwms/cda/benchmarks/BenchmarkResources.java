@@ -0,0 +1,30 @@
+package cwms.cda.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the test resources that jmh/build.gradle puts on the benchmark classpath.
+ */
+final class BenchmarkResources {
+    private BenchmarkResources() {
+    }
+
+    static String load(String name) throws IOException {
+        InputStream stream = BenchmarkResources.class.getResourceAsStream("/" + name);
+        if (stream == null) {
+            throw new IOException(name + " is not on the classpath");
+        }
+        try (InputStream in = stream) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.OutputFormatter;
+import cwms.cda.formatters.cbor.CborFormatter;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.ByteArrayInputStream;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encodes and decodes a time series with the CBOR column format and with JSON version 2.  The
+ * wire sizes are printed at setup, as JMH only measures time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CborBenchmark {
+    private final OutputFormatter json = new JsonV2();
+    private final OutputFormatter cbor = new CborFormatter();
+
+    @Param({"10000", "500000"})
+    public int size;
+
+    private TimeSeries timeSeries;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup
+    public void setup() {
+        ZonedDateTime begin = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+        timeSeries = new TimeSeries(null, size, size, "Test.Stage.Inst.15Minutes.0.raw", "SPK",
+                begin, begin.plusMinutes(15L * size), "ft", Duration.ofMinutes(15));
+        for (int i = 0; i < size; i++) {
+            Double value = i % 50 == 7 ? null : 100.0 + Math.sin(i / 10.0) * 25.0;
+            timeSeries.addValue(Timestamp.from(begin.plusMinutes(15L * i).toInstant()), value,
+                    i % 50 == 7 ? 5 : 3);
+        }
+        jsonBytes = json.formatBytes(timeSeries);
+        cborBytes = cbor.formatBytes(timeSeries);
+        System.out.printf("%d values: json %d bytes, cbor %d bytes (%.1f%%)%n", size,
+                jsonBytes.length, cborBytes.length, 100.0 * cborBytes.length / jsonBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJsonV2() {
+        return json.formatBytes(timeSeries);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() {
+        return cbor.formatBytes(timeSeries);
+    }
+
+    @Benchmark
+    public TimeSeries decodeJsonV2() {
+        return json.parseContent(new ByteArrayInputStream(jsonBytes), TimeSeries.class);
+    }
+
+    @Benchmark
+    public TimeSeries decodeCbor() {
+        return cbor.parseContent(new ByteArrayInputStream(cborBytes), TimeSeries.class);
+    }
+}
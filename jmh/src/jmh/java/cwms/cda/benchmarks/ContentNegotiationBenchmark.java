@@ -0,0 +1,35 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Picks the content type of an Accept header, which every request does before it is handled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContentNegotiationBenchmark {
+
+    @Param({
+        "application/json;version=2",
+        "*/*",
+        "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8",
+        "application/xml;version=2;q=0.5,application/json;version=2"
+    })
+    public String accept;
+
+    @Benchmark
+    public ContentType parseHeader() {
+        return Formats.parseHeader(accept, TimeSeries.class);
+    }
+}
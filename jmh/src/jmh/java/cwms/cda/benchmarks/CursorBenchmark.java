@@ -0,0 +1,32 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.CwmsDTOPaginated;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Writes and reads the page cursors every paged response hands out and takes back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CursorBenchmark {
+    private static final String PAGE = "SPK/LOC123.STAGE.INST.15MINUTES.0.RAW";
+
+    private final String cursor = CwmsDTOPaginated.encodeCursor(PAGE, 500, 123_456);
+
+    @Benchmark
+    public String encodeCursor() {
+        return CwmsDTOPaginated.encodeCursor(PAGE, 500, 123_456);
+    }
+
+    @Benchmark
+    public String[] decodeCursor() {
+        return CwmsDTOPaginated.decodeCursor(cursor);
+    }
+}
@@ -0,0 +1,65 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.Clob;
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.formatters.BenchmarkAccess;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.OutputFormatter;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.xml.XMLv2;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares formatter lookup and XML formatting with what was done before the formatter
+ * registry and the shared mappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormatterLookupBenchmark {
+    private static final ContentType XMLV2 = new ContentType(Formats.XMLV2);
+
+    private final Clob clob = new Clob("SWT", "TEST/CLOB", "description", "value");
+
+    // how lookups were done before the registry
+    private static OutputFormatter reflectiveLookup(ContentType type,
+                                                    Class<? extends CwmsDTOBase> klass)
+            throws ReflectiveOperationException {
+        OutputFormatter retval = null;
+        for (FormattableWith fw : klass.getAnnotationsByType(FormattableWith.class)) {
+            if (type.equals(new ContentType(fw.contentType()))) {
+                retval = fw.formatter().getDeclaredConstructor().newInstance();
+            }
+        }
+        return retval;
+    }
+
+    @Benchmark
+    public OutputFormatter lookupReflective() throws ReflectiveOperationException {
+        return reflectiveLookup(XMLV2, Clob.class);
+    }
+
+    @Benchmark
+    public OutputFormatter lookupRegistry() {
+        return BenchmarkAccess.registryLookup(XMLV2, Clob.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String xmlFreshMapper() throws Exception {
+        return XMLv2.buildXmlMapper().writeValueAsString(clob);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String xmlSharedMapper() {
+        return Formats.format(XMLV2, clob);
+    }
+}
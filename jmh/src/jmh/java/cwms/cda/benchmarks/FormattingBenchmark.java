@@ -0,0 +1,168 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.Catalog;
+import cwms.cda.data.dto.LocationLevel;
+import cwms.cda.data.dto.LocationLevels;
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.SeasonalValueBean;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesExtents;
+import cwms.cda.data.dto.catalog.CatalogEntry;
+import cwms.cda.data.dto.catalog.TimeseriesCatalogEntry;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Formats the large responses the API returns most, through {@link Formats} the way the
+ * controllers do.
+ * <p>
+ * CSV and TAB only format offices and location groups, so those are measured with a list of
+ * offices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormattingBenchmark {
+    private static final ContentType JSONV2 = new ContentType(Formats.JSONV2);
+    private static final ContentType XMLV2 = new ContentType(Formats.XMLV2);
+    private static final ContentType JSONV1 = new ContentType(Formats.JSON);
+    private static final ContentType XMLV1 = new ContentType(Formats.XML);
+    private static final ContentType CSV = new ContentType(Formats.CSV);
+    private static final ContentType TAB = new ContentType(Formats.TAB);
+
+    private static final ZonedDateTime START =
+            ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private TimeSeries timeSeries;
+    private LocationLevels levels;
+    private Catalog catalog;
+    private List<Office> offices;
+
+    @Setup
+    public void setup() {
+        timeSeries = timeSeries(size);
+        levels = levels(size);
+        catalog = catalog(size);
+        offices = offices(size);
+    }
+
+    static TimeSeries timeSeries(int count) {
+        Duration interval = Duration.ofMinutes(15);
+        ZonedDateTime end = START.plus(interval.multipliedBy(count - 1L));
+        TimeSeries retval = new TimeSeries(null, count, count, "Test.Stage.Inst.15Minutes.0.raw",
+                "SPK", START, end, "ft", interval);
+        for (int i = 0; i < count; i++) {
+            Timestamp time = Timestamp.from(START.plus(interval.multipliedBy(i)).toInstant());
+            retval.addValue(time, 100.0 + (i % 97) / 10.0, 0);
+        }
+        return retval;
+    }
+
+    static LocationLevels levels(int count) {
+        List<LocationLevel> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocationLevel.Builder builder = new LocationLevel.Builder(
+                    "LOC" + (i / 10) + ".Elev.Inst.0.Level" + (i % 10), START.plusDays(i % 30))
+                    .withOfficeId("SPK")
+                    .withLevelUnitsId("ft")
+                    .withLevelComment("benchmark level");
+            if (i % 2 == 0) {
+                builder.withConstantValue(1000.0 + i);
+            } else {
+                builder.withIntervalMonths(12)
+                        .withIntervalOrigin(START)
+                        .withInterpolateString("T");
+                for (int month = 0; month < 12; month++) {
+                    builder.withSeasonalValue(new SeasonalValueBean.Builder(900.0 + month)
+                            .withOffsetMonths(month)
+                            .build());
+                }
+            }
+            list.add(builder.build());
+        }
+        return new LocationLevels.Builder(0, count, count).addAll(list).build();
+    }
+
+    static Catalog catalog(int count) {
+        List<CatalogEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new TimeseriesCatalogEntry.Builder()
+                    .officeId("SPK")
+                    .cwmsTsId("LOC" + i + ".Stage.Inst.15Minutes.0.raw")
+                    .units("ft")
+                    .interval("15Minutes")
+                    .intervalOffset(0L)
+                    .timeZone("UTC")
+                    .withExtent(new TimeSeriesExtents(null, START, START.plusYears(1),
+                            START.plusYears(1)))
+                    .build());
+        }
+        return new Catalog(null, count, count, entries);
+    }
+
+    static List<Office> offices(int count) {
+        List<Office> retval = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            retval.add(new Office("O" + i, "Office number " + i, "DIS", "SPD"));
+        }
+        return retval;
+    }
+
+    @Benchmark
+    public String timeSeriesJsonV2() {
+        return Formats.format(JSONV2, timeSeries);
+    }
+
+    @Benchmark
+    public String timeSeriesXmlV2() {
+        return Formats.format(XMLV2, timeSeries);
+    }
+
+    @Benchmark
+    public String levelsJsonV2() {
+        return Formats.format(JSONV2, levels);
+    }
+
+    @Benchmark
+    public String catalogJsonV2() {
+        return Formats.format(JSONV2, catalog);
+    }
+
+    @Benchmark
+    public String catalogJsonV1() {
+        return Formats.format(JSONV1, catalog);
+    }
+
+    @Benchmark
+    public String catalogXmlV1() {
+        return Formats.format(XMLV1, catalog);
+    }
+
+    @Benchmark
+    public String officesCsv() {
+        return Formats.format(CSV, offices, Office.class);
+    }
+
+    @Benchmark
+    public String officesTab() {
+        return Formats.format(TAB, offices, Office.class);
+    }
+}
@@ -0,0 +1,53 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dao.BenchmarkAccess;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Prefix and substring searches of the in process location index over a district sized set of
+ * ids, and the build of the index a reload does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocationIndexBenchmark {
+    private static final String[] WORDS = {"Lake", "River", "Creek", "Dam", "Outlet", "Gage",
+        "Pool", "Spillway"};
+    private static final int SIZE = 200_000;
+
+    @Param({"^lake_1a", "^Creek_2", "_3f9", "iver_ab.-Gage"})
+    public String idLike;
+
+    private BenchmarkAccess.LocationSearch search;
+
+    @Setup
+    public void setup() {
+        List<String[]> ids = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            ids.add(new String[]{"O" + (i % 40), WORDS[i % WORDS.length] + "_"
+                    + Integer.toString(i, 36) + "-" + WORDS[(i / 7) % WORDS.length]});
+        }
+        search = new BenchmarkAccess.LocationSearch(ids, idLike);
+    }
+
+    @Benchmark
+    public List<Long> find() {
+        return search.find();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int build() {
+        return search.buildSize();
+    }
+}
@@ -0,0 +1,55 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dao.JsonRatingUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.xml.transform.TransformerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Converts a rating between the JSON the API takes and the XML the database stores, and back.
+ * Uses the rating the DAO tests use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RatingConversionBenchmark {
+    private String json;
+    private String xml;
+
+    @Setup
+    public void setup() throws IOException, TransformerException {
+        try (InputStream stream = getClass().getResourceAsStream("/rating.json")) {
+            if (stream == null) {
+                throw new IOException("rating.json is not on the classpath");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            json = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+        xml = JsonRatingUtils.jsonToXml(json);
+    }
+
+    @Benchmark
+    public String jsonToXml() throws IOException, TransformerException {
+        return JsonRatingUtils.jsonToXml(json);
+    }
+
+    @Benchmark
+    public String xmlToJson() throws IOException {
+        return JsonRatingUtils.xmlToJson(xml);
+    }
+}
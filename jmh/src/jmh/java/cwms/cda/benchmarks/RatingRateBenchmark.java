@@ -0,0 +1,53 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dao.BenchmarkAccess;
+import hec.data.RatingException;
+import hec.data.cwmsRating.RatingSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Rates stages to flows, and back, with a cached stage/flow rating the way /ratings/rate does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RatingRateBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private RatingSet ratingSet;
+    private double[] stages;
+    private double[] flows;
+
+    @Setup
+    public void setup() throws Exception {
+        ratingSet = RatingXmlFactory.ratingSet(
+                BenchmarkResources.load("BEAV.Stage_Flow.BASE.PRODUCTION.xml"));
+        Random random = new Random(42);
+        stages = new double[size];
+        for (int i = 0; i < size; i++) {
+            stages[i] = 2.0 + 8.0 * random.nextDouble();
+        }
+        flows = BenchmarkAccess.rate(ratingSet, stages);
+    }
+
+    @Benchmark
+    public double[] rate() throws RatingException {
+        return BenchmarkAccess.rate(ratingSet, stages);
+    }
+
+    @Benchmark
+    public double[] reverseRate() throws RatingException {
+        return BenchmarkAccess.reverseRate(ratingSet, flows);
+    }
+}
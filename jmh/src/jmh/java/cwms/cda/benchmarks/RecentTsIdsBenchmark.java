@@ -0,0 +1,41 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.api.TimeSeriesRecentController;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Splits the ts-ids parameter of /timeseries/recent, which dashboards send with every poll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecentTsIdsBenchmark {
+
+    @Param({"10", "200"})
+    public int count;
+
+    private String tsIds;
+
+    @Setup
+    public void setup() {
+        tsIds = IntStream.range(0, count)
+                .mapToObj(i -> "\"LOC" + i + ".Stage.Inst.15Minutes.0.raw\"")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    @Benchmark
+    public List<String> getTsIds() {
+        return TimeSeriesRecentController.getTsIds(tsIds);
+    }
+}
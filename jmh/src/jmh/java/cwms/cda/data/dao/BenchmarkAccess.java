@@ -0,0 +1,66 @@
+package cwms.cda.data.dao;
+
+import hec.data.RatingException;
+import hec.data.cwmsRating.RatingSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens the package private parts of the DAO package that cwms.cda.benchmarks measures.  Only
+ * part of the jmh source set.
+ */
+public final class BenchmarkAccess {
+    private BenchmarkAccess() {
+    }
+
+    public static double[] rate(RatingSet ratingSet, double[] values) throws RatingException {
+        return RatingSetDao.rate(ratingSet, null, null, new double[][]{values});
+    }
+
+    public static double[] reverseRate(RatingSet ratingSet, double[] values)
+            throws RatingException {
+        return RatingSetDao.reverseRate(ratingSet, null, null, values);
+    }
+
+    /**
+     * A location index over a fixed set of ids, searched for one id expression.
+     */
+    public static final class LocationSearch {
+        private final List<LocationIndex.Entry> entries;
+        private final LocationIndex index = new LocationIndex(5, TimeUnit.MINUTES, 1000);
+        private final LocationIndex.Contents contents;
+        private final LocationIndex.Query query;
+
+        public LocationSearch(List<String[]> officesAndIds, String idLike) {
+            entries = new ArrayList<>(officesAndIds.size());
+            for (int i = 0; i < officesAndIds.size(); i++) {
+                String[] officeAndId = officesAndIds.get(i);
+                entries.add(new LocationIndex.Entry(officeAndId[0], officeAndId[1], i, "SITE",
+                        null, null));
+            }
+            contents = build();
+            query = LocationIndex.Query.of(null, idLike, null, null, null);
+            if (query == null) {
+                throw new IllegalArgumentException("The index can't answer " + idLike);
+            }
+        }
+
+        /**
+         * Builds the contents of the index from the ids, as a reload does.
+         */
+        public int buildSize() {
+            return build().size();
+        }
+
+        private LocationIndex.Contents build() {
+            LocationIndex.Builder builder = new LocationIndex.Builder();
+            entries.forEach(builder::add);
+            return builder.build();
+        }
+
+        public List<Long> find() {
+            return index.find(query, () -> contents);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package cwms.cda.formatters;
+
+import cwms.cda.data.dto.CwmsDTOBase;
+
+/**
+ * Opens the package private parts of the formatters package that cwms.cda.benchmarks
+ * measures.  Only part of the jmh source set.
+ */
+public final class BenchmarkAccess {
+    private BenchmarkAccess() {
+    }
+
+    public static OutputFormatter registryLookup(ContentType type,
+                                                 Class<? extends CwmsDTOBase> klass) {
+        return FormatterRegistry.get(type, klass);
+    }
+}